@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package benchmarks;
+
+import memory.IEnvironment;
+import org.openjdk.jmh.annotations.*;
+import solver.Cause;
+import solver.Solver;
+import solver.exception.ContradictionException;
+import solver.variables.IntVar;
+import solver.variables.VF;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the domain representations of integer variables on basic operations,
+ * each one run in a world of its own.
+ * <p/>
+ * "enumerated" stands for {@link solver.variables.impl.BitsetIntVarImpl},
+ * "bounded" for {@link solver.variables.impl.IntervalIntVarImpl}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DomainBenchmark {
+
+    @Param({"enumerated", "bounded"})
+    public String domain;
+
+    @Param({"64", "4096"})
+    public int size;
+
+    private IEnvironment env;
+
+    private IntVar var;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Solver solver = new Solver("domain");
+        switch (domain) {
+            case "enumerated":
+                var = VF.enumerated("x", 0, size - 1, solver);
+                break;
+            case "bounded":
+                var = VF.bounded("x", 0, size - 1, solver);
+                break;
+            default:
+                throw new IllegalArgumentException(domain);
+        }
+        env = solver.getEnvironment();
+    }
+
+    @Benchmark
+    public int removeValues() throws ContradictionException {
+        env.worldPush();
+        for (int v = 1; v < size - 1; v += 2) {
+            var.removeValue(v, Cause.Null);
+        }
+        int s = var.getDomainSize();
+        env.worldPop();
+        return s;
+    }
+
+    @Benchmark
+    public int shrinkBounds() throws ContradictionException {
+        env.worldPush();
+        while (!var.isInstantiated()) {
+            var.updateLowerBound(var.getLB() + 1, Cause.Null);
+            if (!var.isInstantiated()) {
+                var.updateUpperBound(var.getUB() - 1, Cause.Null);
+            }
+        }
+        int v = var.getValue();
+        env.worldPop();
+        return v;
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        int ub = var.getUB();
+        for (int v = var.getLB(); v <= ub; v = var.nextValue(v)) {
+            sum += v;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int contains() {
+        int count = 0;
+        for (int v = 0; v < size; v++) {
+            if (var.contains(v)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package benchmarks;
+
+import memory.Environments;
+import org.openjdk.jmh.annotations.*;
+import samples.AbstractProblem;
+import solver.Solver;
+import solver.propagation.DSLEngine;
+import solver.propagation.IPropagationEngine;
+import solver.propagation.generator.Arc;
+import solver.propagation.generator.Queue;
+import solver.propagation.hardcoded.SevenQueuesPropagatorEngine;
+import solver.propagation.hardcoded.TwoBucketPropagationEngine;
+
+import java.util.ArrayList;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the propagation engines on the samples.
+ * <p/>
+ * The model is built in the setup, only the resolution is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"TWO_BUCKETS", "SEVEN_QUEUES", "DSL_ARC_QUEUE"})
+    public String engine;
+
+    @Param({"GOLOMB_10", "QUEENS_BINARY_60", "CUMULATIVE"})
+    public Instance instance;
+
+    private AbstractProblem problem;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        problem = instance.prepare(Environments.DEFAULT);
+        problem.getSolver().set(makeEngine(problem.getSolver()));
+    }
+
+    private IPropagationEngine makeEngine(Solver solver) {
+        switch (engine) {
+            case "TWO_BUCKETS":
+                return new TwoBucketPropagationEngine(solver);
+            case "SEVEN_QUEUES":
+                return new SevenQueuesPropagatorEngine(solver);
+            case "DSL_ARC_QUEUE":
+                // a DSLEngine needs a strategy: one queue over all the arcs
+                DSLEngine dsl = new DSLEngine(solver);
+                ArrayList<Arc> arcs = Arc.populate(solver);
+                for (Arc arc : arcs) {
+                    dsl.declareArc(arc);
+                }
+                dsl.set(new Queue<>(arcs.toArray(new Arc[arcs.size()])));
+                return dsl;
+            default:
+                throw new IllegalArgumentException(engine);
+        }
+    }
+
+    @Benchmark
+    public long solve() {
+        problem.solve();
+        return problem.getSolver().getMeasures().getNodeCount();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import solver.Solver;
+import solver.constraints.ICF;
+import solver.explanations.ArrayExplanationEngine;
+import solver.explanations.FlattenedRecorderExplanationEngine;
+import solver.explanations.strategies.ConflictBasedBackjumping;
+import solver.search.loop.monitors.SMF;
+import solver.search.strategy.ISF;
+import solver.variables.IntVar;
+import solver.variables.VF;
+import util.tools.ArrayUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares explanation engines under conflict-based backjumping, on a pigeon-hole problem possibly extended
+ * with a chain of variables, explored up to a node limit.
+ * <p/>
+ * Run it with <code>-prof gc</code> to compare allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExplanationBenchmark {
+
+    private static final long NODES = 20000;
+
+    @Param({"flattened", "array"})
+    public String engine;
+
+    @Param({"0", "100"})
+    public int chain;
+
+    private Solver solver;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        solver = new Solver("explanation");
+        switch (engine) {
+            case "flattened":
+                solver.set(new FlattenedRecorderExplanationEngine(solver));
+                break;
+            case "array":
+                solver.set(new ArrayExplanationEngine(solver));
+                break;
+            default:
+                throw new IllegalArgumentException(engine);
+        }
+        new ConflictBasedBackjumping(solver.getExplainer());
+        Random rnd = new Random(0);
+        // an unsatisfiable pigeon-hole core, explored up to the node limit
+        int n = 10;
+        IntVar[] vars = VF.enumeratedArray("p", n, 0, n - 2, solver);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                solver.post(ICF.arithm(vars[i], "!=", vars[j]));
+            }
+        }
+        if (chain > 0) {
+            // a chain of variables with larger domains, interleaved in the search
+            IntVar[] ys = VF.enumeratedArray("y", chain, 0, 2 * chain - 1, solver);
+            for (int i = 0; i < chain - 1; i++) {
+                solver.post(ICF.arithm(ys[i], "<", ys[i + 1]));
+            }
+            vars = ArrayUtils.append(vars, ys);
+        }
+        solver.set(ISF.random(vars, rnd.nextLong()));
+        SMF.limitNode(solver, NODES);
+    }
+
+    @Benchmark
+    public long solve() {
+        solver.findSolution();
+        return solver.getMeasures().getNodeCount();
+    }
+}
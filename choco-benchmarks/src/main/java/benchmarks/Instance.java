@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package benchmarks;
+
+import memory.Environments;
+import samples.AbstractProblem;
+import samples.integer.CumulativeSample;
+import samples.integer.GolombRuler;
+import samples.nqueen.NQueenBinary;
+import solver.Solver;
+import solver.SolverProperties;
+
+/**
+ * Reproducible instances taken from choco-samples.
+ * <p/>
+ * Each instance can be built on top of a given environment; the model, the search and the resolution
+ * are the ones of the sample.
+ */
+public enum Instance {
+
+    GOLOMB_10("-m", "10") {
+        @Override
+        AbstractProblem create(final Environments environment) {
+            return new GolombRuler() {
+                @Override
+                public void createSolver() {
+                    solver = new Solver(environment.make(), "Golomb Ruler", SolverProperties.DEFAULT);
+                }
+            };
+        }
+    },
+    QUEENS_BINARY_60("-q", "60") {
+        @Override
+        AbstractProblem create(final Environments environment) {
+            return new NQueenBinary() {
+                @Override
+                public void createSolver() {
+                    solver = new Solver(environment.make(), "NQueen", SolverProperties.DEFAULT);
+                }
+            };
+        }
+    },
+    CUMULATIVE() {
+        @Override
+        AbstractProblem create(final Environments environment) {
+            return new CumulativeSample() {
+                @Override
+                public void createSolver() {
+                    solver = new Solver(environment.make(), "Cumulative example: makespan minimisation",
+                            SolverProperties.DEFAULT);
+                }
+            };
+        }
+    };
+
+    private final String[] args;
+
+    Instance(String... args) {
+        this.args = args;
+    }
+
+    abstract AbstractProblem create(Environments environment);
+
+    /**
+     * Creates the sample, builds its model and configures its search, without solving it.
+     *
+     * @param environment backtracking environment of the solver
+     * @return the sample, ready to be solved
+     */
+    public AbstractProblem prepare(Environments environment) {
+        AbstractProblem pb = create(environment);
+        if (!pb.readArgs(args)) {
+            throw new IllegalArgumentException(name());
+        }
+        pb.createSolver();
+        pb.buildModel();
+        pb.configureSearch();
+        return pb;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.constraints.ICF;
+import solver.constraints.extension.Tuples;
+import solver.constraints.extension.nary.IterTuplesTable;
+import solver.constraints.extension.nary.LargeRelation;
+import solver.constraints.extension.nary.MultivaluedDecisionDiagram;
+import solver.constraints.extension.nary.TuplesList;
+import solver.search.loop.monitors.SMF;
+import solver.search.strategy.ISF;
+import solver.variables.IntVar;
+import solver.variables.Task;
+import solver.variables.VF;
+import util.tools.ArrayUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures key propagators on seeded instances, under a node limit so that each run explores
+ * the same search tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PropagatorBenchmark {
+
+    private static final long NODES = 20000;
+
+    public enum Model {
+        /**
+         * Latin square whose rows and columns are {@link solver.constraints.nary.alldifferent.PropAllDiffAC_Fast}.
+         */
+        ALLDIFF_AC {
+            @Override
+            IntVar build(Solver solver, Random rnd) {
+                int n = 12;
+                IntVar[][] rows = VF.enumeratedMatrix("x", n, n, 0, n - 1, solver);
+                IntVar[][] cols = ArrayUtils.transpose(rows);
+                for (int i = 0; i < n; i++) {
+                    solver.post(ICF.alldifferent(rows[i], "AC"));
+                    solver.post(ICF.alldifferent(cols[i], "AC"));
+                }
+                solver.set(ISF.random(ArrayUtils.flatten(rows), rnd.nextLong()));
+                return null;
+            }
+        },
+        /**
+         * Overlapping {@link solver.constraints.nary.sum.PropSumEq}.
+         */
+        SUM_EQ {
+            @Override
+            IntVar build(Solver solver, Random rnd) {
+                int n = 30;
+                IntVar[] vars = VF.enumeratedArray("x", n, 0, 9, solver);
+                for (int k = 0; k < 5; k++) {
+                    IntVar[] scope = new IntVar[n / 2];
+                    for (int i = 0; i < scope.length; i++) {
+                        scope[i] = vars[(k * 3 + i) % n];
+                    }
+                    solver.post(ICF.sum(scope, VF.fixed(4 * scope.length + k, solver)));
+                }
+                solver.set(ISF.random(vars, rnd.nextLong()));
+                return null;
+            }
+        },
+        /**
+         * Makespan minimisation with {@link solver.constraints.nary.cumulative.PropFullCumulative}.
+         */
+        FULL_CUMULATIVE {
+            @Override
+            IntVar build(Solver solver, Random rnd) {
+                int n = 20;
+                int max = 1000;
+                IntVar capa = VF.fixed(6, solver);
+                IntVar makespan = VF.bounded("makespan", 0, max, solver);
+                IntVar[] start = VF.boundedArray("start", n, 0, max, solver);
+                IntVar[] end = new IntVar[n];
+                IntVar[] height = new IntVar[n];
+                Task[] task = new Task[n];
+                for (int i = 0; i < n; i++) {
+                    IntVar duration = VF.fixed(rnd.nextInt(20) + 1, solver);
+                    height[i] = VF.fixed(rnd.nextInt(5) + 1, solver);
+                    end[i] = VF.offset(start[i], duration.getValue());
+                    task[i] = new Task(start[i], duration, end[i]);
+                }
+                solver.post(ICF.cumulative(task, height, capa, false));
+                solver.post(ICF.maximum(makespan, end));
+                solver.set(ISF.firstFail_InDomainMin(start));
+                return makespan;
+            }
+        },
+        /**
+         * Random positive tables with {@link solver.constraints.extension.nary.PropLargeGAC3rmPositive}.
+         */
+        TABLE_GAC3RM {
+            @Override
+            IntVar build(Solver solver, Random rnd) {
+                return tables(solver, rnd, "AC32");
+            }
+        },
+        TABLE_CT {
+            @Override
+            IntVar build(Solver solver, Random rnd) {
+                return tables(solver, rnd, "CT");
+            }
+        },
+        TABLE_MDD {
+            @Override
+            IntVar build(Solver solver, Random rnd) {
+                return tables(solver, rnd, "MDD");
+            }
+        };
+
+        /**
+         * Builds the model in <code>solver</code> and configures its search.
+         *
+         * @return the variable to minimize, or <code>null</code> to enumerate solutions
+         */
+        abstract IntVar build(Solver solver, Random rnd);
+    }
+
+    /**
+     * Overlapping random tables of arity 5, filtered with ALGORITHM.
+     */
+    private static IntVar tables(Solver solver, Random rnd, String algorithm) {
+        int n = 8;
+        int arity = 5;
+        int d = 8;
+        IntVar[] vars = VF.enumeratedArray("x", n, 0, d - 1, solver);
+        int[] offsets = new int[arity];
+        int[] sizes = new int[arity];
+        Arrays.fill(sizes, d);
+        for (int k = 0; k < n - arity + 1; k++) {
+            List<int[]> tuples = new ArrayList<>();
+            for (int t = 0; t < 10000; t++) {
+                int[] tuple = new int[arity];
+                for (int i = 0; i < arity; i++) {
+                    tuple[i] = rnd.nextInt(d);
+                }
+                tuples.add(tuple);
+            }
+            IntVar[] scope = Arrays.copyOfRange(vars, k, k + arity);
+            if (algorithm.equals("MDD")) {
+                Tuples relation = new Tuples();
+                relation.add(tuples.toArray(new int[tuples.size()][]));
+                solver.post(ICF.mddc(scope, new MultivaluedDecisionDiagram(scope, relation)));
+            } else {
+                LargeRelation relation = algorithm.equals("CT") ? new TuplesList(tuples) : new IterTuplesTable(tuples, offsets, sizes);
+                solver.post(ICF.table(scope, relation, algorithm));
+            }
+        }
+        solver.set(ISF.random(vars, rnd.nextLong()));
+        return null;
+    }
+
+    @Param({"ALLDIFF_AC", "SUM_EQ", "FULL_CUMULATIVE", "TABLE_GAC3RM", "TABLE_CT", "TABLE_MDD"})
+    public Model model;
+
+    private Solver solver;
+
+    private IntVar objective;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        solver = new Solver(model.name());
+        objective = model.build(solver, new Random(0));
+        SMF.limitNode(solver, NODES);
+    }
+
+    @Benchmark
+    public long solve() {
+        if (objective == null) {
+            solver.findAllSolutions();
+        } else {
+            solver.findOptimalSolution(ResolutionPolicy.MINIMIZE, objective);
+        }
+        return solver.getMeasures().getNodeCount();
+    }
+}
@@ -37,8 +37,8 @@ import memory.structure.S64BitSet;
  */
 public abstract class AbstractEnvironment implements IEnvironment {
 
-    protected enum Type {
-        FLAT, CHUNK, UNSAFE
+    public enum Type {
+        FLAT, CHUNK, UNSAFE, SEGMENT
     }
 
     protected final Type type;
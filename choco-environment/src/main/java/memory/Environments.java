@@ -44,6 +44,20 @@ public enum Environments {
                     new EnvironmentTrailing();
         }
     },
+    TRAIL_UNSAFE() {
+        @Override
+        public IEnvironment make() {
+            return
+                    new EnvironmentTrailing(AbstractEnvironment.Type.UNSAFE);
+        }
+    },
+    TRAIL_SEGMENT() {
+        @Override
+        public IEnvironment make() {
+            return
+                    new EnvironmentTrailing(AbstractEnvironment.Type.SEGMENT);
+        }
+    },
     COPY() {
         @Override
         public IEnvironment make() {
@@ -33,6 +33,7 @@ import memory.structure.Operation;
 import memory.trailing.trail.*;
 import memory.trailing.trail.chunck.*;
 import memory.trailing.trail.flatten.*;
+import memory.trailing.trail.segment.*;
 import memory.trailing.trail.unsafe.UnsafeBoolTrail;
 import memory.trailing.trail.unsafe.UnsafeDoubleTrail;
 import memory.trailing.trail.unsafe.UnsafeIntTrail;
@@ -78,13 +79,27 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
     private ITrailStorage[] trails;
     private int trailSize;
 
+    /**
+     * Deepest world reached so far.
+     */
+    private int maxWorldIndex;
+
     /**
      * Constructs a new <code>IEnvironment</code> with
      * the default stack sizes : 50000 and 1000.
      */
 
     public EnvironmentTrailing() {
-        super(Type.CHUNK);
+        this(Type.CHUNK);
+    }
+
+    /**
+     * Constructs a new <code>IEnvironment</code> relying on the given kind of trails.
+     *
+     * @param type data structure backing the trails
+     */
+    public EnvironmentTrailing(Type type) {
+        super(type);
         trails = new ITrailStorage[0];
         trailSize = 0;
     }
@@ -100,6 +115,9 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
             trails[i].worldPush(wi);
         }
         currentWorld++;
+        if (wi > maxWorldIndex) {
+            maxWorldIndex = wi;
+        }
         if (wi == maxWorld - 1) {
             resizeWorldCapacity(maxWorld * 3 / 2);
         }
@@ -226,6 +244,9 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
                 case UNSAFE:
                     intTrail = new UnsafeIntTrail(MaxHist, maxWorld);
                     break;
+                case SEGMENT:
+                    intTrail = new SegmentIntTrail(MaxHist, maxWorld);
+                    break;
             }
             increaseTrail();
             trails[trailSize++] = intTrail;
@@ -245,6 +266,9 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
                 case UNSAFE:
                     longTrail = new UnsafeLongTrail(MaxHist, maxWorld);
                     break;
+                case SEGMENT:
+                    longTrail = new SegmentLongTrail(MaxHist, maxWorld);
+                    break;
             }
 
             increaseTrail();
@@ -265,6 +289,9 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
                 case UNSAFE:
                     boolTrail = new UnsafeBoolTrail(MaxHist, maxWorld);
                     break;
+                case SEGMENT:
+                    boolTrail = new SegmentBoolTrail(MaxHist, maxWorld);
+                    break;
             }
 
             increaseTrail();
@@ -285,6 +312,9 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
                 case UNSAFE:
                     doubleTrail = new UnsafeDoubleTrail(MaxHist, maxWorld);
                     break;
+                case SEGMENT:
+                    doubleTrail = new SegmentDoubleTrail(MaxHist, maxWorld);
+                    break;
             }
             increaseTrail();
             trails[trailSize++] = doubleTrail;
@@ -302,6 +332,9 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
                 case UNSAFE:
                     operationTrail = new OperationChunckTrail(MaxHist, maxWorld);
                     break;
+                case SEGMENT:
+                    operationTrail = new SegmentOperationTrail(MaxHist, maxWorld);
+                    break;
             }
             increaseTrail();
             trails[trailSize++] = operationTrail;
@@ -332,6 +365,35 @@ public final class EnvironmentTrailing extends AbstractEnvironment {
         return doubleVectorTrail;
     }
 
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // METRICS                                                                                                        //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the number of entries currently stored over all the trails.
+     */
+    public long getTrailSize() {
+        long size = 0;
+        for (int i = 0; i < trailSize; i++) {
+            size += trails[i].getSize();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the deepest world index reached since the creation of the environment.
+     */
+    public int getMaxWorldIndex() {
+        return maxWorldIndex;
+    }
+
+    /**
+     * Returns the number of worlds the trails can currently handle without resizing.
+     */
+    public int getWorldCapacity() {
+        return maxWorld;
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     private void resizeWorldCapacity(final int newWorldCapacity) {
@@ -43,4 +43,9 @@ public interface ITrailStorage extends IStorage {
      */
     void resizeWorldCapacity(int newWorldCapacity);
 
+    /**
+     * Returns the current number of entries stored in the trail.
+     */
+    int getSize();
+
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package memory.trailing.trail.segment;
+
+import memory.trailing.StoredBool;
+import memory.trailing.trail.IStoredBoolTrail;
+
+/**
+ * Storage of historical values for backtrackable booleans, made of linked fixed-size segments.
+ * <p/>
+ * The trail grows by appending a new segment, the former ones are never copied.
+ * Segments are kept once allocated and reused on the next descent, so deep searches do not
+ * generate garbage. A backtrack restores a whole segment at a
+ * time.
+ *
+ * @see memory.IStorage
+ */
+public class SegmentBoolTrail implements IStoredBoolTrail {
+
+    private static final int SEGMENT_SIZE = 1 << 13;
+
+    private static final class Segment {
+        final StoredBool[] variables = new StoredBool[SEGMENT_SIZE];
+        final boolean[] values = new boolean[SEGMENT_SIZE];
+        final int[] stamps = new int[SEGMENT_SIZE];
+        final Segment previous;
+        Segment next;
+
+        Segment(Segment previous) {
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * Segment currently filled.
+     */
+    private Segment current;
+
+    /**
+     * Absolute position of the first entry of the current segment.
+     */
+    private int offset;
+
+    /**
+     * Next free entry in the current segment.
+     */
+    private int nextTop;
+
+    /**
+     * Absolute position of the trail at the beginning of each world.
+     */
+    private int[] worldStarts;
+
+
+    /**
+     * Constructs a trail with predefined size.
+     *
+     * @param nUpdates ignored, segments are allocated on demand
+     * @param nWorlds  maximal number of worlds that will be stored
+     */
+    public SegmentBoolTrail(int nUpdates, int nWorlds) {
+        current = new Segment(null);
+        offset = nextTop = 0;
+        worldStarts = new int[nWorlds];
+    }
+
+    @Override
+    public void worldPush(int worldIndex) {
+        worldStarts[worldIndex] = offset + nextTop;
+    }
+
+    @Override
+    public void worldPop(int worldIndex) {
+        final int target = worldStarts[worldIndex];
+        while (offset > target) {
+            restore(current, nextTop, 0);
+            current = current.previous;
+            offset -= SEGMENT_SIZE;
+            nextTop = SEGMENT_SIZE;
+        }
+        final int to = target - offset;
+        restore(current, nextTop, to);
+        nextTop = to;
+    }
+
+    private static void restore(Segment segment, int from, int to) {
+        final StoredBool[] cvar = segment.variables;
+        final boolean[] cval = segment.values;
+        final int[] cstmp = segment.stamps;
+        for (int i = from - 1; i >= to; i--) {
+            cvar[i]._set(cval[i], cstmp[i]);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return offset + nextTop;
+    }
+
+    @Override
+    public void worldCommit(int worldIndex) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void savePreviousState(StoredBool v, boolean oldValue, int oldStamp) {
+        if (nextTop == SEGMENT_SIZE) {
+            nextSegment();
+        }
+        current.variables[nextTop] = v;
+        current.values[nextTop] = oldValue;
+        current.stamps[nextTop] = oldStamp;
+        nextTop++;
+    }
+
+    private void nextSegment() {
+        if (current.next == null) {
+            current.next = new Segment(current);
+        }
+        current = current.next;
+        offset += SEGMENT_SIZE;
+        nextTop = 0;
+    }
+
+    @Override
+    public void resizeWorldCapacity(int newWorldCapacity) {
+        int[] tmp = new int[newWorldCapacity];
+        System.arraycopy(worldStarts, 0, tmp, 0, worldStarts.length);
+        worldStarts = tmp;
+    }
+}
@@ -226,7 +226,7 @@ public class UnsafeBoolTrail implements IStoredBoolTrail {
     protected void finalize() throws Throwable {
         super.finalize();
         final int c = chunks[0];
-        for (int cc = valueStack.length; cc >= c; cc--) {
+        for (int cc = valueStack.length - 1; cc >= c; cc--) {
             unsafe.freeMemory(valueStack[cc]);
             unsafe.freeMemory(stampStack[cc]);
         }
@@ -108,6 +108,10 @@ public enum Configuration {
     // Set to true to print scheduling information
     public static final boolean PRINT_SCHEDULE = Boolean.parseBoolean(properties.getProperty("PRINT_SCHEDULE"));
 
+    // Set to true to measure, for each propagator, the time spent in filtering, the domain reductions and the failures
+    // (only the two-bucket engines are instrumented, see LogPropagationProfile)
+    public static final boolean PROFILE_PROPAGATION = Boolean.parseBoolean(properties.getProperty("PROFILE_PROPAGATION"));
+
     public enum MOVP {
         disabled, //throws an error when a variable occurs more than once
         silent, // do not do anything
@@ -31,6 +31,7 @@ import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import solver.Solver;
 import solver.constraints.binary.*;
+import solver.constraints.extension.Tuples;
 import solver.constraints.extension.binary.BinRelation;
 import solver.constraints.extension.binary.PropBinAC2001;
 import solver.constraints.extension.nary.*;
@@ -52,6 +53,7 @@ import solver.constraints.nary.channeling.PropInverseChannelBC;
 import solver.constraints.nary.circuit.*;
 import solver.constraints.nary.count.PropCount_AC;
 import solver.constraints.nary.cumulative.Cumulative;
+import solver.constraints.nary.disjunctive.PropDisjunctive;
 import solver.constraints.nary.element.PropElementV_fast;
 import solver.constraints.nary.globalcardinality.GlobalCardinality;
 import solver.constraints.nary.lex.PropLex;
@@ -68,6 +70,7 @@ import solver.constraints.nary.tree.PropKLoops;
 import solver.constraints.ternary.*;
 import solver.constraints.unary.Member;
 import solver.constraints.unary.NotMember;
+import solver.exception.SolverException;
 import solver.variables.*;
 import util.tools.ArrayUtils;
 import util.tools.StringUtils;
@@ -628,9 +631,44 @@ public class IntConstraintFactory {
 		return new Cumulative(TASKS,HEIGHTS,CAPACITY,INCREMENTAL,filters);
 	}
 
+	/**
+	 * Disjunctive constraint: Enforces that the tasks do not overlap (unary resource).
+	 * Relies on overload checking, detectable precedences, not-first/not-last and edge-finding.
+	 *
+	 * @param TASKS TASK objects containing start, duration and end variables
+	 * @return a disjunctive constraint
+	 */
+	public static Constraint disjunctive(Task[] TASKS) {
+		return disjunctive(TASKS, null);
+	}
+
+	/**
+	 * Disjunctive constraint: Enforces that the tasks which are performed do not overlap (unary resource).
+	 * Relies on overload checking, detectable precedences, not-first/not-last and edge-finding.
+	 * Optional tasks are not filtered, but they are set as not performed when they cannot fit on the resource.
+	 *
+	 * @param TASKS     TASK objects containing start, duration and end variables
+	 * @param PERFORMED boolean variables indicating whether each task is performed (null if all tasks are performed)
+	 * @return a disjunctive constraint
+	 */
+	public static Constraint disjunctive(Task[] TASKS, BoolVar[] PERFORMED) {
+		int n = TASKS.length;
+		IntVar[] starts = new IntVar[n];
+		IntVar[] durations = new IntVar[n];
+		IntVar[] ends = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = TASKS[i].getStart();
+			durations[i] = TASKS[i].getDuration();
+			ends[i] = TASKS[i].getEnd();
+		}
+		return new Constraint("Disjunctive", new PropDisjunctive(starts, durations, ends, PERFORMED));
+	}
+
 	/**
      * Constrains each rectangle<sub>i</sub>, given by their origins X<sub>i</sub>,Y<sub>i</sub>
      * and sizes WIDTH<sub>i</sub>,HEIGHT<sub>i</sub>, to be non-overlapping.
+     * The pairs of rectangles which may overlap are detected with the PAIRWISE algorithm
+     * (see {@link #diffn(IntVar[], IntVar[], IntVar[], IntVar[], boolean, String)}).
      *
      * @param X      collection of coordinates in first dimension
      * @param Y      collection of coordinates in second dimension
@@ -640,11 +678,44 @@ public class IntConstraintFactory {
      * @return a non-overlapping constraint
      */
     public static Constraint[] diffn(IntVar[] X, IntVar[] Y, IntVar[] WIDTH, IntVar[] HEIGHT, boolean USE_CUMUL) {
+        return diffn(X, Y, WIDTH, HEIGHT, USE_CUMUL, "PAIRWISE");
+    }
+
+	/**
+     * Constrains each rectangle<sub>i</sub>, given by their origins X<sub>i</sub>,Y<sub>i</sub>
+     * and sizes WIDTH<sub>i</sub>,HEIGHT<sub>i</sub>, to be non-overlapping.
+     * <p/>
+     * Algorithms to detect the pairs of rectangles which may overlap, on full propagations:
+     * <br/>
+     * <b>PAIRWISE</b>: each pair of rectangles is checked, in O(n<sup>2</sup>),
+     * <br/>
+     * <b>SWEEP</b>: a sweep along the first dimension, the ranges in the second dimension of the rectangles
+     * met by the sweep line being indexed in a segment tree, in O((n + k).log(n)) where k is the number of pairs
+     * which may overlap. Advised for large numbers of rectangles.
+     *
+     * @param X         collection of coordinates in first dimension
+     * @param Y         collection of coordinates in second dimension
+     * @param WIDTH     collection of width (each duration should be > 0)
+     * @param HEIGHT    collection of height (each height should be >= 0)
+	 * @param USE_CUMUL indicates whether or not redundant cumulative constraints should be put on each dimension (advised)
+     * @param ALGORITHM to choose among {"PAIRWISE", "SWEEP"}
+     * @return a non-overlapping constraint
+     */
+    public static Constraint[] diffn(IntVar[] X, IntVar[] Y, IntVar[] WIDTH, IntVar[] HEIGHT, boolean USE_CUMUL,
+                                     String ALGORITHM) {
         Solver solver = X[0].getSolver();
+        boolean sweep;
+        switch (ALGORITHM) {
+            case "SWEEP":
+                sweep = true;break;
+            default:
+            case "PAIRWISE":
+                sweep = false;
+        }
         Constraint diffNCons = new Constraint(
 				"DiffN",
-				new PropDiffN(X, Y, WIDTH, HEIGHT, false),
-				new PropDiffN(X, Y, WIDTH, HEIGHT, false)
+				new PropDiffN(X, Y, WIDTH, HEIGHT, false, sweep),
+				new PropDiffN(X, Y, WIDTH, HEIGHT, false, sweep)
 		);
 		if(USE_CUMUL){
 			IntVar[] EX = new IntVar[X.length];
@@ -848,6 +919,21 @@ public class IntConstraintFactory {
 		return new Constraint("Lex(<=)",new PropLex(VARS1, VARS2, false));
     }
 
+    /**
+     * Enforces the sequence of VARS to be a path of MDD, a multi-valued decision diagram
+     * compiled from tuples or from an automaton.
+     * The same MDD can be used for different constraints.
+     *
+     * @param VARS sequence of variables
+     * @param MDD  a multi-valued decision diagram with one layer per variable
+     */
+    public static Constraint mddc(IntVar[] VARS, MultivaluedDecisionDiagram MDD) {
+        if (MDD.getNbLayers() != VARS.length) {
+            throw new SolverException("The MDD does not have one layer per variable");
+        }
+        return new Constraint("MDDc", new PropMDD(VARS, MDD));
+    }
+
     /**
      * MAX is the maximum value of the collection of domain variables VARS
      *
@@ -1141,17 +1227,26 @@ public class IntConstraintFactory {
      * <br/>
      * <b>AC32</b>: Arc Consistency version 32,
      * <br/>
-     * <b>FC</b>: Forward Checking.
+     * <b>FC</b>: Forward Checking,
+     * <br/>
+     * <b>CT</b>: Compact-Table, the relation must be a list of allowed tuples ({@link TuplesList}).
      *
      * @param VARS      first variable
      * @param RELATION  the relation between the two variables
-     * @param ALGORITHM to choose among {"AC2001", "AC32", "FC"}
+     * @param ALGORITHM to choose among {"AC2001", "AC32", "FC", "CT"}
      */
     public static Constraint table(IntVar[] VARS, LargeRelation RELATION, String ALGORITHM) {
 		Propagator p;
 		switch (ALGORITHM) {
 			case "FC":
 				p = new PropLargeCSP(VARS, RELATION);break;
+			case "CT":
+				if (!(RELATION instanceof TuplesList)) {
+					throw new SolverException("CT requires a list of allowed tuples");
+				}
+				Tuples tuples = new Tuples(true);
+				tuples.add(((TuplesList) RELATION).getTupleTable());
+				p = new PropCompactTable(VARS, tuples);break;
 			case "AC2001":
 				p = new PropLargeGAC2001Positive(VARS, (IterTuplesTable) RELATION);break;
 			default:
@@ -1161,6 +1256,20 @@ public class IntConstraintFactory {
         return new Constraint("LargeCSP",p);
     }
 
+    /**
+     * Create a table constraint over VARS, filtered with Compact-Table.
+     * <p/>
+     * TUPLES are either allowed or forbidden combinations of values, and may contain a universal value
+     * (see {@link Tuples#setUniversalValue(int)}) standing for any value of the corresponding variable.
+     *
+     * @param VARS   variables forming the tuples
+     * @param TUPLES the relation between the variables
+     */
+    public static Constraint table(IntVar[] VARS, Tuples TUPLES) {
+        Propagator p = TUPLES.isFeasible() ? new PropCompactTable(VARS, TUPLES) : new PropCompactTableNeg(VARS, TUPLES);
+        return new Constraint("Table", p);
+    }
+
     /**
      * Partition succs variables into nbArbo (anti) arborescences
      * <p/> vars[i] = offset+j means that j is the successor of i.
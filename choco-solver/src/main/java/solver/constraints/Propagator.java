@@ -109,6 +109,7 @@ public abstract class Propagator<V extends Variable> implements Serializable, IC
     private Operation[] operations; // propagator state operations
     private int nbPendingEvt = 0;   // counter of enqued records -- usable as trigger for complex algorithm
     public long fineERcalls, coarseERcalls;  // statistics of calls to filter
+    public long propagationTime, nbReductions, nbFails; // profiling statistics, see Configuration.PROFILE_PROPAGATION
     protected Propagator aCause; // cause of variable modifications. The default value is 'this"
     protected final PropagatorPriority priority;
     protected final boolean reactToFineEvt;
@@ -274,6 +275,31 @@ public abstract class Propagator<V extends Variable> implements Serializable, IC
         return EventType.ALL_FINE_EVENTS.mask;
     }
 
+    /**
+     * Return the propagation conditions of the <code>vIdx</code>^th variable,
+     * see {@link #getPropagationConditions(int)}.
+     * They are expected not to change once the propagator is posted.
+     *
+     * @param vIdx index of the variable within the propagator
+     * @return the propagation conditions of the variable
+     */
+    public final int getPropagationConditionsOf(int vIdx) {
+        return getPropagationConditions(vIdx);
+    }
+
+    /**
+     * Set whether <code>this</code> should be advised of the modifications of its <code>vIdx</code>^th variable.
+     * A propagator which only needs to be aware of a subset of its variables at a time (like watched literals)
+     * should unwatch the other ones, so that they do not even iterate over it.
+     * This is not backtrackable, and should not be called from {@link #advise(int, int)}.
+     *
+     * @param vIdx    index of the variable within the propagator
+     * @param watched <code>true</code> to be advised of the modifications of the variable
+     */
+    protected final void setWatched(int vIdx, boolean watched) {
+        vars[vIdx].watch(vindices[vIdx], watched);
+    }
+
     /**
      * Call the main filtering algorithm to apply to the <code>Domain</code> of the <code>Variable</code> objects.
      * It considers the current state of this objects to remove some values from domains and/or instantiate some variables.
@@ -38,7 +38,6 @@ import solver.variables.EventType;
 import solver.variables.IntVar;
 import solver.variables.delta.IIntDeltaMonitor;
 import util.ESat;
-import util.procedure.IntProcedure;
 
 /**
  * X + Y = C
@@ -57,8 +56,6 @@ public final class PropEqualXY_C extends Propagator<IntVar> {
     // incremental filtering of enumerated domains
     private boolean bothEnumerated;
     private IIntDeltaMonitor[] idms;
-    private RemProc rem_proc;
-    private int indexToFilter;
 
     @SuppressWarnings({"unchecked"})
     public PropEqualXY_C(IntVar[] vars, int c) {
@@ -71,7 +68,6 @@ public final class PropEqualXY_C extends Propagator<IntVar> {
             idms = new IIntDeltaMonitor[2];
             idms[0] = vars[0].monitorDelta(this);
             idms[1] = vars[1].monitorDelta(this);
-            rem_proc = new RemProc();
         }
     }
 
@@ -116,10 +112,14 @@ public final class PropEqualXY_C extends Propagator<IntVar> {
             assert (y.isInstantiated());
             setPassive();
         } else if (bothEnumerated) {
-            indexToFilter = 1 - varIdx;
-            idms[varIdx].freeze();
-            idms[varIdx].forEach(rem_proc, EventType.REMOVE);
-            idms[varIdx].unfreeze();
+            IIntDeltaMonitor idm = idms[varIdx];
+            IntVar other = vars[1 - varIdx];
+            idm.freeze();
+            // values removed by this are not supported by the other variable either: no need to check the causes
+            for (int i = 0, size = idm.size(); i < size; i++) {
+                other.removeValue(cste - idm.get(i), aCause);
+            }
+            idm.unfreeze();
         }
     }
 
@@ -179,11 +179,4 @@ public final class PropEqualXY_C extends Propagator<IntVar> {
     public String toString() {
         return vars[0] + " + " + vars[1] + " = " + cste;
     }
-
-    private class RemProc implements IntProcedure {
-        @Override
-        public void execute(int i) throws ContradictionException {
-            vars[indexToFilter].removeValue(cste - i, aCause);
-        }
-    }
 }
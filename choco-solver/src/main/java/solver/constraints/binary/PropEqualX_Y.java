@@ -39,7 +39,6 @@ import solver.variables.EventType;
 import solver.variables.IntVar;
 import solver.variables.delta.IIntDeltaMonitor;
 import util.ESat;
-import util.procedure.IntProcedure;
 import util.tools.ArrayUtils;
 
 /**
@@ -58,8 +57,6 @@ public final class PropEqualX_Y extends Propagator<IntVar> {
     // enumerated domains
     private boolean bothEnumerated;
     private IIntDeltaMonitor[] idms;
-    private RemProc rem_proc;
-    private int indexToFilter;
 
     public PropEqualX_Y(IntVar x, IntVar y) {
         super(ArrayUtils.toArray(x, y), PropagatorPriority.BINARY, true);
@@ -70,7 +67,6 @@ public final class PropEqualX_Y extends Propagator<IntVar> {
             idms = new IIntDeltaMonitor[2];
             idms[0] = vars[0].monitorDelta(this);
             idms[1] = vars[1].monitorDelta(this);
-            rem_proc = new RemProc();
         }
     }
 
@@ -123,10 +119,14 @@ public final class PropEqualX_Y extends Propagator<IntVar> {
             assert (y.isInstantiated());
             setPassive();
         } else if (bothEnumerated) {
-            indexToFilter = 1 - varIdx;
-            idms[varIdx].freeze();
-            idms[varIdx].forEach(rem_proc, EventType.REMOVE);
-            idms[varIdx].unfreeze();
+            IIntDeltaMonitor idm = idms[varIdx];
+            IntVar other = vars[1 - varIdx];
+            idm.freeze();
+            // values removed by this are not supported by the other variable either: no need to check the causes
+            for (int i = 0, size = idm.size(); i < size; i++) {
+                other.removeValue(idm.get(i), aCause);
+            }
+            idm.unfreeze();
         }
     }
 
@@ -154,13 +154,6 @@ public final class PropEqualX_Y extends Propagator<IntVar> {
         return false;
     }
 
-    private class RemProc implements IntProcedure {
-        @Override
-        public void execute(int i) throws ContradictionException {
-            vars[indexToFilter].removeValue(i, aCause);
-        }
-    }
-
     @Override
     public String toString() {
         StringBuilder bf = new StringBuilder();
@@ -38,7 +38,6 @@ import solver.variables.EventType;
 import solver.variables.IntVar;
 import solver.variables.delta.IIntDeltaMonitor;
 import util.ESat;
-import util.procedure.IntProcedure;
 
 /**
  * X = Y + C
@@ -58,9 +57,6 @@ public final class PropEqualX_YC extends Propagator<IntVar> {
     // incremental filtering of enumerated domains
     private boolean bothEnumerated;
     private IIntDeltaMonitor[] idms;
-    private RemProc rem_proc;
-    private int indexToFilter;
-    private int offSet;
 
     @SuppressWarnings({"unchecked"})
     public PropEqualX_YC(IntVar[] vars, int c) {
@@ -73,7 +69,6 @@ public final class PropEqualX_YC extends Propagator<IntVar> {
             idms = new IIntDeltaMonitor[2];
             idms[0] = vars[0].monitorDelta(this);
             idms[1] = vars[1].monitorDelta(this);
-            rem_proc = new RemProc();
         }
     }
 
@@ -118,16 +113,15 @@ public final class PropEqualX_YC extends Propagator<IntVar> {
             assert (y.isInstantiated());
             setPassive();
         } else if (bothEnumerated) {
-            if (varIdx == 0) {
-                indexToFilter = 1;
-                offSet = -cste;
-            } else {
-                indexToFilter = 0;
-                offSet = cste;
+            IIntDeltaMonitor idm = idms[varIdx];
+            IntVar other = vars[1 - varIdx];
+            int offSet = varIdx == 0 ? -cste : cste;
+            idm.freeze();
+            // values removed by this are not supported by the other variable either: no need to check the causes
+            for (int i = 0, size = idm.size(); i < size; i++) {
+                other.removeValue(idm.get(i) + offSet, aCause);
             }
-            idms[varIdx].freeze();
-            idms[varIdx].forEach(rem_proc, EventType.REMOVE);
-            idms[varIdx].unfreeze();
+            idm.unfreeze();
         }
     }
 
@@ -195,11 +189,4 @@ public final class PropEqualX_YC extends Propagator<IntVar> {
         bf.append(")");
         return bf.toString();
     }
-
-    private class RemProc implements IntProcedure {
-        @Override
-        public void execute(int i) throws ContradictionException {
-            vars[indexToFilter].removeValue(i + offSet, aCause);
-        }
-    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension;
+
+import solver.exception.SolverException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of tuples, either allowed (positive table) or forbidden (negative table).
+ * <p/>
+ * A universal value can be declared: a tuple holding it at a given position stands for
+ * all the values of the variable at that position (short tuple).
+ */
+public class Tuples implements Serializable {
+
+    private final boolean feasible;
+
+    private final List<int[]> tuples;
+
+    private boolean hasStar;
+
+    private int star;
+
+    /**
+     * Creates an empty list of tuples.
+     *
+     * @param feasible <code>true</code> if the tuples are allowed, <code>false</code> if they are forbidden
+     */
+    public Tuples(boolean feasible) {
+        this.feasible = feasible;
+        this.tuples = new ArrayList<>();
+    }
+
+    /**
+     * Creates an empty list of allowed tuples.
+     */
+    public Tuples() {
+        this(true);
+    }
+
+    /**
+     * Adds a tuple; all the tuples must have the same size.
+     *
+     * @param tuple values of the tuple, in the order of the variables
+     */
+    public void add(int... tuple) {
+        if (!tuples.isEmpty() && tuples.get(0).length != tuple.length) {
+            throw new SolverException("The tuple " + Arrays.toString(tuple) + " does not have the expected size: "
+                    + tuples.get(0).length);
+        }
+        tuples.add(tuple.clone());
+    }
+
+    /**
+     * Adds several tuples at once.
+     */
+    public void add(int[]... tuples) {
+        for (int[] tuple : tuples) {
+            add(tuple);
+        }
+    }
+
+    /**
+     * Declares <code>star</code> as the universal value.
+     * It should not be a value of the domains.
+     */
+    public void setUniversalValue(int star) {
+        this.hasStar = true;
+        this.star = star;
+    }
+
+    public boolean hasUniversalValue() {
+        return hasStar;
+    }
+
+    public int getStarValue() {
+        if (!hasStar) {
+            throw new SolverException("No universal value has been declared");
+        }
+        return star;
+    }
+
+    public boolean isFeasible() {
+        return feasible;
+    }
+
+    public int nbTuples() {
+        return tuples.size();
+    }
+
+    public int[] get(int i) {
+        return tuples.get(i);
+    }
+
+    /**
+     * Returns the size of the tuples, or 0 if there is no tuple.
+     */
+    public int arity() {
+        return tuples.isEmpty() ? 0 : tuples.get(0).length;
+    }
+}
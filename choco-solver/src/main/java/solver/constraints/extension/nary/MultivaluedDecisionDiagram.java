@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension.nary;
+
+import gnu.trove.set.hash.TIntHashSet;
+import solver.constraints.extension.Tuples;
+import solver.constraints.nary.automata.FA.IAutomaton;
+import solver.exception.SolverException;
+import solver.variables.IntVar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reduced, layered multi-valued decision diagram (MDD): layer i is labelled with the values of the i-th
+ * variable, and every path from the root to the true terminal is an allowed tuple.
+ * <p/>
+ * Equivalent nodes (same layer, same labelled out-edges) are merged during the compilation,
+ * so that common prefixes and suffixes of the tuples are shared.
+ * The MDD is compiled against the domains of the variables given at construction and can be shared
+ * by several constraints whose domains are included in them.
+ */
+public class MultivaluedDecisionDiagram {
+
+    /**
+     * number of variables
+     */
+    final int nbLayers;
+
+    /**
+     * nodes of layer i are [layerStart[i], layerStart[i+1]), the root is 0 and the true terminal is the last node
+     */
+    final int[] layerStart;
+
+    /**
+     * out-edges of node n are [edgeStart[n], edgeStart[n+1])
+     */
+    final int[] edgeStart;
+
+    final int[] edgeValues;
+
+    final int[] edgeTargets;
+
+    // compilation only
+    private IntVar[] vars;
+    private List<List<int[]>> nodes;
+    private List<Map<Key, Integer>> unique;
+    private List<Map<Key, Integer>> memo;
+
+    /**
+     * Compiles TUPLES, allowed or forbidden, possibly holding a universal value.
+     *
+     * @param VARS   variables whose initial domains bound the MDD
+     * @param TUPLES tuples of size <code>VARS.length</code>
+     */
+    public MultivaluedDecisionDiagram(final IntVar[] VARS, final Tuples TUPLES) {
+        this(VARS, new Compiler() {
+            final boolean star = TUPLES.hasUniversalValue();
+
+            @Override
+            public int[] initial() {
+                int[] all = new int[TUPLES.nbTuples()];
+                for (int t = 0; t < all.length; t++) {
+                    if (TUPLES.get(t).length != VARS.length) {
+                        throw new SolverException("The tuples do not match the variables");
+                    }
+                    all[t] = t;
+                }
+                return all;
+            }
+
+            @Override
+            public int[] next(int[] current, int layer, int value) {
+                int[] next = new int[current.length];
+                int k = 0;
+                for (int t : current) {
+                    int v = TUPLES.get(t)[layer];
+                    if (v == value || (star && v == TUPLES.getStarValue())) {
+                        next[k++] = t;
+                    }
+                }
+                return Arrays.copyOf(next, k);
+            }
+
+            @Override
+            public boolean accepts(int[] last) {
+                return TUPLES.isFeasible() == (last.length > 0);
+            }
+
+            @Override
+            public boolean dead(int[] current) {
+                return TUPLES.isFeasible() && current.length == 0;
+            }
+        });
+    }
+
+    /**
+     * Compiles the words of size <code>VARS.length</code> recognized by AUTOMATON, which may be non-deterministic.
+     *
+     * @param VARS      variables whose initial domains bound the MDD
+     * @param AUTOMATON a finite automaton
+     */
+    public MultivaluedDecisionDiagram(final IntVar[] VARS, final IAutomaton AUTOMATON) {
+        this(VARS, new Compiler() {
+            final TIntHashSet states = new TIntHashSet();
+
+            @Override
+            public int[] initial() {
+                return new int[]{AUTOMATON.getInitialState()};
+            }
+
+            @Override
+            public int[] next(int[] current, int layer, int value) {
+                states.clear();
+                for (int s : current) {
+                    AUTOMATON.delta(s, value, states);
+                }
+                int[] next = states.toArray();
+                Arrays.sort(next);
+                return next;
+            }
+
+            @Override
+            public boolean accepts(int[] last) {
+                for (int s : last) {
+                    if (AUTOMATON.isFinal(s)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public boolean dead(int[] current) {
+                return current.length == 0;
+            }
+        });
+    }
+
+    private MultivaluedDecisionDiagram(IntVar[] VARS, Compiler compiler) {
+        this.nbLayers = VARS.length;
+        this.vars = VARS;
+        this.nodes = new ArrayList<>();
+        this.unique = new ArrayList<>();
+        this.memo = new ArrayList<>();
+        for (int i = 0; i <= nbLayers; i++) {
+            nodes.add(new ArrayList<int[]>());
+            unique.add(new HashMap<Key, Integer>());
+            memo.add(new HashMap<Key, Integer>());
+        }
+        nodes.get(nbLayers).add(new int[0]); // true terminal
+        int root = compile(0, compiler.initial(), compiler);
+        if (root < 0) {
+            // no allowed tuple: the root has no out-edge
+            nodes.get(0).add(new int[0]);
+        }
+        layerStart = new int[nbLayers + 2];
+        int nbEdges = 0;
+        for (int i = 0; i <= nbLayers; i++) {
+            layerStart[i + 1] = layerStart[i] + nodes.get(i).size();
+            for (int[] edges : nodes.get(i)) {
+                nbEdges += edges.length / 2;
+            }
+        }
+        edgeStart = new int[layerStart[nbLayers + 1] + 1];
+        edgeValues = new int[nbEdges];
+        edgeTargets = new int[nbEdges];
+        int e = 0;
+        for (int i = 0; i <= nbLayers; i++) {
+            List<int[]> layer = nodes.get(i);
+            for (int n = 0; n < layer.size(); n++) {
+                int[] edges = layer.get(n);
+                edgeStart[layerStart[i] + n] = e;
+                for (int k = 0; k < edges.length; k += 2) {
+                    edgeValues[e] = edges[k];
+                    edgeTargets[e] = layerStart[i + 1] + edges[k + 1];
+                    e++;
+                }
+            }
+        }
+        edgeStart[edgeStart.length - 1] = e;
+        this.vars = null;
+        this.nodes = null;
+        this.unique = null;
+        this.memo = null;
+    }
+
+    /**
+     * Returns the index, within <code>layer</code>, of the node reached with <code>current</code>,
+     * or -1 if no allowed tuple starts from it.
+     */
+    private int compile(int layer, int[] current, Compiler compiler) {
+        if (layer == nbLayers) {
+            return compiler.accepts(current) ? 0 : -1;
+        }
+        Key key = new Key(current);
+        Integer id = memo.get(layer).get(key);
+        if (id == null) {
+            IntVar var = vars[layer];
+            int[] edges = new int[2 * var.getDomainSize()];
+            int k = 0;
+            int ub = var.getUB();
+            for (int v = var.getLB(); v <= ub; v = var.nextValue(v)) {
+                int[] next = compiler.next(current, layer, v);
+                if (!compiler.dead(next)) {
+                    int child = compile(layer + 1, next, compiler);
+                    if (child >= 0) {
+                        edges[k++] = v;
+                        edges[k++] = child;
+                    }
+                }
+            }
+            id = k == 0 ? -1 : node(layer, Arrays.copyOf(edges, k));
+            memo.get(layer).put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the index of the node of <code>layer</code> with the given out-edges, creating it if needed.
+     */
+    private int node(int layer, int[] edges) {
+        Key key = new Key(edges);
+        Integer id = unique.get(layer).get(key);
+        if (id == null) {
+            id = nodes.get(layer).size();
+            nodes.get(layer).add(edges);
+            unique.get(layer).put(key, id);
+        }
+        return id;
+    }
+
+    public int getNbLayers() {
+        return nbLayers;
+    }
+
+    /**
+     * Returns the number of nodes, terminal included.
+     */
+    public int getNbNodes() {
+        return layerStart[nbLayers + 1];
+    }
+
+    public int getNbEdges() {
+        return edgeValues.length;
+    }
+
+    /**
+     * Returns <code>true</code> if <code>tuple</code> is a path of the MDD.
+     */
+    public boolean accepts(int[] tuple) {
+        int node = 0;
+        for (int i = 0; i < nbLayers; i++) {
+            int next = -1;
+            for (int e = edgeStart[node]; e < edgeStart[node + 1] && next < 0; e++) {
+                if (edgeValues[e] == tuple[i]) {
+                    next = edgeTargets[e];
+                }
+            }
+            if (next < 0) {
+                return false;
+            }
+            node = next;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "MDD(" + nbLayers + " layers, " + getNbNodes() + " nodes, " + getNbEdges() + " edges)";
+    }
+
+    /**
+     * States explored by the compilation: equal states of a layer lead to the same node.
+     */
+    private interface Compiler {
+
+        /**
+         * State of the root.
+         */
+        int[] initial();
+
+        /**
+         * State reached from <code>current</code>, a state of <code>layer</code>, through <code>value</code>.
+         */
+        int[] next(int[] current, int layer, int value);
+
+        /**
+         * Returns <code>true</code> if the state reached after the last variable is accepting.
+         */
+        boolean accepts(int[] last);
+
+        /**
+         * Returns <code>true</code> if no allowed tuple can be reached from <code>current</code>.
+         */
+        boolean dead(int[] current);
+    }
+
+    private static final class Key {
+        final int[] values;
+        final int hash;
+
+        Key(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(values, ((Key) o).values);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension.nary;
+
+import memory.IStateInt;
+import solver.constraints.Propagator;
+import solver.constraints.PropagatorPriority;
+import solver.constraints.extension.Tuples;
+import solver.exception.ContradictionException;
+import solver.exception.SolverException;
+import solver.variables.EventType;
+import solver.variables.IntVar;
+import solver.variables.delta.IIntDeltaMonitor;
+import util.ESat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact-Table propagator for positive tables, possibly made of short tuples.
+ * <p/>
+ * The tuples which are still valid are stored in a reversible sparse bitset, updated from the delta of
+ * the modified variables (or from their domain when it is smaller than the delta), and each value keeps
+ * as residue the word where a support was last found.
+ * Enforces GAC on enumerated domains.
+ * <p/>
+ * "Compact-Table: Efficiently Filtering Table Constraints with Reversible Sparse Bit-Sets",
+ * J. Demeulenaere, R. Hartert, C. Lecoutre, G. Perez, L. Perron, J.-C. Regin, P. Schaus, CP'16.
+ * <br/>
+ * "Extending Compact-Table to Negative and Short Tables",
+ * H. Verhaeghe, C. Lecoutre, P. Schaus, AAAI'17.
+ */
+public class PropCompactTable extends Propagator<IntVar> {
+
+    protected final int[][] tuples;
+
+    protected final boolean hasStar;
+
+    protected final int star;
+
+    /**
+     * valid tuples
+     */
+    protected final RSparseBitSet currTable;
+
+    /**
+     * initial lower bound of each variable
+     */
+    protected final int[] offsets;
+
+    /**
+     * supports[i][v - offsets[i]] is the bitset of the tuples supporting (i, v), short tuples included
+     */
+    protected final long[][][] supports;
+
+    /**
+     * same as supports without the short tuples, only required if the table has a universal value
+     */
+    protected final long[][][] strictSupports;
+
+    /**
+     * word of currTable where a support of (i, v) was last found
+     */
+    protected final int[][] residues;
+
+    protected final IIntDeltaMonitor[] monitors;
+
+    /**
+     * domain size of each variable when currTable was last updated
+     */
+    protected final IStateInt[] lastSizes;
+
+    /**
+     * index of the only variable modified since the last filtering, -1 if none, -2 if several
+     */
+    private int lastModified = -1;
+
+    /**
+     * search loop time stamp at which lastModified was set
+     */
+    private int modifiedStamp = -1;
+
+    public PropCompactTable(IntVar[] vars, Tuples tuples) {
+        super(vars, PropagatorPriority.QUADRATIC, true);
+        if (tuples.nbTuples() > 0 && tuples.arity() != vars.length) {
+            throw new SolverException("Tuples of size " + tuples.arity() + " cannot be posted on " + vars.length + " variables");
+        }
+        this.hasStar = tuples.hasUniversalValue();
+        this.star = hasStar ? tuples.getStarValue() : 0;
+        this.tuples = validTuples(vars, tuples, hasStar, star);
+        int n = vars.length;
+        this.offsets = new int[n];
+        this.supports = new long[n][][];
+        this.strictSupports = hasStar ? new long[n][][] : null;
+        this.residues = new int[n][];
+        this.monitors = new IIntDeltaMonitor[n];
+        this.lastSizes = new IStateInt[n];
+        int nbWords = (this.tuples.length + 63) >>> 6;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = vars[i].getLB();
+            int size = vars[i].getUB() - offsets[i] + 1;
+            supports[i] = new long[size][nbWords];
+            if (hasStar) {
+                strictSupports[i] = new long[size][nbWords];
+            }
+            residues[i] = new int[size];
+            monitors[i] = vars[i].monitorDelta(this);
+            lastSizes[i] = solver.getEnvironment().makeInt(vars[i].getDomainSize());
+        }
+        for (int t = 0; t < this.tuples.length; t++) {
+            int[] tuple = this.tuples[t];
+            long bit = 1L << (t & 63);
+            int w = t >>> 6;
+            for (int i = 0; i < n; i++) {
+                if (hasStar && tuple[i] == star) {
+                    for (int v = 0; v < supports[i].length; v++) {
+                        supports[i][v][w] |= bit;
+                    }
+                } else {
+                    supports[i][tuple[i] - offsets[i]][w] |= bit;
+                    if (hasStar) {
+                        strictSupports[i][tuple[i] - offsets[i]][w] |= bit;
+                    }
+                }
+            }
+        }
+        this.currTable = new RSparseBitSet(solver.getEnvironment(), this.tuples.length);
+    }
+
+    /**
+     * Keeps the tuples which fit in the initial domains.
+     */
+    static int[][] validTuples(IntVar[] vars, Tuples tuples, boolean hasStar, int star) {
+        List<int[]> valid = new ArrayList<>(tuples.nbTuples());
+        for (int t = 0; t < tuples.nbTuples(); t++) {
+            int[] tuple = tuples.get(t);
+            boolean ok = true;
+            for (int i = 0; i < vars.length && ok; i++) {
+                ok = (hasStar && tuple[i] == star) || vars[i].contains(tuple[i]);
+            }
+            if (ok) {
+                valid.add(tuple);
+            }
+        }
+        return valid.toArray(new int[valid.size()][]);
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return EventType.INT_ALL_MASK();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if ((evtmask & EventType.FULL_PROPAGATION.mask) != 0) {
+            for (int i = 0; i < vars.length; i++) {
+                resetBasedUpdate(i);
+                // the current domain is fully taken into account: skip the pending removals
+                monitors[i].unfreeze();
+            }
+        }
+        if (!onTableUpdate()) {
+            return;
+        }
+        filterDomains();
+    }
+
+    @Override
+    public void propagate(int vIdx, int mask) throws ContradictionException {
+        updateTable(vIdx);
+        int ts = solver.getSearchLoop().timeStamp;
+        if (ts != modifiedStamp) {
+            modifiedStamp = ts;
+            lastModified = -1;
+        }
+        lastModified = lastModified == -1 || lastModified == vIdx ? vIdx : -2;
+        // the table is checked on the coarse propagation: the propagator may already be scheduled for it
+        forcePropagate(EventType.CUSTOM_PROPAGATION);
+    }
+
+    /**
+     * Reacts on a modification of currTable.
+     *
+     * @return <code>false</code> if no more filtering is needed
+     */
+    protected boolean onTableUpdate() throws ContradictionException {
+        if (currTable.isEmpty()) {
+            contradiction(null, "no more valid tuple");
+        }
+        return true;
+    }
+
+    /**
+     * Removes from currTable the tuples invalidated by the modification of the domain of <code>vars[i]</code>.
+     */
+    protected void updateTable(int i) throws ContradictionException {
+        IntVar var = vars[i];
+        int size = var.getDomainSize();
+        monitors[i].freeze();
+        if (lastSizes[i].get() - size < size) {
+            currTable.clearMask();
+            // the values removed by this have no support left in currTable: no need to check the causes
+            IIntDeltaMonitor monitor = monitors[i];
+            long[][] masks = hasStar ? strictSupports[i] : supports[i];
+            int offset = offsets[i];
+            for (int j = 0, n = monitor.size(); j < n; j++) {
+                currTable.addToMask(masks[monitor.get(j) - offset]);
+            }
+            currTable.reverseMask();
+            currTable.intersectWithMask();
+        } else {
+            resetBasedUpdate(i);
+        }
+        monitors[i].unfreeze();
+        lastSizes[i].set(size);
+    }
+
+    /**
+     * Restricts currTable to the tuples supporting one of the current values of <code>vars[i]</code>.
+     */
+    protected void resetBasedUpdate(int i) {
+        IntVar var = vars[i];
+        long[][] sup = supports[i];
+        int off = offsets[i];
+        currTable.clearMask();
+        int ub = var.getUB();
+        for (int v = var.getLB(); v <= ub; v = var.nextValue(v)) {
+            currTable.addToMask(sup[v - off]);
+        }
+        currTable.intersectWithMask();
+        lastSizes[i].set(var.getDomainSize());
+    }
+
+    /**
+     * Removes the values which are not supported by a valid tuple anymore.
+     */
+    protected void filterDomains() throws ContradictionException {
+        int skip = modifiedStamp == solver.getSearchLoop().timeStamp ? lastModified : -1;
+        for (int i = 0; i < vars.length; i++) {
+            if (i == skip) {
+                // only this variable was modified: its remaining values are still supported
+                continue;
+            }
+            IntVar var = vars[i];
+            long[][] sup = supports[i];
+            int[] res = residues[i];
+            int off = offsets[i];
+            int ub = var.getUB();
+            for (int v = var.getLB(); v <= ub; v = var.nextValue(v)) {
+                int r = res[v - off];
+                if (!currTable.intersects(r, sup[v - off])) {
+                    r = currTable.intersectIndex(sup[v - off]);
+                    if (r == -1) {
+                        var.removeValue(v, aCause);
+                    } else {
+                        res[v - off] = r;
+                    }
+                }
+            }
+            lastSizes[i].set(var.getDomainSize());
+        }
+        lastModified = -1;
+    }
+
+    @Override
+    public ESat isEntailed() {
+        if (isCompletelyInstantiated()) {
+            for (int t = 0; t < tuples.length; t++) {
+                if (matches(tuples[t])) {
+                    return ESat.TRUE;
+                }
+            }
+            return ESat.FALSE;
+        }
+        return ESat.UNDEFINED;
+    }
+
+    protected boolean matches(int[] tuple) {
+        for (int i = 0; i < vars.length; i++) {
+            if (tuple[i] != vars[i].getValue() && !(hasStar && tuple[i] == star)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "CT(" + vars.length + " vars, " + tuples.length + " tuples)";
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension.nary;
+
+import solver.constraints.extension.Tuples;
+import solver.exception.ContradictionException;
+import solver.variables.IntVar;
+import util.ESat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compact-Table propagator for negative tables.
+ * <p/>
+ * A value is removed when the number of valid forbidden tuples it belongs to equals the number of
+ * combinations of values of the other variables. Counting requires distinct tuples: duplicates are
+ * removed and short tuples are expanded over the initial domains at construction.
+ */
+public class PropCompactTableNeg extends PropCompactTable {
+
+    public PropCompactTableNeg(IntVar[] vars, Tuples tuples) {
+        super(vars, expand(vars, tuples));
+    }
+
+    /**
+     * Returns distinct forbidden tuples, without universal value.
+     */
+    private static Tuples expand(IntVar[] vars, Tuples tuples) {
+        boolean hasStar = tuples.hasUniversalValue();
+        int star = hasStar ? tuples.getStarValue() : 0;
+        int[][] valid = validTuples(vars, tuples, hasStar, star);
+        List<int[]> all = new ArrayList<>(valid.length);
+        for (int[] tuple : valid) {
+            expand(vars, tuple, 0, hasStar, star, all);
+        }
+        int[][] sorted = all.toArray(new int[all.size()][]);
+        Arrays.sort(sorted, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] t1, int[] t2) {
+                for (int i = 0; i < t1.length; i++) {
+                    if (t1[i] != t2[i]) {
+                        return t1[i] < t2[i] ? -1 : 1;
+                    }
+                }
+                return 0;
+            }
+        });
+        Tuples distinct = new Tuples(false);
+        for (int t = 0; t < sorted.length; t++) {
+            if (t == 0 || !Arrays.equals(sorted[t - 1], sorted[t])) {
+                distinct.add(sorted[t]);
+            }
+        }
+        return distinct;
+    }
+
+    private static void expand(IntVar[] vars, int[] tuple, int from, boolean hasStar, int star, List<int[]> all) {
+        for (int i = from; i < tuple.length; i++) {
+            if (hasStar && tuple[i] == star) {
+                int ub = vars[i].getUB();
+                for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                    int[] t = tuple.clone();
+                    t[i] = v;
+                    expand(vars, t, i + 1, hasStar, star, all);
+                }
+                return;
+            }
+        }
+        all.add(tuple);
+    }
+
+    @Override
+    protected boolean onTableUpdate() throws ContradictionException {
+        if (currTable.isEmpty()) {
+            // no forbidden tuple can be reached anymore
+            setPassive();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void filterDomains() throws ContradictionException {
+        for (int i = 0; i < vars.length; i++) {
+            long nbForbidden = currTable.cardinality();
+            long others = 1;
+            for (int j = 0; j < vars.length && others <= nbForbidden; j++) {
+                if (j != i) {
+                    others *= vars[j].getDomainSize();
+                }
+            }
+            if (others > nbForbidden) {
+                // each value has at least one allowed combination
+                continue;
+            }
+            IntVar var = vars[i];
+            long[][] sup = supports[i];
+            int off = offsets[i];
+            int size = var.getDomainSize();
+            int ub = var.getUB();
+            for (int v = var.getLB(); v <= ub; v = var.nextValue(v)) {
+                if (currTable.cardinalityWith(sup[v - off], others) >= others) {
+                    var.removeValue(v, aCause);
+                }
+            }
+            if (var.getDomainSize() != size) {
+                // the counts of the other variables must not include the tuples just invalidated
+                resetBasedUpdate(i);
+                if (!onTableUpdate()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public ESat isEntailed() {
+        if (isCompletelyInstantiated()) {
+            for (int t = 0; t < tuples.length; t++) {
+                if (matches(tuples[t])) {
+                    return ESat.FALSE;
+                }
+            }
+            return ESat.TRUE;
+        }
+        return ESat.UNDEFINED;
+    }
+
+    @Override
+    public String toString() {
+        return "CT-neg(" + vars.length + " vars, " + tuples.length + " tuples)";
+    }
+}
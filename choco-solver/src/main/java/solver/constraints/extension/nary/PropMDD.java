@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension.nary;
+
+import memory.IEnvironment;
+import memory.IStateInt;
+import solver.constraints.Propagator;
+import solver.constraints.PropagatorPriority;
+import solver.exception.ContradictionException;
+import solver.variables.EventType;
+import solver.variables.IntVar;
+import util.ESat;
+
+/**
+ * Propagator for a {@link MultivaluedDecisionDiagram}, enforcing GAC.
+ * <p/>
+ * The nodes still on a path from the root to the true terminal are kept, layer by layer, in reversible
+ * sparse sets: a node is removed when it loses all its out-edges or all its in-edges, and a value is
+ * removed when no edge of its layer carries it anymore. Each call only scans the remaining nodes.
+ * <p/>
+ * "An MDD-based generalized arc consistency algorithm for positive and negative table constraints
+ * and some global constraints", K.C.K. Cheng, R.H.C. Yap, Constraints 15(2), 2010.
+ */
+public class PropMDD extends Propagator<IntVar> {
+
+    private final MultivaluedDecisionDiagram mdd;
+
+    private final int[] layerStart, edgeStart, edgeValues, edgeTargets;
+
+    /**
+     * nodes of layer i are stored in [layerStart[i], layerStart[i+1]), the first alive[i] ones are alive
+     */
+    private final int[] nodes, positions;
+
+    private final IStateInt[] alive;
+
+    /**
+     * marks the nodes reached from the root and the supported values, renewed on each call
+     */
+    private final int[] reached;
+    private final int[][] supported;
+    private final int[] offsets;
+    private int stamp;
+
+    /**
+     * variables modified since the last call
+     */
+    private final boolean[] modified;
+
+    public PropMDD(IntVar[] vars, MultivaluedDecisionDiagram mdd) {
+        super(vars, PropagatorPriority.QUADRATIC, true);
+        this.mdd = mdd;
+        this.layerStart = mdd.layerStart;
+        this.edgeStart = mdd.edgeStart;
+        this.edgeValues = mdd.edgeValues;
+        this.edgeTargets = mdd.edgeTargets;
+        int nbNodes = layerStart[vars.length + 1];
+        this.nodes = new int[nbNodes];
+        this.positions = new int[nbNodes];
+        for (int n = 0; n < nbNodes; n++) {
+            nodes[n] = positions[n] = n;
+        }
+        IEnvironment environment = solver.getEnvironment();
+        this.alive = new IStateInt[vars.length + 1];
+        for (int i = 0; i <= vars.length; i++) {
+            alive[i] = environment.makeInt(layerStart[i + 1] - layerStart[i]);
+        }
+        this.reached = new int[nbNodes];
+        this.offsets = new int[vars.length];
+        this.supported = new int[vars.length][];
+        for (int i = 0; i < vars.length; i++) {
+            offsets[i] = vars[i].getLB();
+            supported[i] = new int[vars[i].getUB() - offsets[i] + 1];
+        }
+        this.modified = new boolean[vars.length];
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return EventType.INT_ALL_MASK();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if ((evtmask & EventType.FULL_PROPAGATION.mask) != 0) {
+            for (int i = 0; i < vars.length; i++) {
+                modified[i] = true;
+            }
+        }
+        filter();
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        modified[idxVarInProp] = true;
+        forcePropagate(EventType.CUSTOM_PROPAGATION);
+    }
+
+    private boolean isAlive(int node, int layer) {
+        return positions[node] < layerStart[layer] + alive[layer].get();
+    }
+
+    /**
+     * Removes the node at position <code>p</code> of <code>layer</code>, the last alive node takes its place.
+     */
+    private void remove(int layer, int p) {
+        int last = layerStart[layer] + alive[layer].get() - 1;
+        int node = nodes[p];
+        nodes[p] = nodes[last];
+        positions[nodes[p]] = p;
+        nodes[last] = node;
+        positions[node] = last;
+        alive[layer].add(-1);
+    }
+
+    private void filter() throws ContradictionException {
+        // bottom-up: remove the nodes without any valid out-edge
+        boolean below = false;
+        for (int i = vars.length - 1; i >= 0; i--) {
+            boolean removed = false;
+            if (modified[i] || below) {
+                IntVar var = vars[i];
+                int start = layerStart[i];
+                for (int p = start + alive[i].get() - 1; p >= start; p--) {
+                    int node = nodes[p];
+                    boolean valid = false;
+                    for (int e = edgeStart[node]; e < edgeStart[node + 1] && !valid; e++) {
+                        valid = var.contains(edgeValues[e]) && isAlive(edgeTargets[e], i + 1);
+                    }
+                    if (!valid) {
+                        remove(i, p);
+                        removed = true;
+                    }
+                }
+                if (alive[i].get() == 0) {
+                    contradiction(var, "no more valid path");
+                }
+                modified[i] = false;
+            }
+            below = removed;
+        }
+        // top-down: remove the nodes which are no more reachable, and collect the supported values
+        stamp++;
+        reached[0] = stamp;
+        for (int i = 0; i < vars.length; i++) {
+            IntVar var = vars[i];
+            int[] sup = supported[i];
+            int off = offsets[i];
+            int start = layerStart[i];
+            for (int p = start + alive[i].get() - 1; p >= start; p--) {
+                int node = nodes[p];
+                if (reached[node] != stamp) {
+                    remove(i, p);
+                } else {
+                    for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                        int v = edgeValues[e];
+                        if (var.contains(v) && isAlive(edgeTargets[e], i + 1)) {
+                            reached[edgeTargets[e]] = stamp;
+                            sup[v - off] = stamp;
+                        }
+                    }
+                }
+            }
+            int ub = var.getUB();
+            for (int v = var.getLB(); v <= ub; v = var.nextValue(v)) {
+                if (sup[v - off] != stamp) {
+                    var.removeValue(v, aCause);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ESat isEntailed() {
+        if (isCompletelyInstantiated()) {
+            int[] tuple = new int[vars.length];
+            for (int i = 0; i < vars.length; i++) {
+                tuple[i] = vars[i].getValue();
+            }
+            return ESat.eval(mdd.accepts(tuple));
+        }
+        return ESat.UNDEFINED;
+    }
+
+    @Override
+    public String toString() {
+        return "MDD(" + vars.length + " vars, " + layerStart[vars.length + 1] + " nodes)";
+    }
+}
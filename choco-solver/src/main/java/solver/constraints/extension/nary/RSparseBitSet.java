@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension.nary;
+
+import memory.IEnvironment;
+import memory.IStateInt;
+import memory.IStateLong;
+
+/**
+ * Reversible sparse bitset, as used by Compact-Table.
+ * <p/>
+ * Only the non-zero words are visited: their indices are kept in the first <code>limit + 1</code>
+ * cells of <code>index</code>, a word which becomes zero is swapped beyond the limit.
+ * Since words can only lose bits, restoring the limit upon backtrack is enough to restore the set
+ * of non-zero words.
+ */
+final class RSparseBitSet {
+
+    private final IStateLong[] words;
+
+    private final int[] index;
+
+    private final IStateInt limit;
+
+    // temporary mask, only meaningful on the non-zero words
+    private final long[] mask;
+
+    RSparseBitSet(IEnvironment environment, int nbBits) {
+        int nbWords = (nbBits + 63) >>> 6;
+        words = new IStateLong[nbWords];
+        index = new int[nbWords];
+        mask = new long[nbWords];
+        for (int i = 0; i < nbWords; i++) {
+            long w = -1L;
+            if (i == nbWords - 1 && (nbBits & 63) != 0) {
+                w = -1L >>> (64 - (nbBits & 63));
+            }
+            words[i] = environment.makeLong(w);
+            index[i] = i;
+        }
+        limit = environment.makeInt(nbWords - 1);
+    }
+
+    boolean isEmpty() {
+        return limit.get() == -1;
+    }
+
+    void clearMask() {
+        for (int i = limit.get(); i >= 0; i--) {
+            mask[index[i]] = 0L;
+        }
+    }
+
+    void reverseMask() {
+        for (int i = limit.get(); i >= 0; i--) {
+            int offset = index[i];
+            mask[offset] = ~mask[offset];
+        }
+    }
+
+    void addToMask(long[] m) {
+        for (int i = limit.get(); i >= 0; i--) {
+            int offset = index[i];
+            mask[offset] |= m[offset];
+        }
+    }
+
+    /**
+     * Intersects the set with the temporary mask.
+     */
+    void intersectWithMask() {
+        int l = limit.get();
+        for (int i = l; i >= 0; i--) {
+            int offset = index[i];
+            long w = words[offset].get();
+            long nw = w & mask[offset];
+            if (w != nw) {
+                words[offset].set(nw);
+                if (nw == 0L) {
+                    index[i] = index[l];
+                    index[l] = offset;
+                    l--;
+                }
+            }
+        }
+        limit.set(l);
+    }
+
+    /**
+     * Returns the offset of a word which intersects <code>m</code>, or -1.
+     */
+    int intersectIndex(long[] m) {
+        for (int i = limit.get(); i >= 0; i--) {
+            int offset = index[i];
+            if ((words[offset].get() & m[offset]) != 0L) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns <code>true</code> if the word at <code>offset</code> intersects <code>m</code>.
+     */
+    boolean intersects(int offset, long[] m) {
+        return (words[offset].get() & m[offset]) != 0L;
+    }
+
+    /**
+     * Returns the number of bits shared with <code>m</code>, stopping as soon as <code>max</code> is reached.
+     */
+    long cardinalityWith(long[] m, long max) {
+        long count = 0;
+        for (int i = limit.get(); i >= 0 && count < max; i--) {
+            int offset = index[i];
+            count += Long.bitCount(words[offset].get() & m[offset]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of bits set.
+     */
+    long cardinality() {
+        long count = 0;
+        for (int i = limit.get(); i >= 0; i--) {
+            count += Long.bitCount(words[index[i]].get());
+        }
+        return count;
+    }
+}
@@ -27,6 +27,8 @@ package solver.constraints.gary.trees.lagrangianRelaxation;
  */
 
 import gnu.trove.list.array.TIntArrayList;
+import memory.IStateDouble;
+import memory.IStateInt;
 import solver.constraints.Propagator;
 import solver.constraints.PropagatorPriority;
 import solver.constraints.gary.GraphLagrangianRelaxation;
@@ -66,6 +68,11 @@ public class PropLagr_DCMST extends Propagator implements GraphLagrangianRelaxat
     protected int[] maxDegree;
     protected double step;
     protected boolean firstPropag = true;
+    // multipliers of the last relaxation, trailed to warm start from the parent node after a backtrack
+    protected IStateDouble[] lastPenalities;
+    protected IStateInt lastCall;
+    protected int nbCalls, lastUB;
+    protected boolean valid, warmStart = true;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -96,6 +103,11 @@ public class PropLagr_DCMST extends Propagator implements GraphLagrangianRelaxat
 				g.addEdge(i, j);
             }
         }
+        lastPenalities = new IStateDouble[n];
+        for (int i = 0; i < n; i++) {
+            lastPenalities[i] = solver.getEnvironment().makeFloat(0);
+        }
+        lastCall = solver.getEnvironment().makeInt(-1);
     }
 
     //***********************************************************************************
@@ -106,6 +118,19 @@ public class PropLagr_DCMST extends Propagator implements GraphLagrangianRelaxat
         if (waitFirstSol && solver.getMeasures().getSolutionCount() == 0) {
             return;//the UB does not allow to prune
         }
+        boolean sameNode = valid && lastCall.get() == nbCalls;
+        valid = false;
+        if (sameNode && lastUB == obj.getUB() && isSupportValid()) {
+            // the last spanning tree is still optimal for the current multipliers: bound and pruning are unchanged
+            valid = true;
+            return;
+        }
+        if (!sameNode && warmStart) {
+            // warm start from the multipliers of the parent node
+            for (int i = 0; i < n; i++) {
+                penalities[i] = lastPenalities[i].get();
+            }
+        }
         // initialisation
         mandatoryArcsList.clear();
         ISet nei;
@@ -129,6 +154,39 @@ public class PropLagr_DCMST extends Propagator implements GraphLagrangianRelaxat
             }
         }
         lagrangianRelaxation();
+        for (int i = 0; i < n; i++) {
+            lastPenalities[i].set(penalities[i]);
+        }
+        nbCalls++;
+        lastCall.set(nbCalls);
+        lastUB = obj.getUB();
+        valid = true;
+    }
+
+    /**
+     * The spanning tree of the last filtering remains optimal if only non-tree edges have been removed
+     * and only tree edges have been enforced since then
+     *
+     * @return true iff the last computed spanning tree is still a support
+     */
+    protected boolean isSupportValid() {
+        UndirectedGraph tree = HKfilter.getMST();
+        ISet nei;
+        for (int i = 0; i < n; i++) {
+            nei = tree.getNeighborsOf(i);
+            for (int j = nei.getFirstElement(); j >= 0; j = nei.getNextElement()) {
+                if (!gV.getEnvelopGraph().edgeExists(i, j)) {
+                    return false;
+                }
+            }
+            nei = gV.getKernelGraph().getNeighborsOf(i);
+            for (int j = nei.getFirstElement(); j >= 0; j = nei.getNextElement()) {
+                if (!tree.edgeExists(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     private long nbSols = 0;
@@ -290,7 +348,7 @@ public class PropLagr_DCMST extends Propagator implements GraphLagrangianRelaxat
 
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        initAndRun();
+        forcePropagate(EventType.CUSTOM_PROPAGATION);
     }
 
     @Override
@@ -319,6 +377,14 @@ public class PropLagr_DCMST extends Propagator implements GraphLagrangianRelaxat
         waitFirstSol = b;
     }
 
+    /**
+     * @param b set to false to start the relaxation of each node from the multipliers of the last explored node,
+     *          rather than from those of its parent node (default true)
+     */
+    public void warmStart(boolean b) {
+        warmStart = b;
+    }
+
     public boolean contains(int i, int j) {
         if (mst == null) {
             return true;
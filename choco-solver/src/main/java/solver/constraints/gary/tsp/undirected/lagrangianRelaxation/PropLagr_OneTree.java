@@ -28,6 +28,8 @@
 package solver.constraints.gary.tsp.undirected.lagrangianRelaxation;
 
 import gnu.trove.list.array.TIntArrayList;
+import memory.IStateDouble;
+import memory.IStateInt;
 import solver.constraints.Propagator;
 import solver.constraints.PropagatorPriority;
 import solver.constraints.gary.GraphLagrangianRelaxation;
@@ -67,6 +69,11 @@ public class PropLagr_OneTree extends Propagator implements GraphLagrangianRelax
     protected AbstractTreeFinder HKfilter, HK;
     protected boolean waitFirstSol;
     protected int nbSprints;
+    // multipliers of the last relaxation, trailed to warm start from the parent node after a backtrack
+    protected IStateDouble[] lastPenalities;
+    protected IStateInt lastCall;
+    protected int nbCalls, lastUB;
+    protected boolean valid, warmStart = true;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -83,6 +90,11 @@ public class PropLagr_OneTree extends Propagator implements GraphLagrangianRelax
         penalities = new double[n];
         mandatoryArcsList = new TIntArrayList();
         nbSprints = 30;
+        lastPenalities = new IStateDouble[n];
+        for (int i = 0; i < n; i++) {
+            lastPenalities[i] = solver.getEnvironment().makeFloat(0);
+        }
+        lastCall = solver.getEnvironment().makeInt(-1);
     }
 
     /**
@@ -103,6 +115,23 @@ public class PropLagr_OneTree extends Propagator implements GraphLagrangianRelax
         if (waitFirstSol && solver.getMeasures().getSolutionCount() == 0) {
             return;//the UB does not allow to prune
         }
+        boolean sameNode = valid && lastCall.get() == nbCalls;
+        valid = false;
+        if (sameNode && lastUB == obj.getUB() && isSupportValid()) {
+            // the last one tree is still optimal for the current multipliers: bound and pruning are unchanged
+            valid = true;
+            return;
+        }
+        if (!sameNode && warmStart) {
+            // warm start from the multipliers of the parent node
+            for (int i = 0; i < n; i++) {
+                penalities[i] = lastPenalities[i].get();
+            }
+            totalPenalities = 0;
+            for (int i = 0; i < n; i++) {
+                totalPenalities += 2 * penalities[i];
+            }
+        }
         // initialisation
         rebuild();
         setCosts();
@@ -111,6 +140,39 @@ public class PropLagr_OneTree extends Propagator implements GraphLagrangianRelax
             lb = obj.getLB();
             lagrangianRelaxation();
         } while (lb < obj.getLB());
+        for (int i = 0; i < n; i++) {
+            lastPenalities[i].set(penalities[i]);
+        }
+        nbCalls++;
+        lastCall.set(nbCalls);
+        lastUB = obj.getUB();
+        valid = true;
+    }
+
+    /**
+     * The one tree of the last filtering remains optimal if only non-tree edges have been removed
+     * and only tree edges have been enforced since then
+     *
+     * @return true iff the last computed one tree is still a support
+     */
+    protected boolean isSupportValid() {
+        UndirectedGraph tree = HKfilter.getMST();
+        ISet nei;
+        for (int i = 0; i < n; i++) {
+            nei = tree.getNeighborsOf(i);
+            for (int j = nei.getFirstElement(); j >= 0; j = nei.getNextElement()) {
+                if (!g.getEnvelopGraph().edgeExists(i, j)) {
+                    return false;
+                }
+            }
+            nei = g.getKernelGraph().getNeighborsOf(i);
+            for (int j = nei.getFirstElement(); j >= 0; j = nei.getNextElement()) {
+                if (!tree.edgeExists(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     protected void lagrangianRelaxation() throws ContradictionException {
@@ -270,7 +332,7 @@ public class PropLagr_OneTree extends Propagator implements GraphLagrangianRelax
 
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        initNRun();
+        forcePropagate(EventType.CUSTOM_PROPAGATION);
     }
 
     @Override
@@ -299,6 +361,14 @@ public class PropLagr_OneTree extends Propagator implements GraphLagrangianRelax
         waitFirstSol = b;
     }
 
+    /**
+     * @param b set to false to start the relaxation of each node from the multipliers of the last explored node,
+     *          rather than from those of its parent node (default true)
+     */
+    public void warmStart(boolean b) {
+        warmStart = b;
+    }
+
     public boolean contains(int i, int j) {
         if (mst == null) {
             return true;
@@ -37,8 +37,12 @@ import util.objects.graphs.UndirectedGraph;
 import util.objects.setDataStructures.ISet;
 import util.objects.setDataStructures.SetFactory;
 import util.objects.setDataStructures.SetType;
+import util.sort.ArraySort;
+import util.sort.IntComparator;
 import util.tools.ArrayUtils;
 
+import java.util.Arrays;
+
 /**
  * @author Jean-Guillaume Fages
  * @since 31/01/13
@@ -49,10 +53,29 @@ public class PropDiffN extends Propagator<IntVar> {
     private UndirectedGraph overlappingBoxes;
     private ISet boxesToCompute;
 	private boolean fast;
+    private boolean sweep;
+    // boxes sorted by earliest horizontal position, by latest horizontal end and by earliest vertical position
+    private int[] byStart, byEnd, byBottom;
+    // position of each box in byBottom, and earliest vertical positions in the order of byBottom
+    private int[] rank, bottoms;
+    // segment tree over byBottom: latest vertical end of the active boxes of each node
+    private int[] tree;
+    private int leaves;
+    private ArraySort sorter;
+    private IntComparator cStart, cEnd, cBottom;
 
     public PropDiffN(IntVar[] x, IntVar[] y, IntVar[] dx, IntVar[] dy, boolean fast) {
+        this(x, y, dx, dy, fast, false);
+    }
+
+    /**
+     * @param sweep set to true to detect the boxes which may overlap with a sweep (see {@link #sweep()}),
+     *              rather than by checking each pair of boxes
+     */
+    public PropDiffN(IntVar[] x, IntVar[] y, IntVar[] dx, IntVar[] dy, boolean fast, boolean sweep) {
         super(ArrayUtils.append(x, y, dx, dy), PropagatorPriority.LINEAR, true);
 		this.fast = fast;
+        this.sweep = sweep;
         n = x.length;
         if (!(n == y.length && n == dx.length && n == dy.length)) {
             throw new UnsupportedOperationException();
@@ -60,6 +83,44 @@ public class PropDiffN extends Propagator<IntVar> {
 		IEnvironment environment = solver.getEnvironment();
         overlappingBoxes = new UndirectedGraph(environment, n, SetType.LINKED_LIST, true);
         boxesToCompute = SetFactory.makeStoredSet(SetType.LINKED_LIST, n, environment);
+        if (sweep) {
+            byStart = new int[n];
+            byEnd = new int[n];
+            byBottom = new int[n];
+            for (int i = 0; i < n; i++) {
+                byStart[i] = byEnd[i] = byBottom[i] = i;
+            }
+            rank = new int[n];
+            bottoms = new int[n];
+            leaves = 1;
+            while (leaves < n) {
+                leaves <<= 1;
+            }
+            tree = new int[2 * leaves];
+            sorter = new ArraySort(n, false, true);
+            cStart = new IntComparator() {
+                @Override
+                public int compare(int i1, int i2) {
+                    return compareInts(vars[i1].getLB(), vars[i2].getLB());
+                }
+            };
+            cEnd = new IntComparator() {
+                @Override
+                public int compare(int i1, int i2) {
+                    return compareInts(end(i1, 0), end(i2, 0));
+                }
+            };
+            cBottom = new IntComparator() {
+                @Override
+                public int compare(int i1, int i2) {
+                    return compareInts(vars[i1 + n].getLB(), vars[i2 + n].getLB());
+                }
+            };
+        }
+    }
+
+    private static int compareInts(int a, int b) {
+        return a < b ? -1 : a == b ? 0 : 1;
     }
 
     @Override
@@ -89,13 +150,12 @@ public class PropDiffN extends Propagator<IntVar> {
             for (int i = 0; i < n; i++) {
                 overlappingBoxes.getNeighborsOf(i).clear();
             }
-            for (int i = 0; i < n; i++) {
-                for (int j = i + 1; j < n; j++) {
-                    if (mayOverlap(i, j)) {
-                        overlappingBoxes.addEdge(i, j);
-                        if (boxInstantiated(i) && boxInstantiated(j)) {
-                            contradiction(vars[i], "");
-                        }
+            if (sweep) {
+                sweep();
+            } else {
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        addIfMayOverlap(i, j);
                     }
                 }
             }
@@ -110,6 +170,100 @@ public class PropDiffN extends Propagator<IntVar> {
         boxesToCompute.clear();
     }
 
+    /**
+     * Computes the pairs of boxes which may overlap with a sweep along the horizontal axis,
+     * in O((n + k).log(n)) where k is the number of such pairs, instead of checking the n<sup>2</sup> pairs.
+     * <br/>
+     * A box is active while its horizontal range contains the sweep line. The vertical ranges of the active boxes
+     * are indexed by a segment tree over the boxes sorted by earliest vertical position, each node storing
+     * the latest vertical end among its active boxes: when the sweep line meets a box, only the active boxes
+     * whose vertical range intersects its own are enumerated.
+     * Boxes are sorted from the orders of the previous sweep, which are nearly sorted.
+     *
+     * @throws ContradictionException if two instantiated boxes overlap
+     */
+    private void sweep() throws ContradictionException {
+        sorter.sort(byStart, n, cStart);
+        sorter.sort(byEnd, n, cEnd);
+        sorter.sort(byBottom, n, cBottom);
+        for (int k = 0; k < n; k++) {
+            rank[byBottom[k]] = k;
+            bottoms[k] = vars[byBottom[k] + n].getLB();
+        }
+        Arrays.fill(tree, Integer.MIN_VALUE);
+        int e = 0;
+        for (int k = 0; k < n; k++) {
+            int i = byStart[k];
+            int xi = vars[i].getLB();
+            // boxes whose horizontal range ends before xi are left behind
+            while (e < n && end(byEnd[e], 0) <= xi) {
+                update(rank[byEnd[e]], Integer.MIN_VALUE);
+                e++;
+            }
+            int top = end(i, n);
+            // active boxes starting below top, and ending above the bottom of i
+            int p = 0;
+            for (int q = n; p < q; ) {
+                int m = (p + q) >>> 1;
+                if (bottoms[m] < top) {
+                    p = m + 1;
+                } else {
+                    q = m;
+                }
+            }
+            collect(1, 0, leaves, p, vars[i + n].getLB(), i);
+            if (end(i, 0) > xi) {
+                update(rank[i], top);
+            }
+        }
+    }
+
+    /**
+     * Sets the vertical end of the k<sup>th</sup> box by earliest vertical position,
+     * Integer.MIN_VALUE if it is not active
+     */
+    private void update(int k, int top) {
+        int node = leaves + k;
+        tree[node] = top;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Links <code>i</code> with each active box among the first <code>p</code> ones by earliest vertical position,
+     * in the sub-tree of <code>node</code> (covering positions <code>lo</code> to <code>hi</code> excluded),
+     * which ends above <code>bottom</code>.
+     */
+    private void collect(int node, int lo, int hi, int p, int bottom, int i) throws ContradictionException {
+        if (lo >= p || tree[node] <= bottom) {
+            return;
+        }
+        if (hi - lo == 1) {
+            addIfMayOverlap(i, byBottom[lo]);
+        } else {
+            int mid = (lo + hi) >>> 1;
+            collect(2 * node, lo, mid, p, bottom, i);
+            collect(2 * node + 1, mid, hi, p, bottom, i);
+        }
+    }
+
+    private void addIfMayOverlap(int i, int j) throws ContradictionException {
+        if (mayOverlap(i, j)) {
+            overlappingBoxes.addEdge(i, j);
+            if (boxInstantiated(i) && boxInstantiated(j)) {
+                contradiction(vars[i], "");
+            }
+        }
+    }
+
+    /**
+     * @return the latest end of box <code>i</code>, horizontally if <code>off</code> is 0, vertically if it is n
+     */
+    private int end(int i, int off) {
+        return vars[i + off].getUB() + vars[i + off + 2 * n].getUB();
+    }
+
     private boolean mayOverlap(int i, int j) {
         if (disjoint(i, j, true) || disjoint(i, j, false)) {
             return false;
@@ -27,7 +27,6 @@
 package solver.constraints.nary.alldifferent;
 
 import gnu.trove.map.hash.TIntIntHashMap;
-import memory.IEnvironment;
 import memory.IStateInt;
 import solver.constraints.Propagator;
 import solver.constraints.PropagatorPriority;
@@ -35,12 +34,6 @@ import solver.exception.ContradictionException;
 import solver.variables.EventType;
 import solver.variables.IntVar;
 import util.ESat;
-import util.graphOperations.connectivity.StrongConnectivityFinder;
-import util.objects.graphs.DirectedGraph;
-import util.objects.setDataStructures.ISet;
-import util.objects.setDataStructures.SetType;
-
-import java.util.BitSet;
 
 /**
  * Propagator for AllDifferent AC constraint for integer variables
@@ -49,7 +42,14 @@ import java.util.BitSet;
  * Runs in O(m.n) worst case time for the initial propagation
  * but has a good average behavior in practice
  * <p/>
- * Runs incrementally for maintaining a matching
+ * Runs incrementally:
+ * - the matching is kept from one call to the next (a matching remains valid on backtrack since domains grow),
+ * it is only repaired for the variables which have lost their matched value,
+ * - strongly connected components are only recomputed for the components modified since the last call
+ * (all of them after a backtrack).
+ * <p/>
+ * The value graph is not stored: the successors of a variable are the values of its domain
+ * (but its matched value) and the successor of a value is the variable it is matched to.
  * <p/>
  *
  * @author Jean-Guillaume Fages
@@ -60,17 +60,34 @@ public class PropAllDiffAC_Fast extends Propagator<IntVar> {
     // VARIABLES
     //***********************************************************************************
 
+    // nodes: variables in [0,n), values in [n,n2), n2 is a sink linked to free values (when there are more values)
     protected int n, n2;
-    protected DirectedGraph digraph;
-    private IStateInt[] matching;
-    private int[] nodeSCC;
-    protected BitSet free;
-    private StrongConnectivityFinder SCCfinder;
+    protected TIntIntHashMap map;
+    protected int[] values;
+    // matched node of each node, -1 if free
+    protected int[] mate;
+    private boolean sink;
     // for augmenting matching (BFS)
-    private int[] father;
-    private BitSet in;
-    private TIntIntHashMap map;
-    int[] fifo;
+    private int[] father, fifo, visited;
+    private int visitStamp;
+    // strongly connected components: component of each node, and nodes of each component
+    private int[] nodeSCC, sccFirst, sccNext, freeIds;
+    private int nbFreeIds;
+    // Tarjan algorithm
+    private int[] dfsNum, low, stack, callStack, cursor;
+    private boolean[] inStack;
+    private int dfsCounter;
+    // nodes whose components are recomputed
+    private int[] scope, inScope, affected;
+    private int scopeSize, scopeStamp;
+    // variables modified since the last call
+    private int[] touched;
+    private boolean[] isTouched;
+    private int nbTouched;
+    // detects backtracks since the last call
+    private IStateInt lastCall;
+    private int nbCalls;
+    private boolean valid;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -83,13 +100,8 @@ public class PropAllDiffAC_Fast extends Propagator<IntVar> {
      * @param variables
      */
     public PropAllDiffAC_Fast(IntVar[] variables) {
-        super(variables, PropagatorPriority.QUADRATIC, false);
+        super(variables, PropagatorPriority.QUADRATIC, true);
         n = vars.length;
-        matching = new IStateInt[n];
-		IEnvironment environment = solver.getEnvironment();
-        for (int i = 0; i < n; i++) {
-            matching[i] = environment.makeInt(-1);
-        }
         map = new TIntIntHashMap();
         IntVar v;
         int ub;
@@ -105,12 +117,35 @@ public class PropAllDiffAC_Fast extends Propagator<IntVar> {
             }
         }
         n2 = idx;
-        fifo = new int[n2];
-        digraph = new DirectedGraph(n2 + 1, SetType.BITSET, false);
-        free = new BitSet(n2);
+        values = new int[n2 - n];
+        for (int k : map.keys()) {
+            values[map.get(k) - n] = k;
+        }
+        sink = n2 > n * 2;
+        int nbNodes = n2 + 1;
+        mate = new int[n2];
+        for (int i = 0; i < n2; i++) {
+            mate[i] = -1;
+        }
         father = new int[n2];
-        in = new BitSet(n2);
-        SCCfinder = new StrongConnectivityFinder(digraph);
+        fifo = new int[n2];
+        visited = new int[n2];
+        nodeSCC = new int[nbNodes];
+        sccFirst = new int[nbNodes];
+        sccNext = new int[nbNodes];
+        freeIds = new int[nbNodes];
+        dfsNum = new int[nbNodes];
+        low = new int[nbNodes];
+        stack = new int[nbNodes];
+        callStack = new int[nbNodes];
+        cursor = new int[nbNodes];
+        inStack = new boolean[nbNodes];
+        scope = new int[nbNodes];
+        inScope = new int[nbNodes];
+        affected = new int[nbNodes];
+        touched = new int[n];
+        isTouched = new boolean[n];
+        lastCall = solver.getEnvironment().makeInt(-1);
     }
 
     //***********************************************************************************
@@ -122,12 +157,76 @@ public class PropAllDiffAC_Fast extends Propagator<IntVar> {
         if (n2 < n * 2) {
             contradiction(null, "not enough values");
         }
-        findMaximumMatching();
+        boolean full = (evtmask & EventType.FULL_PROPAGATION.mask) != 0 || !valid || lastCall.get() != nbCalls;
+        valid = false;
+        if (full) {
+            for (int i = 0; i < n; i++) {
+                if (mate[i] >= 0 && !vars[i].contains(values[mate[i] - n])) {
+                    unmatch(i);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (mate[i] < 0) {
+                    tryToMatch(i, false);
+                }
+            }
+            scopeStamp++;
+            scopeSize = 0;
+            for (int i = 0; i <= n2; i++) {
+                if (i < n2 || sink) {
+                    scope[scopeSize++] = i;
+                    inScope[i] = scopeStamp;
+                }
+            }
+            nbFreeIds = 0;
+            for (int c = n2; c >= 0; c--) {
+                freeIds[nbFreeIds++] = c;
+            }
+        } else {
+            scopeStamp++;
+            for (int k = 0; k < nbTouched; k++) {
+                int i = touched[k];
+                markAffected(i);
+                if (mate[i] >= 0 && !vars[i].contains(values[mate[i] - n])) {
+                    markAffected(mate[i]);
+                    unmatch(i);
+                }
+            }
+            for (int k = 0; k < nbTouched; k++) {
+                int i = touched[k];
+                if (mate[i] < 0) {
+                    tryToMatch(i, true);
+                }
+            }
+            // nodes of the affected components
+            scopeSize = 0;
+            for (int c = 0; c <= n2; c++) {
+                if (affected[c] == scopeStamp) {
+                    for (int x = sccFirst[c]; x >= 0; x = sccNext[x]) {
+                        scope[scopeSize++] = x;
+                        inScope[x] = scopeStamp;
+                    }
+                    freeIds[nbFreeIds++] = c;
+                }
+            }
+        }
+        for (int k = 0; k < nbTouched; k++) {
+            isTouched[touched[k]] = false;
+        }
+        nbTouched = 0;
+        findSCC();
         filter();
+        nbCalls++;
+        lastCall.set(nbCalls);
+        valid = true;
     }
 
     @Override
     public void propagate(int varIdx, int mask) throws ContradictionException {
+        if (!isTouched[varIdx]) {
+            isTouched[varIdx] = true;
+            touched[nbTouched++] = varIdx;
+        }
         forcePropagate(EventType.CUSTOM_PROPAGATION);
     }
 
@@ -169,76 +268,65 @@ public class PropAllDiffAC_Fast extends Propagator<IntVar> {
     }
 
     //***********************************************************************************
-    // Initialization
+    // MATCHING
     //***********************************************************************************
 
-    protected void findMaximumMatching() throws ContradictionException {
-        for (int i = 0; i < n2; i++) {
-            digraph.getSuccessorsOf(i).clear();
-            digraph.getPredecessorsOf(i).clear();
-        }
-        free.set(0, n2);
-        int k, ub;
-        IntVar v;
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            int mate = matching[i].get();
-            for (k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                int j = map.get(k);
-                if (mate == j) {
-                    assert free.get(i) && free.get(j);
-                    digraph.addArc(j, i);
-                    free.clear(i);
-                    free.clear(j);
-                } else {
-                    digraph.addArc(i, j);
-                }
-            }
-        }
-        for (int i = free.nextSetBit(0); i >= 0 && i < n; i = free.nextSetBit(i + 1)) {
-            tryToMatch(i);
-        }
-        int p;
-        for (int i = 0; i < n; i++) {
-            p = digraph.getPredecessorsOf(i).getFirstElement();
-            matching[i].set(p);
+    private void unmatch(int i) {
+        mate[mate[i]] = -1;
+        mate[i] = -1;
+    }
+
+    private void markAffected(int node) {
+        int c = nodeSCC[node];
+        if (affected[c] != scopeStamp) {
+            affected[c] = scopeStamp;
         }
     }
 
-    private void tryToMatch(int i) throws ContradictionException {
-        int mate = augmentPath_BFS(i);
-        if (mate != -1) {
-            free.clear(mate);
-            free.clear(i);
-            int tmp = mate;
-            while (tmp != i) {
-                digraph.removeArc(father[tmp], tmp);
-                digraph.addArc(tmp, father[tmp]);
-                tmp = father[tmp];
-            }
-        } else {
+    private void tryToMatch(int i, boolean mark) throws ContradictionException {
+        int y = augmentPath_BFS(i);
+        if (y == -1) {
             contradiction(vars[i], "no match");
         }
+        if (mark && sink) {
+            // a value is no longer free
+            markAffected(n2);
+        }
+        while (y >= 0) {
+            int x = father[y];
+            int prev = mate[x];
+            if (mark) {
+                markAffected(x);
+                markAffected(y);
+            }
+            mate[x] = y;
+            mate[y] = x;
+            y = prev;
+        }
     }
 
     private int augmentPath_BFS(int root) {
-        in.clear();
+        visitStamp++;
         int indexFirst = 0, indexLast = 0;
         fifo[indexLast++] = root;
-        int x, y;
-        ISet succs;
+        visited[root] = visitStamp;
         while (indexFirst != indexLast) {
-            x = fifo[indexFirst++];
-            succs = digraph.getSuccessorsOf(x);
-            for (y = succs.getFirstElement(); y >= 0; y = succs.getNextElement()) {
-                if (!in.get(y)) {
+            int x = fifo[indexFirst++];
+            IntVar v = vars[x];
+            int ub = v.getUB();
+            for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
+                int y = map.get(k);
+                if (visited[y] != visitStamp) {
+                    visited[y] = visitStamp;
                     father[y] = x;
-                    fifo[indexLast++] = y;
-                    in.set(y);
-                    if (free.get(y)) {
+                    if (mate[y] < 0) {
                         return y;
                     }
+                    int z = mate[y];
+                    if (visited[z] != visitStamp) {
+                        visited[z] = visitStamp;
+                        fifo[indexLast++] = z;
+                    }
                 }
             }
         }
@@ -249,58 +337,130 @@ public class PropAllDiffAC_Fast extends Propagator<IntVar> {
     // PRUNING
     //***********************************************************************************
 
-    private void buildSCC() {
-        if (n2 > n * 2) {
-            digraph.desactivateNode(n2);
-            digraph.activateNode(n2);
-            for (int i = n; i < n2; i++) {
-                if (free.get(i)) {
-                    digraph.addArc(i, n2);
+    /**
+     * Tarjan algorithm (iterative) restricted to the nodes of the scope
+     */
+    private void findSCC() {
+        for (int k = 0; k < scopeSize; k++) {
+            dfsNum[scope[k]] = -1;
+        }
+        dfsCounter = 0;
+        for (int k = 0; k < scopeSize; k++) {
+            int r = scope[k];
+            if (dfsNum[r] >= 0) {
+                continue;
+            }
+            int top = 0;
+            int stackIdx = 0;
+            visit(r);
+            stack[stackIdx++] = r;
+            callStack[top++] = r;
+            while (top > 0) {
+                int x = callStack[top - 1];
+                int w = nextSuccessor(x);
+                if (w >= 0) {
+                    if (dfsNum[w] < 0) {
+                        visit(w);
+                        stack[stackIdx++] = w;
+                        callStack[top++] = w;
+                    } else if (inStack[w]) {
+                        low[x] = Math.min(low[x], dfsNum[w]);
+                    }
                 } else {
-                    digraph.addArc(n2, i);
+                    top--;
+                    if (low[x] == dfsNum[x]) {
+                        int c = freeIds[--nbFreeIds];
+                        sccFirst[c] = -1;
+                        int y;
+                        do {
+                            y = stack[--stackIdx];
+                            inStack[y] = false;
+                            nodeSCC[y] = c;
+                            sccNext[y] = sccFirst[c];
+                            sccFirst[c] = y;
+                        } while (y != x);
+                    }
+                    if (top > 0) {
+                        int p = callStack[top - 1];
+                        low[p] = Math.min(low[p], low[x]);
+                    }
                 }
             }
         }
-        SCCfinder.findAllSCC();
-        nodeSCC = SCCfinder.getNodesSCC();
-        digraph.desactivateNode(n2);
     }
 
-    protected void filter() throws ContradictionException {
-        buildSCC();
-        int j, ub;
-        IntVar v;
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            ub = v.getUB();
-            for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                j = map.get(k);
-                if (nodeSCC[i] != nodeSCC[j]) {
-                    if (matching[i].get() == j) {
-                        v.instantiateTo(k, aCause);
-                    } else {
-                        v.removeValue(k, aCause);
-                        digraph.removeArc(i, j);
-                    }
+    private void visit(int x) {
+        dfsNum[x] = low[x] = dfsCounter++;
+        inStack[x] = true;
+        if (x < n) {
+            cursor[x] = vars[x].getLB();
+        } else {
+            cursor[x] = x == n2 ? n : 0;
+        }
+    }
+
+    private int nextSuccessor(int x) {
+        if (x < n) {
+            // values of the domain, but the matched one
+            IntVar v = vars[x];
+            int ub = v.getUB();
+            while (cursor[x] <= ub) {
+                int y = map.get(cursor[x]);
+                cursor[x] = v.nextValue(cursor[x]);
+                if (y != mate[x] && inScope[y] == scopeStamp) {
+                    return y;
+                }
+            }
+        } else if (x < n2) {
+            // matched variable, or the sink for a free value
+            if (cursor[x] == 0) {
+                cursor[x] = 1;
+                int y = mate[x] >= 0 ? mate[x] : sink ? n2 : -1;
+                if (y >= 0 && inScope[y] == scopeStamp) {
+                    return y;
+                }
+            }
+        } else {
+            // sink: matched values
+            while (cursor[x] < n2) {
+                int y = cursor[x]++;
+                if (mate[y] >= 0 && inScope[y] == scopeStamp) {
+                    return y;
                 }
             }
         }
-        for (int i = 0; i < n; i++) {
-            v = vars[i];
-            if (!v.hasEnumeratedDomain()) {
-                ub = v.getUB();
-                for (int k = v.getLB(); k <= ub; k++) {
-                    j = map.get(k);
-                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
-                        v.removeValue(k, aCause);
+        return -1;
+    }
+
+    protected void filter() throws ContradictionException {
+        for (int k = 0; k < scopeSize; k++) {
+            int i = scope[k];
+            if (i >= n) {
+                continue;
+            }
+            IntVar v = vars[i];
+            if (v.hasEnumeratedDomain()) {
+                int ub = v.getUB();
+                for (int val = v.getLB(); val <= ub; val = v.nextValue(val)) {
+                    int j = map.get(val);
+                    if (nodeSCC[i] != nodeSCC[j]) {
+                        if (mate[i] == j) {
+                            v.instantiateTo(val, aCause);
+                        } else {
+                            v.removeValue(val, aCause);
+                        }
                     }
                 }
+            } else {
                 int lb = v.getLB();
-                for (int k = v.getUB(); k >= lb; k--) {
-                    j = map.get(k);
-                    if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
-                        v.removeValue(k, aCause);
-                    }
+                while (nodeSCC[i] != nodeSCC[map.get(lb)] && mate[i] != map.get(lb)) {
+                    v.removeValue(lb, aCause);
+                    lb = v.getLB();
+                }
+                int ub = v.getUB();
+                while (nodeSCC[i] != nodeSCC[map.get(ub)] && mate[i] != map.get(ub)) {
+                    v.removeValue(ub, aCause);
+                    ub = v.getUB();
                 }
             }
         }
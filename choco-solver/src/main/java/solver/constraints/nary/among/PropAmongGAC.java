@@ -126,7 +126,7 @@ public class PropAmongGAC extends Propagator<IntVar> {
                     }
                 } else {
                     idms[varIdx].freeze();
-                    idms[varIdx].forEach(rem_proc.set(varIdx), EventType.REMOVE);
+                    idms[varIdx].forEachSafe(rem_proc.set(varIdx), EventType.REMOVE);
                     idms[varIdx].unfreeze();
                 }
                 return needFilter;
@@ -96,6 +96,9 @@ public class PropClause extends Propagator<BoolVar> {
                     cnt++;
                 }
             } else if (i != otherWL) {
+                // only the watch literals are listened to
+                setWatched(watchLit1 == otherWL ? watchLit2 : watchLit1, false);
+                setWatched(i, true);
                 watchLit1 = i;
                 watchLit2 = otherWL;
                 return;
@@ -139,6 +142,10 @@ public class PropClause extends Propagator<BoolVar> {
                 this.contradiction(null, "Inconsistent");
             } else if (cnt == n - 1) {
                 setWatchLiteral(watchLit1);
+            } else {
+                for (int j = 0; j < n; j++) {
+                    setWatched(j, j == watchLit1 || j == watchLit2);
+                }
             }
         }
     }
@@ -91,17 +91,18 @@ public class PropSat extends Propagator<BoolVar> {
     @Override
     public ESat isEntailed() {
         if (isCompletelyInstantiated()) {
-            for (SatSolver.Clause c : sat_.clauses) {
+            for (int k = 0; k < sat_.clauses.size(); k++) {
+                int c = sat_.clauses.get(k);
                 int cnt = 0;
-                for (int i = 0; i < c.size(); i++) {
-                    int lit = c._g(i);
+                for (int i = 0; i < sat_.clauseSize(c); i++) {
+                    int lit = sat_.clauseLiteral(c, i);
                     boolean sign = SatSolver.sign(lit);
                     int var = SatSolver.var(lit);
                     int val = vars[var].getValue();
                     if (val == (sign ? 0 : 1)) cnt++; // if the lit is ok
                     else break;
                 }
-                if (cnt == c.size()) return ESat.FALSE;
+                if (cnt == sat_.clauseSize(c)) return ESat.FALSE;
             }
             return ESat.TRUE;
         }
@@ -28,15 +28,22 @@ package solver.constraints.nary.cnf;
 
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.map.hash.TIntObjectHashMap;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
- * A MiniSat solver.
+ * A MiniSat solver, extended to conflict-driven clause learning.
  * <p/>
  * (or-tools, booleans.cc, ty L. Perron).
  * <br/>
+ * Clauses are stored in a single int arena, watched by two literals (with blockers).
+ * Each time the decision level, pushed by {@link PropSat}, leads to a conflict, a 1-UIP clause is learnt
+ * and kept across backtracks; the learnt clauses of high LBD ("Predicting Learnt Clauses Quality in
+ * Modern SAT Solvers", G. Audemard, L. Simon, IJCAI'09) are periodically removed.
+ * <br/>
+ * Since the decision levels are undone by the search loop, a learnt clause is not propagated by backjumping:
+ * it is kept asserting, that is, its first literal is enqueued each time the solver goes back to a level
+ * where all the other literals are still false.
  *
  * @author Charles Prud'homme
  * @since 12/07/13
@@ -54,27 +61,59 @@ public class SatSolver {
      */
     static final int kErrorLiteral = -1;
 
+    // No clause reference.
+    static final int kNoClause = -1;
+
+    // Clause layout in the arena: size, flags (learnt, deleted, asserting, lbd), literals.
+    private static final int HEADER = 2;
+    private static final int LEARNT = 1, DELETED = 2, ASSERTING = 4, LBD_SHIFT = 3;
+
+    // First reduction of the learnt clause database, and increment between two reductions.
+    private static final int FIRST_REDUCE = 2000, INC_REDUCE = 300;
+
     // If false, the constraints are already unsatisfiable. No part of
     // the solver state may be used!
     boolean ok_;
-    // List of problem addClauses.
-    ArrayList<Clause> clauses;
-    // 'watches_[lit]' is a list of constraints watching 'lit'(will go
-    // there if literal becomes true).
-    TIntObjectHashMap<ArrayList<Watcher>> watches_;
-    // implies_[lit] is a list of literals to set to true if 'lit' becomes true.
-    TIntObjectHashMap<TIntList> implies_;
-    // The current assignments.
-    TIntObjectHashMap<Boolean> assignment_;
+    // Clause arena.
+    int[] arena_;
+    int arena_size_;
+    // Number of ints of the arena occupied by deleted clauses.
+    int wasted_;
+    // List of problem clauses (references in the arena).
+    TIntArrayList clauses;
+    // List of learnt clauses.
+    TIntArrayList learnts;
+    // 'watches_[lit]' is a list of (clause, blocker) pairs watching 'lit' (will go
+    // there if literal becomes true), 'watch_sizes_[lit]' its size.
+    int[][] watches_;
+    int[] watch_sizes_;
+    // The current assignments, decision level and reason of each variable.
+    byte[] assignment_;
+    int[] level_;
+    int[] reason_;
     // Assignment stack; stores all assigments made in the order they
     // were made.
-    TIntList trail_;
+    TIntArrayList trail_;
     // Separator indices for different decision levels in 'trail_'.
-    TIntList trail_markers_;
+    TIntArrayList trail_markers_;
     // Head of queue(as index into the trail_.
     int qhead_;
     // Number of variables
     int num_vars_;
+    // Clause found false by the last propagation.
+    int conflict_;
+    // Learnt clauses to enqueue again (and their assertion level) when going back to the level they assert.
+    TIntArrayList asserting_;
+    TIntArrayList asserting_levels_;
+    // Conflict analysis.
+    boolean[] seen_;
+    int[] level_stamps_;
+    int lbd_stamp_;
+    TIntArrayList learnt_clause_;
+    // Statistics and reduction schedule.
+    long num_conflicts_;
+    int num_reductions_;
+    int max_learnts_;
 
     TIntArrayList temporary_add_vector_;
     TIntArrayList touched_variables_;
@@ -84,12 +123,23 @@ public class SatSolver {
         this.ok_ = true;
         this.qhead_ = 0;
         num_vars_ = 0;
-        this.clauses = new ArrayList<Clause>();
-        this.watches_ = new TIntObjectHashMap<ArrayList<Watcher>>();
-        this.implies_ = new TIntObjectHashMap<TIntList>();
-        this.assignment_ = new TIntObjectHashMap<Boolean>();
+        this.arena_ = new int[1024];
+        this.clauses = new TIntArrayList();
+        this.learnts = new TIntArrayList();
+        this.watches_ = new int[16][];
+        this.watch_sizes_ = new int[16];
+        this.assignment_ = new byte[8];
+        this.level_ = new int[8];
+        this.reason_ = new int[8];
+        this.seen_ = new boolean[8];
+        this.level_stamps_ = new int[8];
         this.trail_ = new TIntArrayList();
         this.trail_markers_ = new TIntArrayList();
+        this.conflict_ = kNoClause;
+        this.asserting_ = new TIntArrayList();
+        this.asserting_levels_ = new TIntArrayList();
+        this.learnt_clause_ = new TIntArrayList();
+        this.max_learnts_ = FIRST_REDUCE;
         this.temporary_add_vector_ = new TIntArrayList();
         this.touched_variables_ = new TIntArrayList();
     }
@@ -97,9 +147,19 @@ public class SatSolver {
     // Add a new variable.
     public int newVariable() {
         int v = incrementVariableCounter();
-//            watches_.resize(2 * v + 2);
-//        implies_.resize(2 * v.value() + 2);
-        assignment_.put(v, Boolean.kUndefined);
+        if (v == assignment_.length) {
+            int n = v * 2;
+            assignment_ = Arrays.copyOf(assignment_, n);
+            level_ = Arrays.copyOf(level_, n);
+            reason_ = Arrays.copyOf(reason_, n);
+            seen_ = Arrays.copyOf(seen_, n);
+            watches_ = Arrays.copyOf(watches_, 2 * n);
+            watch_sizes_ = Arrays.copyOf(watch_sizes_, 2 * n);
+        }
+        watches_[2 * v] = new int[4];
+        watches_[2 * v + 1] = new int[4];
+        assignment_[v] = Boolean.kUndefined.value;
+        reason_[v] = kNoClause;
         return v;
     }
 
@@ -121,40 +181,22 @@ public class SatSolver {
                 ps.set(j++, lit);
             }
         }
-        if (j < ps.size() - 1) {
-            ps.remove(j + 1, ps.size() - j - 1);
+        if (j < ps.size()) {
+            ps.remove(j, ps.size() - j);
         }
 
 
         switch (ps.size()) {
             case 0:
-            return (ok_ = false);
+                return (ok_ = false);
             case 1:
-            uncheckedEnqueue(ps.get(0));
-            return (ok_ = propagate());
-            case 2:
-                int l0 = ps.get(0);
-                int l1 = ps.get(1);
-                TIntList i0 = implies_.get(negated(l0));
-                if (i0 == null) {
-                    i0 = new TIntArrayList();
-                    implies_.put(negated(l0), i0);
-                }
-                i0.add(l1);
-
-                TIntList i1 = implies_.get(negated(l1));
-                if (i1 == null) {
-                    i1 = new TIntArrayList();
-                    implies_.put(negated(l1), i1);
-                }
-                i1.add(l0);
-                break;
+                uncheckedEnqueue(ps.get(0));
+                return (ok_ = propagate());
             default:
-            Clause cr = new Clause(ps.toArray());
-            clauses.add(cr);
-            attachClause(cr);
+                int cr = allocClause(ps, false);
+                clauses.add(cr);
+                attachClause(cr);
                 break;
-
         }
         return true;
     }
@@ -200,11 +242,24 @@ public class SatSolver {
         if (trailMarker() > level) {
             for (int c = trail_.size() - 1; c >= trail_markers_.get(level); c--) {
                 int x = var(trail_.get(c));
-                assignment_.put(x, Boolean.kUndefined);
+                assignment_[x] = Boolean.kUndefined.value;
             }
             qhead_ = trail_markers_.get(level);
             trail_.remove(trail_markers_.get(level), trail_.size() - trail_markers_.get(level));
             trail_markers_.remove(level, trail_markers_.size() - level);
+            // the learnt clauses asserting a cancelled level are watched normally again
+            int j = 0;
+            for (int i = 0; i < asserting_.size(); i++) {
+                int cr = asserting_.getQuick(i);
+                if (asserting_levels_.getQuick(i) > level) {
+                    arena_[cr + 1] &= ~ASSERTING;
+                } else {
+                    asserting_.setQuick(j, cr);
+                    asserting_levels_.setQuick(j++, asserting_levels_.getQuick(i));
+                }
+            }
+            asserting_.remove(j, asserting_.size() - j);
+            asserting_levels_.remove(j, asserting_levels_.size() - j);
         }
     }
 
@@ -215,13 +270,18 @@ public class SatSolver {
 
     // The current value of a variable.
     Boolean valueVar(int x) {
-        return assignment_.get(x);
+        return Boolean.make(assignment_[x]);
     }
 
     // The current value of a literal.
     Boolean valueLit(int l) {
-        Boolean b = assignment_.get(var(l));
-        return b == Boolean.kUndefined ? Boolean.kUndefined : xor(b, sign(l));
+        return Boolean.make(litValue(l));
+    }
+
+    // The current value of a literal, as a byte.
+    private byte litValue(int l) {
+        byte b = assignment_[var(l)];
+        return b == 2 ? b : (byte) (b ^ (l & 1));
     }
 
     // The current number of original clauses.
@@ -229,12 +289,35 @@ public class SatSolver {
         return clauses.size();
     }
 
+    // The current number of learnt clauses.
+    public int nLearnts() {
+        return learnts.size();
+    }
+
+    // The number of conflicts met so far.
+    public long nConflicts() {
+        return num_conflicts_;
+    }
+
+    // The size of the clause 'cr'.
+    int clauseSize(int cr) {
+        return arena_[cr];
+    }
+
+    // The i-th literal of the clause 'cr'.
+    int clauseLiteral(int cr, int i) {
+        return arena_[cr + HEADER + i];
+    }
+
     // Propagates one literal, returns true if successful, false in case
     // of failure.
     boolean propagateOneLiteral(int lit) {
-        assert ok_;
+        if (!ok_) {
+            return false;
+        }
         touched_variables_.clear();
-        if (!propagate()) {
+        if (!propagateAsserting() || !propagate()) {
+            learn();
             return false;
         }
         if (valueLit(lit) == Boolean.kTrue) {
@@ -245,11 +328,12 @@ public class SatSolver {
             return false;
         }
         pushTrailMarker();
-        // Unchecked enqueue
-        assert valueLit(lit) == Boolean.kUndefined;
-        assignment_.put(var(lit), makeBoolean(!sign(lit)));
-        trail_.add(lit);
-        return propagate();
+        assign(lit, kNoClause);
+        if (!propagate()) {
+            learn();
+            return false;
+        }
+        return true;
     }
 
 
@@ -264,11 +348,22 @@ public class SatSolver {
 
     // Enqueue a literal. Assumes value of literal is undefined.
     void uncheckedEnqueue(int l) {
+        uncheckedEnqueue(l, kNoClause);
+    }
+
+    // Enqueue a literal implied by the clause 'cr'. Assumes value of literal is undefined.
+    void uncheckedEnqueue(int l, int cr) {
+        touched_variables_.add(l);
+        assign(l, cr);
+    }
+
+    // Set a literal to true, at the current level.
+    private void assign(int l, int cr) {
         assert valueLit(l) == Boolean.kUndefined;
-        if (assignment_.get(var(l)) == Boolean.kUndefined) {
-            touched_variables_.add(l);
-        }
-        assignment_.put(var(l), sign(l) ? Boolean.kFalse : Boolean.kTrue);
+        int x = var(l);
+        assignment_[x] = sign(l) ? Boolean.kFalse.value : Boolean.kTrue.value;
+        level_[x] = trailMarker();
+        reason_[x] = cr;
         trail_.add(l);
     }
 
@@ -282,83 +377,88 @@ public class SatSolver {
         }
     }
 
-    // Attach a clause to watcher lists.
-    void attachClause(Clause cr) {
-        Clause c = cr;
-        assert c.size() > 1;
-        ArrayList<Watcher> l0 = watches_.get(negated(c._g(0)));
-        if (l0 == null) {
-            l0 = new ArrayList<Watcher>();
-            watches_.put(negated(c._g(0)), l0);
+    // Copy the literals in the arena, returns the reference of the clause.
+    private int allocClause(TIntList ps, boolean learnt) {
+        int size = ps.size();
+        if (arena_size_ + HEADER + size > arena_.length) {
+            arena_ = Arrays.copyOf(arena_, Math.max(arena_.length * 2, arena_size_ + HEADER + size));
         }
-        ArrayList<Watcher> l1 = watches_.get(negated(c._g(1)));
-        if (l1 == null) {
-            l1 = new ArrayList<Watcher>();
-            watches_.put(negated(c._g(1)), l1);
+        int cr = arena_size_;
+        arena_[cr] = size;
+        arena_[cr + 1] = learnt ? LEARNT : 0;
+        for (int i = 0; i < size; i++) {
+            arena_[cr + HEADER + i] = ps.get(i);
         }
-        l0.add(new Watcher(cr, c._g(1)));
-        l1.add(new Watcher(cr, c._g(0)));
+        arena_size_ += HEADER + size;
+        return cr;
+    }
+
+    // Add (cr, blocker) to the watch list of 'lit'.
+    private void watch(int lit, int cr, int blocker) {
+        int[] ws = watches_[lit];
+        int n = watch_sizes_[lit];
+        if (n + 2 > ws.length) {
+            ws = watches_[lit] = Arrays.copyOf(ws, ws.length * 2);
+        }
+        ws[n] = cr;
+        ws[n + 1] = blocker;
+        watch_sizes_[lit] = n + 2;
+    }
+
+    // Attach a clause to watcher lists.
+    void attachClause(int cr) {
+        assert arena_[cr] > 1;
+        int l0 = arena_[cr + HEADER];
+        int l1 = arena_[cr + HEADER + 1];
+        watch(negated(l0), cr, l1);
+        watch(negated(l1), cr, l0);
     }
 
     // Perform unit propagation. returns true upon success.
     boolean propagate() {
-        boolean result = true;
         while (qhead_ < trail_.size()) {
             int p = trail_.get(qhead_++);
-            // Propagate the implies first.
-            TIntList to_add = implies_.get(p);
-            if (to_add != null) {
-                for (int i = 0; i < to_add.size(); ++i) {
-                    if (!enqueue(to_add.get(i))) {
-                        return false;
-                    }
-                }
-            }
-
+            final int false_lit = negated(p);
             // 'p' is enqueued fact to propagate.
-            ArrayList<Watcher> ws = watches_.get(p);
-
+            int[] ws = watches_[p];
+            int n = watch_sizes_[p];
             int i = 0;
             int j = 0;
-            while (ws != null && i < ws.size()) {
+            while (i < n) {
                 // Try to avoid inspecting the clause:
-                int blocker = ws.get(i).blocker;
-                if (valueLit(blocker) == Boolean.kTrue) {
-                    ws.set(j++, ws.get(i++));
+                int cr = ws[i];
+                int blocker = ws[i + 1];
+                i += 2;
+                if (litValue(blocker) == 0) {
+                    ws[j++] = cr;
+                    ws[j++] = blocker;
                     continue;
                 }
 
                 // Make sure the false literal is data[1]:
-                Clause cr = ws.get(i).clause;
-                Clause c = cr;
-                final int false_lit = negated(p);
-                if (c._g(0) == false_lit) {
-                    c._s(0, c._g(1));
-                    c._s(1, false_lit);
+                int c = cr + HEADER;
+                if (arena_[c] == false_lit) {
+                    arena_[c] = arena_[c + 1];
+                    arena_[c + 1] = false_lit;
                 }
-                assert (c._g(1) == false_lit);
-                i++;
+                assert (arena_[c + 1] == false_lit);
 
                 // If 0th watch is true, then clause is already satisfied.
-                final int first = c._g(0);
-                Watcher w = new Watcher(cr, first);
-                if (first != blocker && valueLit(first) == Boolean.kTrue) {
-                    ws.set(j++, w);
+                final int first = arena_[c];
+                if (first != blocker && litValue(first) == 0) {
+                    ws[j++] = cr;
+                    ws[j++] = first;
                     continue;
                 }
 
                 // Look for new watch:
                 boolean cont = false;
-                for (int k = 2; k < c.size(); k++) {
-                    if (valueLit(c._g(k)) != Boolean.kFalse) {
-                        c._s(1, c._g(k));
-                        c._s(k, false_lit);
-                        ArrayList<Watcher> lw = watches_.get(negated(c._g(1)));
-                        if (lw == null) {
-                            lw = new ArrayList<Watcher>();
-                            watches_.put(negated(c._g(1)), lw);
-                        }
-                        lw.add(w);
+                int size = arena_[cr];
+                for (int k = 2; k < size; k++) {
+                    if (litValue(arena_[c + k]) != 1) {
+                        arena_[c + 1] = arena_[c + k];
+                        arena_[c + k] = false_lit;
+                        watch(negated(arena_[c + 1]), cr, first);
                         cont = true;
                         break;
                     }
@@ -366,26 +466,259 @@ public class SatSolver {
 
                 // Did not find watch -- clause is unit under assignment:
                 if (!cont) {
-                    ws.set(j++, w);
-                    if (valueLit(first) == Boolean.kFalse) {
-                        result = false;
+                    ws[j++] = cr;
+                    ws[j++] = first;
+                    if (litValue(first) == 1) {
+                        conflict_ = cr;
                         qhead_ = trail_.size();
                         // Copy the remaining watches_:
-                        while (i < ws.size()) {
-                            ws.set(j++, ws.get(i++));
+                        while (i < n) {
+                            ws[j++] = ws[i++];
                         }
                     } else {
-                        uncheckedEnqueue(first);
+                        uncheckedEnqueue(first, cr);
                     }
                 }
             }
-            if (ws != null) {
-                for (int k = ws.size() - 1; k >= j; k--) {
-                    ws.remove(k);
+            watch_sizes_[p] = j;
+        }
+        return conflict_ == kNoClause;
+    }
+
+    // Enqueue the first literal of the learnt clauses asserting the current level, or any level below.
+    private boolean propagateAsserting() {
+        for (int i = 0; i < asserting_.size(); i++) {
+            int cr = asserting_.getQuick(i);
+            int c = cr + HEADER;
+            if (arena_[cr] > 1 && litValue(arena_[c]) == 1) {
+                // the watched literals may have been swapped
+                int l = arena_[c];
+                arena_[c] = arena_[c + 1];
+                arena_[c + 1] = l;
+            }
+            switch (litValue(arena_[c])) {
+                case 2:
+                    uncheckedEnqueue(arena_[c], cr);
+                    break;
+                case 1:
+                    conflict_ = cr;
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    // Learns a clause from the conflict, assumes conflict_ is set.
+    private void learn() {
+        int confl = conflict_;
+        conflict_ = kNoClause;
+        num_conflicts_++;
+        int confl_level = 0;
+        for (int k = 0; k < arena_[confl]; k++) {
+            confl_level = Math.max(confl_level, level_[var(arena_[confl + HEADER + k])]);
+        }
+        if (confl_level == 0) {
+            ok_ = false;
+            return;
+        }
+        analyze(confl, confl_level, learnt_clause_);
+        // the literal of highest level, after the asserting one, is watched
+        int max = 1;
+        for (int k = 2; k < learnt_clause_.size(); k++) {
+            if (level_[var(learnt_clause_.getQuick(k))] > level_[var(learnt_clause_.getQuick(max))]) {
+                max = k;
+            }
+        }
+        int assertion_level = 0;
+        if (learnt_clause_.size() > 1) {
+            int l = learnt_clause_.getQuick(max);
+            learnt_clause_.setQuick(max, learnt_clause_.getQuick(1));
+            learnt_clause_.setQuick(1, l);
+            assertion_level = level_[var(l)];
+        }
+        int cr = allocClause(learnt_clause_, true);
+        arena_[cr + 1] |= ASSERTING | (computeLBD(learnt_clause_) << LBD_SHIFT);
+        learnts.add(cr);
+        if (learnt_clause_.size() > 1) {
+            attachClause(cr);
+        }
+        asserting_.add(cr);
+        asserting_levels_.add(assertion_level);
+        if (learnts.size() >= max_learnts_) {
+            reduceDB();
+        }
+    }
+
+    // 1-UIP conflict analysis, the asserting literal is put first.
+    private void analyze(int confl, int confl_level, TIntArrayList out) {
+        int path_count = 0;
+        int p = kUndefinedLiteral;
+        int index = trail_.size() - 1;
+        out.resetQuick();
+        out.add(kUndefinedLiteral);
+        do {
+            int size = arena_[confl];
+            for (int k = (p == kUndefinedLiteral ? 0 : 1); k < size; k++) {
+                int q = arena_[confl + HEADER + k];
+                int x = var(q);
+                if (!seen_[x] && level_[x] > 0) {
+                    seen_[x] = true;
+                    if (level_[x] >= confl_level) {
+                        path_count++;
+                    } else {
+                        out.add(q);
+                    }
                 }
             }
+            // Select next literal to look at:
+            while (!seen_[var(trail_.getQuick(index--))]) ;
+            p = trail_.getQuick(index + 1);
+            confl = reason_[var(p)];
+            seen_[var(p)] = false;
+            path_count--;
+        } while (path_count > 0);
+        out.setQuick(0, negated(p));
+        // Remove the literals implied by other literals of the clause (flagged by a negative value):
+        for (int i = 1; i < out.size(); i++) {
+            int q = out.getQuick(i);
+            if (redundant(q)) {
+                out.setQuick(i, -q - 1);
+            }
         }
-        return result;
+        int j = 1;
+        for (int i = 1; i < out.size(); i++) {
+            int q = out.getQuick(i);
+            if (q < 0) {
+                q = -q - 1;
+            } else {
+                out.setQuick(j++, q);
+            }
+            seen_[var(q)] = false;
+        }
+        out.remove(j, out.size() - j);
+    }
+
+    // A literal is redundant if all the literals of its reason are in the clause, or fixed at level 0.
+    private boolean redundant(int q) {
+        int cr = reason_[var(q)];
+        if (cr == kNoClause) {
+            return false;
+        }
+        for (int k = 1; k < arena_[cr]; k++) {
+            int x = var(arena_[cr + HEADER + k]);
+            if (!seen_[x] && level_[x] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Number of distinct decision levels in 'ps'.
+    private int computeLBD(TIntList ps) {
+        if (level_stamps_.length <= trailMarker()) {
+            level_stamps_ = Arrays.copyOf(level_stamps_, trailMarker() * 2 + 1);
+        }
+        lbd_stamp_++;
+        int lbd = 0;
+        for (int i = 0; i < ps.size(); i++) {
+            int l = level_[var(ps.get(i))];
+            if (level_stamps_[l] != lbd_stamp_) {
+                level_stamps_[l] = lbd_stamp_;
+                lbd++;
+            }
+        }
+        return lbd;
+    }
+
+    // A clause is locked if it is the reason of a current assignment, or still asserting.
+    private boolean locked(int cr) {
+        if ((arena_[cr + 1] & ASSERTING) != 0) {
+            return true;
+        }
+        int first = arena_[cr + HEADER];
+        return reason_[var(first)] == cr && litValue(first) == 0;
+    }
+
+    // Remove half of the learnt clauses, keeping the ones with small LBD.
+    void reduceDB() {
+        int[] sorted = learnts.toArray();
+        // sort by decreasing LBD, ties broken by decreasing size
+        long[] keys = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            int cr = sorted[i];
+            keys[i] = ((long) Math.min(arena_[cr + 1] >>> LBD_SHIFT, 0xFFFFF) << 44)
+                    | ((long) Math.min(arena_[cr], 0xFFFFF) << 24) | i;
+        }
+        Arrays.sort(keys);
+        int limit = sorted.length / 2;
+        int removed = 0;
+        for (int i = keys.length - 1; i >= 0 && removed < limit; i--) {
+            int cr = sorted[(int) (keys[i] & 0xFFFFFF)];
+            if ((arena_[cr + 1] >>> LBD_SHIFT) > 2 && !locked(cr)) {
+                arena_[cr + 1] |= DELETED;
+                wasted_ += HEADER + arena_[cr];
+                removed++;
+            }
+        }
+        int j = 0;
+        for (int i = 0; i < learnts.size(); i++) {
+            int cr = learnts.getQuick(i);
+            if ((arena_[cr + 1] & DELETED) == 0) {
+                learnts.setQuick(j++, cr);
+            }
+        }
+        learnts.remove(j, learnts.size() - j);
+        for (int l = 0; l < 2 * num_vars_; l++) {
+            int[] ws = watches_[l];
+            int k = 0;
+            for (int i = 0; i < watch_sizes_[l]; i += 2) {
+                if ((arena_[ws[i] + 1] & DELETED) == 0) {
+                    ws[k++] = ws[i];
+                    ws[k++] = ws[i + 1];
+                }
+            }
+            watch_sizes_[l] = k;
+        }
+        num_reductions_++;
+        max_learnts_ = learnts.size() + FIRST_REDUCE + INC_REDUCE * num_reductions_;
+        if (wasted_ > arena_size_ / 2) {
+            garbageCollect();
+        }
+    }
+
+    // Compacts the arena, the references to the clauses are relocated.
+    private void garbageCollect() {
+        int[] to = new int[Math.max(1024, (arena_size_ - wasted_) * 2)];
+        int size = 0;
+        // the first int of a relocated clause points to its new position
+        for (TIntArrayList list : new TIntArrayList[]{clauses, learnts}) {
+            for (int i = 0; i < list.size(); i++) {
+                int cr = list.getQuick(i);
+                int n = HEADER + arena_[cr];
+                System.arraycopy(arena_, cr, to, size, n);
+                arena_[cr] = -size - 1;
+                list.setQuick(i, size);
+                size += n;
+            }
+        }
+        for (int i = 0; i < asserting_.size(); i++) {
+            asserting_.setQuick(i, -arena_[asserting_.getQuick(i)] - 1);
+        }
+        for (int i = 0; i < trail_.size(); i++) {
+            int x = var(trail_.getQuick(i));
+            if (reason_[x] != kNoClause) {
+                reason_[x] = -arena_[reason_[x]] - 1;
+            }
+        }
+        for (int l = 0; l < 2 * num_vars_; l++) {
+            int[] ws = watches_[l];
+            for (int i = 0; i < watch_sizes_[l]; i += 2) {
+                ws[i] = -arena_[ws[i]] - 1;
+            }
+        }
+        arena_ = to;
+        arena_size_ = size;
+        wasted_ = 0;
     }
 
 
@@ -438,57 +771,6 @@ public class SatSolver {
         return Boolean.make((byte) (a.value() ^ (b ? 1 : 0)));
     }
 
-
-    /**
-     * Clause -- a simple class for representing a clause
-     * <br/>
-     *
-     * @author Charles Prud'homme, Laurent Perron
-     * @since 12/07/13
-     */
-    class Clause {
-        private int[] literals_;
-
-        public Clause(int[] ps) {
-            literals_ = ps.clone();
-        }
-
-        int size() {
-            return literals_.length;
-        }
-
-        int _g(int i) {
-            return literals_[i];
-        }
-
-        int _s(int pos, int l) {
-            return literals_[pos] = l;
-        }
-    }
-
-    /**
-     * // A watcher represent a clause attached to a literal.
-     * <br/>
-     * (or-tools, booleans.cc, ty L. Perron).
-     *
-     * @author Charles Prud'homme
-     * @since 12/07/13
-     */
-    class Watcher {
-
-        Clause clause;
-        int blocker;
-
-        public Watcher() {
-            blocker = kUndefinedLiteral;
-        }
-
-        public Watcher(final Clause cr, int l) {
-            this.clause = cr;
-            this.blocker = l;
-        }
-    }
-
     /**
      * <br/>
      * (or-tools, booleans.cc, ty L. Perron).
@@ -61,6 +61,10 @@ public class Cumulative extends Constraint {
 	 *                         - SWEEP: filters time-table with a sweep-based algorithm
 	 *                         - NRJ: greedy energy-based filter.
 	 *                         BEWARE: should not be used alone, use it in addition to either SWEEP or TIME.
+	 *                         - EF: edge-finding (Theta-Lambda tree based)
+	 *                         - TTEF: time-table edge-finding
+	 *                         - NFNL: not-first/not-last
+	 *                         BEWARE: EF, TTEF and NFNL should be used in addition to either SWEEP or TIME.
 	 *
 	 */
 	public Cumulative(Task[] tasks, IntVar[] heights, IntVar capacity, boolean graphBased, Filter... filters) {
@@ -158,6 +162,37 @@ public class Cumulative extends Constraint {
 			public CumulFilter make(int n, Propagator<IntVar> cause){
 				return new NRJCumulFilter(n,cause);
 			}
+		},
+		/**
+		 * edge-finding, based on Theta-Lambda trees, in O(kn log n)
+		 * (k is the number of distinct heights)
+		 * not idempotent
+		 * not enough to ensure correctness (only an additional filtering)
+		 */
+		EF{
+			public CumulFilter make(int n, Propagator<IntVar> cause){
+				return new EdgeFindingCumulFilter(n,cause);
+			}
+		},
+		/**
+		 * time-table edge-finding, in O(n^2)
+		 * not idempotent
+		 * not enough to ensure correctness (only an additional filtering)
+		 */
+		TTEF{
+			public CumulFilter make(int n, Propagator<IntVar> cause){
+				return new TTEFCumulFilter(n,cause);
+			}
+		},
+		/**
+		 * not-first/not-last, in O(n^3)
+		 * not idempotent
+		 * not enough to ensure correctness (only an additional filtering)
+		 */
+		NFNL{
+			public CumulFilter make(int n, Propagator<IntVar> cause){
+				return new NotFirstNotLastCumulFilter(n,cause);
+			}
 		};
 
 		/**
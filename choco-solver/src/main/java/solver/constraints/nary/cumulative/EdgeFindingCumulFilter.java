@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.nary.cumulative;
+
+import solver.constraints.Propagator;
+import solver.exception.ContradictionException;
+import solver.variables.IntVar;
+import util.objects.ThetaLambdaTree;
+
+import java.util.Arrays;
+
+/**
+ * Edge-finding filtering, based on Theta-Lambda trees, in O(kn log n) where k is the number of distinct heights
+ * <br/>
+ * P. Vilim, "Edge finding filtering algorithm for discrete cumulative resources in O(kn log n)", CP 2009.
+ * <br/>
+ * Detects the sets of tasks that a task must end after, then pushes the task after the part
+ * of these sets which does not leave it enough room. Also detects overloaded sets of tasks.
+ * Not idempotent.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class EdgeFindingCumulFilter extends OrderedCumulFilter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	protected ThetaLambdaTree tree, treeC;
+	// rank by est of each task (leaf in trees)
+	protected int[] leaf;
+	// rank by lct of the task such that the tasks with a lower rank end before the task
+	protected int[] prec;
+	protected int[] heights;
+	protected long[] update;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	public EdgeFindingCumulFilter(int n, Propagator cause) {
+		super(n, cause, false);
+		tree = new ThetaLambdaTree(n);
+		treeC = new ThetaLambdaTree(n);
+		leaf = new int[n];
+		prec = new int[n];
+		heights = new int[n];
+		update = new long[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	protected void adjust(int[] est, int[] lct, int[] lst, int[] ect, int[] byEst, int[] byLct, int[] byLst, int[] byEct,
+						  int capaMax, IntVar capa, long[] bound) throws ContradictionException {
+		long C = capaMax;
+		// detection: tasks are removed from Theta by decreasing lct
+		tree.init(C);
+		for (int k = 0; k < size; k++) {
+			int i = byEst[k];
+			leaf[i] = k;
+			prec[i] = -1;
+			tree.addToTheta(k, est[i], (long) dur[i] * hei[i]);
+		}
+		int maxPrec = -1;
+		for (int k = size - 1; k >= 0; k--) {
+			int j = byLct[k];
+			long limit = C * lct[j];
+			if (tree.getEnvelope() > limit) {
+				aCause.contradiction(capa, "");
+			}
+			while (tree.getLambdaEnvelope() > limit) {
+				int l = tree.getResponsibleLeaf();
+				if (l < 0) {
+					break;
+				}
+				int i = byEst[l];
+				prec[i] = k;
+				maxPrec = Math.max(maxPrec, k);
+				tree.remove(l);
+			}
+			tree.moveToLambda(leaf[j]);
+		}
+		if (maxPrec < 0) {
+			return;
+		}
+		// adjustment, for each distinct height of the detected tasks
+		int nbH = 0;
+		for (int k = 0; k < size; k++) {
+			int i = byEst[k];
+			if (prec[i] >= 0) {
+				heights[nbH++] = hei[i];
+			}
+		}
+		Arrays.sort(heights, 0, nbH);
+		for (int q = 0; q < nbH; q++) {
+			int c = heights[q];
+			if ((q > 0 && c == heights[q - 1]) || c > capaMax) {
+				continue;
+			}
+			tree.init(C);
+			treeC.init(C - c);
+			long upd = Long.MIN_VALUE;
+			for (int k = 0; k <= maxPrec; k++) {
+				int j = byLct[k];
+				long en = (long) dur[j] * hei[j];
+				tree.addToTheta(leaf[j], est[j], en);
+				treeC.addToTheta(leaf[j], est[j], en);
+				// the latest est such that the tasks starting after it leave less than c to another task
+				long limit = (C - c) * lct[j];
+				int alpha = treeC.findLastLeafAbove(limit);
+				if (alpha >= 0) {
+					upd = Math.max(upd, ceil(tree.getEnvelopeUpTo(alpha) - limit, c));
+				}
+				update[k] = upd;
+			}
+			for (int k = 0; k < size; k++) {
+				int i = byEst[k];
+				if (prec[i] >= 0 && hei[i] == c) {
+					bound[i] = Math.max(bound[i], update[prec[i]]);
+				}
+			}
+		}
+	}
+
+	private static long ceil(long a, long b) {
+		return a >= 0 ? (a + b - 1) / b : -((-a) / b);
+	}
+}
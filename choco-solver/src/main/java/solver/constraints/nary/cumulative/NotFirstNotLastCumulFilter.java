@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.nary.cumulative;
+
+import solver.constraints.Propagator;
+import solver.exception.ContradictionException;
+import solver.variables.IntVar;
+
+/**
+ * Not-first/not-last filtering, in O(n^3)
+ * <br/>
+ * A. Schutt, A. Wolf, G. Schrader, "Not-first and not-last detection for cumulative scheduling in O(n^3 log n)",
+ * INAP 2005.
+ * <br/>
+ * For each time window [a,b) bounded by the est of a task and the lct of another one, Omega is the set of tasks
+ * which fit in the window. A task i out of Omega which would start at or before a time t >= a covers the window from t
+ * to min(ect(i),b): if this does not fit in the energy left by Omega, i cannot start first,
+ * and its est is pushed after the latest such t (not-last is obtained on the mirrored problem).
+ * Also detects overloaded windows.
+ * Not idempotent.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class NotFirstNotLastCumulFilter extends OrderedCumulFilter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	// energy left by Omega in the windows [est(byEst[k]),b)
+	protected long[] avail;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	public NotFirstNotLastCumulFilter(int n, Propagator cause) {
+		super(n, cause, false);
+		avail = new long[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	protected void adjust(int[] est, int[] lct, int[] lst, int[] ect, int[] byEst, int[] byLct, int[] byLst, int[] byEct,
+						  int capaMax, IntVar capa, long[] bound) throws ContradictionException {
+		long C = capaMax;
+		for (int kb = size - 1; kb >= 0; kb--) {
+			long b = lct[byLct[kb]];
+			if (kb < size - 1 && lct[byLct[kb + 1]] == b) {
+				continue;
+			}
+			// energy left by Omega in each window [a,b), by decreasing a
+			long energy = 0;
+			for (int ka = size - 1; ka >= 0; ka--) {
+				int j = byEst[ka];
+				if (lct[j] <= b) {
+					energy += (long) hei[j] * dur[j];
+				}
+				if (est[j] >= b) {
+					avail[ka] = Long.MAX_VALUE;
+				} else {
+					avail[ka] = C * (b - est[j]) - energy;
+					if (avail[ka] < 0) {
+						aCause.contradiction(capa, "");
+					}
+				}
+			}
+			for (int k = 0; k < size; k++) {
+				int i = byEst[k];
+				if (est[i] >= b || ect[i] <= est[byEst[0]]) {
+					continue;
+				}
+				long m = Math.min(ect[i], b);
+				for (int ka = 0; ka < size; ka++) {
+					long a = est[byEst[ka]];
+					if (a >= m) {
+						break;
+					}
+					if ((est[i] < a || lct[i] > b) && (ka == 0 || est[byEst[ka - 1]] < a)) {
+						// latest start of i, at or after a, which overloads the window
+						long t = m - avail[ka] / hei[i] - 1;
+						if (t >= a) {
+							bound[i] = Math.max(bound[i], t + 1);
+						}
+					}
+				}
+			}
+		}
+	}
+}
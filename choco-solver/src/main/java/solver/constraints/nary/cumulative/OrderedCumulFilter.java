@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.nary.cumulative;
+
+import solver.constraints.Propagator;
+import solver.exception.ContradictionException;
+import solver.variables.IntVar;
+import util.objects.setDataStructures.ISet;
+import util.sort.ArraySort;
+import util.sort.IntComparator;
+
+/**
+ * Base class of filters reasoning on tasks sorted by their time bounds (edge-finding like).
+ * <br/>
+ * A sub-class only adjusts earliest starting times: latest ending times are adjusted
+ * by running the same algorithm on the mirrored problem (time is reversed).
+ * <br/>
+ * Tasks with no energy (null minimum duration or height) are ignored.
+ * Sorted orders are kept from one call to the next: when the same tasks are filtered again,
+ * they are re-sorted from the previous order, which is nearly sorted, so sorting is almost linear.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public abstract class OrderedCumulFilter extends CumulFilter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	// time bounds, minimum duration and minimum height, indexed by task
+	protected int[] est, lct, lst, ect, dur, hei;
+	// mirrored time bounds (est' = -lct, lct' = -est, lst' = -ect, ect' = -lst)
+	protected int[] mest, mlct, mlst, mect;
+	// tasks sorted by increasing bounds, and the same for the mirrored problem
+	protected int[] byEst, byLct, byLst, byEct;
+	protected int[] mbyEst, mbyLct, mbyLst, mbyEct;
+	// new earliest starting times (in the original then in the mirrored problem)
+	protected long[] bound, mbound;
+	// number of tasks currently filtered
+	protected int size;
+
+	private final boolean compulsory;
+	private final ArraySort sorter;
+	private final IntComparator estComp, lctComp, lstComp, ectComp;
+	private final int[] stamp;
+	private int nbCalls, lastSize;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * @param n				maximum number of tasks
+	 * @param cause			a cumulative propagator
+	 * @param compulsory	set to true to sort tasks by latest starting time and earliest ending time too
+	 */
+	public OrderedCumulFilter(int n, Propagator cause, boolean compulsory) {
+		super(n, cause);
+		this.compulsory = compulsory;
+		est = new int[n];
+		lct = new int[n];
+		lst = new int[n];
+		ect = new int[n];
+		dur = new int[n];
+		hei = new int[n];
+		mest = new int[n];
+		mlct = new int[n];
+		mlst = new int[n];
+		mect = new int[n];
+		byEst = new int[n];
+		byLct = new int[n];
+		mbyEst = new int[n];
+		mbyLct = new int[n];
+		if (compulsory) {
+			byLst = new int[n];
+			byEct = new int[n];
+			mbyLst = new int[n];
+			mbyEct = new int[n];
+		}
+		bound = new long[n];
+		mbound = new long[n];
+		stamp = new int[n];
+		lastSize = -1;
+		sorter = new ArraySort(n, false, true);
+		estComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return est[i1] < est[i2] ? -1 : est[i1] == est[i2] ? 0 : 1;
+			}
+		};
+		lctComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return lct[i1] < lct[i2] ? -1 : lct[i1] == lct[i2] ? 0 : 1;
+			}
+		};
+		lstComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return lst[i1] < lst[i2] ? -1 : lst[i1] == lst[i2] ? 0 : 1;
+			}
+		};
+		ectComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return ect[i1] < ect[i2] ? -1 : ect[i1] == ect[i2] ? 0 : 1;
+			}
+		};
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public void filter(IntVar[] s, IntVar[] d, IntVar[] e, IntVar[] h, IntVar capa, ISet tasks) throws ContradictionException {
+		nbCalls++;
+		int idx = 0;
+		for (int i = tasks.getFirstElement(); i >= 0; i = tasks.getNextElement()) {
+			if (d[i].getLB() > 0 && h[i].getLB() > 0) {
+				est[i] = s[i].getLB();
+				lct[i] = e[i].getUB();
+				lst[i] = s[i].getUB();
+				ect[i] = e[i].getLB();
+				dur[i] = d[i].getLB();
+				hei[i] = h[i].getLB();
+				mest[i] = -lct[i];
+				mlct[i] = -est[i];
+				mlst[i] = -ect[i];
+				mect[i] = -lst[i];
+				stamp[i] = nbCalls;
+				idx++;
+			}
+		}
+		if (idx < 2) {
+			lastSize = -1;
+			return;
+		}
+		// re-sort the previous orders if the same tasks are filtered
+		boolean same = idx == lastSize;
+		for (int k = 0; same && k < idx; k++) {
+			same = stamp[byEst[k]] == nbCalls;
+		}
+		size = idx;
+		lastSize = idx;
+		if (!same) {
+			idx = 0;
+			for (int i = tasks.getFirstElement(); i >= 0; i = tasks.getNextElement()) {
+				if (stamp[i] == nbCalls) {
+					byEst[idx] = byLct[idx] = i;
+					if (compulsory) {
+						byLst[idx] = byEct[idx] = i;
+					}
+					idx++;
+				}
+			}
+		}
+		sorter.sort(byEst, size, estComp);
+		sorter.sort(byLct, size, lctComp);
+		mirror(byEst, mbyLct);
+		mirror(byLct, mbyEst);
+		if (compulsory) {
+			sorter.sort(byLst, size, lstComp);
+			sorter.sort(byEct, size, ectComp);
+			mirror(byLst, mbyEct);
+			mirror(byEct, mbyLst);
+		}
+		for (int k = 0; k < size; k++) {
+			int i = byEst[k];
+			bound[i] = est[i];
+			mbound[i] = mest[i];
+		}
+		int capaMax = capa.getUB();
+		adjust(est, lct, lst, ect, byEst, byLct, byLst, byEct, capaMax, capa, bound);
+		adjust(mest, mlct, mlst, mect, mbyEst, mbyLct, mbyLst, mbyEct, capaMax, capa, mbound);
+		for (int k = 0; k < size; k++) {
+			int i = byEst[k];
+			if (bound[i] > est[i]) {
+				s[i].updateLowerBound((int) Math.min(bound[i], Integer.MAX_VALUE), aCause);
+			}
+			if (mbound[i] > mest[i]) {
+				e[i].updateUpperBound((int) Math.max(-mbound[i], Integer.MIN_VALUE), aCause);
+			}
+		}
+	}
+
+	private void mirror(int[] order, int[] reversed) {
+		for (int k = 0; k < size; k++) {
+			reversed[size - 1 - k] = order[k];
+		}
+	}
+
+	/**
+	 * Computes new earliest starting times over the tasks currently filtered
+	 * (the first <code>size</code> tasks of each order).
+	 *
+	 * @param est		earliest starting times
+	 * @param lct		latest completion times
+	 * @param lst		latest starting times
+	 * @param ect		earliest completion times
+	 * @param byEst		tasks sorted by increasing est
+	 * @param byLct		tasks sorted by increasing lct
+	 * @param byLst		tasks sorted by increasing lst (null if not required)
+	 * @param byEct		tasks sorted by increasing ect (null if not required)
+	 * @param capaMax	capacity of the resource
+	 * @param capa		capacity variable (to raise a failure)
+	 * @param bound		new earliest starting times, to increase (initially est)
+	 * @throws ContradictionException if the resource is overloaded
+	 */
+	protected abstract void adjust(int[] est, int[] lct, int[] lst, int[] ect,
+								   int[] byEst, int[] byLct, int[] byLst, int[] byEct,
+								   int capaMax, IntVar capa, long[] bound) throws ContradictionException;
+}
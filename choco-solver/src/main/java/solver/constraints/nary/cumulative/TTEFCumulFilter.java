@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.nary.cumulative;
+
+import solver.constraints.Propagator;
+import solver.exception.ContradictionException;
+import solver.variables.IntVar;
+
+/**
+ * Time-table edge-finding filtering, in O(n^2)
+ * <br/>
+ * A. Schutt, A. Wolf, "A new O(n^2 log n) not-first/not-last pruning algorithm for cumulative resource constraints", CP 2010,
+ * <br/>
+ * P. Vilim, "Timetable edge finding filtering algorithm for discrete cumulative resources", CPAIOR 2011.
+ * <br/>
+ * Tasks are split into a compulsory part (the time-table) and a free part.
+ * For each time window [a,b) bounded by the est of a task and the lct of another one,
+ * the energy required in the window is the energy of the time-table plus the free energy of the tasks
+ * which fit in the window. An overload raises a failure; a task which starts in the window, ends after it
+ * and does not fit in the available energy when starting at its est is pushed to the end of the window.
+ * Not idempotent.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class TTEFCumulFilter extends OrderedCumulFilter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	// energy of the time-table before the est and before the lct of each task
+	protected long[] ttEst, ttLct;
+	// available energy in the windows [est(byEst[k]),b)
+	protected long[] avail;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	public TTEFCumulFilter(int n, Propagator cause) {
+		super(n, cause, true);
+		ttEst = new long[n];
+		ttLct = new long[n];
+		avail = new long[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	protected void adjust(int[] est, int[] lct, int[] lst, int[] ect, int[] byEst, int[] byLct, int[] byLst, int[] byEct,
+						  int capaMax, IntVar capa, long[] bound) throws ContradictionException {
+		long C = capaMax;
+		timeTable(est, byEst, lst, ect, byLst, byEct, ttEst);
+		timeTable(lct, byLct, lst, ect, byLst, byEct, ttLct);
+		for (int kb = size - 1; kb >= 0; kb--) {
+			int j = byLct[kb];
+			long b = lct[j];
+			if (kb < size - 1 && lct[byLct[kb + 1]] == b) {
+				continue;
+			}
+			// available energy in each window [a,b), by decreasing a
+			long free = 0;
+			for (int ka = size - 1; ka >= 0; ka--) {
+				int i = byEst[ka];
+				long a = est[i];
+				if (lct[i] <= b) {
+					free += (long) hei[i] * Math.max(0, dur[i] - Math.max(0, ect[i] - lst[i]));
+				}
+				if (a >= b) {
+					avail[ka] = Long.MAX_VALUE;
+				} else {
+					avail[ka] = C * (b - a) - (ttLct[j] - ttEst[i] + free);
+					if (avail[ka] < 0) {
+						aCause.contradiction(capa, "");
+					}
+				}
+			}
+			// tasks starting in a window and ending after b
+			long minAvail = Long.MAX_VALUE;
+			for (int ka = 0; ka < size; ka++) {
+				int i = byEst[ka];
+				minAvail = Math.min(minAvail, avail[ka]);
+				if (est[i] < b && lct[i] > b) {
+					long inside = Math.min(b, (long) est[i] + dur[i]) - est[i];
+					// compulsory part of i in the window, already counted in the time-table
+					long cp = lst[i] < ect[i] ? Math.max(0, Math.min(b, ect[i]) - lst[i]) : 0;
+					long room = minAvail + hei[i] * cp;
+					if (hei[i] * inside > room) {
+						bound[i] = Math.max(bound[i], b - room / hei[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the energy of the time-table before each time point
+	 *
+	 * @param times	time points, indexed by task
+	 * @param order	tasks sorted by increasing time point
+	 * @param energy	output, indexed by task
+	 */
+	private void timeTable(int[] times, int[] order, int[] lst, int[] ect, int[] byLst, int[] byEct, long[] energy) {
+		long en = 0, height = 0, time = Integer.MIN_VALUE;
+		int ks = 0, ke = 0;
+		for (int k = 0; k < size; k++) {
+			int t = times[order[k]];
+			while (true) {
+				// next event (start or end of a compulsory part) before t
+				while (ks < size && lst[byLst[ks]] >= ect[byLst[ks]]) {
+					ks++;
+				}
+				while (ke < size && lst[byEct[ke]] >= ect[byEct[ke]]) {
+					ke++;
+				}
+				int i;
+				long te;
+				boolean start;
+				if (ks < size && (ke == size || lst[byLst[ks]] <= ect[byEct[ke]])) {
+					i = byLst[ks];
+					te = lst[i];
+					start = true;
+				} else if (ke < size) {
+					i = byEct[ke];
+					te = ect[i];
+					start = false;
+				} else {
+					break;
+				}
+				if (te > t) {
+					break;
+				}
+				en += height * (te - time);
+				time = te;
+				if (start) {
+					height += hei[i];
+					ks++;
+				} else {
+					height -= hei[i];
+					ke++;
+				}
+			}
+			energy[order[k]] = en + height * (t - time);
+		}
+	}
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.nary.disjunctive;
+
+import solver.constraints.Propagator;
+import solver.constraints.PropagatorPriority;
+import solver.exception.ContradictionException;
+import solver.variables.BoolVar;
+import solver.variables.EventType;
+import solver.variables.IntVar;
+import util.ESat;
+import util.objects.ThetaLambdaTree;
+import util.sort.ArraySort;
+import util.sort.IntComparator;
+import util.tools.ArrayUtils;
+
+import java.util.Arrays;
+
+/**
+ * Disjunctive (unary resource) propagator: tasks which are performed do not overlap
+ * <br/>
+ * Based on Theta-Lambda trees, runs in O(n log n):
+ * <br/>- overload checking (optional tasks which cannot be added are set as not performed),
+ * <br/>- detectable precedences,
+ * <br/>- not-first/not-last,
+ * <br/>- edge-finding.
+ * <br/>
+ * Each rule is applied on the earliest starting times then, on the mirrored problem, on the latest ending times,
+ * until a fix point is reached.
+ * Optional tasks are not filtered, they are only removed from the resource if they cannot be performed.
+ * Tasks with a null minimum duration are ignored.
+ * <br/>
+ * P. Vilim, "Filtering Algorithms for the Unary Resource Constraint", Archives of Control Sciences, 2008.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class PropDisjunctive extends Propagator<IntVar> {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private static final int ABSENT = -1, OPTIONAL = 0, PERFORMED = 1;
+
+	protected final int n;
+	protected final IntVar[] s, d, e, p;
+	protected final ThetaLambdaTree tree;
+	// time bounds and minimum duration, indexed by task
+	protected final int[] est, lct, lst, ect, dur;
+	// mirrored time bounds (est' = -lct, lct' = -est, lst' = -ect, ect' = -lst)
+	protected final int[] mest, mlct, mlst, mect;
+	// tasks sorted by increasing bounds, kept from one call to the next
+	protected final int[] byEst, byLct, byLst, byEct;
+	protected final int[] mbyEst, mbyLct, mbyLst, mbyEct;
+	// new bounds (in the original then in the mirrored problem)
+	protected final long[] newEst, newLct, mnewEst, mnewLct;
+	protected final int[] status, leaf;
+	private final ArraySort sorter;
+	private final IntComparator estComp, lctComp, lstComp, ectComp;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Disjunctive propagator
+	 *
+	 * @param s			start 		variables
+	 * @param d			duration	variables
+	 * @param e			end			variables
+	 * @param performed	indicates whether each task is performed or not, null if all the tasks are performed
+	 */
+	public PropDisjunctive(IntVar[] s, IntVar[] d, IntVar[] e, BoolVar[] performed) {
+		super(performed == null ? ArrayUtils.append(s, d, e) : ArrayUtils.append(s, d, e, performed),
+				PropagatorPriority.QUADRATIC, false);
+		this.n = s.length;
+		if (!(n == d.length && n == e.length && (performed == null || n == performed.length))) {
+			throw new UnsupportedOperationException();
+		}
+		this.s = Arrays.copyOfRange(vars, 0, n);
+		this.d = Arrays.copyOfRange(vars, n, n * 2);
+		this.e = Arrays.copyOfRange(vars, n * 2, n * 3);
+		this.p = performed == null ? null : Arrays.copyOfRange(vars, n * 3, n * 4);
+		this.tree = new ThetaLambdaTree(n);
+		est = new int[n];
+		lct = new int[n];
+		lst = new int[n];
+		ect = new int[n];
+		dur = new int[n];
+		mest = new int[n];
+		mlct = new int[n];
+		mlst = new int[n];
+		mect = new int[n];
+		byEst = new int[n];
+		byLct = new int[n];
+		byLst = new int[n];
+		byEct = new int[n];
+		mbyEst = new int[n];
+		mbyLct = new int[n];
+		mbyLst = new int[n];
+		mbyEct = new int[n];
+		for (int i = 0; i < n; i++) {
+			byEst[i] = byLct[i] = byLst[i] = byEct[i] = i;
+		}
+		newEst = new long[n];
+		newLct = new long[n];
+		mnewEst = new long[n];
+		mnewLct = new long[n];
+		status = new int[n];
+		leaf = new int[n];
+		sorter = new ArraySort(n, false, true);
+		estComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return est[i1] < est[i2] ? -1 : est[i1] == est[i2] ? 0 : 1;
+			}
+		};
+		lctComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return lct[i1] < lct[i2] ? -1 : lct[i1] == lct[i2] ? 0 : 1;
+			}
+		};
+		lstComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return lst[i1] < lst[i2] ? -1 : lst[i1] == lst[i2] ? 0 : 1;
+			}
+		};
+		ectComp = new IntComparator() {
+			@Override
+			public int compare(int i1, int i2) {
+				return ect[i1] < ect[i2] ? -1 : ect[i1] == ect[i2] ? 0 : 1;
+			}
+		};
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public int getPropagationConditions(int vIdx) {
+		if (vIdx >= 3 * n) {
+			return EventType.INSTANTIATE.mask;
+		}
+		return EventType.BOUND.mask + EventType.INSTANTIATE.mask;
+	}
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		boolean change = true;
+		while (change) {
+			change = false;
+			// tasks are sorted from the previous orders, which are nearly sorted
+			for (int i = 0; i < n; i++) {
+				est[i] = s[i].getLB();
+				lct[i] = e[i].getUB();
+				lst[i] = s[i].getUB();
+				ect[i] = e[i].getLB();
+				dur[i] = d[i].getLB();
+				mest[i] = -lct[i];
+				mlct[i] = -est[i];
+				mlst[i] = -ect[i];
+				mect[i] = -lst[i];
+				status[i] = dur[i] == 0 || (p != null && p[i].getUB() == 0) ? ABSENT
+						: p == null || p[i].getLB() == 1 ? PERFORMED : OPTIONAL;
+				newEst[i] = est[i];
+				newLct[i] = lct[i];
+				mnewEst[i] = mest[i];
+				mnewLct[i] = mlct[i];
+			}
+			sorter.sort(byEst, n, estComp);
+			sorter.sort(byLct, n, lctComp);
+			sorter.sort(byLst, n, lstComp);
+			sorter.sort(byEct, n, ectComp);
+			mirror(byLct, mbyEst);
+			mirror(byEst, mbyLct);
+			mirror(byEct, mbyLst);
+			mirror(byLst, mbyEct);
+			overloadChecking(est, lct, byEst, byLct);
+			filter(est, lct, lst, ect, byEst, byLct, byLst, byEct, newEst, newLct);
+			filter(mest, mlct, mlst, mect, mbyEst, mbyLct, mbyLst, mbyEct, mnewEst, mnewLct);
+			for (int i = 0; i < n; i++) {
+				if (status[i] == PERFORMED) {
+					long lb = Math.max(newEst[i], -mnewLct[i]);
+					long ub = Math.min(newLct[i], -mnewEst[i]);
+					if (lb > est[i]) {
+						change |= s[i].updateLowerBound((int) Math.min(lb, Integer.MAX_VALUE), aCause);
+					}
+					if (ub < lct[i]) {
+						change |= e[i].updateUpperBound((int) Math.max(ub, Integer.MIN_VALUE), aCause);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+		forcePropagate(EventType.CUSTOM_PROPAGATION);
+	}
+
+	private void mirror(int[] order, int[] reversed) {
+		for (int k = 0; k < n; k++) {
+			reversed[n - 1 - k] = order[k];
+		}
+	}
+
+	/**
+	 * Overload checking: fails if a set of performed tasks cannot fit in its time window,
+	 * removes the optional tasks which cannot be added to such a set.
+	 */
+	protected void overloadChecking(int[] est, int[] lct, int[] byEst, int[] byLct) throws ContradictionException {
+		tree.init(1);
+		for (int k = 0; k < n; k++) {
+			leaf[byEst[k]] = k;
+		}
+		for (int k = 0; k < n; k++) {
+			int j = byLct[k];
+			if (status[j] == PERFORMED) {
+				tree.addToTheta(leaf[j], est[j], dur[j]);
+				if (tree.getEnvelope() > lct[j]) {
+					contradiction(s[j], "overload");
+				}
+			} else if (status[j] == OPTIONAL) {
+				tree.addToLambda(leaf[j], est[j], dur[j]);
+			} else {
+				continue;
+			}
+			while (tree.getLambdaEnvelope() > lct[j]) {
+				int l = tree.getResponsibleLeaf();
+				if (l < 0) {
+					break;
+				}
+				int i = byEst[l];
+				p[i].updateUpperBound(0, aCause);
+				status[i] = ABSENT;
+				tree.remove(l);
+			}
+		}
+	}
+
+	/**
+	 * Applies the rules on the performed tasks, to compute new earliest starting times
+	 * (detectable precedences, edge-finding) and new latest ending times (not-last).
+	 */
+	protected void filter(int[] est, int[] lct, int[] lst, int[] ect, int[] byEst, int[] byLct, int[] byLst, int[] byEct,
+						  long[] newEst, long[] newLct) throws ContradictionException {
+		for (int k = 0; k < n; k++) {
+			leaf[byEst[k]] = k;
+		}
+		// detectable precedences: j precedes i if ect(i) > lst(j)
+		tree.init(1);
+		int q = 0;
+		for (int k = 0; k < n; k++) {
+			int i = byEct[k];
+			if (status[i] != PERFORMED) {
+				continue;
+			}
+			for (; q < n && ect[i] > lst[byLst[q]]; q++) {
+				int j = byLst[q];
+				if (status[j] == PERFORMED) {
+					tree.addToTheta(leaf[j], est[j], dur[j]);
+				}
+			}
+			newEst[i] = Math.max(newEst[i], envelopeWithout(i, est));
+		}
+		// not-last: i cannot end after all the tasks j such that lst(j) < lct(i)
+		tree.init(1);
+		q = 0;
+		int last = -1, beforeLast = -1;
+		for (int k = 0; k < n; k++) {
+			int i = byLct[k];
+			if (status[i] != PERFORMED) {
+				continue;
+			}
+			for (; q < n && lst[byLst[q]] < lct[i]; q++) {
+				int j = byLst[q];
+				if (status[j] == PERFORMED) {
+					tree.addToTheta(leaf[j], est[j], dur[j]);
+					beforeLast = last;
+					last = j;
+				}
+			}
+			int j = last == i ? beforeLast : last;
+			if (j >= 0 && envelopeWithout(i, est) > lst[i]) {
+				newLct[i] = Math.min(newLct[i], lst[j]);
+			}
+		}
+		// edge-finding: tasks are removed from Theta by decreasing lct
+		tree.init(1);
+		for (int k = 0; k < n; k++) {
+			int i = byEst[k];
+			if (status[i] == PERFORMED) {
+				tree.addToTheta(k, est[i], dur[i]);
+			}
+		}
+		for (int k = n - 1; k >= 0; k--) {
+			int j = byLct[k];
+			if (status[j] != PERFORMED) {
+				continue;
+			}
+			if (tree.getEnvelope() > lct[j]) {
+				contradiction(s[j], "overload");
+			}
+			while (tree.getLambdaEnvelope() > lct[j]) {
+				int l = tree.getResponsibleLeaf();
+				if (l < 0) {
+					break;
+				}
+				int i = byEst[l];
+				newEst[i] = Math.max(newEst[i], tree.getEnvelope());
+				tree.remove(l);
+			}
+			tree.moveToLambda(leaf[j]);
+		}
+	}
+
+	/**
+	 * @return the earliest completion time of Theta without task i
+	 */
+	private long envelopeWithout(int i, int[] est) {
+		long ect;
+		if (tree.isInTheta(leaf[i])) {
+			tree.remove(leaf[i]);
+			ect = tree.getEnvelope();
+			tree.addToTheta(leaf[i], est[i], dur[i]);
+		} else {
+			ect = tree.getEnvelope();
+		}
+		return ect;
+	}
+
+	@Override
+	public ESat isEntailed() {
+		for (int i = 0; i < n; i++) {
+			if (p != null && p[i].getUB() == 0) {
+				continue;
+			}
+			for (int j = i + 1; j < n; j++) {
+				if (p != null && p[j].getUB() == 0) {
+					continue;
+				}
+				// mandatory parts of performed tasks overlap
+				if ((p == null || (p[i].getLB() == 1 && p[j].getLB() == 1))
+						&& s[i].getUB() < e[j].getLB() && s[j].getUB() < e[i].getLB()
+						&& d[i].getLB() > 0 && d[j].getLB() > 0) {
+					return ESat.FALSE;
+				}
+			}
+		}
+		if (isCompletelyInstantiated()) {
+			return ESat.TRUE;
+		}
+		return ESat.UNDEFINED;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getSimpleName() + "(");
+		for (int i = 0; i < n; i++) {
+			sb.append("[" + s[i].toString());
+			sb.append("," + d[i].toString());
+			sb.append("," + e[i].toString());
+			if (p != null) {
+				sb.append("," + p[i].toString());
+			}
+			sb.append("],");
+		}
+		sb.append(")");
+		return sb.toString();
+	}
+}
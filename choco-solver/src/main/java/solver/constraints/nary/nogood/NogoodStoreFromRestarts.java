@@ -30,10 +30,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import solver.constraints.Constraint;
 import solver.exception.ContradictionException;
-import solver.propagation.queues.CircularQueue;
 import solver.search.loop.monitors.IMonitorRestart;
 import solver.search.strategy.decision.Decision;
 import solver.search.strategy.decision.RootDecision;
+import solver.search.strategy.decision.fast.FastDecision;
 import solver.variables.IntVar;
 
 import java.util.Arrays;
@@ -41,6 +41,8 @@ import java.util.Arrays;
 /**
  * A constraint for the specific Nogood store designed to store ONLY positive decisions.
  * <p/>
+ * On restart, each refuted decision of the current path, together with the positive decisions above it,
+ * makes a nogood.
  * Related to "Nogood Recording from Restarts", C. Lecoutre et al.
  * <br/>
  *
@@ -51,16 +53,23 @@ public class NogoodStoreFromRestarts extends Constraint implements IMonitorResta
 
     static final Logger LOGGER = LoggerFactory.getLogger("solver");
     static final String MSG_NGOOD = "unit propagation failure (nogood)";
-    CircularQueue<Decision<IntVar>> decisions;
-    CircularQueue<INogood> nogoods;
-	final PropNogoodStore png;
+    final PropNogoodStore png;
 
-    public NogoodStoreFromRestarts(IntVar[] vars) {
-        super("NogoodStoreFromRestarts",new PropNogoodStore(vars));
-		png = (PropNogoodStore) propagators[0];
-        decisions = new CircularQueue<Decision<IntVar>>(16);
-        nogoods = new CircularQueue<INogood>(16);
+    // the positive decisions of the path, from the root
+    IntVar[] vars = new IntVar[16];
+    int[] ops = new int[16];
+    int[] values = new int[16];
+    // the refuted decisions of the path, and the number of positive decisions above them
+    IntVar[] rvars = new IntVar[16];
+    int[] rops = new int[16];
+    int[] rvalues = new int[16];
+    int[] rdepths = new int[16];
+    int nbr;
+    Decision<IntVar>[] path = new Decision[16];
 
+    public NogoodStoreFromRestarts(IntVar[] vars) {
+        super("NogoodStoreFromRestarts", new PropNogoodStore(vars));
+        png = (PropNogoodStore) propagators[0];
     }
 
     @Override
@@ -71,46 +80,79 @@ public class NogoodStoreFromRestarts extends Constraint implements IMonitorResta
     @Override
     public void afterRestart() {
         try {
-            while (!nogoods.isEmpty()) {
-                INogood ng = nogoods.pollFirst();
-				png.addNogood(ng);
+            // restoring the root node has undone the nogoods of size 1
+            png.unitPropagation();
+            for (int j = 0; j < nbr; j++) {
+                int d = rdepths[j];
+                IntVar v = vars[d];
+                int o = ops[d], w = values[d];
+                vars[d] = rvars[j];
+                ops[d] = rops[j];
+                values[d] = rvalues[j];
+                try {
+                    png.addNogood(vars, ops, values, d + 1);
+                } finally {
+                    vars[d] = v;
+                    ops[d] = o;
+                    values[d] = w;
+                }
             }
-			png.unitPropagation();
         } catch (ContradictionException e) {
-			png.getSolver().getSearchLoop().interrupt(MSG_NGOOD);
+            png.getSolver().getSearchLoop().interrupt(MSG_NGOOD);
         }
     }
 
+    /**
+     * @return the number of nogoods recorded so far, including the ones of size 1
+     */
+    public int getNbNogoods() {
+        return png.getNbNogoods() + png.units.size() / 3;
+    }
+
     private void extractNogoodFromPath() {
-        int d = png.getSolver().getSearchLoop().getCurrentDepth();
         Decision<IntVar> decision = png.getSolver().getSearchLoop().decision;
+        int n = 0;
         while (decision != RootDecision.ROOT) {
-            decisions.addLast(decision);
+            ensureCapacity(n + 1);
+            path[n++] = decision;
             decision = decision.getPrevious();
         }
-        IntVar[] vars = new IntVar[d];
-        int[] values = new int[d];
         int i = 0;
-        while (!decisions.isEmpty()) {
-            decision = decisions.pollLast();
+        nbr = 0;
+        while (n > 0) {
+            decision = path[--n];
+            int op = decision instanceof FastDecision ?
+                    PropNogoodStore.operator(((FastDecision) decision).getDecisionOperator()) : PropNogoodStore.EQ;
+            if (op < 0) {
+                // the decision cannot be expressed as a literal
+                break;
+            }
             if (decision.hasNext()) {
                 vars[i] = decision.getDecisionVariable();
+                ops[i] = op;
                 values[i] = (Integer) decision.getDecisionValue();
                 i++;
             } else {
-                INogood ng;
-                if (i == 0) {
-                    // value can be removed permanently from var!
-                    // todo: can be improved
-                    ng = new UnitNogood(decision.getDecisionVariable(), (Integer) decision.getDecisionValue());
-                } else {
-                    vars[i] = decision.getDecisionVariable();
-                    values[i] = (Integer) decision.getDecisionValue();
-                    // BEWARE: do not increment i, we use the array to avoid creating a temporary one!!
-                    ng = new Nogood(Arrays.copyOf(vars, i + 1), Arrays.copyOf(values, i + 1));
-                }
-                nogoods.addLast(ng);
+                rvars[nbr] = decision.getDecisionVariable();
+                rops[nbr] = op;
+                rvalues[nbr] = (Integer) decision.getDecisionValue();
+                rdepths[nbr] = i;
+                nbr++;
             }
         }
     }
+
+    private void ensureCapacity(int n) {
+        if (n > vars.length) {
+            int ns = Math.max(n, vars.length * 3 / 2);
+            vars = Arrays.copyOf(vars, ns);
+            ops = Arrays.copyOf(ops, ns);
+            values = Arrays.copyOf(values, ns);
+            rvars = Arrays.copyOf(rvars, ns);
+            rops = Arrays.copyOf(rops, ns);
+            rvalues = Arrays.copyOf(rvalues, ns);
+            rdepths = Arrays.copyOf(rdepths, ns);
+            path = Arrays.copyOf(path, ns);
+        }
+    }
 }
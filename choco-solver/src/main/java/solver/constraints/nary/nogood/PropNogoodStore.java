@@ -26,9 +26,7 @@
  */
 package solver.constraints.nary.nogood;
 
-import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import solver.constraints.Propagator;
 import solver.constraints.PropagatorPriority;
 import solver.exception.ContradictionException;
@@ -36,18 +34,26 @@ import solver.explanations.Deduction;
 import solver.explanations.Explanation;
 import solver.explanations.ValueRemoval;
 import solver.explanations.VariableState;
-import solver.propagation.queues.CircularQueue;
+import solver.search.strategy.assignments.DecisionOperator;
 import solver.variables.EventType;
 import solver.variables.IntVar;
 import util.ESat;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Comparator;
 
 /**
- * A propagator for the specific Nogood store designed to store ONLY positive decisions.
+ * A propagator for a store of nogoods.
  * <p/>
- * Related to "Nogood Recording from Restarts", C. Lecoutre et al.
+ * A nogood forbids a conjunction of literals, a literal being [x=v], [x!=v], [x<=v] or [x>=v].
+ * Nogoods are recorded in a compact int arena, each of them is made of a header (size, flags and activity)
+ * and its literals (index of the variable in the propagator, operator, value).
+ * The two first literals of a nogood are watched: the nogood is only considered when one of them becomes true.
+ * Nogoods of size 1 are kept aside and applied at once.
+ * <p/>
+ * Nogoods are either recorded at root node, like the ones extracted from restarts
+ * (see "Nogood Recording from Restarts", C. Lecoutre et al.), or learnt from a failure (see {@link #addLearntNogood})
+ * in which case they can be removed from the store on demand.
  * <br/>
  *
  * @author Charles Prud'homme
@@ -55,103 +61,470 @@ import java.util.List;
  */
 public class PropNogoodStore extends Propagator<IntVar> {
 
-    List<INogood> units;
-    List<INogood> allnogoods;
-    TIntObjectHashMap<TIntList> vars2nogood;
-    TIntObjectHashMap<TIntList> vars2idxinng;
-    CircularQueue<IntVar> hasChanged;
+    public static final int EQ = 0, NEQ = 1, LE = 2, GE = 3;
+
+    private static final String MSG_NGOOD = "nogood";
+
+    private static final int LEARNT = 1, DELETED = 2;
+    private static final int HEADER = 2; // size, then flags | activity << 2
+
+    final boolean learning;
+    final int[] indices; // variable id -> index in vars, -1 if not in scope
+
+    int[] arena = new int[1024];
+    int asize;
+    int wasted;
+    int nbNogoods;
+    int[][] watches;
+    int[] nwatches;
+    TIntArrayList units = new TIntArrayList(); // (index, op, value) of each unit nogood
+    TIntArrayList learnts = new TIntArrayList(); // refs of learnt nogoods
+    TIntArrayList asserting = new TIntArrayList(); // refs of learnt nogoods added since the last custom propagation
+    int[] queue; // variables modified by this
+    boolean[] queued;
+    int qsize;
+    int reason = -1; // the nogood which is being propagated
+    int conflict = -1; // the nogood which has failed
+    int[] marks; // to detect subsumption
+    int stamp;
 
     public PropNogoodStore(IntVar[] vars) {
+        this(vars, false);
+    }
+
+    /**
+     * @param vars     the variables the nogoods may refer to
+     * @param learning set to true to store learnt nogoods
+     */
+    public PropNogoodStore(IntVar[] vars, boolean learning) {
         super(vars, PropagatorPriority.VERY_SLOW, true);
-        vars2nogood = new TIntObjectHashMap<TIntList>();
-        vars2idxinng = new TIntObjectHashMap<TIntList>();
-        allnogoods = new ArrayList<INogood>();
-        units = new ArrayList<INogood>();
-        hasChanged = new CircularQueue<IntVar>(8);
+        this.learning = learning;
+        int max = 0;
+        for (int i = 0; i < vars.length; i++) {
+            max = Math.max(max, vars[i].getId());
+        }
+        indices = new int[max + 1];
+        Arrays.fill(indices, -1);
+        for (int i = 0; i < vars.length; i++) {
+            indices[vars[i].getId()] = i;
+        }
+        watches = new int[vars.length][];
+        nwatches = new int[vars.length];
+        queue = new int[vars.length];
+        queued = new boolean[vars.length];
+        marks = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            setWatched(i, false);
+        }
+    }
+
+    /**
+     * Return the literal operator matching the decision operator <code>op</code>, -1 if there is none.
+     */
+    public static int operator(DecisionOperator op) {
+        if (op == DecisionOperator.int_eq) {
+            return EQ;
+        } else if (op == DecisionOperator.int_neq) {
+            return NEQ;
+        } else if (op == DecisionOperator.int_split) {
+            return LE;
+        } else if (op == DecisionOperator.int_reverse_split) {
+            return GE;
+        }
+        return -1;
     }
 
     @Override
     public boolean advise(int idxVarInProp, int mask) {
-        return super.advise(idxVarInProp, mask) && vars2nogood.get(vars[idxVarInProp].getId()) != null;
+        return super.advise(idxVarInProp, mask) && nwatches[idxVarInProp] > 0;
     }
 
     @Override
     public int getPropagationConditions(int vIdx) {
-        return EventType.INSTANTIATE.mask;
+        // literals other than [x=v] may become true on any domain modification
+        return EventType.INT_ALL_MASK();
     }
 
     @Override
     public void propagate(int evtmask) throws ContradictionException {
-        for (INogood ng : allnogoods) {
-            ng.propagate(this);
+        conflict = -1;
+        clearQueue();
+        if (evtmask == EventType.CUSTOM_PROPAGATION.getStrengthenedMask()) {
+            // only the nogoods learnt since the last custom propagation
+            try {
+                for (int i = 0; i < asserting.size(); i++) {
+                    assertLearnt(asserting.getQuick(i));
+                }
+            } finally {
+                asserting.resetQuick();
+            }
+            flush();
+            return;
         }
+        unitPropagation();
+        for (int r = 0; r < asize; r += HEADER + 3 * arena[r]) {
+            if ((arena[r + 1] & DELETED) == 0) {
+                evaluate(r);
+            }
+        }
+        flush();
     }
 
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        hasChanged.clear();
-        hasChanged.addLast(vars[idxVarInProp]);
-        while (!hasChanged.isEmpty()) {
-            IntVar var = hasChanged.pollFirst();
-            TIntList nogoods = vars2nogood.get(var.getId());
-            TIntList indices = vars2idxinng.get(var.getId());
-            for (int i = 0; i < nogoods.size(); i++) {
-                INogood ng = allnogoods.get(nogoods.get(i));
-                int idx = ng.awakeOnInst(indices.get(i), this);
-                if (idx > -1) {
-                    hasChanged.addLast(ng.getVar(idx));
-                } else if (idx == -99) { // a call to unwatch has been done!
-                    i--;
-                } else {
-                    assert ng.isEntailed() != ESat.FALSE;
-                }
-            }
-        }
+        conflict = -1;
+        clearQueue();
+        awake(idxVarInProp);
+        flush();
     }
 
-
+    /**
+     * Apply the nogoods of size 1.
+     */
     public void unitPropagation() throws ContradictionException {
-        for (INogood ng : units) {
-            ng.propagate(this);
+        for (int i = 0; i < units.size(); i += 3) {
+            negate(units.getQuick(i), units.getQuick(i + 1), units.getQuick(i + 2));
         }
     }
 
-
     @Override
     public ESat isEntailed() {
-        for (INogood ng : allnogoods) {
-            ESat sat = ng.isEntailed();
-            if (!sat.equals(ESat.TRUE)) {
-                return sat;
+        boolean undefined = false;
+        for (int r = 0; r < asize; r += HEADER + 3 * arena[r]) {
+            if ((arena[r + 1] & DELETED) == 0) {
+                int t = 0;
+                int k = 0;
+                for (; k < arena[r]; k++) {
+                    if (isFalse(r, k)) {
+                        break;
+                    } else if (isTrue(r, k)) {
+                        t++;
+                    }
+                }
+                if (t == arena[r]) {
+                    return ESat.FALSE;
+                }
+                undefined |= k == arena[r];
+            }
+        }
+        for (int i = 0; i < units.size(); i += 3) {
+            int x = units.getQuick(i), op = units.getQuick(i + 1), v = units.getQuick(i + 2);
+            if (isTrue(x, op, v)) {
+                return ESat.FALSE;
             }
+            undefined |= !isFalse(x, op, v);
         }
-        return ESat.TRUE;
+        return undefined ? ESat.UNDEFINED : ESat.TRUE;
     }
 
     @Override
     public void explain(Deduction d, Explanation e) {
         e.add(solver.getExplainer().getPropagatorActivation(this));
         e.add(this);
-        if (d != null && d.getmType() == Deduction.Type.ValRem) {
-            ValueRemoval vr = (ValueRemoval) d;
-            IntVar var = (IntVar) vr.getVar();
-            int val = vr.getVal();
-            TIntList nogoods = vars2nogood.get(var.getId());
-            TIntList indices = vars2idxinng.get(var.getId());
-            for (int i = 0; i < nogoods.size(); i++) {
-                INogood ng = allnogoods.get(nogoods.get(i));
-                int idx = indices.get(i);
-                if (val == ng.getVal(idx)) {
-                    for (int j = 0; j < ng.size(); j++) {
-                        if (ng.getVar(j) != var) {
-//                            ng.getVar(j).explain(VariableState.REM, ng.getVal(j), e);
-                            ng.getVar(j).explain(VariableState.DOM, e);
+        if (d != null && d.getmType() == Deduction.Type.ValRem && reason > -1) {
+            // the other literals of the nogood are true
+            for (int k = 1; k < arena[reason]; k++) {
+                vars[var(reason, k)].explain(VariableState.DOM, e);
+            }
+        } else if (d != null && d.getmType() == Deduction.Type.ValRem && isUnit((IntVar) d.getVar(), ((ValueRemoval) d).getVal())) {
+            // a nogood of size 1 holds by itself
+        } else if (d == null && conflict > -1) {
+            for (int k = 0; k < arena[conflict]; k++) {
+                vars[var(conflict, k)].explain(VariableState.DOM, e);
+            }
+        } else {
+            super.explain(d, e);
+        }
+    }
+
+    private boolean isUnit(IntVar var, int val) {
+        if (var.getId() < indices.length) {
+            int x = indices[var.getId()];
+            for (int i = 0; i < units.size(); i += 3) {
+                if (units.getQuick(i) == x) {
+                    int op = units.getQuick(i + 1), v = units.getQuick(i + 2);
+                    if (op == EQ && v == val || op == NEQ || op == LE && val <= v || op == GE && val >= v) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    ///*****************************************************************************************************************
+    ///  LITERALS ******************************************************************************************************
+    ///*****************************************************************************************************************
+
+    private int var(int r, int k) {
+        return arena[r + HEADER + 3 * k];
+    }
+
+    private boolean isTrue(int r, int k) {
+        int p = r + HEADER + 3 * k;
+        return isTrue(arena[p], arena[p + 1], arena[p + 2]);
+    }
+
+    private boolean isFalse(int r, int k) {
+        int p = r + HEADER + 3 * k;
+        return isFalse(arena[p], arena[p + 1], arena[p + 2]);
+    }
+
+    private boolean isTrue(int x, int op, int v) {
+        switch (op) {
+            case EQ:
+                return vars[x].isInstantiatedTo(v);
+            case NEQ:
+                return !vars[x].contains(v);
+            case LE:
+                return vars[x].getUB() <= v;
+            default:
+                return vars[x].getLB() >= v;
+        }
+    }
+
+    private boolean isFalse(int x, int op, int v) {
+        switch (op) {
+            case EQ:
+                return !vars[x].contains(v);
+            case NEQ:
+                return vars[x].isInstantiatedTo(v);
+            case LE:
+                return vars[x].getLB() > v;
+            default:
+                return vars[x].getUB() < v;
+        }
+    }
+
+    /**
+     * Enforce the negation of a literal, the modified variable is queued.
+     */
+    private void negate(int x, int op, int v) throws ContradictionException {
+        boolean modified;
+        switch (op) {
+            case EQ:
+                modified = vars[x].removeValue(v, aCause);
+                break;
+            case NEQ:
+                if (!vars[x].contains(v)) {
+                    // instantiateTo does not fail on a value out of the domain
+                    contradiction(vars[x], MSG_NGOOD);
+                }
+                modified = vars[x].instantiateTo(v, aCause);
+                break;
+            case LE:
+                modified = vars[x].updateLowerBound(v + 1, aCause);
+                break;
+            default:
+                modified = vars[x].updateUpperBound(v - 1, aCause);
+        }
+        if (modified && !queued[x]) {
+            queued[x] = true;
+            queue[qsize++] = x;
+        }
+    }
+
+    private void swap(int r, int k1, int k2) {
+        int p1 = r + HEADER + 3 * k1;
+        int p2 = r + HEADER + 3 * k2;
+        for (int i = 0; i < 3; i++) {
+            int t = arena[p1 + i];
+            arena[p1 + i] = arena[p2 + i];
+            arena[p2 + i] = t;
+        }
+    }
+
+    ///*****************************************************************************************************************
+    ///  PROPAGATION ***************************************************************************************************
+    ///*****************************************************************************************************************
+
+    /**
+     * Process the variables modified by this, until fix point.
+     */
+    private void flush() throws ContradictionException {
+        while (qsize > 0) {
+            int x = queue[--qsize];
+            queued[x] = false;
+            awake(x);
+        }
+    }
+
+    /**
+     * Empty the queue, which may not be after a contradiction.
+     */
+    private void clearQueue() {
+        while (qsize > 0) {
+            queued[queue[--qsize]] = false;
+        }
+    }
+
+    /**
+     * Visit the nogoods watching a literal of the variable <code>x</code>.
+     */
+    private void awake(int x) throws ContradictionException {
+        int[] ws = watches[x];
+        int n = nwatches[x];
+        int i = 0, j = 0;
+        try {
+            while (i < n) {
+                int r = ws[i++];
+                if (arena[r] == 1) {
+                    // a learnt nogood of size 1
+                    ws[j++] = r;
+                    if (isTrue(r, 0)) {
+                        fails(r);
+                    }
+                    reason = r;
+                    int p = r + HEADER;
+                    negate(arena[p], arena[p + 1], arena[p + 2]);
+                    reason = -1;
+                    continue;
+                }
+                // the literal of x is put in second position
+                if (var(r, 1) != x || var(r, 0) == x && !isTrue(r, 1)) {
+                    swap(r, 0, 1);
+                }
+                if (!isTrue(r, 1) || isFalse(r, 0)) {
+                    ws[j++] = r;
+                    continue;
+                }
+                boolean moved = false;
+                for (int k = 2; k < arena[r] && !moved; k++) {
+                    if (!isTrue(r, k)) {
+                        swap(r, 1, k);
+                        if (var(r, 1) == x) {
+                            ws[j++] = r;
+                        } else {
+                            watch(var(r, 1), r);
                         }
+                        moved = true;
                     }
                 }
+                if (!moved) {
+                    ws[j++] = r;
+                    if ((arena[r + 1] & LEARNT) != 0) {
+                        arena[r + 1] += 4;
+                    }
+                    if (isTrue(r, 0)) {
+                        fails(r);
+                    }
+                    reason = r;
+                    int p = r + HEADER;
+                    negate(arena[p], arena[p + 1], arena[p + 2]);
+                    reason = -1;
+                }
+            }
+        } finally {
+            reason = -1;
+            // keep the nogoods which have not been visited yet
+            while (i < n) {
+                ws[j++] = ws[i++];
+            }
+            nwatches[x] = j;
+            if (j == 0) {
+                setWatched(x, false);
+            }
+        }
+    }
+
+    /**
+     * Check a nogood from scratch, its two first literals are made the non-true ones, if any.
+     */
+    private void evaluate(int r) throws ContradictionException {
+        int size = arena[r];
+        int w = 0;
+        for (int k = 0; k < size; k++) {
+            if (isFalse(r, k)) {
+                if (w < 2) {
+                    swap(r, w, k);
+                }
+                return;
+            }
+            if (!isTrue(r, k) && w < 2) {
+                swap(r, w++, k);
+            }
+        }
+        if (w == 0) {
+            fails(r);
+        } else if (w == 1 && size > 1) {
+            reason = r;
+            try {
+                int p = r + HEADER;
+                negate(arena[p], arena[p + 1], arena[p + 2]);
+            } finally {
+                reason = -1;
+            }
+        }
+    }
+
+    /**
+     * Propagate the learnt nogood <code>r</code> if it is asserting, that is if all its literals but one
+     * of the two watched ones are true.
+     * Unlike {@link #evaluate(int)}, the watched literals are left in place.
+     */
+    private void assertLearnt(int r) throws ContradictionException {
+        if ((arena[r + 1] & DELETED) != 0) {
+            return;
+        }
+        int size = arena[r];
+        int w = -1;
+        for (int k = 0; k < size; k++) {
+            if (isFalse(r, k)) {
+                return;
             }
+            if (!isTrue(r, k)) {
+                if (w >= 0 || k > 1) {
+                    return;
+                }
+                w = k;
+            }
+        }
+        if (w < 0) {
+            fails(r);
         } else {
-            super.explain(d, e);
+            reason = r;
+            try {
+                int p = r + HEADER + 3 * w;
+                negate(arena[p], arena[p + 1], arena[p + 2]);
+            } finally {
+                reason = -1;
+            }
+        }
+    }
+
+    /**
+     * Throw a contradiction caused by the nogood <code>r</code>, all its literals being true.
+     */
+    private void fails(int r) throws ContradictionException {
+        conflict = r;
+        if ((arena[r + 1] & LEARNT) != 0) {
+            arena[r + 1] += 4;
+        }
+        contradiction(null, MSG_NGOOD);
+    }
+
+    private void watch(int x, int r) {
+        if (watches[x] == null) {
+            watches[x] = new int[4];
+        } else if (nwatches[x] == watches[x].length) {
+            watches[x] = Arrays.copyOf(watches[x], nwatches[x] * 3 / 2 + 1);
+        }
+        if (nwatches[x]++ == 0) {
+            setWatched(x, true);
+        }
+        watches[x][nwatches[x] - 1] = r;
+    }
+
+    private void unwatch(int x, int r) {
+        int[] ws = watches[x];
+        for (int i = 0; i < nwatches[x]; i++) {
+            if (ws[i] == r) {
+                ws[i] = ws[--nwatches[x]];
+                if (nwatches[x] == 0) {
+                    setWatched(x, false);
+                }
+                return;
+            }
         }
     }
 
@@ -159,58 +532,229 @@ public class PropNogoodStore extends Propagator<IntVar> {
     ///  DEDICATED TO NOGOOD RECORDING *********************************************************************************
     ///*****************************************************************************************************************
 
-    public void addNogood(INogood ng) throws ContradictionException {
-        if (ng.isUnit()) {
-            units.add(ng);
-        }
-        int ngidx = allnogoods.size();
-        allnogoods.add(ng);
-        ng.setIdx(ngidx);
-        hasChanged.clear();
-        int idx = ng.propagate(this);
-        if (idx > -1) {
-            hasChanged.addLast(ng.getVar(idx));
-        }
-        while (!hasChanged.isEmpty()) {
-            IntVar var = hasChanged.pollFirst();
-            TIntList nogoods = vars2nogood.get(var.getId());
-            TIntList indices = vars2idxinng.get(var.getId());
-            for (int i = 0; i < nogoods.size(); i++) {
-                ng = allnogoods.get(nogoods.get(i));
-                idx = ng.awakeOnInst(indices.get(i), this);
-                if (idx > -1) {
-                    hasChanged.addLast(ng.getVar(idx));
-                } else {
-                    assert ng.isEntailed() != ESat.FALSE;
+    /**
+     * Add the nogood made of the <code>size</code> first literals <code>vars[i] ops[i] values[i]</code>.
+     * <p/>
+     * The nogood is ignored when one of its literals is false or when it is subsumed by a nogood of the store,
+     * otherwise it is propagated.
+     * Literals over variables out of the scope of the store are not allowed.
+     *
+     * @return <code>true</code> if the nogood has been added
+     * @throws ContradictionException if all the literals are true
+     */
+    public boolean addNogood(IntVar[] vars, int[] ops, int[] values, int size) throws ContradictionException {
+        int r = append(vars, ops, values, size, 0);
+        if (r < 0) {
+            return false;
+        }
+        // minimization: a false literal satisfies the nogood
+        for (int k = 0; k < size; k++) {
+            if (isFalse(r, k)) {
+                asize = r;
+                return false;
+            }
+        }
+        if (size == 1 || subsumed(r)) {
+            asize = r;
+            if (size == 1) {
+                int p = r + HEADER;
+                units.add(arena, p, 3);
+                negate(arena[p], arena[p + 1], arena[p + 2]);
+            }
+            return size == 1;
+        }
+        nbNogoods++;
+        conflict = -1;
+        clearQueue();
+        try {
+            evaluate(r);
+        } finally {
+            watch(var(r, 0), r);
+            watch(var(r, 1), r);
+        }
+        flush();
+        return true;
+    }
+
+    /**
+     * Add a nogood learnt from a failure, made of the <code>size</code> first literals
+     * <code>vars[i] ops[i] values[i]</code>.
+     * It watches its two first literals, so the literals are expected to be sorted from the most recent
+     * to the oldest one, and the nogood should be added when the current state does not trigger it,
+     * typically before backtracking.
+     * It is not propagated at once: the next custom propagation of the store (see {@link #forcePropagate})
+     * applies it if it is asserting, typically once the search has jumped back.
+     */
+    public void addLearntNogood(IntVar[] vars, int[] ops, int[] values, int size) {
+        assert learning : "the store does not accept learnt nogoods";
+        int r = append(vars, ops, values, size, LEARNT);
+        if (r > -1) {
+            watch(var(r, 0), r);
+            if (size > 1) {
+                watch(var(r, 1), r);
+            }
+            learnts.add(r);
+            asserting.add(r);
+            nbNogoods++;
+        }
+    }
+
+    /**
+     * Copy the literals at the end of the arena, return the reference of the nogood,
+     * or -1 if a variable is not in the scope of the store.
+     */
+    private int append(IntVar[] vars, int[] ops, int[] values, int size, int flags) {
+        int r = asize;
+        int end = r + HEADER + 3 * size;
+        if (end > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(end, arena.length * 3 / 2));
+        }
+        arena[r] = size;
+        arena[r + 1] = flags;
+        for (int k = 0, p = r + HEADER; k < size; k++, p += 3) {
+            int id = vars[k].getId();
+            if (id >= indices.length || indices[id] < 0) {
+                return -1;
+            }
+            arena[p] = indices[id];
+            arena[p + 1] = ops[k];
+            arena[p + 2] = values[k];
+        }
+        asize = end;
+        return r;
+    }
+
+    /**
+     * Return true if a nogood of the store is a subset of the nogood <code>r</code>.
+     * Such a nogood watches two variables of <code>r</code>, so all watch lists but the longest one are scanned.
+     */
+    private boolean subsumed(int r) {
+        int size = arena[r];
+        stamp++;
+        int longest = var(r, 0);
+        for (int k = 0; k < size; k++) {
+            int x = var(r, k);
+            marks[x] = stamp;
+            if (nwatches[x] > nwatches[longest]) {
+                longest = x;
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            int x = var(r, k);
+            if (x != longest) {
+                for (int i = 0; i < nwatches[x]; i++) {
+                    if (subset(watches[x][i], r)) {
+                        return true;
+                    }
                 }
             }
         }
+        return false;
     }
 
-    public void watch(IntVar var, Nogood ng, int idxInNG) {
-        TIntList nogoods = vars2nogood.get(var.getId());
-        if (nogoods == null) {
-            nogoods = new TIntArrayList();
-            vars2nogood.put(var.getId(), nogoods);
+    private boolean subset(int m, int r) {
+        for (int k = 0; k < arena[m]; k++) {
+            int p = m + HEADER + 3 * k;
+            if (marks[arena[p]] != stamp) {
+                return false;
+            }
+            boolean in = false;
+            for (int l = 0; l < arena[r] && !in; l++) {
+                int q = r + HEADER + 3 * l;
+                in = arena[p] == arena[q] && arena[p + 1] == arena[q + 1] && arena[p + 2] == arena[q + 2];
+            }
+            if (!in) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove from the store half of the learnt nogoods, the least active ones,
+     * nogoods of size 2 or less are kept.
+     * Activity of the remaining ones is decayed.
+     * Not to be called during propagation.
+     */
+    public void reduceLearntNogoods() {
+        asserting.resetQuick();
+        int n = learnts.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = learnts.getQuick(i);
+        }
+        // by increasing activity, then by decreasing size
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer r1, Integer r2) {
+                int a1 = arena[r1 + 1] >>> 2, a2 = arena[r2 + 1] >>> 2;
+                return a1 != a2 ? (a1 < a2 ? -1 : 1) : arena[r2] - arena[r1];
+            }
+        });
+        learnts.resetQuick();
+        for (int i = 0; i < n; i++) {
+            int r = order[i];
+            if (i < n / 2 && arena[r] > 2) {
+                unwatch(var(r, 0), r);
+                unwatch(var(r, 1), r);
+                arena[r + 1] |= DELETED;
+                wasted += HEADER + 3 * arena[r];
+                nbNogoods--;
+            } else {
+                arena[r + 1] = (arena[r + 1] & 3) | ((arena[r + 1] >>> 3) << 2);
+                learnts.add(r);
+            }
         }
-        nogoods.add(ng.getIdx());
-        TIntList indices = vars2idxinng.get(var.getId());
-        if (indices == null) {
-            indices = new TIntArrayList();
-            vars2idxinng.put(var.getId(), indices);
+        if (wasted > asize / 2) {
+            compact();
         }
-        indices.add(idxInNG);
     }
 
-    public void unwatch(IntVar var, Nogood ng) {
-        TIntList nogoods = vars2nogood.get(var.getId());
-        if (nogoods != null) {
-            int ni = nogoods.indexOf(ng.getIdx());
-            if (ni > -1) {
-                nogoods.removeAt(ni);
-                TIntList indices = vars2idxinng.get(var.getId());
-                indices.removeAt(ni);
+    /**
+     * Remove deleted nogoods from the arena, and update the references.
+     */
+    private void compact() {
+        int[] na = new int[Math.max(1024, asize - wasted)];
+        int nsize = 0;
+        Arrays.fill(nwatches, 0);
+        learnts.resetQuick();
+        for (int r = 0; r < asize; r += HEADER + 3 * arena[r]) {
+            int len = HEADER + 3 * arena[r];
+            if ((arena[r + 1] & DELETED) == 0) {
+                System.arraycopy(arena, r, na, nsize, len);
+                if ((arena[r + 1] & LEARNT) != 0) {
+                    learnts.add(nsize);
+                }
+                nsize += len;
+            }
+        }
+        arena = na;
+        asize = nsize;
+        wasted = 0;
+        for (int r = 0; r < asize; r += HEADER + 3 * arena[r]) {
+            watch(var(r, 0), r);
+            if (arena[r] > 1) {
+                watch(var(r, 1), r);
+            }
+        }
+        for (int x = 0; x < vars.length; x++) {
+            if (nwatches[x] == 0) {
+                setWatched(x, false);
             }
         }
     }
+
+    /**
+     * @return the number of nogoods of size greater than 1 in the store
+     */
+    public int getNbNogoods() {
+        return nbNogoods;
+    }
+
+    /**
+     * @return the number of learnt nogoods currently in the store
+     */
+    public int getNbLearntNogoods() {
+        return learnts.size();
+    }
 }
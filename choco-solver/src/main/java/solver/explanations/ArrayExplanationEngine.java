@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.explanations;
+
+import solver.Solver;
+import solver.explanations.antidom.AntiDomain;
+import solver.variables.IntVar;
+
+import java.util.Arrays;
+
+/**
+ * A flattened explanation engine which stores value removals and their explanations
+ * in arrays, one per variable, indexed by the value minus the initial lower bound of the variable.
+ * <p/>
+ * Each value removal, and its explanation, is allocated once and then reused each time the value is removed again.
+ * Variables whose initial domain span is too large, and values out of the initial domain, are recorded in maps
+ * like in {@link RecorderExplanationEngine}.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class ArrayExplanationEngine extends FlattenedRecorderExplanationEngine {
+
+    // larger domains are recorded in maps
+    private static final int MAX_SPAN = 1 << 16;
+
+    ValueRemoval[][] removals = new ValueRemoval[16][]; // indexed by variable id, then value - offset
+    Explanation[][] explanations = new Explanation[16][];
+    int[] offsets = new int[16];
+
+    public ArrayExplanationEngine(Solver slv) {
+        super(slv);
+    }
+
+    @Override
+    public AntiDomain getRemovedValues(IntVar v) {
+        int vid = v.getId();
+        if (vid >= removals.length) {
+            int ns = Math.max(vid + 1, removals.length * 3 / 2 + 1);
+            removals = Arrays.copyOf(removals, ns);
+            explanations = Arrays.copyOf(explanations, ns);
+            offsets = Arrays.copyOf(offsets, ns);
+        }
+        if (removals[vid] == null) {
+            long span = (long) v.getUB() - v.getLB() + 1;
+            if (span <= MAX_SPAN) {
+                offsets[vid] = v.getLB();
+                removals[vid] = new ValueRemoval[(int) span];
+                explanations[vid] = new Explanation[(int) span];
+            }
+        }
+        return super.getRemovedValues(v);
+    }
+
+    /**
+     * @return the index of <code>val</code> in the arrays of <code>vid</code>, -1 if it is not stored in arrays
+     */
+    private int slot(int vid, int val) {
+        if (vid < removals.length && removals[vid] != null) {
+            int i = val - offsets[vid];
+            if (i >= 0 && i < removals[vid].length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public ValueRemoval getValueRemoval(IntVar var, int val) {
+        int vid = var.getId();
+        int i = slot(vid, val);
+        if (i > -1) {
+            ValueRemoval vr = removals[vid][i];
+            if (vr == null) {
+                vr = new ValueRemoval(var, val);
+                removals[vid][i] = vr;
+            }
+            return vr;
+        }
+        return super.getValueRemoval(var, val);
+    }
+
+    @Override
+    protected Explanation retrieve(Deduction deduction) {
+        if (deduction.mType == Deduction.Type.ValRem) {
+            ValueRemoval vr = (ValueRemoval) deduction;
+            int vid = vr.var.getId();
+            int i = slot(vid, vr.val);
+            if (i > -1) {
+                return explanations[vid][i];
+            }
+        }
+        return super.retrieve(deduction);
+    }
+
+    @Override
+    public void store(Deduction deduction, Explanation explanation) {
+        if (deduction.mType == Deduction.Type.ValRem) {
+            ValueRemoval vr = (ValueRemoval) deduction;
+            int vid = vr.var.getId();
+            int i = slot(vid, vr.val);
+            if (i > -1) {
+                explanations[vid][i] = explanation;
+                return;
+            }
+        }
+        super.store(deduction, explanation);
+    }
+}
@@ -31,13 +31,13 @@ import gnu.trove.set.hash.TIntHashSet;
 import solver.Configuration;
 import solver.constraints.Propagator;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * An explanation is the combination of two sets: a set of deduction and a set of propagators.
- * The deductions are stored in a list, and the uniqueness of elements is ensured during the add operation.
- * This allows fast iteration over elements.
+ * The deductions are stored in an array, and the uniqueness of elements is ensured during the add operation:
+ * by a scan of the array for small explanations, by an open-addressing set of ids, built on demand, for the largest ones.
+ * This allows fast iteration over elements and keeps small explanations light.
  * The propagators are stored in the same way.
  * <p/>
  * Created by IntelliJ IDEA.
@@ -55,9 +55,15 @@ public class Explanation extends Deduction {
         }
     };
 
-    private List<Deduction> deductions;
-    private TIntHashSet did;
-    private List<Propagator> propagators;
+    // beyond that size, uniqueness is checked with a hash set
+    private static final int SCAN = 16;
+
+    private Deduction[] deductions;
+    private int nbd;
+    private int[] dids; // ids + 1 of the first 'nbi' deductions, 0 stands for an empty slot
+    private int nbi;
+    private Propagator[] propagators;
+    private int nbp;
     private TIntHashSet pid;
 
     public Explanation() {
@@ -97,12 +103,28 @@ public class Explanation extends Deduction {
     public void add(Propagator p) {
         if (Configuration.PROP_IN_EXP) {
             if (this.propagators == null) {
-                this.propagators = new ArrayList<Propagator>(4);
-                this.pid = new TIntHashSet(4);
+                this.propagators = new Propagator[4];
+            }
+            if (pid == null) {
+                for (int i = 0; i < nbp; i++) {
+                    if (propagators[i] == p) {
+                        return;
+                    }
+                }
+                if (nbp == SCAN) {
+                    pid = new TIntHashSet(2 * SCAN);
+                    for (int i = 0; i < nbp; i++) {
+                        pid.add(propagators[i].getId());
+                    }
+                    pid.add(p.getId());
+                }
+            } else if (!pid.add(p.getId())) {
+                return;
             }
-            if (this.pid.add(p.getId())) {
-                this.propagators.add(p);
+            if (nbp == propagators.length) {
+                propagators = Arrays.copyOf(propagators, nbp * 3 / 2 + 1);
             }
+            propagators[nbp++] = p;
         }
     }
 
@@ -123,28 +145,89 @@ public class Explanation extends Deduction {
             }
 
             if (this.deductions == null) {
-                this.deductions = new ArrayList<Deduction>(4);
-                this.did = new TIntHashSet();
+                this.deductions = new Deduction[4];
             }
-            if (this.did.add(d.id)) {
-                this.deductions.add(d);
+            if (!contain(d)) {
+                append(d);
             }
         }
     }
 
+    /**
+     * Add a deduction, known not to be in this, to the set of deductions of this
+     *
+     * @param d deduction to add
+     */
+    void append(Deduction d) {
+        if (this.deductions == null) {
+            this.deductions = new Deduction[4];
+        } else if (nbd == deductions.length) {
+            deductions = Arrays.copyOf(deductions, nbd * 3 / 2 + 1);
+        }
+        deductions[nbd++] = d;
+    }
+
     /**
      * Remove a deduction from the set of deductions of this.
      *
      * @param d deduction to remove
      */
     public void remove(Deduction d) {
-        this.deductions.remove(d);
-        this.did.remove(d.id);
+        for (int i = 0; i < nbd; i++) {
+            if (deductions[i].id == d.id) {
+                System.arraycopy(deductions, i + 1, deductions, i, nbd - i - 1);
+                deductions[--nbd] = null;
+                if (nbi > 0) {
+                    Arrays.fill(dids, 0);
+                    nbi = 0;
+                }
+                return;
+            }
+        }
     }
 
 
     public boolean contain(Deduction d) {
-        return deductions != null && did.contains(d.id);
+        if (nbd <= SCAN) {
+            for (int i = 0; i < nbd; i++) {
+                if (deductions[i].id == d.id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        index();
+        int mask = dids.length - 1;
+        int k = d.id + 1;
+        for (int h = (k * 0x9E3779B9) & mask; dids[h] != 0; h = (h + 1) & mask) {
+            if (dids[h] == k) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Insert in the set of ids the deductions which are not yet in it.
+     */
+    private void index() {
+        if (dids == null || 2 * nbd > dids.length) {
+            int size = 2 * SCAN;
+            while (size < 4 * nbd) {
+                size <<= 1;
+            }
+            dids = new int[size];
+            nbi = 0;
+        }
+        int mask = dids.length - 1;
+        for (; nbi < nbd; nbi++) {
+            int k = deductions[nbi].id + 1;
+            int h = (k * 0x9E3779B9) & mask;
+            while (dids[h] != 0) {
+                h = (h + 1) & mask;
+            }
+            dids[h] = k;
+        }
     }
 
     /**
@@ -152,12 +235,19 @@ public class Explanation extends Deduction {
      */
     public void reset() {
         if (this.propagators != null) {
-            this.propagators.clear();
-            this.pid.clear();
+            Arrays.fill(propagators, 0, nbp, null);
+            nbp = 0;
+            if (pid != null) {
+                pid.clear();
+            }
         }
         if (this.deductions != null) {
-            this.deductions.clear();
-            this.did.clear();
+            Arrays.fill(deductions, 0, nbd, null);
+            nbd = 0;
+            if (nbi > 0) {
+                Arrays.fill(dids, 0);
+                nbi = 0;
+            }
         }
     }
 
@@ -167,7 +257,7 @@ public class Explanation extends Deduction {
      * @return number of deductions
      */
     public int nbDeductions() {
-        return deductions == null ? 0 : deductions.size();
+        return nbd;
     }
 
     /**
@@ -179,7 +269,7 @@ public class Explanation extends Deduction {
      * @return the deduction at rank i
      */
     public Deduction getDeduction(int i) {
-        return deductions.get(i);
+        return deductions[i];
     }
 
     /**
@@ -188,7 +278,7 @@ public class Explanation extends Deduction {
      * @return number of propagators
      */
     public int nbPropagators() {
-        return propagators == null ? 0 : propagators.size();
+        return nbp;
     }
 
     /**
@@ -200,7 +290,7 @@ public class Explanation extends Deduction {
      * @return the propagator at rank i
      */
     public Propagator getPropagator(int i) {
-        return propagators.get(i);
+        return propagators[i];
     }
 
     @Override
@@ -209,24 +299,24 @@ public class Explanation extends Deduction {
 
 
         bf.append(" D: ");
-        if (this.deductions != null && !this.deductions.isEmpty()) {
-            bf.append("(").append(this.deductions.size()).append(") ");
-            for (Deduction d : this.deductions) {
-                bf.append(d).append(", ");
+        if (nbd > 0) {
+            bf.append("(").append(nbd).append(") ");
+            for (int i = 0; i < nbd; i++) {
+                bf.append(deductions[i]).append(", ");
             }
-            if (deductions.size() > 1) {
+            if (nbd > 1) {
                 bf.delete(bf.lastIndexOf(","), bf.length() - 1);
             }
         }
 
         if (Configuration.PROP_IN_EXP) {
             bf.append(" ; P:");
-            if (this.propagators != null) {
-                bf.append("(").append(this.propagators.size()).append(") ");
-                for (Propagator p : this.propagators) {
-                    bf.append(p).append(", ");
+            if (nbp > 0) {
+                bf.append("(").append(nbp).append(") ");
+                for (int i = 0; i < nbp; i++) {
+                    bf.append(propagators[i]).append(", ");
                 }
-                if (propagators.size() > 1) {
+                if (nbp > 1) {
                     bf.delete(bf.lastIndexOf(","), bf.length() - 1);
                 }
             }
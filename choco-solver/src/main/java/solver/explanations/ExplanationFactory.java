@@ -30,6 +30,7 @@ package solver.explanations;
 import solver.Solver;
 import solver.explanations.strategies.ConflictBasedBackjumping;
 import solver.explanations.strategies.DynamicBacktracking;
+import solver.explanations.strategies.LazyClauseGeneration;
 import solver.explanations.strategies.jumper.MostRecentWorldJumper;
 
 /**
@@ -85,6 +86,17 @@ public enum ExplanationFactory {
             plugExpl(solver, flattened);
             new DynamicBacktracking(solver.getExplainer(), new MostRecentWorldJumper( ));
         }
+    },
+    /**
+     * add a Conflict-based jumping policy on contradiction to an explained solver,
+     * and turns each explained contradiction into a learnt nogood.
+     */
+    LCG {
+        @Override
+        public void plugin(Solver solver, boolean flattened) {
+            plugExpl(solver, flattened);
+            new LazyClauseGeneration(solver.getExplainer());
+        }
     };
 
     /**
@@ -98,7 +110,7 @@ public enum ExplanationFactory {
 
     private static void plugExpl(Solver solver, boolean flattened) {
         assert !solver.getExplainer().isActive() : "Explanations are already turn on!";
-        solver.set(flattened ? new FlattenedRecorderExplanationEngine(solver)
+        solver.set(flattened ? new ArrayExplanationEngine(solver)
                 : new RecorderExplanationEngine(solver));
     }
 
@@ -51,7 +51,7 @@ public class FlattenedRecorderExplanationEngine extends RecorderExplanationEngin
     @Override
     public Deduction explain(Deduction deduction) {
         if (deduction.mType == Deduction.Type.DecRight) {
-            return database.get(deduction.id);
+            return retrieve(deduction);
         } else {
             return super.explain(deduction);
         }
@@ -66,7 +66,7 @@ public class FlattenedRecorderExplanationEngine extends RecorderExplanationEngin
 
     @Override
     public Explanation flatten(Deduction deduction) {
-        Explanation e = database.get(deduction.id);
+        Explanation e = retrieve(deduction);
         if (e == null) {
             e = Explanation.SYSTEM.get();
         }
@@ -229,7 +229,7 @@ public class LazyExplanationEngine extends RecorderExplanationEngine {
         if (!isLeft) {
             // a refutation is explained thanks to the previous ones which are refutable
             if (decision != RootDecision.ROOT) {
-                Explanation explanation = database.get(br.getId());
+                Explanation explanation = retrieve(br);
                 if (explanation == null) {
                     explanation = new Explanation();
                 } else {
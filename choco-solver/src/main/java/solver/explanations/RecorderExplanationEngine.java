@@ -28,20 +28,21 @@
 package solver.explanations;
 
 import gnu.trove.map.hash.TIntObjectHashMap;
-import gnu.trove.set.hash.TIntHashSet;
 import solver.Configuration;
 import solver.ICause;
 import solver.Solver;
 import solver.constraints.Propagator;
 import solver.exception.SolverException;
 import solver.explanations.antidom.AntiDomain;
-import solver.propagation.queues.CircularQueue;
 import solver.search.loop.monitors.IMonitorInitPropagation;
 import solver.search.strategy.decision.Decision;
 import solver.variables.BoolVar;
 import solver.variables.IntVar;
 import solver.variables.Variable;
 
+import java.util.Arrays;
+import java.util.BitSet;
+
 /**
  * Created by IntelliJ IDEA.
  * User: njussien
@@ -63,9 +64,9 @@ public class RecorderExplanationEngine extends ExplanationEngine implements IMon
     TIntObjectHashMap<TIntObjectHashMap<BranchingDecision>> leftbranchdecisions; // maintien de la base de left BranchingDecision
     TIntObjectHashMap<TIntObjectHashMap<BranchingDecision>> rightbranchdecisions; // maintien de la base de right BranchingDecision
 
-    protected TIntHashSet expanded = new TIntHashSet();
-    protected TIntHashSet toexpand = new TIntHashSet();
-    protected CircularQueue<Deduction> pending = new CircularQueue<Deduction>(16);
+    // deductions met while flattening an explanation, and their ids
+    protected Deduction[] pending = new Deduction[16];
+    protected BitSet seen = new BitSet();
 
     public RecorderExplanationEngine(Solver solver) {
         super(solver);
@@ -122,7 +123,17 @@ public class RecorderExplanationEngine extends ExplanationEngine implements IMon
 
     @Override
     public Explanation retrieve(IntVar var, int val) {
-        return database.get(getValueRemoval(var, val).id);
+        return retrieve(getValueRemoval(var, val));
+    }
+
+    /**
+     * Provides the recorded explanation of <code>deduction</code>, if any
+     *
+     * @param deduction a deduction
+     * @return an explanation, or <code>null</code>
+     */
+    protected Explanation retrieve(Deduction deduction) {
+        return database.get(deduction.id);
     }
 
     public ValueRemoval getValueRemoval(IntVar var, int val) {
@@ -197,7 +208,7 @@ public class RecorderExplanationEngine extends ExplanationEngine implements IMon
     @Override
     public void activePropagator(BoolVar var, Propagator propagator) {
         PropagatorActivation pa = getPropagatorActivation(propagator);
-        Explanation expl = database.get(pa.id);
+        Explanation expl = retrieve(pa);
         if (expl == null) {
             expl = new Explanation();
         } else {
@@ -212,7 +223,7 @@ public class RecorderExplanationEngine extends ExplanationEngine implements IMon
         // 1. retrieve the deduction
         Deduction vr = getValueRemoval(var, val);
         // 2. get the previous explanation, if any
-        Explanation expl = database.get(vr.id);
+        Explanation expl = retrieve(vr);
         if (expl == null) {
             expl = new Explanation();
             store(vr, expl);
@@ -328,28 +339,15 @@ public class RecorderExplanationEngine extends ExplanationEngine implements IMon
     @Override
     public Explanation flatten(Explanation expl) {
         Explanation toreturn = new Explanation();
-
-
-        expanded.clear();
-        toexpand.clear();
-        pending.clear();
-
-        Deduction ded;
+        int size = 0;
         int nbd = expl.nbDeductions();
         for (int i = 0; i < nbd; i++) {
-            ded = expl.getDeduction(i);
-            pending.addLast(ded);
-            toexpand.add(ded.id);
+            size = enqueue(expl.getDeduction(i), size);
         }
-
-
-        while (!pending.isEmpty()) {
-            ded = pending.pollFirst();
-            toexpand.remove(ded.id);
-            expanded.add(ded.id);
-
-            Explanation e = database.get(ded.id);
-//            System.out.printf("%s \n", ded);
+        // the queue is not consumed, so that marks can be cleared at the end
+        for (int k = 0; k < size; k++) {
+            Deduction ded = pending[k];
+            Explanation e = retrieve(ded);
             if (e != null) {
                 int nbp = e.nbPropagators();
                 for (int i = 0; i < nbp; i++) {
@@ -357,20 +355,30 @@ public class RecorderExplanationEngine extends ExplanationEngine implements IMon
                 }
                 nbd = e.nbDeductions();
                 for (int i = 0; i < nbd; i++) {
-                    ded = e.getDeduction(i);
-//                    System.out.printf("\t-> %s\n", ded);
-                    if (!expanded.contains(ded.id) && toexpand.add(ded.id)) {
-                        pending.addLast(ded);
-                    }
+                    size = enqueue(e.getDeduction(i), size);
                 }
             } else {
-                toreturn.add(ded);
+                toreturn.append(ded); // enqueued once, so unique
             }
-//            System.out.printf("\n");
+        }
+        for (int k = 0; k < size; k++) {
+            seen.clear(pending[k].id);
+            pending[k] = null;
         }
         return toreturn;
     }
 
+    private int enqueue(Deduction ded, int size) {
+        if (!seen.get(ded.id)) {
+            seen.set(ded.id);
+            if (size == pending.length) {
+                pending = Arrays.copyOf(pending, size * 3 / 2 + 1);
+            }
+            pending[size++] = ded;
+        }
+        return size;
+    }
+
     @Override
     public Explanation flatten(IntVar var, int val) {
         // TODO check that it is always called with val NOT in var
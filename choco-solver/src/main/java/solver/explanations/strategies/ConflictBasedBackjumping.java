@@ -56,6 +56,9 @@ public class ConflictBasedBackjumping implements IDynamicBacktrackingAlgorithm,
 
     protected IDecisionJumper decisionJumper;
 
+    // explanation of the current contradiction, reused from one contradiction to the other
+    private final Explanation conflict = new Explanation();
+
     public ConflictBasedBackjumping(ExplanationEngine mExplanationEngine) {
         this(mExplanationEngine, new MostRecentWorldJumper());
     }
@@ -74,7 +77,8 @@ public class ConflictBasedBackjumping implements IDynamicBacktrackingAlgorithm,
     @Override
     public void onContradiction(ContradictionException cex) {
         if ((cex.v != null) || (cex.c != null)) { // contradiction on domain wipe out
-            Explanation expl = new Explanation();
+            Explanation expl = conflict;
+            expl.reset();
             if (cex.v != null) {
                 cex.v.explain(VariableState.DOM, expl);
             } else {
@@ -84,6 +88,7 @@ public class ConflictBasedBackjumping implements IDynamicBacktrackingAlgorithm,
             if (Configuration.PRINT_EXPLANATION && LOGGER.isInfoEnabled()) {
                 mExplanationEngine.onContradiction(cex, complete);
             }
+            onExplainedContradiction(complete);
             int upto = decisionJumper.compute(complete, mSolver.getEnvironment().getWorldIndex());
             mSolver.getSearchLoop().overridePreviousWorld(upto);
             updateVRExplainUponbacktracking(upto, complete, cex.c);
@@ -92,6 +97,14 @@ public class ConflictBasedBackjumping implements IDynamicBacktrackingAlgorithm,
         }
     }
 
+    /**
+     * Called on a contradiction, once its explanation has been computed and before backtracking.
+     *
+     * @param complete the flattened explanation of the contradiction
+     */
+    protected void onExplainedContradiction(Explanation complete) {
+    }
+
     @Override
     public void onSolution() {
         // we need to prepare a "false" backtrack on this decision
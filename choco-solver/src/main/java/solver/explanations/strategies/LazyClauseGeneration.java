@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.explanations.strategies;
+
+import solver.constraints.Constraint;
+import solver.constraints.nary.nogood.PropNogoodStore;
+import solver.exception.ContradictionException;
+import solver.explanations.BranchingDecision;
+import solver.explanations.Deduction;
+import solver.explanations.Explanation;
+import solver.explanations.ExplanationEngine;
+import solver.search.loop.monitors.IMonitorDownBranch;
+import solver.search.loop.monitors.IMonitorInitialize;
+import solver.search.strategy.assignments.DecisionOperator;
+import solver.search.strategy.decision.Decision;
+import solver.search.strategy.decision.fast.FastDecision;
+import solver.variables.EventType;
+import solver.variables.IntVar;
+import solver.variables.Variable;
+
+import java.util.Arrays;
+
+/**
+ * A conflict-based backjumping which, in addition, turns each failure explanation into a nogood.
+ * <p/>
+ * The decisions involved in the flattened explanation of a failure are translated into literals
+ * [x=v], [x!=v], [x<=v] or [x>=v], the nogood forbids their conjunction and is posted in a {@link PropNogoodStore}.
+ * Learnt nogoods are watched on their two most recent literals and the least active ones
+ * are regularly removed from the store.
+ * Once the search has jumped back, the store is scheduled to propagate the nogood, which is then asserting.
+ * <p/>
+ * Only decisions on integer variables can be translated, a failure explained by any other decision is not learnt.
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class LazyClauseGeneration extends ConflictBasedBackjumping implements IMonitorInitialize, IMonitorDownBranch {
+
+    PropNogoodStore store;
+    int maxLearnts;
+    IntVar[] lvars = new IntVar[8];
+    int[] lops = new int[8];
+    int[] lvals = new int[8];
+    int[] lworlds = new int[8];
+    boolean learnt; // a nogood has been learnt since the last jump
+
+    public LazyClauseGeneration(ExplanationEngine mExplanationEngine) {
+        this(mExplanationEngine, 2000);
+    }
+
+    /**
+     * @param mExplanationEngine the explanation engine
+     * @param maxLearnts         number of learnt nogoods which triggers the first reduction of the store
+     */
+    public LazyClauseGeneration(ExplanationEngine mExplanationEngine, int maxLearnts) {
+        super(mExplanationEngine);
+        this.maxLearnts = maxLearnts;
+    }
+
+    @Override
+    public void beforeInitialize() {
+        if (store == null) {
+            IntVar[] ivars = mSolver.retrieveIntVars();
+            int k = 0;
+            for (int i = 0; i < ivars.length; i++) {
+                if ((ivars[i].getTypeAndKind() & Variable.CSTE) == 0) {
+                    ivars[k++] = ivars[i];
+                }
+            }
+            store = new PropNogoodStore(Arrays.copyOf(ivars, k), true);
+            mSolver.post(new Constraint("LearntNogoods", store));
+        }
+    }
+
+    @Override
+    public void afterInitialize() {
+    }
+
+    @Override
+    public void beforeDownLeftBranch() {
+    }
+
+    @Override
+    public void afterDownLeftBranch() {
+    }
+
+    @Override
+    public void beforeDownRightBranch() {
+        if (learnt) {
+            learnt = false;
+            try {
+                store.forcePropagate(EventType.CUSTOM_PROPAGATION);
+            } catch (ContradictionException e) {
+                // only engines propagating at once may fail here, the refutation will be propagated anyway
+                mSolver.getEngine().flush();
+            }
+        }
+    }
+
+    @Override
+    public void afterDownRightBranch() {
+    }
+
+    @Override
+    protected void onExplainedContradiction(Explanation complete) {
+        if (store == null) {
+            return;
+        }
+        int n = 0;
+        for (int d = 0; d < complete.nbDeductions(); d++) {
+            Deduction ded = complete.getDeduction(d);
+            if (ded.getmType() == Deduction.Type.DecLeft || ded.getmType() == Deduction.Type.DecRight) {
+                Decision dec = ((BranchingDecision) ded).getDecision();
+                boolean left = ded.getmType() == Deduction.Type.DecLeft;
+                if (!(dec instanceof FastDecision) || left != dec.hasNext()) {
+                    return;
+                }
+                if (n == lvars.length) {
+                    int ns = n * 3 / 2 + 1;
+                    lvars = Arrays.copyOf(lvars, ns);
+                    lops = Arrays.copyOf(lops, ns);
+                    lvals = Arrays.copyOf(lvals, ns);
+                    lworlds = Arrays.copyOf(lworlds, ns);
+                }
+                FastDecision fd = (FastDecision) dec;
+                if (!literal(fd.getDecisionOperator(), fd.getDecisionValue(), left, n)) {
+                    return;
+                }
+                lvars[n] = fd.getDecisionVariable();
+                lworlds[n] = dec.getWorldIndex();
+                // sort literals from the most recent to the oldest one
+                for (int i = n; i > 0 && lworlds[i - 1] < lworlds[i]; i--) {
+                    swap(i, i - 1);
+                }
+                n++;
+            }
+        }
+        if (n > 0) {
+            if (store.getNbLearntNogoods() >= maxLearnts) {
+                store.reduceLearntNogoods();
+                maxLearnts += maxLearnts / 10;
+            }
+            store.addLearntNogood(lvars, lops, lvals, n);
+            learnt = true;
+        }
+    }
+
+    /**
+     * Store in position <code>i</code> the literal matching the left branch (or the right branch)
+     * of a decision made of <code>op</code> and <code>value</code>.
+     */
+    private boolean literal(DecisionOperator op, int value, boolean left, int i) {
+        if (!left) {
+            op = op.opposite();
+            if (op == DecisionOperator.int_split) {
+                value--;
+            } else if (op == DecisionOperator.int_reverse_split) {
+                value++;
+            }
+        }
+        lops[i] = PropNogoodStore.operator(op);
+        if (lops[i] < 0) {
+            return false;
+        }
+        lvals[i] = value;
+        return true;
+    }
+
+    private void swap(int i, int j) {
+        IntVar v = lvars[i];
+        lvars[i] = lvars[j];
+        lvars[j] = v;
+        int t = lops[i];
+        lops[i] = lops[j];
+        lops[j] = t;
+        t = lvals[i];
+        lvals[i] = lvals[j];
+        lvals[j] = t;
+        t = lworlds[i];
+        lworlds[i] = lworlds[j];
+        lworlds[j] = t;
+    }
+
+    /**
+     * @return the number of learnt nogoods currently stored
+     */
+    public int getNbLearntNogoods() {
+        return store == null ? 0 : store.getNbLearntNogoods();
+    }
+}
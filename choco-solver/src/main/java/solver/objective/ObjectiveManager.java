@@ -59,6 +59,10 @@ public class ObjectiveManager<V extends Variable, N extends Number> implements I
 
 	protected N bestProvedLB, bestProvedUB; // best bounds found so far
 
+	private N ownSolutionValue; // value of the best solution found by this solver itself, if any
+
+	private SharedObjectiveBound sharedBound; // best solution value shared with other solvers, if any
+
 	// creates an objective manager for satisfaction problems
 	public static final ObjectiveManager SAT(){
 		return new ObjectiveManager(null,ResolutionPolicy.SATISFACTION,false);
@@ -175,6 +179,10 @@ public class ObjectiveManager<V extends Variable, N extends Number> implements I
 			} else {
 				this.bestProvedLB = getObjLB();
 			}
+			ownSolutionValue = getBestSolutionValue();
+			if (sharedBound != null) {
+				sharedBound.offer(getBestSolutionValue().doubleValue());
+			}
 		}
 	}
 
@@ -185,9 +193,10 @@ public class ObjectiveManager<V extends Variable, N extends Number> implements I
 	 */
 	public void postDynamicCut() throws ContradictionException {
 		if(isOptimization()){
+			pullSharedBound();
 			if(intOrReal){
 				int offset = 0;
-				if (objective.getSolver().getMeasures().getSolutionCount() > 0 && strict) {
+				if (hasSolutionValue() && strict) {
 					offset = 1;
 				}
 				IntVar io = (IntVar) objective;
@@ -200,7 +209,7 @@ public class ObjectiveManager<V extends Variable, N extends Number> implements I
 				}
 			} else {
 				double offset = 0;
-				if (objective.getSolver().getMeasures().getSolutionCount() > 0 && strict) {
+				if (hasSolutionValue() && strict) {
 					offset = precision;
 				}
 				RealVar io = (RealVar) objective;
@@ -215,6 +224,52 @@ public class ObjectiveManager<V extends Variable, N extends Number> implements I
 		}
 	}
 
+	/**
+	 * @return true iff the best bound is the value of a solution, found by this solver or a sharing one
+	 */
+	private boolean hasSolutionValue() {
+		return objective.getSolver().getMeasures().getSolutionCount() > 0
+				|| (sharedBound != null && sharedBound.isSet());
+	}
+
+	/**
+	 * Imports the shared bound, if it is better than the one known by this manager
+	 */
+	private void pullSharedBound() {
+		if (sharedBound != null && sharedBound.isSet()) {
+			double value = sharedBound.get();
+			if (policy == ResolutionPolicy.MINIMIZE) {
+				if (value < bestProvedUB.doubleValue()) {
+					bestProvedUB = toN(value);
+				}
+			} else if (value > bestProvedLB.doubleValue()) {
+				bestProvedLB = toN(value);
+			}
+		}
+	}
+
+	/**
+	 * Share the best solution value with other solvers:
+	 * each solution found is published in <code>bound</code>, and the dynamic cut takes the values published by others
+	 * into account.
+	 *
+	 * @param bound a bound shared among solvers solving the same problem in parallel
+	 */
+	public void share(SharedObjectiveBound bound) {
+		assert isOptimization();
+		if (bound.getPolicy() != policy) {
+			throw new UnsupportedOperationException("the shared bound does not have the same resolution policy");
+		}
+		this.sharedBound = bound;
+	}
+
+	/**
+	 * @return the bound shared with other solvers, or null
+	 */
+	public SharedObjectiveBound getSharedBound() {
+		return sharedBound;
+	}
+
 	/**
 	 * @return the best solution value found so far (returns the initial bound if no solution has been found yet)
 	 */
@@ -228,6 +283,14 @@ public class ObjectiveManager<V extends Variable, N extends Number> implements I
 		throw new UnsupportedOperationException("There is no objective variable in satisfaction problems");
 	}
 
+	/**
+	 * @return the value of the best solution found by this solver, ignoring the values imported from the shared bound
+	 * (returns null if this solver has not found any solution yet)
+	 */
+	public N getOwnSolutionValue() {
+		return ownSolutionValue;
+	}
+
 	/**
 	 * States that lb is a global lower bound on the problem
 	 *
@@ -252,6 +315,14 @@ public class ObjectiveManager<V extends Variable, N extends Number> implements I
 		}
 	}
 
+	private N toN(double value){
+		if(intOrReal){
+			return (N) new Integer((int) value);
+		}else{
+			return (N) new Double(value);
+		}
+	}
+
 	private N getObjLB(){
 		assert isOptimization();
 		if(intOrReal){
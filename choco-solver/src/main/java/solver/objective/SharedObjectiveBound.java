@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.objective;
+
+import solver.ResolutionPolicy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A best objective value shared among several solvers working on the same problem (in different threads).
+ * <br/>
+ * Each solver publishes the value of its solutions with {@link #offer(double)} and reads the best known one
+ * with {@link #get()}, through its {@link ObjectiveManager}.
+ * The value is stored as the raw bits of a double in an atomic long, so no lock is required.
+ * Integer objectives fit exactly in a double.
+ */
+public class SharedObjectiveBound {
+
+    private final ResolutionPolicy policy;
+
+    private final AtomicLong bits;
+
+    /**
+     * Creates an empty shared bound
+     *
+     * @param policy MINIMIZE or MAXIMIZE
+     */
+    public SharedObjectiveBound(ResolutionPolicy policy) {
+        if (policy == ResolutionPolicy.SATISFACTION) {
+            throw new UnsupportedOperationException("cannot share a bound for a satisfaction problem");
+        }
+        this.policy = policy;
+        this.bits = new AtomicLong(Double.doubleToRawLongBits(
+                policy == ResolutionPolicy.MINIMIZE ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY));
+    }
+
+    /**
+     * Publishes the value of a new solution.
+     *
+     * @param value objective value of a solution
+     * @return true iff <code>value</code> improves the shared bound
+     */
+    public boolean offer(double value) {
+        long current;
+        do {
+            current = bits.get();
+            if (!isBetter(value, Double.longBitsToDouble(current))) {
+                return false;
+            }
+        } while (!bits.compareAndSet(current, Double.doubleToRawLongBits(value)));
+        return true;
+    }
+
+    /**
+     * @return the best objective value published so far, an infinite value if none
+     */
+    public double get() {
+        return Double.longBitsToDouble(bits.get());
+    }
+
+    /**
+     * @return true iff at least one solution value has been published
+     */
+    public boolean isSet() {
+        return !Double.isInfinite(get());
+    }
+
+    /**
+     * @param value a value
+     * @return true iff <code>value</code> is strictly better than the shared bound
+     */
+    public boolean improves(double value) {
+        return isBetter(value, get());
+    }
+
+    public ResolutionPolicy getPolicy() {
+        return policy;
+    }
+
+    private boolean isBetter(double value, double than) {
+        return policy == ResolutionPolicy.MINIMIZE ? value < than : value > than;
+    }
+}
@@ -27,6 +27,8 @@
 package solver.propagation;
 
 import solver.Solver;
+import solver.propagation.hardcoded.AdaptivePropagationEngine;
+import solver.propagation.hardcoded.PrimitiveTwoBucketPropagationEngine;
 import solver.propagation.hardcoded.SevenQueuesPropagatorEngine;
 import solver.propagation.hardcoded.TwoBucketPropagationEngine;
 
@@ -63,6 +65,28 @@ public enum PropagationEngineFactory {
         }
     },
 
+    /**
+     * Create a two-bucket propagation engine based on primitive ring buffers, which does not allocate
+     * when scheduling events.
+     */
+    PRIMITIVETWOBUCKETPROPAGATIONENGINE() {
+        @Override
+        public IPropagationEngine make(Solver solver) {
+            return new PrimitiveTwoBucketPropagationEngine(solver);
+        }
+    },
+
+    /**
+     * Create a two-bucket propagation engine which moves expensive and low-yield propagators
+     * behind cheaper ones, based on online measures.
+     */
+    ADAPTIVEPROPAGATIONENGINE() {
+        @Override
+        public IPropagationEngine make(Solver solver) {
+            return new AdaptivePropagationEngine(solver);
+        }
+    },
+
     /**
      * Create a DSL driven propagation engine.
      */
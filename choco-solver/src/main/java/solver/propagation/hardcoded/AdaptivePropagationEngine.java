@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.propagation.hardcoded;
+
+import solver.ICause;
+import solver.Solver;
+import solver.constraints.Constraint;
+import solver.constraints.Propagator;
+import solver.exception.ContradictionException;
+
+import java.util.Arrays;
+
+/**
+ * A two-bucket propagation engine (see {@link TwoBucketPropagationEngine}) which learns where to schedule propagators.
+ * <p/>
+ * For each propagator, the engine measures online the cost of a call (on a sample of the calls)
+ * and its yield, that is the ratio of calls which modify a domain or fail.
+ * Regularly, a propagator whose cost per useful call is far above the average one is moved down to the next queue,
+ * behind cheaper propagators, and goes back up once it becomes worth it.
+ * A propagator is never scheduled in a queue of higher priority than the one its static priority defines.
+ * <p/>
+ * Only the order of the propagations is modified: all queues are emptied before returning, so the fix point is the same.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class AdaptivePropagationEngine extends TwoBucketPropagationEngine {
+
+    private static final int REVISION = 4096; // number of calls between two revisions of the levels
+    private static final int SAMPLING = 15; // one call out of SAMPLING + 1 is timed
+    private static final int RATIO = 4; // a propagator is moved down when its cost per useful call is RATIO times the average one
+
+    protected int[] level; // number of queues each propagator is moved down from its static one
+    protected long[] cost; // time spent in the sampled calls, in nanoseconds
+    protected int[] samples; // number of sampled calls
+    protected int[] calls; // number of calls
+    protected int[] yields; // number of calls which modified a domain or failed
+    protected long nbEvents; // number of domain modifications so far
+    protected int countdown; // number of calls before the next revision
+
+    public AdaptivePropagationEngine(Solver solver) {
+        super(solver);
+        int nbProp = propagators.length;
+        level = new int[nbProp];
+        cost = new long[nbProp];
+        samples = new int[nbProp];
+        calls = new int[nbProp];
+        yields = new int[nbProp];
+        countdown = REVISION;
+    }
+
+    @Override
+    public void propagate() throws ContradictionException {
+        if (countdown <= 0) {
+            revise();
+        }
+        super.propagate();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Updates the statistics of <code>lastProp</code>.
+     */
+    @Override
+    protected void execute(int aid, int v, int mask) throws ContradictionException {
+        long e = nbEvents;
+        boolean sampled = (calls[aid]++ & SAMPLING) == 0;
+        long t = sampled ? System.nanoTime() : 0;
+        countdown--;
+        try {
+            super.execute(aid, v, mask);
+        } catch (ContradictionException cex) {
+            yields[aid]++;
+            throw cex;
+        } finally {
+            if (sampled) {
+                cost[aid] += System.nanoTime() - t;
+                samples[aid]++;
+            }
+        }
+        if (nbEvents > e) {
+            yields[aid]++;
+        }
+    }
+
+    @Override
+    protected void countEvent(ICause cause) {
+        super.countEvent(cause);
+        nbEvents++;
+    }
+
+    @Override
+    protected int offset(int aid) {
+        return level[aid];
+    }
+
+    /**
+     * Compare the cost per useful call of each propagator to the average one, and update its level.
+     * Statistics are then halved, to forget about the oldest calls.
+     */
+    private void revise() {
+        long tcost = 0, tsamples = 0, tcalls = 0, tyields = 0;
+        for (int i = 0; i < propagators.length; i++) {
+            tcost += cost[i];
+            tsamples += samples[i];
+            tcalls += calls[i];
+            tyields += yields[i];
+        }
+        if (tsamples > 0) {
+            double avg = (double) tcost / tsamples * tcalls / (tyields + 1);
+            for (int i = 0; i < propagators.length; i++) {
+                if (samples[i] > 0) {
+                    double cpy = (double) cost[i] / samples[i] * calls[i] / (yields[i] + 1);
+                    if (cpy > RATIO * avg) {
+                        if (level[i] < max_c - 1) {
+                            level[i]++;
+                        }
+                    } else if (cpy < avg && level[i] > 0) {
+                        level[i]--;
+                    }
+                }
+                cost[i] >>= 1;
+                samples[i] >>= 1;
+                calls[i] >>= 1;
+                yields[i] >>= 1;
+            }
+        }
+        countdown = REVISION;
+    }
+
+    /**
+     * @return the number of queues <code>propagator</code> is currently moved down from its static one
+     */
+    public int getLevel(Propagator propagator) {
+        return level[p2i.get(propagator.getId())];
+    }
+
+    @Override
+    public void dynamicAddition(Constraint c, boolean permanent) {
+        super.dynamicAddition(c, permanent);
+        fit();
+    }
+
+    @Override
+    public void dynamicDeletion(Constraint c) {
+        super.dynamicDeletion(c);
+        fit();
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        level[to] = level[from];
+        cost[to] = cost[from];
+        samples[to] = samples[from];
+        calls[to] = calls[from];
+        yields[to] = yields[from];
+    }
+
+    /**
+     * Resizes the statistics to the number of propagators, new ones start from scratch.
+     */
+    private void fit() {
+        int nsize = propagators.length;
+        level = Arrays.copyOf(level, nsize);
+        cost = Arrays.copyOf(cost, nsize);
+        samples = Arrays.copyOf(samples, nsize);
+        calls = Arrays.copyOf(calls, nsize);
+        yields = Arrays.copyOf(yields, nsize);
+    }
+}
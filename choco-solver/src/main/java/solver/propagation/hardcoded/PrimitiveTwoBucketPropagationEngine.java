@@ -0,0 +1,548 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.propagation.hardcoded;
+
+import memory.IEnvironment;
+import solver.Configuration;
+import solver.ICause;
+import solver.Solver;
+import solver.constraints.Constraint;
+import solver.constraints.Propagator;
+import solver.constraints.PropagatorPriority;
+import solver.exception.ContradictionException;
+import solver.exception.SolverException;
+import solver.propagation.IPropagationEngine;
+import solver.propagation.PropagationTrigger;
+import solver.propagation.hardcoded.util.AId2AbId;
+import solver.propagation.hardcoded.util.IId2AbId;
+import solver.variables.EventType;
+import solver.variables.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A version of {@link TwoBucketPropagationEngine} relying on primitive data structures only.
+ * <p/>
+ * Propagators are referred to by their absolute index.
+ * Each queue of propagators is a ring buffer of absolute indices, all the queues being stored in a single int array,
+ * and a bitset points out the non empty ones.
+ * The pending fine events and the event masks of all propagators are also stored in two int arrays,
+ * each propagator being assigned a region of the size of its scope.
+ * So, scheduling and propagating events does not allocate any object.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class PrimitiveTwoBucketPropagationEngine implements IPropagationEngine {
+
+    private static final int WORD_MASK = 0xffffffff;
+    private static final short[] match_f = Configuration.FINE_EVENT_QUEUES;
+    private static final short[] match_c = Configuration.COARSE_EVENT_QUEUES;
+
+    private static final short max_f;
+    private static final short max_c;
+
+    static {
+        short _max_ = -1;
+        for (int i = 0; i < match_f.length; i++) {
+            if (_max_ < match_f[i]) _max_ = match_f[i];
+        }
+        _max_++;
+        max_f = _max_;
+        _max_ = -1;
+        for (int i = 0; i < match_c.length; i++) {
+            if (_max_ < match_c[i]) _max_ = match_c[i];
+        }
+        _max_++;
+        max_c = _max_;
+    }
+
+    protected final ContradictionException exception; // the exception in case of contradiction
+    protected final IEnvironment environment; // environment of backtrackable objects
+    protected final Variable[] variables;
+    protected Propagator[] propagators;
+    protected final IId2AbId p2i; // mapping between propagator ID and its absolute index
+
+    protected Propagator lastProp;
+    protected int notEmpty; // point out the no empty queues
+
+    // queues of propagators: the q^th queue is stored in [q * qcap, (q + 1) * qcap[
+    // fine queues come first, then coarse ones
+    protected int[] queues;
+    protected int qcap; // capacity of a queue, a power of 2
+    protected int[] qhead, qtail;
+
+    protected boolean[] schedule_f;
+    protected boolean[] schedule_c;
+    protected int[] event_c; // the coarse event mask of each propagator
+
+    // the fine events of the i^th propagator are stored in [offset[i], offset[i] + size[i][ of evts and masks
+    protected int[] evts; // ring buffers of the variable indices to propagate
+    protected int[] masks; // the modification events of each variable, since the last propagation
+    protected int[] offset, size, ehead, esize;
+    protected int used; // number of cells used in evts and masks
+    protected int wasted; // number of cells which are not used anymore
+
+    private boolean init; // is ready to propagate?
+
+    final PropagationTrigger trigger; // an object that starts the propagation
+
+    public PrimitiveTwoBucketPropagationEngine(Solver solver) {
+        this.exception = new ContradictionException();
+        this.environment = solver.getEnvironment();
+        this.trigger = new PropagationTrigger(this, solver);
+
+        variables = solver.getVars();
+        List<Propagator> _propagators = new ArrayList<Propagator>();
+        Constraint[] constraints = solver.getCstrs();
+        int nbProp = 0;
+        int m = Integer.MAX_VALUE, M = 0;
+        for (int c = 0; c < constraints.length; c++) {
+            Propagator[] cprops = constraints[c].getPropagators();
+            for (int j = 0; j < cprops.length; j++, nbProp++) {
+                _propagators.add(cprops[j]);
+                int id = cprops[j].getId();
+                m = Math.min(m, id);
+                M = Math.max(M, id);
+            }
+        }
+        propagators = _propagators.toArray(new Propagator[_propagators.size()]);
+        p2i = new AId2AbId(m, M, -1);
+        for (int j = 0; j < propagators.length; j++) {
+            p2i.set(propagators[j].getId(), j);
+        }
+        trigger.addAll(propagators);
+
+        qcap = Math.max(2, Integer.highestOneBit(nbProp) << 1);
+        queues = new int[(max_f + max_c) * qcap];
+        qhead = new int[max_f + max_c];
+        qtail = new int[max_f + max_c];
+        schedule_f = new boolean[nbProp];
+        schedule_c = new boolean[nbProp];
+        event_c = new int[nbProp];
+        notEmpty = 0;
+
+        offset = new int[nbProp];
+        size = new int[nbProp];
+        ehead = new int[nbProp];
+        esize = new int[nbProp];
+        for (int i = 0; i < nbProp; i++) {
+            used += Math.max(1, propagators[i].getNbVars());
+        }
+        evts = new int[used];
+        masks = new int[used];
+        used = 0;
+        for (int i = 0; i < nbProp; i++) {
+            offset[i] = used;
+            size[i] = Math.max(1, propagators[i].getNbVars());
+            used += size[i];
+        }
+        init = true;
+    }
+
+    @Override
+    public void fails(ICause cause, Variable variable, String message) throws ContradictionException {
+        throw exception.set(cause, variable, message);
+    }
+
+    @Override
+    public ContradictionException getContradictionException() {
+        return exception;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return init;
+    }
+
+    @SuppressWarnings({"NullableProblems"})
+    @Override
+    public void propagate() throws ContradictionException {
+        if (trigger.needToRun()) {
+            trigger.propagate();
+        }
+        for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(0)) {
+            if (i == 0) { // specific case, for finest events
+                while (qhead[i] != qtail[i]) {
+                    propagateFine(i);
+                }
+                notEmpty = notEmpty & ~1;
+            } else if (i < max_f) { // other finest events, lower priority
+                propagateFine(i);
+                if (qhead[i] == qtail[i]) {
+                    notEmpty = notEmpty & ~(1 << i);
+                }
+            } else { // coarse events
+                propagateCoarse(i);
+                if (qhead[i] == qtail[i]) {
+                    notEmpty = notEmpty & ~(1 << i);
+                }
+            }
+        }
+    }
+
+    private int nextNotEmpty(int fromIndex) {
+        int word = notEmpty & (WORD_MASK << fromIndex);
+        if (word != 0) {
+            return Integer.numberOfTrailingZeros(word);
+        } else {
+            return -1;
+        }
+    }
+
+    private void offer(int q, int aid) {
+        queues[q * qcap + qtail[q]] = aid;
+        qtail[q] = (qtail[q] + 1) & (qcap - 1);
+        notEmpty = notEmpty | (1 << q);
+    }
+
+    private int poll(int q) {
+        int aid = queues[q * qcap + qhead[q]];
+        qhead[q] = (qhead[q] + 1) & (qcap - 1);
+        return aid;
+    }
+
+    private int pollLast(int q) {
+        qtail[q] = (qtail[q] - 1) & (qcap - 1);
+        return queues[q * qcap + qtail[q]];
+    }
+
+    private void propagateFine(int q) throws ContradictionException {
+        int aid = poll(q);
+        lastProp = propagators[aid];
+        // revision of the variable
+        schedule_f[aid] = false;
+        boolean fine = lastProp.reactToFineEvent();
+        int off = offset[aid];
+        while (esize[aid] > 0) {
+            int v = evts[off + ehead[aid]];
+            if (++ehead[aid] == size[aid]) {
+                ehead[aid] = 0;
+            }
+            esize[aid]--;
+            assert lastProp.isActive() : "propagator is not active";
+            if (Configuration.PRINT_PROPAGATION) {
+                Trace.printPropagation(lastProp.getVar(v), lastProp);
+            }
+            // clear event
+            int vid = off + (fine ? v : 0);
+            int mask = masks[vid];
+            masks[vid] = 0;
+            // run propagation on the specific event
+            lastProp.fineERcalls++;
+            if (Configuration.PROFILE_PROPAGATION) {
+                long t = System.nanoTime();
+                try {
+                    lastProp.propagate(v, mask);
+                } catch (ContradictionException cex) {
+                    lastProp.nbFails++;
+                    throw cex;
+                } finally {
+                    lastProp.propagationTime += System.nanoTime() - t;
+                }
+            } else {
+                lastProp.propagate(v, mask);
+            }
+        }
+        // This part is for debugging only!!
+        if (Configuration.Idem.disabled != Configuration.IDEMPOTENCY) {
+            FakeEngine.checkIdempotency(lastProp);
+        }
+    }
+
+    private void propagateCoarse(int q) throws ContradictionException {
+        int aid = poll(q);
+        lastProp = propagators[aid];
+        // revision of the variable
+        schedule_c[aid] = false;
+        int mask = event_c[aid];
+        event_c[aid] = 0;
+        assert lastProp.isActive() : "propagator is not active";
+        if (Configuration.PRINT_PROPAGATION) {
+            Trace.printPropagation(null, lastProp);
+        }
+        lastProp.coarseERcalls++;
+        if (Configuration.PROFILE_PROPAGATION) {
+            long t = System.nanoTime();
+            try {
+                lastProp.propagate(mask);
+            } catch (ContradictionException cex) {
+                lastProp.nbFails++;
+                throw cex;
+            } finally {
+                lastProp.propagationTime += System.nanoTime() - t;
+            }
+        } else {
+            lastProp.propagate(mask);
+        }
+    }
+
+
+    @Override
+    public void flush() {
+        if (lastProp != null) {
+            int aid = p2i.get(lastProp.getId());
+            flushFine(aid);
+            flushCoarse(aid);
+        }
+        for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(0)) {
+            while (qhead[i] != qtail[i]) {
+                int aid = pollLast(i);
+                if (i < max_f) {
+                    flushFine(aid);
+                } else {
+                    flushCoarse(aid);
+                }
+            }
+            notEmpty = notEmpty & ~(1 << i);
+        }
+    }
+
+    private void flushFine(int aid) {
+        int off = offset[aid];
+        boolean fine = propagators[aid].reactToFineEvent();
+        for (int k = 0, e = ehead[aid]; k < esize[aid]; k++) {
+            masks[off + (fine ? evts[off + e] : 0)] = 0;
+            if (++e == size[aid]) {
+                e = 0;
+            }
+        }
+        ehead[aid] = 0;
+        esize[aid] = 0;
+        schedule_f[aid] = false;
+    }
+
+    private void flushCoarse(int aid) {
+        schedule_c[aid] = false;
+        event_c[aid] = 0;
+    }
+
+    @Override
+    public void onVariableUpdate(Variable variable, EventType type, ICause cause) throws ContradictionException {
+        if (Configuration.PRINT_VAR_EVENT) {
+            Trace.printModification(variable, type, cause);
+        }
+        if (Configuration.PROFILE_PROPAGATION && cause instanceof Propagator) {
+            ((Propagator) cause).nbReductions++;
+        }
+        int[] subscribers = variable.getSubscribers(type);
+        int nbp = variable.getNbSubscribers(type);
+        for (int s = 0; s < nbp; s++) {
+            int p = subscribers[s];
+            Propagator prop = variable.getPropagator(p);
+            int pindice = variable.getIndexInPropagator(p);
+            if (cause != prop && prop.isActive() && prop.advise(pindice, type.mask)) {
+                int aid = p2i.get(prop.getId());
+                int vid = offset[aid] + (prop.reactToFineEvent() ? pindice : 0);
+                boolean needSched = (masks[vid] == 0);
+                masks[vid] |= type.strengthened_mask;
+                if (needSched) {
+                    if (Configuration.PRINT_SCHEDULE) {
+                        Trace.printSchedule(prop);
+                    }
+                    int e = ehead[aid] + esize[aid];
+                    if (e >= size[aid]) {
+                        e -= size[aid];
+                    }
+                    evts[offset[aid] + e] = pindice;
+                    esize[aid]++;
+                } else if (Configuration.PRINT_SCHEDULE) {
+                    Trace.printAlreadySchedule(prop);
+                }
+                if (!schedule_f[aid]) {
+                    PropagatorPriority prio = prop.getPriority();
+                    offer(match_f[prio.priority - 1], aid);
+                    schedule_f[aid] = true;
+                }
+            }
+        }
+
+    }
+
+    @Override
+    public void delayedPropagation(Propagator propagator, EventType type) throws ContradictionException {
+        int aid = p2i.get(propagator.getId());
+        if (!schedule_c[aid]) {
+            PropagatorPriority prio = propagator.getPriority();
+            int q = match_c[prio.priority - 1];
+            if (q == -1) throw new SolverException("Cannot schedule coarse event for low priority propagator.");
+            offer(q + max_f, aid);
+            schedule_c[aid] = true;
+            event_c[aid] = type.strengthened_mask;
+        }
+    }
+
+    @Override
+    public void onPropagatorExecution(Propagator propagator) {
+        lastProp = propagator;
+        int aid = p2i.get(propagator.getId());
+        flushFine(aid);
+        flushCoarse(aid);
+    }
+
+    @Override
+    public void desactivatePropagator(Propagator propagator) {
+        lastProp = propagator;
+        int aid = p2i.get(propagator.getId());
+        flushFine(aid);
+        flushCoarse(aid);
+    }
+
+    @Override
+    public void clear() {
+        // void
+    }
+
+    @Override
+    public void dynamicAddition(Constraint c, boolean permanent) {
+        int osize = propagators.length;
+        int nbp = c.getPropagators().length;
+        int nsize = osize + nbp;
+        Propagator[] _propagators = propagators;
+        propagators = new Propagator[nsize];
+        System.arraycopy(_propagators, 0, propagators, 0, osize);
+        System.arraycopy(c.getPropagators(), 0, propagators, osize, nbp);
+        for (int j = osize; j < nsize; j++) {
+            p2i.set(propagators[j].getId(), j);
+            trigger.dynAdd(propagators[j], permanent);
+        }
+        if (nsize >= qcap) {
+            resizeQueues(Integer.highestOneBit(nsize) << 1);
+        }
+        schedule_f = Arrays.copyOf(schedule_f, nsize);
+        schedule_c = Arrays.copyOf(schedule_c, nsize);
+        event_c = Arrays.copyOf(event_c, nsize);
+        offset = Arrays.copyOf(offset, nsize);
+        size = Arrays.copyOf(size, nsize);
+        ehead = Arrays.copyOf(ehead, nsize);
+        esize = Arrays.copyOf(esize, nsize);
+        int needed = used;
+        for (int i = osize; i < nsize; i++) {
+            needed += Math.max(1, propagators[i].getNbVars());
+        }
+        if (needed > evts.length) {
+            int ncap = Math.max(needed, evts.length * 3 / 2);
+            evts = Arrays.copyOf(evts, ncap);
+            masks = Arrays.copyOf(masks, ncap);
+        }
+        for (int i = osize; i < nsize; i++) {
+            offset[i] = used;
+            size[i] = Math.max(1, propagators[i].getNbVars());
+            used += size[i];
+        }
+    }
+
+    @Override
+    public void dynamicDeletion(Constraint c) {
+        for (Propagator toDelete : c.getPropagators()) {
+            int nsize = propagators.length - 1;
+            Propagator toMove = propagators[nsize];
+            int idtd = p2i.get(toDelete.getId());
+            int idtm = p2i.get(toMove.getId());
+
+            assert idtd <= idtm : "wrong id for prop to delete";
+            assert !schedule_f[idtd] : "try to delete a propagator which is scheduled (fine)";
+            assert !schedule_c[idtd] : "try to delete a propagator which is scheduled (coarse)";
+            assert esize[idtd] == 0 : "try to delete a propagator which has events to propagate (fine)";
+
+            wasted += size[idtd];
+            if (idtd < nsize) {
+                // the propagator to move takes the absolute index of the deleted one
+                propagators[idtd] = toMove;
+                p2i.set(toMove.getId(), idtd);
+                if (schedule_f[idtm] || schedule_c[idtm]) {
+                    for (int i = 0; i < queues.length; i++) {
+                        if (queues[i] == idtm) {
+                            queues[i] = idtd;
+                        }
+                    }
+                }
+                schedule_f[idtd] = schedule_f[idtm];
+                schedule_c[idtd] = schedule_c[idtm];
+                event_c[idtd] = event_c[idtm];
+                offset[idtd] = offset[idtm];
+                size[idtd] = size[idtm];
+                ehead[idtd] = ehead[idtm];
+                esize[idtd] = esize[idtm];
+            }
+            propagators = Arrays.copyOf(propagators, nsize);
+            schedule_f = Arrays.copyOf(schedule_f, nsize);
+            schedule_c = Arrays.copyOf(schedule_c, nsize);
+            event_c = Arrays.copyOf(event_c, nsize);
+            offset = Arrays.copyOf(offset, nsize);
+            size = Arrays.copyOf(size, nsize);
+            ehead = Arrays.copyOf(ehead, nsize);
+            esize = Arrays.copyOf(esize, nsize);
+            trigger.remove(toDelete);
+        }
+        if (wasted > used / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Change the capacity of the queues of propagators, their content is preserved.
+     */
+    private void resizeQueues(int ncap) {
+        int nbq = max_f + max_c;
+        int[] nqueues = new int[nbq * ncap];
+        for (int q = 0; q < nbq; q++) {
+            int n = 0;
+            for (int i = qhead[q]; i != qtail[q]; i = (i + 1) & (qcap - 1)) {
+                nqueues[q * ncap + n++] = queues[q * qcap + i];
+            }
+            qhead[q] = 0;
+            qtail[q] = n;
+        }
+        queues = nqueues;
+        qcap = ncap;
+    }
+
+    /**
+     * Remove the regions of deleted propagators from the arrays of fine events.
+     */
+    private void compact() {
+        int[] nevts = new int[used - wasted];
+        int[] nmasks = new int[used - wasted];
+        int n = 0;
+        for (int i = 0; i < propagators.length; i++) {
+            for (int k = 0; k < esize[i]; k++) {
+                nevts[n + k] = evts[offset[i] + (ehead[i] + k) % size[i]];
+            }
+            System.arraycopy(masks, offset[i], nmasks, n, size[i]);
+            offset[i] = n;
+            ehead[i] = 0;
+            n += size[i];
+        }
+        evts = nevts;
+        masks = nmasks;
+        used = n;
+        wasted = 0;
+    }
+}
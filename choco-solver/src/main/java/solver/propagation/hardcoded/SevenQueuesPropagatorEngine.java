@@ -225,12 +225,14 @@ public class SevenQueuesPropagatorEngine implements IPropagationEngine {
             IPropagationEngine.Trace.printModification(variable, type, cause);
         }
         Propagator[] vpropagators = variable.getPropagators();
-        int nbp = vpropagators.length;
         int[] vindices = variable.getPIndices();
+        int[] subscribers = variable.getSubscribers(type);
+        int nbp = variable.getNbSubscribers(type);
         Propagator prop;
         int pindice;
 
-        for (int p = nbp - 1; p >= 0; p--) {
+        for (int s = nbp - 1; s >= 0; s--) {
+            int p = subscribers[s];
             prop = vpropagators[p];
             pindice = vindices[p];
             if (cause != prop && prop.isActive() && prop.advise(pindice, type.mask)) {
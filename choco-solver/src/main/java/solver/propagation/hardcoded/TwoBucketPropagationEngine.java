@@ -74,8 +74,8 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
     private static final short[] match_f = Configuration.FINE_EVENT_QUEUES;
     private static final short[] match_c = Configuration.COARSE_EVENT_QUEUES;
 
-    private static final short max_f;
-    private static final short max_c;
+    protected static final short max_f; // number of queues for fine events
+    protected static final short max_c; // number of queues for coarse events
 
     static {
         short _max_ = -1;
@@ -236,7 +236,7 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
             eventmasks[aid][vid] = 0;
             // run propagation on the specific event
             lastProp.fineERcalls++;
-            lastProp.propagate(v, mask);
+            execute(aid, v, mask);
         }
         // This part is for debugging only!!
         if (Configuration.Idem.disabled != Configuration.IDEMPOTENCY) {
@@ -256,7 +256,59 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
             Trace.printPropagation(null, lastProp);
         }
         lastProp.coarseERcalls++;
-        lastProp.propagate(evt.getStrengthenedMask());
+        execute(aid, -1, evt.getStrengthenedMask());
+    }
+
+    /**
+     * Runs <code>lastProp</code>, of absolute index <code>aid</code>, on a fine event of its
+     * <code>v</code><sup>th</sup> variable, or on a coarse event if <code>v</code> is -1.
+     */
+    protected void execute(int aid, int v, int mask) throws ContradictionException {
+        if (Configuration.PROFILE_PROPAGATION) {
+            long t = System.nanoTime();
+            try {
+                run(lastProp, v, mask);
+            } catch (ContradictionException cex) {
+                lastProp.nbFails++;
+                throw cex;
+            } finally {
+                lastProp.propagationTime += System.nanoTime() - t;
+            }
+        } else {
+            run(lastProp, v, mask);
+        }
+    }
+
+    private static void run(Propagator propagator, int v, int mask) throws ContradictionException {
+        if (v < 0) {
+            propagator.propagate(mask);
+        } else {
+            propagator.propagate(v, mask);
+        }
+    }
+
+    /**
+     * Called on each domain modification, <code>cause</code> being at the origin of it.
+     */
+    protected void countEvent(ICause cause) {
+        if (Configuration.PROFILE_PROPAGATION && cause instanceof Propagator) {
+            ((Propagator) cause).nbReductions++;
+        }
+    }
+
+    /**
+     * Returns the number of queues the propagator of absolute index <code>aid</code> has to be moved down from
+     * the one its priority defines. It is never moved beyond the last queue.
+     */
+    protected int offset(int aid) {
+        return 0;
+    }
+
+    /**
+     * Called when the propagator of absolute index <code>from</code> is moved to index <code>to</code>,
+     * on a dynamic deletion.
+     */
+    protected void move(int from, int to) {
     }
 
 
@@ -306,8 +358,11 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
         if (Configuration.PRINT_VAR_EVENT) {
             Trace.printModification(variable, type, cause);
         }
-        int nbp = variable.getNbProps();
-        for (int p = 0; p < nbp; p++) {
+        countEvent(cause);
+        int[] subscribers = variable.getSubscribers(type);
+        int nbp = variable.getNbSubscribers(type);
+        for (int s = 0; s < nbp; s++) {
+            int p = subscribers[s];
             Propagator prop = variable.getPropagator(p);
             int pindice = variable.getIndexInPropagator(p);
             if (cause != prop && prop.isActive() && prop.advise(pindice, type.mask)) {
@@ -326,7 +381,7 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
                 }
                 if (!schedule_f[aid]) {
                     PropagatorPriority prio = prop.getPriority();
-                    int q = match_f[prio.priority - 1];
+                    int q = Math.min(match_f[prio.priority - 1] + offset(aid), max_f - 1);
                     pro_queue_f[q].addLast(prop);
                     schedule_f[aid] = true;
                     notEmpty = notEmpty | (1 << q);
@@ -343,6 +398,7 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
             PropagatorPriority prio = /*dynamic ? prop.dynPriority() :*/ propagator.getPriority();
             int q = match_c[prio.priority - 1];
             if (q == -1) throw new SolverException("Cannot schedule coarse event for low priority propagator.");
+            q = Math.min(q + offset(aid), max_c - 1);
             pro_queue_c[q].addLast(propagator);
             schedule_c[aid] = true;
             event_c[aid] = type;
@@ -472,6 +528,7 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
                 event_f[idtd] = icqtm;
                 event_c[idtd] = ettm;
                 eventmasks[idtd] = emtm;
+                move(idtm, idtd);
             }
             trigger.remove(toDelete);
         }
@@ -31,7 +31,7 @@ import java.util.Arrays;
 public class AId2AbId implements IId2AbId {
 
     int[] map;
-    final int offset;
+    int offset;
     final int noValue;
     int size;
 
@@ -46,17 +46,28 @@ public class AId2AbId implements IId2AbId {
     @Override
     public int get(int key) {
         key -= offset;
-        if (key < 0 || key > size) return noValue;
+        if (key < 0 || key >= size) return noValue;
         return map[key];
     }
 
     @Override
     public void set(int key, int value) {
         int idx = key - offset;
-        if (idx >= size) {
+        if (idx < 0) {
+            // keys created before minKey: rebase the map
+            int shift = Math.max(-idx, size / 2);
             int[] tmp = map;
-            map = new int[idx + 1];
+            map = new int[size + shift];
+            Arrays.fill(map, 0, shift, noValue);
+            System.arraycopy(tmp, 0, map, shift, size);
+            size = map.length;
+            offset -= shift;
+            idx = key - offset;
+        } else if (idx >= size) {
+            int[] tmp = map;
+            map = new int[Math.max(idx + 1, size * 3 / 2)];
             System.arraycopy(tmp, 0, map, 0, size);
+            Arrays.fill(map, size, map.length, noValue);
             size = map.length;
         }
         map[idx] = value;
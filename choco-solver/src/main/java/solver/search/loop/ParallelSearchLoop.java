@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.loop;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+import solver.Cause;
+import solver.Solver;
+import solver.exception.ContradictionException;
+import solver.search.strategy.assignments.DecisionOperator;
+import solver.search.strategy.decision.Decision;
+import solver.search.strategy.decision.RootDecision;
+import solver.search.strategy.decision.fast.FastDecision;
+import solver.variables.IntVar;
+import util.ESat;
+
+/**
+ * A binary search loop which explores a search space shared with other solvers, working in parallel
+ * on copies of the same model.
+ * <br/>
+ * The sub-trees to explore are exchanged through a {@link WorkPool}:
+ * when another worker is idle, the open right branch the closest to the root of the current search tree
+ * is given away as a {@link SubProblem} (the path of decisions leading to it), and skipped on backtrack.
+ * When its search tree is entirely explored, a worker takes a sub-problem from the pool, replays its path on
+ * the state obtained after the initial propagation, and goes on.
+ * A restart brings a worker back to the root of the sub-problem it explores, never to the root node
+ * (see {@link #restartSearch()}).
+ * <br/>
+ * Only integer decisions ({@link FastDecision}) can be given away; a worker branching on other kinds
+ * of variables keeps its search tree for itself.
+ *
+ * @see solver.thread.WorkStealingSearch
+ */
+public class ParallelSearchLoop extends BinarySearchLoop {
+
+    static final String MSG_STOP = "the exploration has been stopped by another worker";
+
+    final WorkPool pool;
+
+    /* true if this worker explores the whole search space at first, false if it waits for a sub-problem */
+    final boolean starter;
+
+    /* true while this worker is registered as busy in the pool */
+    boolean busy;
+
+    /* the sub-problem currently explored */
+    SubProblem current = SubProblem.ROOT;
+
+    /* true if a part of the current sub-problem has been given away */
+    boolean split;
+
+    /* position of each variable in the solver, indexed by variable id */
+    TIntIntHashMap positions;
+
+    /**
+     * Creates a search loop for a worker sharing its search space through <code>pool</code>.
+     * Exactly one of the workers sharing a pool must be a starter.
+     *
+     * @param solver  a solver
+     * @param pool    the work pool
+     * @param starter set to true if this worker explores the whole search space at first
+     */
+    public ParallelSearchLoop(Solver solver, WorkPool pool, boolean starter) {
+        super(solver);
+        this.pool = pool;
+        this.starter = starter;
+        this.busy = true;
+    }
+
+    public WorkPool getPool() {
+        return pool;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * If the root node is infeasible, so is every sub-problem: the exploration is over for every worker.
+     * Otherwise, a worker which is not a starter looks for a sub-problem to explore.
+     */
+    @Override
+    protected void initialPropagation() {
+        super.initialPropagation();
+        if (solver.isFeasible() == ESat.FALSE) {
+            busy = false;
+            pool.close();
+        } else if (!starter) {
+            fetch();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Before opening the node, gives a sub-problem away if another worker is waiting for one.
+     */
+    @Override
+    protected void openNode() {
+        if (pool.isDone()) {
+            reachLimit();
+            return;
+        }
+        if (pool.isHungry()) {
+            giveAway();
+        }
+        super.openNode();
+    }
+
+    @Override
+    protected void recordSolution() {
+        super.recordSolution();
+        if (stopAtFirstSolution) {
+            pool.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Once the current search tree has been entirely explored, a new sub-problem is taken from the pool.
+     */
+    @Override
+    protected void upBranch() {
+        if (decision == RootDecision.ROOT) {
+            env.worldPop();
+            fetch();
+        } else {
+            super.upBranch();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The search space is shared with the other workers, so the search restarts from the root of the sub-problem
+     * currently explored, not from the root node.
+     * If a part of this sub-problem has been given away, it must not be explored again: the open right branches
+     * of the current path are given back to the pool, and the search restarts from the deepest node
+     * under which nothing has been given away.
+     */
+    @Override
+    public void restartSearch() {
+        if (split) {
+            narrow();
+        }
+        restoreRootNode();
+        // if the sub-problem is infeasible now, for instance because of a cut, take another one
+        nextState = load(current) ? OPEN_NODE : UP_BRANCH;
+    }
+
+    @Override
+    public void close() {
+        if (busy) {
+            busy = false;
+            pool.leave();
+        }
+        super.close();
+    }
+
+    /**
+     * Takes sub-problems from the pool until one is consistent, or the exploration is over
+     */
+    private void fetch() {
+        SubProblem subproblem;
+        do {
+            subproblem = pool.take();
+            if (subproblem == null) {
+                busy = false;
+                if (pool.isStopped()) {
+                    reachLimit();
+                } else {
+                    interrupt(MSG_ROOT);
+                }
+                return;
+            }
+        } while (!load(subproblem));
+        current = subproblem;
+        split = false;
+        moveTo(OPEN_NODE);
+    }
+
+    /**
+     * Restores the state obtained after the initial propagation, then applies and propagates
+     * the path of <code>subproblem</code>.
+     *
+     * @return false if the sub-problem is infeasible
+     */
+    private boolean load(SubProblem subproblem) {
+        env.worldPopUntil(searchWorldIndex - 1);
+        env.worldPush();
+        timeStamp++;
+        try {
+            subproblem.replay(solver, Cause.Null);
+            objectivemanager.postDynamicCut();
+            solver.getEngine().propagate();
+            return true;
+        } catch (ContradictionException e) {
+            solver.getEngine().flush();
+            return false;
+        }
+    }
+
+    /**
+     * Gives the open right branch the closest to the root node away, if any (one-shot decisions are skipped).
+     * The path of the sub-problem currently explored is prepended to the decisions leading to it.
+     */
+    private void giveAway() {
+        Decision[] path = path();
+        if (describable(path) < path.length) {
+            return;
+        }
+        int k = 0;
+        while (k < path.length && !isOpen(path[k])) {
+            k++;
+        }
+        if (k < path.length) {
+            pool.offer(extend(path, k, true));
+            path[k].delegateRefutation();
+            split = true;
+        }
+    }
+
+    /**
+     * Gives the open right branches of the current path back to the pool, then makes the deepest node
+     * under which nothing has been given away the root of the current sub-problem.
+     * <br/>
+     * Right branches are only given away when the whole path can be described as a sub-problem, so nothing has been
+     * given away under the first decision which cannot be: that node is either the current one
+     * or the one reached just before that decision.
+     */
+    private void narrow() {
+        Decision[] path = path();
+        int j = describable(path);
+        for (int i = 0; i < j; i++) {
+            if (isOpen(path[i])) {
+                pool.offer(extend(path, i, true));
+            }
+        }
+        current = extend(path, j - 1, false);
+        split = false;
+    }
+
+    /**
+     * @return the decisions applied from the root node to the current one
+     */
+    private Decision[] path() {
+        Decision last = decision;
+        if (last != RootDecision.ROOT && last.getBranch() == 0) {
+            // computed but not applied yet
+            last = last.getPrevious();
+        }
+        int depth = 0;
+        for (Decision tmp = last; tmp != RootDecision.ROOT; tmp = tmp.getPrevious()) {
+            depth++;
+        }
+        Decision[] path = new Decision[depth];
+        for (int i = depth - 1; i >= 0; i--) {
+            path[i] = last;
+            last = last.getPrevious();
+        }
+        return path;
+    }
+
+    /**
+     * @return the number of decisions, from the root node, which can be stored in a sub-problem
+     */
+    private int describable(Decision[] path) {
+        if (positions == null) {
+            positions = new TIntIntHashMap(solver.getNbVars(), 0.5f, -1, -1);
+            for (int i = 0; i < solver.getNbVars(); i++) {
+                positions.put(solver.getVar(i).getId(), i);
+            }
+        }
+        int j = 0;
+        while (j < path.length && path[j] instanceof FastDecision
+                && positions.get(path[j].getDecisionVariable().getId()) != -1) {
+            j++;
+        }
+        return j;
+    }
+
+    /**
+     * @return true if the right branch of <code>d</code> remains to be explored here
+     */
+    private static boolean isOpen(Decision d) {
+        // a one-shot decision has no right branch to give away
+        return d.getBranch() == 1 && d.hasNext() && !d.isOnce();
+    }
+
+    /**
+     * Builds the sub-problem made of the current one followed by the first <code>k + 1</code> decisions of
+     * <code>path</code>, which must be describable.
+     *
+     * @param refuteLast set to true to refute the last decision, otherwise it is taken as it is applied
+     */
+    @SuppressWarnings({"unchecked"})
+    private SubProblem extend(Decision[] path, int k, boolean refuteLast) {
+        if (k < 0) {
+            return current;
+        }
+        int[] vars = new int[k + 1];
+        DecisionOperator<IntVar>[] operators = new DecisionOperator[k + 1];
+        int[] values = new int[k + 1];
+        boolean[] refuted = new boolean[k + 1];
+        for (int i = 0; i <= k; i++) {
+            FastDecision fd = (FastDecision) path[i];
+            vars[i] = positions.get(fd.getDecisionVariable().getId());
+            operators[i] = fd.getDecisionOperator();
+            values[i] = fd.getDecisionValue();
+            refuted[i] = (refuteLast && i == k) || fd.getBranch() == 2;
+        }
+        return new SubProblem(current, vars, operators, values, refuted);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.loop;
+
+import solver.ICause;
+import solver.Solver;
+import solver.exception.ContradictionException;
+import solver.search.strategy.assignments.DecisionOperator;
+import solver.variables.IntVar;
+
+/**
+ * A sub-tree of the search space, described by the path of decisions leading to its root.
+ * <br/>
+ * Each decision is stored as (variable position in the solver, operator, value, refuted),
+ * so that a path built by a solver can be replayed on a copy of it.
+ * A path is immutable, and can be shared among threads.
+ *
+ * @see ParallelSearchLoop
+ */
+public final class SubProblem {
+
+    /**
+     * The entire search space
+     */
+    public static final SubProblem ROOT = new SubProblem(new int[0], new DecisionOperator[0], new int[0], new boolean[0]);
+
+    private final int[] vars;
+    private final DecisionOperator<IntVar>[] operators;
+    private final int[] values;
+    private final boolean[] refuted;
+
+    /**
+     * Creates a new path, arrays are not copied
+     *
+     * @param vars      position of the decision variables in the solver
+     * @param operators decision operators
+     * @param values    decision values
+     * @param refuted   for each decision, true if its refutation is applied
+     */
+    public SubProblem(int[] vars, DecisionOperator<IntVar>[] operators, int[] values, boolean[] refuted) {
+        assert vars.length == operators.length && vars.length == values.length && vars.length == refuted.length;
+        this.vars = vars;
+        this.operators = operators;
+        this.values = values;
+        this.refuted = refuted;
+    }
+
+    /**
+     * Creates a new path, made of the decisions of <code>prefix</code> followed by the given ones.
+     *
+     * @param prefix    the path leading to the first decision
+     * @param vars      position of the decision variables in the solver
+     * @param operators decision operators
+     * @param values    decision values
+     * @param refuted   for each decision, true if its refutation is applied
+     */
+    @SuppressWarnings({"unchecked"})
+    public SubProblem(SubProblem prefix, int[] vars, DecisionOperator<IntVar>[] operators, int[] values, boolean[] refuted) {
+        this(concat(prefix.vars, vars), new DecisionOperator[prefix.size() + vars.length],
+                concat(prefix.values, values), new boolean[prefix.size() + vars.length]);
+        int n = prefix.size();
+        System.arraycopy(prefix.operators, 0, this.operators, 0, n);
+        System.arraycopy(operators, 0, this.operators, n, operators.length);
+        System.arraycopy(prefix.refuted, 0, this.refuted, 0, n);
+        System.arraycopy(refuted, 0, this.refuted, n, refuted.length);
+    }
+
+    private static int[] concat(int[] a1, int[] a2) {
+        int[] a = new int[a1.length + a2.length];
+        System.arraycopy(a1, 0, a, 0, a1.length);
+        System.arraycopy(a2, 0, a, a1.length, a2.length);
+        return a;
+    }
+
+    /**
+     * @return the number of decisions in the path
+     */
+    public int size() {
+        return vars.length;
+    }
+
+    /**
+     * Applies the decisions of the path to <code>solver</code>, without propagating them
+     *
+     * @param solver a solver declaring the same variables, in the same order, as the one which built the path
+     * @param cause  cause of the modifications
+     * @throws ContradictionException if a decision cannot be applied
+     */
+    public void replay(Solver solver, ICause cause) throws ContradictionException {
+        for (int i = 0; i < vars.length; i++) {
+            IntVar var = (IntVar) solver.getVar(vars[i]);
+            if (refuted[i]) {
+                operators[i].unapply(var, values[i], cause);
+            } else {
+                operators[i].apply(var, values[i], cause);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder st = new StringBuilder();
+        for (int i = 0; i < vars.length; i++) {
+            st.append(refuted[i] ? "!(" : "(").append('#').append(vars[i])
+                    .append(operators[i].toString()).append(values[i]).append(") ");
+        }
+        return st.toString();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.loop;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of sub-problems shared among workers exploring the same search space in parallel.
+ * <br/>
+ * Idle workers wait for a sub-problem in {@link #take()}; busy workers check {@link #isHungry()} at each node,
+ * and give away an open branch of their search tree when some workers are waiting.
+ * The exploration is over once the pool is empty and no worker is busy anymore, or once {@link #stop()} is called.
+ *
+ * @see ParallelSearchLoop
+ */
+public class WorkPool {
+
+    private final Deque<SubProblem> subproblems;
+
+    // number of workers registered and not waiting for a sub-problem
+    private int busy;
+
+    // number of workers waiting for a sub-problem
+    private int waiting;
+
+    // read without lock by busy workers at each node
+    private volatile boolean hungry;
+
+    private volatile boolean done;
+
+    private boolean stopped;
+
+    /**
+     * Creates a pool for <code>nbWorkers</code> workers, all of them being considered as busy at first.
+     * The whole search space has to be explored by one of them (see {@link SubProblem#ROOT}).
+     *
+     * @param nbWorkers number of workers
+     */
+    public WorkPool(int nbWorkers) {
+        this.subproblems = new ArrayDeque<SubProblem>();
+        this.busy = nbWorkers;
+    }
+
+    /**
+     * @return true iff at least one worker is waiting for a sub-problem which is not in the pool yet
+     */
+    public boolean isHungry() {
+        return hungry;
+    }
+
+    /**
+     * @return true iff the exploration is over
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return true iff the search space may not have been entirely explored
+     */
+    public synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Adds a sub-problem to explore
+     *
+     * @param subproblem a sub-problem given away by a busy worker
+     */
+    public synchronized void offer(SubProblem subproblem) {
+        if (!done) {
+            subproblems.addLast(subproblem);
+            updateHunger();
+            notifyAll();
+        }
+    }
+
+    /**
+     * Called by a worker which has nothing to explore anymore.
+     * Waits until a sub-problem is available, or the exploration is over.
+     * If the thread is interrupted while waiting, the worker leaves the exploration.
+     *
+     * @return a sub-problem, or null if the exploration is over
+     */
+    public synchronized SubProblem take() {
+        busy--;
+        waiting++;
+        updateHunger();
+        try {
+            while (subproblems.isEmpty() && !done) {
+                if (busy == 0) {
+                    done = true;
+                    notifyAll();
+                } else {
+                    wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            waiting--;
+            busy++;
+            leave();
+            return null;
+        }
+        waiting--;
+        if (done) {
+            updateHunger();
+            return null;
+        }
+        busy++;
+        SubProblem subproblem = subproblems.pollFirst();
+        updateHunger();
+        return subproblem;
+    }
+
+    /**
+     * Ends the exploration: the search space is known to be entirely explored, for instance,
+     * because the root node is infeasible.
+     */
+    public synchronized void close() {
+        if (!done) {
+            done = true;
+            subproblems.clear();
+            updateHunger();
+            notifyAll();
+        }
+    }
+
+    /**
+     * Called by a busy worker which stops exploring without calling {@link #take()},
+     * for instance, because a limit has been reached: its sub-tree is not entirely explored.
+     * The sub-problems remaining in the pool are still given to the other workers.
+     */
+    public synchronized void leave() {
+        busy--;
+        if (!done) {
+            stopped = true;
+        }
+        if (busy == 0 && (waiting == 0 || subproblems.isEmpty())) {
+            done = true;
+            notifyAll();
+        }
+        updateHunger();
+    }
+
+    /**
+     * Stops the exploration: waiting workers are released and busy ones should stop at their next node.
+     */
+    public synchronized void stop() {
+        if (!done) {
+            stopped = true;
+            done = true;
+            subproblems.clear();
+            updateHunger();
+            notifyAll();
+        }
+    }
+
+    private void updateHunger() {
+        hungry = !done && waiting > subproblems.size();
+    }
+}
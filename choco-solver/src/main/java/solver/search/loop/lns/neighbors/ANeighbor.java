@@ -67,4 +67,8 @@ public abstract class ANeighbor implements INeighbor {
         }
     }
 
+    @Override
+    public void loadSolution(int[] values) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot load a solution found elsewhere");
+    }
 }
@@ -74,6 +74,11 @@ public class ActivityBasedNeighborhood extends ANeighbor {
         }
     }
 
+    @Override
+    public void loadSolution(int[] values) {
+        System.arraycopy(values, 0, bestSolution, 0, vars.length);
+    }
+
     @Override
     public void restrictLess() {
         nbFixedVars /= 2;
@@ -45,6 +45,15 @@ public interface INeighbor {
      */
     void recordSolution();
 
+    /**
+     * Record values of decision variables coming from a solution found elsewhere,
+     * for instance by another solver working in parallel on the same problem,
+     * to freeze some ones during the next LNS run
+     *
+     * @param values values of the decision variables, in the order they were given to the neighbor
+     */
+    void loadSolution(int[] values);
+
     /**
      * Freezes some variables in order to have a fast computation
      *
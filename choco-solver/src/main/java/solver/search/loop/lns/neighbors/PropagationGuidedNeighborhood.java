@@ -92,6 +92,11 @@ public class PropagationGuidedNeighborhood extends ANeighbor implements IMonitor
         }
     }
 
+    @Override
+    public void loadSolution(int[] values) {
+        System.arraycopy(values, 0, bestSolution, 0, vars.length);
+    }
+
     @Override
     public void fixSomeVariables(ICause cause) throws ContradictionException {
         logSum = 0.;
@@ -87,6 +87,19 @@ public class RandomNeighborhood extends ANeighbor {
             }
         }
         //System.out.printf("%d/%d = %.3f, -- %d -- %.3f\n", count, n, ((count * 1d) / (n * 1d)), fragment.cardinality(), nbFixedVariables);
+        reset();
+    }
+
+    @Override
+    public void loadSolution(int[] values) {
+        for (int i = 0; i < vars.length; i++) {
+            previous[i] = bestSolution[i];
+            bestSolution[i] = values[i];
+        }
+        reset();
+    }
+
+    private void reset() {
         nbFixedVariables = 2. * n / 3. + 1;
         nbCall = 0;
         limit = 200; //geo.getNextCutoff(nbCall);
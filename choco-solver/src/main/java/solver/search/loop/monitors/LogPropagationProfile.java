@@ -0,0 +1,139 @@
+/**
+ *  Copyright (c) 1999-2011, Ecole des Mines de Nantes
+ *  All rights reserved.
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *      * Neither the name of the Ecole des Mines de Nantes nor the
+ *        names of its contributors may be used to endorse or promote products
+ *        derived from this software without specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ *  EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ *  DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.loop.monitors;
+
+import org.slf4j.LoggerFactory;
+import solver.Configuration;
+import solver.Solver;
+import solver.constraints.Constraint;
+import solver.constraints.Propagator;
+import util.tools.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Print, on close, the propagators sorted by decreasing propagation time,
+ * with their number of calls, domain reductions and failures.
+ * Requires <code>PROFILE_PROPAGATION</code> to be set to true in the configuration file.
+ * <p/>
+ * Only {@link solver.propagation.hardcoded.TwoBucketPropagationEngine} (the default engine),
+ * its subclass {@link solver.propagation.hardcoded.AdaptivePropagationEngine}
+ * and {@link solver.propagation.hardcoded.PrimitiveTwoBucketPropagationEngine} record these statistics:
+ * propagators run by any other engine (seven queues engine, DSL based engines, ...) are reported with no time,
+ * no reduction and no failure.
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class LogPropagationProfile implements IMonitorClose {
+
+    final Solver solver;
+    final int top; // maximum number of propagators to print
+
+    public LogPropagationProfile(Solver solver, int top) {
+        this.solver = solver;
+        this.top = top;
+        if (!Configuration.PROFILE_PROPAGATION) {
+            LoggerFactory.getLogger("solver").warn("PROFILE_PROPAGATION is disabled, no statistic will be recorded");
+        }
+    }
+
+    @Override
+    public void beforeClose() {
+    }
+
+    @Override
+    public void afterClose() {
+        LoggerFactory.getLogger("solver").info(report(solver, top));
+    }
+
+    /**
+     * Build the report of the <code>top</code> most time-consuming propagators of <code>solver</code>.
+     */
+    public static String report(Solver solver, int top) {
+        List<Propagator> props = new ArrayList<Propagator>();
+        long total = 0;
+        Constraint[] cstrs = solver.getCstrs();
+        for (int i = 0; i < cstrs.length; i++) {
+            Propagator[] cprops = cstrs[i].getPropagators();
+            for (int j = 0; j < cprops.length; j++) {
+                props.add(cprops[j]);
+                total += cprops[j].propagationTime;
+            }
+        }
+        Collections.sort(props, new Comparator<Propagator>() {
+            @Override
+            public int compare(Propagator p1, Propagator p2) {
+                return p1.propagationTime == p2.propagationTime ? 0 : (p1.propagationTime > p2.propagationTime ? -1 : 1);
+            }
+        });
+        StringBuilder st = new StringBuilder();
+        st.append(StringUtils.pad(" ", 102, "-")).append("\n");
+        st.append("| ").append(StringUtils.pad("Name", 40, " "));
+        st.append("| ").append(StringUtils.pad("calls", 9, " "));
+        st.append("| ").append(StringUtils.pad("time(ms)", 9, " "));
+        st.append("| ").append(StringUtils.pad("%", 6, " "));
+        st.append("| ").append(StringUtils.pad("cumul%", 6, " "));
+        st.append("| ").append(StringUtils.pad("reductions", 10, " "));
+        st.append("| ").append(StringUtils.pad("fails", 7, " "));
+        st.append("|\n");
+        st.append(StringUtils.pad(" ", 102, "-")).append("\n");
+        long cumul = 0;
+        for (int i = 0; i < props.size() && i < top; i++) {
+            Propagator p = props.get(i);
+            cumul += p.propagationTime;
+            String name = p.getConstraint() == null ? p.getClass().getSimpleName() :
+                    p.getClass().getSimpleName() + " (" + p.getConstraint().getName() + ")";
+            if (name.length() > 40) {
+                name = name.substring(0, 37) + "...";
+            }
+            st.append("| ").append(StringUtils.pad(name, 40, " "));
+            st.append("| ").append(StringUtils.pad("" + (p.fineERcalls + p.coarseERcalls), -9, " "));
+            st.append("| ").append(StringUtils.pad(String.format("%.3f", p.propagationTime / 1e6), -9, " "));
+            st.append("| ").append(StringUtils.pad(percent(p.propagationTime, total), -6, " "));
+            st.append("| ").append(StringUtils.pad(percent(cumul, total), -6, " "));
+            st.append("| ").append(StringUtils.pad("" + p.nbReductions, -10, " "));
+            st.append("| ").append(StringUtils.pad("" + p.nbFails, -7, " "));
+            st.append("|\n");
+        }
+        st.append(StringUtils.pad(" ", 102, "-")).append("\n");
+        st.append("| ").append(StringUtils.pad(props.size() + " propagators", 40, " "));
+        st.append("| ").append(StringUtils.pad("", 9, " "));
+        st.append("| ").append(StringUtils.pad(String.format("%.3f", total / 1e6), -9, " "));
+        st.append("|\n");
+        st.append(StringUtils.pad(" ", 102, "-")).append("\n");
+        return st.toString();
+    }
+
+    private static String percent(long time, long total) {
+        return total == 0 ? "-" : String.format("%.1f", 100. * time / total);
+    }
+}
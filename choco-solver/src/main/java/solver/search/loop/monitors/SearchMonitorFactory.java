@@ -254,6 +254,19 @@ public class SearchMonitorFactory {
 		solver.plugMonitor(new LogPropagationCount(solver));
     }
 
+    /**
+     * Print, on close, the <code>top</code> most time-consuming propagators, with their number of calls,
+     * domain reductions and failures.
+     * Statistics are only recorded when <code>PROFILE_PROPAGATION</code> is set to true in the configuration file,
+     * and by the two-bucket engines only (see {@link LogPropagationProfile}).
+     *
+     * @param solver a solver
+     * @param top    maximum number of propagators to print
+     */
+    public static void prop_profile(Solver solver, int top) {
+		solver.plugMonitor(new LogPropagationProfile(solver, top));
+    }
+
     /**
      * Print the total number of events per variable
      *
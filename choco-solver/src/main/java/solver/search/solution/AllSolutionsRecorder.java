@@ -38,10 +38,19 @@ import solver.Solver;
 
 import java.util.LinkedList;
 
+/**
+ * Records all the solutions found.
+ * <br/>
+ * To save memory, a solution is recorded as a delta against the last full one (a checkpoint), unless it differs
+ * too much from it: then it becomes the new checkpoint.
+ * When the solutions do not need to be held in memory, prefer a {@link SolutionSinkRecorder}.
+ */
 public class AllSolutionsRecorder implements ISolutionRecorder {
 
 	LinkedList<Solution> solutions;
 	Solver solver;
+	// the last solution recorded in full
+	Solution checkpoint;
 
 	public AllSolutionsRecorder(Solver solver){
 		this.solver = solver;
@@ -51,7 +60,11 @@ public class AllSolutionsRecorder implements ISolutionRecorder {
 	@Override
 	public void onSolution() {
 		Solution solution = new Solution();
-		solution.record(solver);
+		solution.record(solver, checkpoint);
+		solution.compact();
+		if (solution.base == null) {
+			checkpoint = solution;
+		}
 		solutions.add(solution);
 	}
 
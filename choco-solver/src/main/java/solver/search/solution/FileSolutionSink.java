@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.solution;
+
+import solver.exception.SolverException;
+
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A solution sink which writes the solutions to a binary file, optionally compressed, as they are found.
+ * <br/>
+ * The search thread only encodes each solution (see {@link Solution#writeTo(java.io.DataOutput)}) into a buffer;
+ * the buffers are written by a dedicated thread, so the search does not wait for the I/O.
+ * At most <code>capacity</code> buffers are pending: if the writer falls that much behind, the search waits for it
+ * (backpressure), so the memory used is bounded whatever the number of solutions.
+ * <p/>
+ * An I/O failure of the writer is reported to the search thread, as a {@link SolverException}, on the next solution
+ * or on close. The file is read with {@link SolutionFileReader}.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class FileSolutionSink implements ISolutionSink {
+
+    /**
+     * First int of a solution file
+     */
+    public static final int MAGIC = 0x43534F4C;
+
+    // sent to the writer to stop it
+    private static final byte[] EOF = new byte[0];
+
+    private final BlockingQueue<byte[]> pending;
+    private final ByteArrayOutputStream buffer;
+    private final DataOutputStream encoder;
+    private final Thread writer;
+    private volatile IOException failure;
+    private long nbSolutions;
+    private boolean closed;
+
+    /**
+     * Creates a sink writing in <code>file</code>, which is overwritten.
+     *
+     * @param file     the output file
+     * @param compress set to true to compress the file (GZIP)
+     * @param capacity maximum number of solutions waiting to be written
+     * @throws IOException if the file cannot be opened
+     */
+    public FileSolutionSink(File file, boolean compress, int capacity) throws IOException {
+        OutputStream os = new FileOutputStream(file);
+        final DataOutputStream out;
+        try {
+            if (compress) {
+                os = new GZIPOutputStream(os, 1 << 16);
+            }
+            out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16));
+            out.writeInt(MAGIC);
+        } catch (IOException e) {
+            os.close();
+            throw e;
+        }
+        this.pending = new ArrayBlockingQueue<byte[]>(capacity);
+        this.buffer = new ByteArrayOutputStream(256);
+        this.encoder = new DataOutputStream(buffer);
+        this.writer = new Thread("solution writer") {
+            @Override
+            public void run() {
+                try {
+                    try {
+                        byte[] bytes;
+                        while ((bytes = pending.take()) != EOF) {
+                            out.write(bytes);
+                        }
+                    } finally {
+                        out.close();
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                    pending.clear(); // release the search thread
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Creates a sink writing in <code>file</code>, which is overwritten, uncompressed,
+     * with at most 1024 solutions waiting to be written.
+     *
+     * @param file the output file
+     * @throws IOException if the file cannot be opened
+     */
+    public FileSolutionSink(File file) throws IOException {
+        this(file, false, 1024);
+    }
+
+    @Override
+    public void accept(Solution solution) {
+        check();
+        buffer.reset();
+        try {
+            solution.writeTo(encoder);
+            encoder.flush();
+            pending.put(buffer.toByteArray());
+        } catch (IOException e) {
+            throw new SolverException("cannot encode the solution: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolverException("interrupted while waiting for the solution writer");
+        }
+        nbSolutions++;
+    }
+
+    /**
+     * Waits for all the solutions to be written, and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure == null) {
+                pending.put(EOF);
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        check();
+    }
+
+    /**
+     * @return the number of solutions received
+     */
+    public long getNbSolutions() {
+        return nbSolutions;
+    }
+
+    private void check() {
+        if (failure != null) {
+            throw new SolverException("cannot write the solutions: " + failure.getMessage());
+        }
+    }
+}
@@ -24,9 +24,9 @@
  * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
-
 package solver.search.solution;
 
+import gnu.trove.map.hash.TIntIntHashMap;
 import solver.ICause;
 import solver.Solver;
 import solver.exception.ContradictionException;
@@ -37,11 +37,25 @@ import solver.variables.RealVar;
 import solver.variables.SetVar;
 import solver.variables.Variable;
 import solver.variables.graph.GraphVar;
+import util.objects.setDataStructures.ISet;
 
-import java.util.HashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
+ * A snapshot of the values of the variables of a solver.
  * <br/>
+ * Values are stored in primitive arrays, indexed by the position of the variables in the solver:
+ * <code>values[p]</code> is the value of an int or bool variable, otherwise the offset of its value
+ * in <code>data</code> (a set variable: its size then its elements), in <code>words</code>
+ * (a graph variable: its number of nodes then its packed adjacency matrix and set of nodes)
+ * or in <code>reals</code> (a real variable: its bounds).
+ * <p/>
+ * A solution can also be recorded as a delta against a reference solution, recorded on the same variables:
+ * only the positions whose value differs are stored, which suits the enumeration of close solutions.
+ * The variables and the index of their positions are shared among the solutions recorded against each other.
  *
  * @author Jean-Guillaume Fages
  * @author Charles Prud'homme
@@ -49,10 +63,23 @@ import java.util.HashMap;
  */
 public class Solution implements ICause {
 
-	HashMap<IntVar,Integer> intmap = new HashMap();
-	HashMap<RealVar,double[]> realmap = new HashMap();
-	HashMap<SetVar,int[]> setmap = new HashMap();
-	HashMap<GraphVar,boolean[][]> graphmap = new HashMap();
+	// the variables recorded, in the order of the solver
+	Variable[] vars;
+	// position of a variable in vars, from its id
+	TIntIntHashMap positions;
+	// value or offset, of each position, or only of the changed ones against base
+	int[] values;
+	// payloads of the set, graph and real variables
+	int[] data;
+	int dsize;
+	long[] words;
+	int wsize;
+	double[] reals;
+	int rsize;
+	// if not null, this is a delta against base: positions of the values stored, sorted
+	Solution base;
+	int[] changed;
+	int nbChanged;
 	boolean empty = true;
 
     public Solution() {}
@@ -63,37 +90,180 @@ public class Solution implements ICause {
 	 * @param solver
 	 */
     public void record(Solver solver) {
+		record(solver, null);
+	}
+
+	/**
+	 * Records the current solution of the solver, as a delta against <code>reference</code> when it is worth it.
+	 * Clears all previous recordings.
+	 * @param solver
+	 * @param reference a full solution previously recorded on the same solver, can be null
+	 */
+	public void record(Solver solver, Solution reference) {
 		empty = false;
-		intmap.clear();
-		realmap.clear();
-		setmap.clear();
-		graphmap.clear();
-        Variable[] vars = solver.getVars();
-        for (int i = 0; i < vars.length; i++) {
-            int kind = vars[i].getTypeAndKind() & Variable.KIND;
-			assert (vars[i].isInstantiated()) :
-					vars[i] + " is not instantiated when recording a solution.";
-            switch (kind) {
-                case Variable.INT:
-                case Variable.BOOL:
-					IntVar v = (IntVar) vars[i];
-					intmap.put(v, v.getValue());
-                    break;
-                case Variable.REAL:
-					RealVar r = (RealVar) vars[i];
-					realmap.put(r,new double[]{r.getLB(),r.getUB()});
-                    break;
-                case Variable.SET:
-					SetVar s = (SetVar) vars[i];
-                    setmap.put(s,s.getValue());
-                    break;
-                case Variable.GRAPH:
-					GraphVar g = (GraphVar) vars[i];
-					graphmap.put(g,g.getValue());
-                    break;
-            }
-        }
-    }
+		int n = solver.getNbVars();
+		if (reference != null && reference.vars != null && reference.vars.length == n && reference.base == null) {
+			vars = reference.vars;
+			positions = reference.positions;
+			if (recordDelta(solver, reference)) {
+				return;
+			}
+		} else if (vars == null || vars.length != n) {
+			vars = solver.getVars();
+			positions = new TIntIntHashMap(n, 0.5f, -1, -1);
+			for (int p = 0; p < n; p++) {
+				positions.put(vars[p].getId(), p);
+			}
+		}
+		base = null;
+		changed = null;
+		nbChanged = 0;
+		if (values == null || values.length != n) {
+			values = new int[n];
+		}
+		dsize = wsize = rsize = 0;
+		for (int p = 0; p < n; p++) {
+			values[p] = encode(p);
+		}
+	}
+
+	/**
+	 * Records the current solution as a delta against <code>reference</code>.
+	 * @return false if too many values differ, nothing is recorded then
+	 */
+	private boolean recordDelta(Solver solver, Solution reference) {
+		int n = vars.length;
+		if (changed == null) {
+			changed = new int[16];
+			values = new int[16];
+		}
+		nbChanged = 0;
+		dsize = wsize = rsize = 0;
+		for (int p = 0; p < n; p++) {
+			Variable var = vars[p];
+			int kind = var.getTypeAndKind() & Variable.KIND;
+			if (kind != Variable.INT && kind != Variable.BOOL || ((IntVar) var).getValue() != reference.values[p]) {
+				if (2 * (nbChanged + 1) > n) {
+					return false;
+				}
+				if (nbChanged == changed.length) {
+					changed = Arrays.copyOf(changed, nbChanged * 3 / 2 + 1);
+					values = Arrays.copyOf(values, changed.length);
+				}
+				changed[nbChanged] = p;
+				values[nbChanged++] = encode(p);
+			}
+		}
+		base = reference;
+		return true;
+	}
+
+	/**
+	 * Returns the value of the variable at position p, or stores its value in the payloads and returns its offset.
+	 */
+	private int encode(int p) {
+		Variable var = vars[p];
+		assert (var.isInstantiated()) : var + " is not instantiated when recording a solution.";
+		switch (var.getTypeAndKind() & Variable.KIND) {
+			case Variable.INT:
+			case Variable.BOOL:
+				return ((IntVar) var).getValue();
+			case Variable.REAL: {
+				RealVar r = (RealVar) var;
+				reals = ensure(reals, rsize + 2);
+				reals[rsize] = r.getLB();
+				reals[rsize + 1] = r.getUB();
+				rsize += 2;
+				return rsize - 2;
+			}
+			case Variable.SET: {
+				SetVar s = (SetVar) var;
+				int offset = dsize;
+				data = ensure(data, dsize + s.getKernelSize() + 1);
+				data[dsize++] = s.getKernelSize();
+				for (int e = s.getKernelFirst(); e != SetVar.END; e = s.getKernelNext()) {
+					data[dsize++] = e;
+				}
+				return offset;
+			}
+			case Variable.GRAPH: {
+				GraphVar g = (GraphVar) var;
+				int nn = g.getEnvelopGraph().getNbNodes();
+				int offset = wsize;
+				int nbWords = ((nn + 1) * nn + 63) >>> 6;
+				words = ensure(words, wsize + nbWords + 1);
+				words[wsize++] = nn;
+				Arrays.fill(words, wsize, wsize + nbWords, 0L);
+				ISet kerNodes = g.getKernelGraph().getActiveNodes();
+				for (int i = kerNodes.getFirstElement(); i >= 0; i = kerNodes.getNextElement()) {
+					ISet kerSuccs = g.getKernelGraph().getSuccsOrNeigh(i);
+					for (int j = kerSuccs.getFirstElement(); j >= 0; j = kerSuccs.getNextElement()) {
+						setBit(wsize, i * nn + j); // arc in
+					}
+					setBit(wsize, nn * nn + i); // node in
+				}
+				wsize += nbWords;
+				return offset;
+			}
+			default:
+				return 0;
+		}
+	}
+
+	private void setBit(int from, int bit) {
+		words[from + (bit >>> 6)] |= 1L << bit;
+	}
+
+	private boolean getBit(int from, int bit) {
+		return (words[from + (bit >>> 6)] & (1L << bit)) != 0;
+	}
+
+	private static int[] ensure(int[] a, int size) {
+		return a == null ? new int[Math.max(16, size)] : a.length < size ? Arrays.copyOf(a, Math.max(size, a.length * 3 / 2)) : a;
+	}
+
+	private static long[] ensure(long[] a, int size) {
+		return a == null ? new long[Math.max(16, size)] : a.length < size ? Arrays.copyOf(a, Math.max(size, a.length * 3 / 2)) : a;
+	}
+
+	private static double[] ensure(double[] a, int size) {
+		return a == null ? new double[Math.max(16, size)] : a.length < size ? Arrays.copyOf(a, Math.max(size, a.length * 3 / 2)) : a;
+	}
+
+	/**
+	 * Trims the arrays to their actual size, once the solution will not be recorded again.
+	 */
+	void compact() {
+		if (base != null) {
+			changed = Arrays.copyOf(changed, nbChanged);
+			values = Arrays.copyOf(values, nbChanged);
+		}
+		data = data == null ? null : Arrays.copyOf(data, dsize);
+		words = words == null ? null : Arrays.copyOf(words, wsize);
+		reals = reals == null ? null : Arrays.copyOf(reals, rsize);
+	}
+
+	/**
+	 * Returns the value, or the offset of the value, of the variable at position p
+	 */
+	private int valueAt(int p) {
+		if (base == null) {
+			return values[p];
+		}
+		int k = Arrays.binarySearch(changed, 0, nbChanged, p);
+		return k >= 0 ? values[k] : base.values[p];
+	}
+
+	private int positionOf(Variable v) {
+		if (empty) {
+			throw new UnsupportedOperationException("Empty solution. No solution found");
+		}
+		int p = positions.get(v.getId());
+		if (p == -1) {
+			throw new UnsupportedOperationException(v.getName() + " is not recorded in this solution");
+		}
+		return p;
+	}
 
 	/**
 	 * Set all variables to their respective value in the solution
@@ -106,18 +276,24 @@ public class Solution implements ICause {
 		if(empty){
 			throw new UnsupportedOperationException("Empty solution. No solution found");
 		}
-		for(IntVar i:intmap.keySet()){
-			i.instantiateTo(intmap.get(i),this);
-		}
-		for(SetVar s:setmap.keySet()){
-			s.instantiateTo(setmap.get(s),this);
-		}
-		for(GraphVar g:graphmap.keySet()){
-			g.instantiateTo(graphmap.get(g),this);
-		}
-		for(RealVar r:realmap.keySet()){
-			double[] bounds = realmap.get(r);
-			r.updateBounds(bounds[0],bounds[1],this);
+		for (int p = 0; p < vars.length; p++) {
+			Variable var = vars[p];
+			switch (var.getTypeAndKind() & Variable.KIND) {
+				case Variable.INT:
+				case Variable.BOOL:
+					((IntVar) var).instantiateTo(valueAt(p), this);
+					break;
+				case Variable.SET:
+					((SetVar) var).instantiateTo(getSetVal(p), this);
+					break;
+				case Variable.GRAPH:
+					((GraphVar) var).instantiateTo(getGraphVal(p), this);
+					break;
+				case Variable.REAL:
+					int o = valueAt(p);
+					((RealVar) var).updateBounds(reals[o], reals[o + 1], this);
+					break;
+			}
 		}
     }
 
@@ -137,11 +313,8 @@ public class Solution implements ICause {
 	 * @return the value of variable v in this solution
 	 */
 	public int getIntVal(IntVar v){
-		if(empty){
-			throw new UnsupportedOperationException("Empty solution. No solution found");
-		}
-		return intmap.get(v);
-	};
+		return valueAt(positionOf(v));
+	}
 
 	/**
 	 * Get the value of variable s in this solution
@@ -149,11 +322,13 @@ public class Solution implements ICause {
 	 * @return the value of variable s in this solution
 	 */
 	public int[] getSetVal(SetVar s){
-		if(empty){
-			throw new UnsupportedOperationException("Empty solution. No solution found");
-		}
-		return setmap.get(s);
-	};
+		return getSetVal(positionOf(s));
+	}
+
+	private int[] getSetVal(int p) {
+		int o = valueAt(p);
+		return Arrays.copyOfRange(data, o + 1, o + 1 + data[o]);
+	}
 
 	/**
 	 * Get the value of variable g in this solution
@@ -161,11 +336,20 @@ public class Solution implements ICause {
 	 * @return the value of variable g in this solution
 	 */
 	public boolean[][] getGraphVal(GraphVar g){
-		if(empty){
-			throw new UnsupportedOperationException("Empty solution. No solution found");
+		return getGraphVal(positionOf(g));
+	}
+
+	private boolean[][] getGraphVal(int p) {
+		int o = valueAt(p);
+		int n = (int) words[o];
+		boolean[][] vals = new boolean[n + 1][n];
+		for (int i = 0; i <= n; i++) {
+			for (int j = 0; j < n; j++) {
+				vals[i][j] = getBit(o + 1, i * n + j);
+			}
 		}
-		return graphmap.get(g);
-	};
+		return vals;
+	}
 
 	/**
 	 * Get the bounds of r in this solution
@@ -173,11 +357,9 @@ public class Solution implements ICause {
 	 * @return the bounds of r in this solution
 	 */
 	public double[] getRealBounds(RealVar r){
-		if(empty){
-			throw new UnsupportedOperationException("Empty solution. No solution found");
-		}
-		return realmap.get(r);
-	};
+		int o = valueAt(positionOf(r));
+		return new double[]{reals[o], reals[o + 1]};
+	}
 
 	/**
 	 * @return true iff this is a valid solution
@@ -185,4 +367,108 @@ public class Solution implements ICause {
 	public boolean hasBeenFound(){
 		return !empty;
 	}
+
+	/**
+	 * Writes this solution in a compact binary format: the number of variables, then the value of each of them,
+	 * in the order of the solver (an int for an int or bool variable, the size then the elements for a set variable,
+	 * the number of nodes then the packed bits for a graph variable, two doubles for a real variable).
+	 * @param out the output
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		if(empty){
+			throw new UnsupportedOperationException("Empty solution. No solution found");
+		}
+		out.writeInt(vars.length);
+		for (int p = 0; p < vars.length; p++) {
+			int o = valueAt(p);
+			switch (vars[p].getTypeAndKind() & Variable.KIND) {
+				case Variable.INT:
+				case Variable.BOOL:
+					out.writeInt(o);
+					break;
+				case Variable.SET:
+					for (int i = o; i <= o + data[o]; i++) {
+						out.writeInt(data[i]);
+					}
+					break;
+				case Variable.GRAPH:
+					int n = (int) words[o];
+					int nbWords = ((n + 1) * n + 63) >>> 6;
+					out.writeInt(n);
+					for (int i = o + 1; i <= o + nbWords; i++) {
+						out.writeLong(words[i]);
+					}
+					break;
+				case Variable.REAL:
+					out.writeDouble(reals[o]);
+					out.writeDouble(reals[o + 1]);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Reads a solution written by {@link #writeTo(java.io.DataOutput)}, for the same solver.
+	 * Clears all previous recordings.
+	 * @param in the input
+	 * @param solver the solver whose variables are described
+	 * @throws IOException
+	 */
+	public void readFrom(DataInput in, Solver solver) throws IOException {
+		int n = in.readInt();
+		if (n != solver.getNbVars()) {
+			throw new IOException("the solution does not describe the variables of " + solver.getName());
+		}
+		if (vars == null || vars.length != n) {
+			vars = solver.getVars();
+			positions = new TIntIntHashMap(n, 0.5f, -1, -1);
+			for (int p = 0; p < n; p++) {
+				positions.put(vars[p].getId(), p);
+			}
+		}
+		empty = false;
+		base = null;
+		changed = null;
+		nbChanged = 0;
+		if (values == null || values.length != n) {
+			values = new int[n];
+		}
+		dsize = wsize = rsize = 0;
+		for (int p = 0; p < n; p++) {
+			switch (vars[p].getTypeAndKind() & Variable.KIND) {
+				case Variable.INT:
+				case Variable.BOOL:
+					values[p] = in.readInt();
+					break;
+				case Variable.SET: {
+					int size = in.readInt();
+					data = ensure(data, dsize + size + 1);
+					values[p] = dsize;
+					data[dsize++] = size;
+					for (int i = 0; i < size; i++) {
+						data[dsize++] = in.readInt();
+					}
+					break;
+				}
+				case Variable.GRAPH: {
+					int nn = in.readInt();
+					int nbWords = ((nn + 1) * nn + 63) >>> 6;
+					words = ensure(words, wsize + nbWords + 1);
+					values[p] = wsize;
+					words[wsize++] = nn;
+					for (int i = 0; i < nbWords; i++) {
+						words[wsize++] = in.readLong();
+					}
+					break;
+				}
+				case Variable.REAL:
+					reals = ensure(reals, rsize + 2);
+					values[p] = rsize;
+					reals[rsize++] = in.readDouble();
+					reals[rsize++] = in.readDouble();
+					break;
+			}
+		}
+	}
 }
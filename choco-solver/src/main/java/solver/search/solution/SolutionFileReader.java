@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.solution;
+
+import solver.Solver;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads, one after the other, the solutions written by a {@link FileSolutionSink}, compressed or not.
+ * <br/>
+ * Each solution is read into a snapshot given by the caller, so reading a file does not require to hold its
+ * solutions in memory:
+ * <pre>
+ * SolutionFileReader reader = new SolutionFileReader(file, solver);
+ * Solution solution = new Solution();
+ * while (reader.next(solution)) {
+ *     ... solution.getIntVal(x) ...
+ * }
+ * reader.close();
+ * </pre>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class SolutionFileReader implements Closeable {
+
+    private final DataInputStream in;
+    private final Solver solver;
+
+    /**
+     * Opens a solution file
+     *
+     * @param file   a file written by a {@link FileSolutionSink}
+     * @param solver the solver which has found the solutions, or one declaring the same variables in the same order
+     * @throws IOException if the file cannot be opened or is not a solution file
+     */
+    public SolutionFileReader(File file, Solver solver) throws IOException {
+        this.solver = solver;
+        InputStream is = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        is.mark(2);
+        int b1 = is.read();
+        int b2 = is.read();
+        is.reset();
+        if (b1 == (GZIPInputStream.GZIP_MAGIC & 0xFF) && b2 == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+            is = new BufferedInputStream(new GZIPInputStream(is, 1 << 16), 1 << 16);
+        }
+        this.in = new DataInputStream(is);
+        if (in.readInt() != FileSolutionSink.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a solution file");
+        }
+    }
+
+    /**
+     * Reads the next solution
+     *
+     * @param solution the snapshot to read the solution into
+     * @return false if there is no more solution
+     * @throws IOException if the file is corrupted
+     */
+    public boolean next(Solution solution) throws IOException {
+        try {
+            solution.readFrom(in, solver);
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.solution;
+
+import solver.Solver;
+import solver.search.loop.monitors.IMonitorClose;
+
+import java.util.LinkedList;
+
+/**
+ * A solution recorder which streams each solution to a {@link ISolutionSink}.
+ * <br/>
+ * A single snapshot is recorded again on each solution, so the memory used does not depend on the number of solutions.
+ * The sink is closed with the search.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class SolutionSinkRecorder implements ISolutionRecorder, IMonitorClose {
+
+    private final Solver solver;
+    private final ISolutionSink sink;
+    private final Solution solution;
+
+    public SolutionSinkRecorder(Solver solver, ISolutionSink sink) {
+        this.solver = solver;
+        this.sink = sink;
+        this.solution = new Solution();
+    }
+
+    @Override
+    public void onSolution() {
+        solution.record(solver);
+        sink.accept(solution);
+    }
+
+    @Override
+    public void beforeClose() {
+    }
+
+    @Override
+    public void afterClose() {
+        sink.close();
+    }
+
+    @Override
+    public Solution getLastSolution() {
+        return solution;
+    }
+
+    @Override
+    public LinkedList<Solution> getAllSolutions() {
+        throw new UnsupportedOperationException("solutions are streamed to a sink, none is kept but the last one");
+    }
+}
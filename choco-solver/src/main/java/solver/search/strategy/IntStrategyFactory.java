@@ -28,6 +28,7 @@
 package solver.search.strategy;
 
 import solver.Solver;
+import solver.search.strategy.selectors.values.InDomainLast;
 import solver.search.strategy.selectors.values.InDomainMax;
 import solver.search.strategy.selectors.values.InDomainMiddle;
 import solver.search.strategy.selectors.values.InDomainMin;
@@ -161,6 +162,33 @@ public class IntStrategyFactory {
         return new Assignment(new DomOverWDeg(VARS, SEED), new InDomainMin());
     }
 
+    /**
+     * Assignment strategy combining <code>FirstFail</code> and <code>InDomainLast</code>:
+     * the value of a variable in the last solution is preferred, then its value before the last restart,
+     * then the smallest value of its domain.
+     * Best combined with a restart policy.
+     *
+     * @param VARS list of variables
+     * @return assignment strategy
+     */
+    public static AbstractStrategy<IntVar> firstFail_InDomainLast(IntVar... VARS) {
+        return new Assignment(new FirstFail(VARS), new InDomainLast(VARS, new InDomainMin()));
+    }
+
+    /**
+     * Assignment strategy combining <code>DomOverWDeg</code> and <code>InDomainLast</code>:
+     * the value of a variable in the last solution is preferred, then its value before the last restart,
+     * then the smallest value of its domain.
+     * Best combined with a restart policy.
+     *
+     * @param VARS list of variables
+     * @param SEED a seed for random
+     * @return assignment strategy
+     */
+    public static AbstractStrategy<IntVar> domOverWDeg_InDomainLast(IntVar[] VARS, long SEED) {
+        return new Assignment(new DomOverWDeg(VARS, SEED), new InDomainLast(VARS, new InDomainMin()));
+    }
+
     /**
      * Create an Activity based search strategy.
      * <p/>
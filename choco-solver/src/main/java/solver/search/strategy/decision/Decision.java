@@ -63,6 +63,9 @@ public abstract class Decision<V extends Variable> implements Identity, ICause,
 
     protected boolean once;
 
+    // the refutation is explored elsewhere (for instance, by another worker), it must not be explored here
+    protected boolean delegated;
+
     public Decision() {
         id = _ID++;
     }
@@ -104,7 +107,23 @@ public abstract class Decision<V extends Variable> implements Identity, ICause,
      * @return true if the decision can be refuted, false otherwise
      */
     public boolean hasNext() {
-        return branch < 2;
+        return branch < 2 && !delegated;
+    }
+
+    /**
+     * Return the current branch of the decision: 0 if not applied yet, 1 if applied, 2 if refuted
+     *
+     * @return the current branch
+     */
+    public int getBranch() {
+        return branch;
+    }
+
+    /**
+     * State that the refutation of this decision is explored elsewhere, and must be skipped on backtrack.
+     */
+    public void delegateRefutation() {
+        this.delegated = true;
     }
 
     /**
@@ -123,10 +142,20 @@ public abstract class Decision<V extends Variable> implements Identity, ICause,
         this.once = once;
     }
 
+    /**
+     * Return true if this decision is a one-shot decision, which has no refutation
+     *
+     * @return true if the decision is non refutable
+     */
+    public boolean isOnce() {
+        return once;
+    }
+
     protected void set(V var){
         this.var = var;
         branch = 0;
         this.once = false;
+        this.delegated = false;
         this.setWorldIndex(var.getSolver().getEnvironment().getWorldIndex());
     }
 
@@ -142,6 +171,7 @@ public abstract class Decision<V extends Variable> implements Identity, ICause,
      */
     public void rewind() {
         branch = 0;
+        delegated = false;
     }
 
     /**
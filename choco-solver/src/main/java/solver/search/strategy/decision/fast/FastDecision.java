@@ -56,6 +56,15 @@ public class FastDecision extends Decision<IntVar> {
         return value;
     }
 
+    /**
+     * Return the operator applied to the variable and the value
+     *
+     * @return a decision operator
+     */
+    public DecisionOperator<IntVar> getDecisionOperator() {
+        return assignment;
+    }
+
     @Override
     public void apply() throws ContradictionException {
         if (branch == 1) {
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.strategy.selectors.values;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+import solver.search.loop.monitors.IMonitorRestart;
+import solver.search.loop.monitors.IMonitorSolution;
+import solver.search.strategy.selectors.InValueIterator;
+import solver.variables.IntVar;
+
+/**
+ * Solution-guided value selection, with phase saving.
+ * <br/>
+ * Selects, if it still belongs to the variable's domain, the value of the variable in the last solution found;
+ * otherwise the last value assigned to the variable (its phase); otherwise the value given by a fallback selector.
+ * The phase of a variable is saved each time a value is selected for it, and when the search is restarted
+ * for the variables instantiated by propagation.
+ * <p/>
+ * Solutions and phases are recorded as a search monitor, so this value selector keeps some memory of
+ * the previous runs when combined with a restart policy (Luby, geometric, LNS, ...).
+ * It can be used in any {@link solver.search.strategy.strategy.Assignment}, and so under
+ * {@link solver.search.strategy.strategy.LastConflict}.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public final class InDomainLast implements InValueIterator, IMonitorSolution, IMonitorRestart {
+
+    private final IntVar[] vars;
+    // index of a variable in vars, from its id
+    private final TIntIntHashMap indices;
+    private final InValueIterator fallback;
+    // value in the last solution, and phase, of each variable
+    private final int[] solution, phase;
+    // true if a value is recorded
+    private boolean hasSolution;
+    private final boolean[] hasPhase;
+
+    /**
+     * Creates a solution-guided value selector, and plugs it to the search loop of the variables' solver.
+     *
+     * @param vars     the variables whose values are recorded
+     * @param fallback the value selector to use when no recorded value is available
+     */
+    public InDomainLast(IntVar[] vars, InValueIterator fallback) {
+        this.vars = vars.clone();
+        this.fallback = fallback;
+        this.indices = new TIntIntHashMap(vars.length, 0.5f, -1, -1);
+        for (int i = 0; i < vars.length; i++) {
+            indices.put(vars[i].getId(), i);
+        }
+        this.solution = new int[vars.length];
+        this.phase = new int[vars.length];
+        this.hasPhase = new boolean[vars.length];
+        if (vars.length > 0) {
+            vars[0].getSolver().getSearchLoop().plugSearchMonitor(this);
+        }
+    }
+
+    @Override
+    public int selectValue(IntVar var) {
+        int i = indices.get(var.getId());
+        if (i == -1) {
+            return fallback.selectValue(var);
+        }
+        int value;
+        if (hasSolution && var.contains(solution[i])) {
+            value = solution[i];
+        } else if (hasPhase[i] && var.contains(phase[i])) {
+            value = phase[i];
+        } else {
+            value = fallback.selectValue(var);
+        }
+        // the selected value is assigned on the left branch: save it as the phase
+        phase[i] = value;
+        hasPhase[i] = true;
+        return value;
+    }
+
+    @Override
+    public void onSolution() {
+        for (int i = 0; i < vars.length; i++) {
+            if (vars[i].isInstantiated()) {
+                solution[i] = vars[i].getValue();
+            }
+        }
+        hasSolution = true;
+    }
+
+    @Override
+    public void beforeRestart() {
+        // save the phases of the variables instantiated by propagation, before the search is restored to the root node
+        for (int i = 0; i < vars.length; i++) {
+            if (vars[i].isInstantiated()) {
+                phase[i] = vars[i].getValue();
+                hasPhase[i] = true;
+            }
+        }
+    }
+
+    @Override
+    public void afterRestart() {
+    }
+}
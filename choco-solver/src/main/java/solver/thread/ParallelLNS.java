@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.thread;
+
+import solver.ICause;
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.exception.ContradictionException;
+import solver.exception.SolverException;
+import solver.search.limits.FailCounter;
+import solver.search.loop.lns.LNSFactory;
+import solver.search.loop.lns.LargeNeighborhoodSearch;
+import solver.search.loop.lns.neighbors.ActivityBasedNeighborhood;
+import solver.search.loop.lns.neighbors.INeighbor;
+import solver.search.loop.lns.neighbors.SequenceNeighborhood;
+import solver.search.strategy.selectors.variables.ActivityBased;
+import solver.variables.IntVar;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A Large Neighborhood Search run in parallel by the workers of a {@link ParallelPortfolio}.
+ * <br/>
+ * Each worker relaxes its own copy of the model with the same kinds of neighborhood
+ * (random, propagation-guided, reverse propagation-guided and, when the worker is driven by
+ * {@link ActivityBased}, activity-based), but starts with a different one.
+ * <p/>
+ * The workers share the best objective value, like any portfolio, and the best solution itself:
+ * each improving solution is published in a {@link SharedIncumbent}, and a worker always fixes variables
+ * against the latest one, whoever found it.
+ * The number of times each kind of neighborhood is applied, and leads to a new solution, is counted over all
+ * the workers; the next neighborhood of a worker is drawn with a probability proportional to the success rate.
+ * <p/>
+ * The LNS of a worker starts with its first solution, the resolution stops on the limits set on the workers.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class ParallelLNS {
+
+    /**
+     * Kinds of neighborhood
+     */
+    public static final int RANDOM = 0, PG = 1, RPG = 2, ABS = 3;
+
+    private static final int NB_KINDS = 4;
+
+    private final ParallelPortfolio portfolio;
+
+    // the pool of variables to relax, in the first worker
+    private final IntVar[] vars;
+
+    private final long seed;
+
+    private final int failLimit;
+
+    // number of times each kind of neighborhood has been applied, and has led to a new solution, over all workers
+    private final AtomicIntegerArray trials, successes;
+
+    private SharedIncumbent incumbent;
+
+    /**
+     * Creates a parallel LNS.
+     *
+     * @param portfolio the workers, whose search strategy is already set
+     * @param vars      the pool of variables to relax, declared in the first worker of the portfolio
+     * @param seed      a seed for the random selections
+     * @param failLimit the number of fails allowed in a neighborhood before a fast restart, 0 to disable
+     */
+    public ParallelLNS(ParallelPortfolio portfolio, IntVar[] vars, long seed, int failLimit) {
+        this.portfolio = portfolio;
+        this.vars = vars.clone();
+        this.seed = seed;
+        this.failLimit = failLimit;
+        this.trials = new AtomicIntegerArray(NB_KINDS);
+        this.successes = new AtomicIntegerArray(NB_KINDS);
+    }
+
+    /**
+     * Attempts to optimize the value of <code>objective</code>, declared in the first worker,
+     * w.r.t. to the optimization <code>policy</code>.
+     * The best solution is restored in {@link ParallelPortfolio#getBestWorker()}.
+     *
+     * @param policy    optimization policy, among ResolutionPolicy.MINIMIZE and ResolutionPolicy.MAXIMIZE
+     * @param objective the variable to optimize
+     */
+    public void findOptimalSolution(ResolutionPolicy policy, IntVar objective) {
+        if (policy == ResolutionPolicy.SATISFACTION) {
+            throw new SolverException("ParallelLNS.findOptimalSolution(...) can not be called with ResolutionPolicy.SATISFACTION.");
+        }
+        if (objective == null) {
+            throw new SolverException("No objective variable has been defined");
+        }
+        incumbent = new SharedIncumbent(policy);
+        Solver first = portfolio.getWorker(0);
+        for (int w = 0; w < portfolio.getNbWorkers(); w++) {
+            Solver worker = portfolio.getWorker(w);
+            IntVar[] pool = new IntVar[vars.length];
+            for (int i = 0; i < vars.length; i++) {
+                pool[i] = ParallelPortfolio.retrieve(vars[i], first, worker);
+            }
+            IntVar wobjective = ParallelPortfolio.retrieve(objective, first, worker);
+            RacingNeighborhood neighbor = makeNeighborhood(worker, pool, wobjective, w);
+            LargeNeighborhoodSearch lns = new LargeNeighborhoodSearch(worker, neighbor, true);
+            worker.getSearchLoop().plugSearchMonitor(lns);
+        }
+        portfolio.findOptimalSolution(policy, objective);
+    }
+
+    private RacingNeighborhood makeNeighborhood(Solver worker, IntVar[] pool, IntVar objective, int w) {
+        long wseed = seed + w;
+        boolean abs = worker.getStrategy() instanceof ActivityBased;
+        INeighbor[] neighbors = new INeighbor[abs ? NB_KINDS : NB_KINDS - 1];
+        neighbors[RANDOM] = LNSFactory.random(worker, pool, 200, wseed, counter());
+        neighbors[PG] = LNSFactory.pg(worker, pool, 30, 10, wseed, counter());
+        neighbors[RPG] = LNSFactory.rpg(worker, pool, 30, 10, wseed, counter());
+        if (abs) {
+            neighbors[ABS] = new ActivityBasedNeighborhood(worker, pool, wseed, (ActivityBased) worker.getStrategy(), pool.length / 2);
+            neighbors[ABS].fastRestart(counter());
+        }
+        return new RacingNeighborhood(this, pool, objective, w % neighbors.length, wseed, neighbors);
+    }
+
+    private FailCounter counter() {
+        return failLimit > 0 ? new FailCounter(failLimit) : null;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////// GETTERS ////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public ParallelPortfolio getPortfolio() {
+        return portfolio;
+    }
+
+    /**
+     * @return the best solution found, null if none (or if the resolution has not started yet)
+     */
+    public SharedIncumbent.Entry getIncumbent() {
+        return incumbent == null ? null : incumbent.get();
+    }
+
+    /**
+     * @param kind a kind of neighborhood, among {@link #RANDOM}, {@link #PG}, {@link #RPG} and {@link #ABS}
+     * @return the number of times the neighborhood has been applied, over all the workers
+     */
+    public int getNbTrials(int kind) {
+        return trials.get(kind);
+    }
+
+    /**
+     * @param kind a kind of neighborhood, among {@link #RANDOM}, {@link #PG}, {@link #RPG} and {@link #ABS}
+     * @return the number of times the neighborhood has led to a new solution, over all the workers
+     */
+    public int getNbSuccesses(int kind) {
+        return successes.get(kind);
+    }
+
+    /**
+     * The neighborhood of a worker: it publishes the solutions of the worker, adopts the ones found by the others
+     * and selects the next neighborhood w.r.t. the success rates shared by all the workers.
+     */
+    private static final class RacingNeighborhood extends SequenceNeighborhood {
+
+        private final ParallelLNS master;
+        private final IntVar[] pool;
+        private final IntVar objective;
+        private final int[] values;
+        private final int preferred;
+        private final Random random;
+        private final double[] rates;
+        private int version; // version of the incumbent the neighbors rely on
+        private boolean fresh; // true if the neighbors rely on a new incumbent
+        private boolean applied; // true if a neighborhood has been applied since the last solution
+
+        RacingNeighborhood(ParallelLNS master, IntVar[] pool, IntVar objective, int preferred, long seed,
+                           INeighbor... neighbors) {
+            super(neighbors);
+            this.master = master;
+            this.pool = pool;
+            this.objective = objective;
+            this.values = new int[pool.length];
+            this.preferred = preferred;
+            this.random = new Random(seed);
+            this.rates = new double[count];
+        }
+
+        @Override
+        public void recordSolution() {
+            if (applied) {
+                master.successes.incrementAndGet(who);
+                applied = false;
+            }
+            super.recordSolution();
+            for (int i = 0; i < pool.length; i++) {
+                values[i] = pool[i].getValue();
+            }
+            // the shared cut ensures that the solution is at least as good as the incumbent;
+            // the version is the one installed by this offer, a better solution may have been published since
+            int v = master.incumbent.offer(objective.getValue(), values);
+            if (v > 0) {
+                version = v;
+            }
+            fresh = true;
+        }
+
+        @Override
+        public void fixSomeVariables(ICause cause) throws ContradictionException {
+            SharedIncumbent.Entry best = master.incumbent.get();
+            if (best != null && best.version != version) {
+                version = best.version;
+                loadSolution(best.values);
+                fresh = true;
+            }
+            super.fixSomeVariables(cause);
+        }
+
+        @Override
+        protected void nextNeighbor() {
+            if (fresh) {
+                // a new incumbent: start with the preferred neighborhood of the worker
+                who = preferred;
+                fresh = false;
+            } else {
+                double sum = 0;
+                for (int i = 0; i < count; i++) {
+                    rates[i] = (master.successes.get(i) + 1.) / (master.trials.get(i) + 1.);
+                    sum += rates[i];
+                }
+                double r = random.nextDouble() * sum;
+                who = 0;
+                while (who < count - 1 && (r -= rates[who]) > 0) {
+                    who++;
+                }
+            }
+            master.trials.incrementAndGet(who);
+            applied = true;
+        }
+    }
+}
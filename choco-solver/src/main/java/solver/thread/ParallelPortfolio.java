@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.thread;
+
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.exception.SolverException;
+import solver.objective.ObjectiveManager;
+import solver.objective.SharedObjectiveBound;
+import solver.search.loop.AbstractSearchLoop;
+import solver.search.loop.monitors.IMonitorOpenNode;
+import solver.variables.IntVar;
+import solver.variables.Variable;
+import util.ESat;
+
+import java.util.concurrent.*;
+
+/**
+ * A portfolio of solvers working in parallel on the same problem.
+ * <br/>
+ * Each worker is a distinct copy of the model, either cloned from a reference solver
+ * (see {@link Solver#serializeClone(solver.Solver)}) or built by a {@link IModelBuilder}.
+ * Workers are expected to be diversified (search strategy, seed, propagation engine, ...),
+ * which can be done through {@link #getWorker(int)} before calling a resolution method.
+ * <p/>
+ * Workers run on a fixed thread pool. For optimization problems, they share the best objective value through a
+ * {@link SharedObjectiveBound}, so that each of them immediately cuts the branches that cannot improve the
+ * best solution found by any other one.
+ * As soon as a worker closes its search tree (which proves optimality or unsatisfiability),
+ * or finds a solution in satisfaction mode, the other ones are stopped.
+ * <p/>
+ * A portfolio can be solved only once, as a {@link Solver}.
+ */
+public class ParallelPortfolio {
+
+    private final Solver[] workers;
+
+    // set to true to stop every worker at its next open node
+    private volatile boolean stop;
+
+    // the first worker which ends without reaching a limit, if any
+    private Solver closer;
+
+    private ResolutionPolicy policy = ResolutionPolicy.SATISFACTION;
+
+    /**
+     * Creates a portfolio from already declared workers
+     *
+     * @param workers distinct solvers declaring the same model
+     */
+    public ParallelPortfolio(Solver... workers) {
+        if (workers == null || workers.length == 0) {
+            throw new SolverException("a portfolio requires at least one worker");
+        }
+        for (int i = 0; i < workers.length; i++) {
+            for (int j = i + 1; j < workers.length; j++) {
+                if (workers[i] == workers[j]) {
+                    throw new SolverException("a worker cannot appear twice in a portfolio");
+                }
+            }
+        }
+        this.workers = workers.clone();
+    }
+
+    /**
+     * Creates a portfolio of <code>nbWorkers</code> workers: <code>model</code> itself and <code>nbWorkers - 1</code>
+     * clones of it.
+     * <b>It must be called before the resolution of <code>model</code> begins.</b>
+     *
+     * @param model     the reference model, first worker of the portfolio
+     * @param nbWorkers number of workers
+     */
+    public ParallelPortfolio(Solver model, int nbWorkers) {
+        this(cloneModel(model, nbWorkers));
+    }
+
+    /**
+     * Creates a portfolio of <code>nbWorkers</code> workers, each of them built by <code>builder</code>.
+     *
+     * @param builder   creates the model of each worker
+     * @param nbWorkers number of workers
+     */
+    public ParallelPortfolio(IModelBuilder builder, int nbWorkers) {
+        this(buildModel(builder, nbWorkers));
+    }
+
+    static Solver[] cloneModel(Solver model, int nbWorkers) {
+        if (nbWorkers < 1) {
+            throw new SolverException("a portfolio requires at least one worker");
+        }
+        Solver[] solvers = new Solver[nbWorkers];
+        solvers[0] = model;
+        for (int i = 1; i < nbWorkers; i++) {
+            solvers[i] = Solver.serializeClone(model);
+            if (solvers[i] == null) {
+                throw new SolverException("the model cannot be cloned");
+            }
+        }
+        return solvers;
+    }
+
+    static Solver[] buildModel(IModelBuilder builder, int nbWorkers) {
+        if (nbWorkers < 1) {
+            throw new SolverException("a portfolio requires at least one worker");
+        }
+        Solver[] solvers = new Solver[nbWorkers];
+        for (int i = 0; i < nbWorkers; i++) {
+            solvers[i] = builder.build(i);
+        }
+        return solvers;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////// GETTERS ////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return the number of workers
+     */
+    public int getNbWorkers() {
+        return workers.length;
+    }
+
+    /**
+     * Returns the i<sup>th</sup> worker, for instance to set its search strategy before the resolution
+     *
+     * @param i index of the worker
+     * @return a solver
+     */
+    public Solver getWorker(int i) {
+        return workers[i];
+    }
+
+    /**
+     * Returns the worker holding the best solution found: the one with the best objective value in optimization,
+     * the first one to find a solution in satisfaction.
+     *
+     * @return a solver, or null if no solution has been found
+     */
+    public Solver getBestWorker() {
+        if (closer != null && closer.getMeasures().getSolutionCount() > 0 && policy == ResolutionPolicy.SATISFACTION) {
+            return closer;
+        }
+        return getBestWorker(workers, policy);
+    }
+
+    /**
+     * Returns the worker holding the best solution among <code>workers</code>.
+     * Workers are ranked on the value of their own solutions: the best solution value of a worker may have been
+     * imported from a shared bound, and not be the value of the solution it restores.
+     *
+     * @param workers solvers which solved the same problem
+     * @param policy  the resolution policy of the problem
+     * @return a solver, or null if no solution has been found
+     */
+    static Solver getBestWorker(Solver[] workers, ResolutionPolicy policy) {
+        Solver best = null;
+        for (int i = 0; i < workers.length; i++) {
+            if (workers[i].getMeasures().getSolutionCount() > 0) {
+                if (best == null || policy != ResolutionPolicy.SATISFACTION && isBetter(workers[i], best, policy)) {
+                    best = workers[i];
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean isBetter(Solver s1, Solver s2, ResolutionPolicy policy) {
+        double v1 = s1.getObjectiveManager().getOwnSolutionValue().doubleValue();
+        double v2 = s2.getObjectiveManager().getOwnSolutionValue().doubleValue();
+        return policy == ResolutionPolicy.MINIMIZE ? v1 < v2 : v1 > v2;
+    }
+
+    /**
+     * Returns information on the feasibility of the problem, considering all the workers:
+     * <br/>- {@link ESat#TRUE}: a solution has been found,
+     * <br/>- {@link ESat#FALSE}: the problem has been proven to have no solution,
+     * <br/>- {@link ESat#UNDEFINED}: no solution has been found nor proven not to exist.
+     */
+    public ESat isFeasible() {
+        if (getBestWorker() != null) {
+            return ESat.TRUE;
+        }
+        return closer != null ? ESat.FALSE : ESat.UNDEFINED;
+    }
+
+    /**
+     * @return true iff no worker has completed its resolution: each of them stopped on a limit
+     */
+    public boolean hasReachedLimit() {
+        return closer == null;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////// RELATED TO RESOLUTION //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Attempts to find a solution, the first worker to find one stops the others.
+     *
+     * @return <code>true</code> if and only if a solution has been found.
+     */
+    public boolean findSolution() {
+        solve(new Job() {
+            @Override
+            public void run(Solver worker) {
+                worker.findSolution();
+            }
+        });
+        return getBestWorker() != null;
+    }
+
+    /**
+     * Attempts to optimize the value of <code>objective</code>, declared in the first worker,
+     * w.r.t. to the optimization <code>policy</code>.
+     * In each other worker, the objective variable is the one declared at the same position.
+     * The best solution is restored in {@link #getBestWorker()}.
+     *
+     * @param policy    optimization policy, among ResolutionPolicy.MINIMIZE and ResolutionPolicy.MAXIMIZE
+     * @param objective the variable to optimize
+     */
+    public void findOptimalSolution(final ResolutionPolicy policy, IntVar objective) {
+        if (policy == ResolutionPolicy.SATISFACTION) {
+            throw new SolverException("ParallelPortfolio.findOptimalSolution(...) can not be called with ResolutionPolicy.SATISFACTION.");
+        }
+        if (objective == null) {
+            throw new SolverException("No objective variable has been defined");
+        }
+        this.policy = policy;
+        final SharedObjectiveBound bound = new SharedObjectiveBound(policy);
+        final IntVar[] objectives = new IntVar[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            objectives[i] = retrieve(objective, workers[0], workers[i]);
+            ObjectiveManager<IntVar, Integer> om = new ObjectiveManager<IntVar, Integer>(objectives[i], policy, true);
+            om.share(bound);
+            workers[i].set(om);
+        }
+        solve(new Job() {
+            @Override
+            public void run(Solver worker) {
+                worker.findOptimalSolution(policy, objectives[indexOf(worker)]);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the variable equivalent to <code>objective</code>, declared in <code>first</code>,
+     * in <code>worker</code>
+     */
+    static IntVar retrieve(IntVar objective, Solver first, Solver worker) {
+        if (objective.getSolver() == worker) {
+            return objective;
+        }
+        int idx = 0;
+        while (idx < first.getNbVars() && first.getVar(idx) != objective) {
+            idx++;
+        }
+        if (idx == first.getNbVars()) {
+            throw new SolverException("The objective variable must be declared in the first worker");
+        }
+        Variable var = idx < worker.getNbVars() ? worker.getVar(idx) : null;
+        if (var == null || !(var instanceof IntVar) || !var.getName().equals(objective.getName())) {
+            throw new SolverException("Workers do not declare the same variables in the same order");
+        }
+        return (IntVar) var;
+    }
+
+    private int indexOf(Solver worker) {
+        int i = 0;
+        while (workers[i] != worker) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Runs <code>job</code> on each worker in parallel and waits until all of them are terminated.
+     * The first worker which ends without reaching a limit stops the others.
+     */
+    private void solve(final Job job) {
+        if (closer != null || stop) {
+            throw new SolverException("A portfolio can be solved only once");
+        }
+        for (int i = 0; i < workers.length; i++) {
+            AbstractSearchLoop searchLoop = workers[i].getSearchLoop();
+            workers[i].plugMonitor(new StopOnDemand(this, searchLoop));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers.length);
+        CompletionService<Solver> completion = new ExecutorCompletionService<Solver>(executor);
+        try {
+            for (int i = 0; i < workers.length; i++) {
+                final Solver worker = workers[i];
+                completion.submit(new Callable<Solver>() {
+                    @Override
+                    public Solver call() {
+                        job.run(worker);
+                        return worker;
+                    }
+                });
+            }
+            for (int i = 0; i < workers.length; i++) {
+                Solver worker = completion.take().get();
+                if (!worker.hasReachedLimit() && closer == null) {
+                    closer = worker;
+                    stop = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new SolverException("A worker of the portfolio failed: " + e.getCause());
+        } finally {
+            stop = true;
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Resolution method called on each worker
+     */
+    private static interface Job {
+        void run(Solver worker);
+    }
+
+    /**
+     * Interrupts the search of a worker, at its next open node, once the portfolio requires it.
+     */
+    private static class StopOnDemand implements IMonitorOpenNode {
+
+        private final ParallelPortfolio portfolio;
+        private final AbstractSearchLoop searchLoop;
+
+        private StopOnDemand(ParallelPortfolio portfolio, AbstractSearchLoop searchLoop) {
+            this.portfolio = portfolio;
+            this.searchLoop = searchLoop;
+        }
+
+        @Override
+        public void beforeOpenNode() {
+            if (portfolio.stop) {
+                searchLoop.reachLimit();
+            }
+        }
+
+        @Override
+        public void afterOpenNode() {
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.thread;
+
+import solver.ResolutionPolicy;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The best solution found by several solvers working on the same problem (in different threads).
+ * <br/>
+ * A solution is given by the objective value and the values of a fixed list of variables,
+ * declared at the same position in each solver.
+ * Each solver publishes its solutions with {@link #offer(double, int[])} and reads the best one with {@link #get()}.
+ * The incumbent is an immutable entry, swapped by compare-and-set, so no lock is required.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class SharedIncumbent {
+
+    /**
+     * A solution: it must not be modified.
+     */
+    public static final class Entry {
+        /**
+         * the objective value
+         */
+        public final double objective;
+        /**
+         * the values of the variables
+         */
+        public final int[] values;
+        /**
+         * the rank of the solution, the first one is 1
+         */
+        public final int version;
+
+        private Entry(double objective, int[] values, int version) {
+            this.objective = objective;
+            this.values = values;
+            this.version = version;
+        }
+    }
+
+    private final ResolutionPolicy policy;
+
+    private final AtomicReference<Entry> best;
+
+    /**
+     * Creates an empty incumbent
+     *
+     * @param policy MINIMIZE or MAXIMIZE
+     */
+    public SharedIncumbent(ResolutionPolicy policy) {
+        if (policy == ResolutionPolicy.SATISFACTION) {
+            throw new UnsupportedOperationException("cannot share an incumbent for a satisfaction problem");
+        }
+        this.policy = policy;
+        this.best = new AtomicReference<Entry>();
+    }
+
+    /**
+     * Publishes a new solution, which replaces the incumbent if it is strictly better.
+     *
+     * @param objective objective value of the solution
+     * @param values    values of the variables, copied if the solution is kept
+     * @return the version of the solution if it has replaced the incumbent, -1 otherwise
+     */
+    public int offer(double objective, int[] values) {
+        Entry current;
+        Entry next;
+        int[] copy = null;
+        do {
+            current = best.get();
+            if (current != null && !isBetter(objective, current.objective)) {
+                return -1;
+            }
+            if (copy == null) {
+                copy = values.clone();
+            }
+            next = new Entry(objective, copy, current == null ? 1 : current.version + 1);
+        } while (!best.compareAndSet(current, next));
+        return next.version;
+    }
+
+    /**
+     * @return the best solution published so far, null if none
+     */
+    public Entry get() {
+        return best.get();
+    }
+
+    /**
+     * @return the rank of the best solution published so far, 0 if none
+     */
+    public int getVersion() {
+        Entry e = best.get();
+        return e == null ? 0 : e.version;
+    }
+
+    public ResolutionPolicy getPolicy() {
+        return policy;
+    }
+
+    private boolean isBetter(double value, double than) {
+        return policy == ResolutionPolicy.MINIMIZE ? value < than : value > than;
+    }
+}
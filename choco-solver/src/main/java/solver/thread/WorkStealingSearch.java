@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.thread;
+
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.exception.SolverException;
+import solver.objective.ObjectiveManager;
+import solver.objective.SharedObjectiveBound;
+import solver.search.loop.AbstractSearchLoop;
+import solver.search.loop.ParallelSearchLoop;
+import solver.search.loop.WorkPool;
+import solver.variables.IntVar;
+import util.ESat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A parallel exploration of a single search space by several workers, each of them solving its own copy
+ * of the model.
+ * <br/>
+ * The first worker explores the whole search space; the others wait for open right branches, given away by busy
+ * workers as paths of decisions (see {@link ParallelSearchLoop}), and replay them on their copy.
+ * For optimization problems, the best objective value is shared among workers (see {@link SharedObjectiveBound}).
+ * <p/>
+ * The search strategy of each worker is kept, but its search loop is replaced on creation:
+ * search monitors (limits, restarts, logs, ...) should be plugged in the workers afterwards,
+ * through {@link #getWorker(int)}.
+ * Workers should branch on the same variables, in the same way, for the work to be fairly divided.
+ * <p/>
+ * A work-stealing search can be solved only once, as a {@link Solver}.
+ */
+public class WorkStealingSearch {
+
+    private final Solver[] workers;
+
+    private final WorkPool pool;
+
+    private ResolutionPolicy policy = ResolutionPolicy.SATISFACTION;
+
+    private boolean solved;
+
+    /**
+     * Creates a parallel search from already declared workers
+     *
+     * @param workers distinct solvers declaring the same model
+     */
+    public WorkStealingSearch(Solver... workers) {
+        if (workers == null || workers.length == 0) {
+            throw new SolverException("a parallel search requires at least one worker");
+        }
+        this.workers = workers.clone();
+        this.pool = new WorkPool(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            AbstractSearchLoop previous = workers[i].getSearchLoop();
+            if (previous.getMeasures().getNodeCount() > 0) {
+                throw new SolverException("the resolution of a worker has already started");
+            }
+            ParallelSearchLoop loop = new ParallelSearchLoop(workers[i], pool, i == 0);
+            if (previous.getStrategy() != null) {
+                loop.set(previous.getStrategy());
+            }
+            workers[i].set(loop);
+            workers[i].set(previous.getObjectiveManager());
+        }
+    }
+
+    /**
+     * Creates a parallel search of <code>nbWorkers</code> workers: <code>model</code> itself and
+     * <code>nbWorkers - 1</code> clones of it.
+     * <b>It must be called before the resolution of <code>model</code> begins.</b>
+     *
+     * @param model     the reference model, first worker
+     * @param nbWorkers number of workers
+     */
+    public WorkStealingSearch(Solver model, int nbWorkers) {
+        this(ParallelPortfolio.cloneModel(model, nbWorkers));
+    }
+
+    /**
+     * Creates a parallel search of <code>nbWorkers</code> workers, each of them built by <code>builder</code>.
+     *
+     * @param builder   creates the model of each worker
+     * @param nbWorkers number of workers
+     */
+    public WorkStealingSearch(IModelBuilder builder, int nbWorkers) {
+        this(ParallelPortfolio.buildModel(builder, nbWorkers));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////// GETTERS ////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return the number of workers
+     */
+    public int getNbWorkers() {
+        return workers.length;
+    }
+
+    /**
+     * Returns the i<sup>th</sup> worker, for instance to plug search monitors before the resolution
+     *
+     * @param i index of the worker
+     * @return a solver
+     */
+    public Solver getWorker(int i) {
+        return workers[i];
+    }
+
+    /**
+     * @return the total number of solutions found by the workers
+     */
+    public long getSolutionCount() {
+        long nb = 0;
+        for (int i = 0; i < workers.length; i++) {
+            nb += workers[i].getMeasures().getSolutionCount();
+        }
+        return nb;
+    }
+
+    /**
+     * @return the total number of nodes opened by the workers
+     */
+    public long getNodeCount() {
+        long nb = 0;
+        for (int i = 0; i < workers.length; i++) {
+            nb += workers[i].getMeasures().getNodeCount();
+        }
+        return nb;
+    }
+
+    /**
+     * Returns the worker holding the best solution found (in optimization), or any worker which found a solution.
+     *
+     * @return a solver, or null if no solution has been found
+     */
+    public Solver getBestWorker() {
+        return ParallelPortfolio.getBestWorker(workers, policy);
+    }
+
+    /**
+     * Returns information on the feasibility of the problem, considering all the workers:
+     * <br/>- {@link ESat#TRUE}: a solution has been found,
+     * <br/>- {@link ESat#FALSE}: the problem has been proven to have no solution,
+     * <br/>- {@link ESat#UNDEFINED}: no solution has been found nor proven not to exist.
+     */
+    public ESat isFeasible() {
+        if (getSolutionCount() > 0) {
+            return ESat.TRUE;
+        }
+        return solved && !pool.isStopped() ? ESat.FALSE : ESat.UNDEFINED;
+    }
+
+    /**
+     * @return true iff the search space may not have been entirely explored, because of a limit or because
+     * the resolution stopped at the first solution
+     */
+    public boolean hasReachedLimit() {
+        return pool.isStopped();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////// RELATED TO RESOLUTION //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Attempts to find a solution, the first worker to find one stops the others.
+     *
+     * @return <code>true</code> if and only if a solution has been found.
+     */
+    public boolean findSolution() {
+        solve(new Job() {
+            @Override
+            public void run(Solver worker) {
+                worker.findSolution();
+            }
+        });
+        return getSolutionCount() > 0;
+    }
+
+    /**
+     * Attempts to find all solutions of the problem.
+     *
+     * @return the number of solutions found.
+     */
+    public long findAllSolutions() {
+        solve(new Job() {
+            @Override
+            public void run(Solver worker) {
+                worker.findAllSolutions();
+            }
+        });
+        return getSolutionCount();
+    }
+
+    /**
+     * Attempts to optimize the value of <code>objective</code>, declared in the first worker,
+     * w.r.t. to the optimization <code>policy</code>.
+     * In each other worker, the objective variable is the one declared at the same position.
+     * The best solution is restored in {@link #getBestWorker()}.
+     *
+     * @param policy    optimization policy, among ResolutionPolicy.MINIMIZE and ResolutionPolicy.MAXIMIZE
+     * @param objective the variable to optimize
+     */
+    public void findOptimalSolution(final ResolutionPolicy policy, IntVar objective) {
+        if (policy == ResolutionPolicy.SATISFACTION) {
+            throw new SolverException("WorkStealingSearch.findOptimalSolution(...) can not be called with ResolutionPolicy.SATISFACTION.");
+        }
+        if (objective == null) {
+            throw new SolverException("No objective variable has been defined");
+        }
+        this.policy = policy;
+        SharedObjectiveBound bound = new SharedObjectiveBound(policy);
+        final IntVar[] objectives = new IntVar[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            objectives[i] = ParallelPortfolio.retrieve(objective, workers[0], workers[i]);
+            ObjectiveManager<IntVar, Integer> om = new ObjectiveManager<IntVar, Integer>(objectives[i], policy, true);
+            om.share(bound);
+            workers[i].set(om);
+        }
+        solve(new Job() {
+            @Override
+            public void run(Solver worker) {
+                int i = 0;
+                while (workers[i] != worker) {
+                    i++;
+                }
+                worker.findOptimalSolution(policy, objectives[i]);
+            }
+        });
+    }
+
+    /**
+     * Runs <code>job</code> on each worker in parallel and waits until all of them are terminated.
+     */
+    private void solve(final Job job) {
+        if (solved) {
+            throw new SolverException("A work-stealing search can be solved only once");
+        }
+        solved = true;
+        ExecutorService executor = Executors.newFixedThreadPool(workers.length);
+        List<Callable<Solver>> tasks = new ArrayList<Callable<Solver>>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            final Solver worker = workers[i];
+            tasks.add(new Callable<Solver>() {
+                @Override
+                public Solver call() {
+                    try {
+                        job.run(worker);
+                    } catch (RuntimeException e) {
+                        // otherwise, the other workers may wait forever for this one
+                        pool.stop();
+                        throw e;
+                    }
+                    return worker;
+                }
+            });
+        }
+        try {
+            for (Future<Solver> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            pool.stop();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new SolverException("A worker of the parallel search failed: " + e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Resolution method called on each worker
+     */
+    private static interface Job {
+        void run(Solver worker);
+    }
+}
@@ -116,6 +116,35 @@ public interface Variable extends Identity, Serializable, Comparable<Variable> {
      */
     int getIndexInPropagator(int pidx);
 
+    /**
+     * Return the positions, within the list of propagators of this, of the propagators which react on
+     * <code>event</code> and watch this.
+     * Only the <code>getNbSubscribers(event)</code> first cells are relevant.
+     * The array is computed on demand, and maintained afterwards.
+     *
+     * @param event an event which may occur on this
+     * @return positions of the subscribers of <code>event</code>
+     */
+    int[] getSubscribers(EventType event);
+
+    /**
+     * Return the number of propagators which react on <code>event</code> and watch this.
+     *
+     * @param event an event which may occur on this
+     * @return number of subscribers of <code>event</code>
+     */
+    int getNbSubscribers(EventType event);
+
+    /**
+     * Set whether the propagator at position <code>pidx</code> watches this, that is, whether it should be advised of
+     * modifications of this.
+     * This is not backtrackable.
+     *
+     * @param pidx  index of the propagator within the list of propagators of this
+     * @param watch <code>true</code> to watch this, <code>false</code> otherwise
+     */
+    void watch(int pidx, boolean watch);
+
     /**
      * Build and add a monitor to the monitor list of <code>this</code>.
      * The monitor is inactive at the creation and must be activated (by the engine propagation).
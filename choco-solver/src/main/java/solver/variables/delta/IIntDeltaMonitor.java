@@ -26,6 +26,7 @@
  */
 package solver.variables.delta;
 
+import solver.ICause;
 import solver.exception.ContradictionException;
 import solver.variables.EventType;
 import util.procedure.IntProcedure;
@@ -39,10 +40,38 @@ import util.procedure.SafeIntProcedure;
  */
 public interface IIntDeltaMonitor extends IDeltaMonitor {
 
-    void forEach(SafeIntProcedure proc, EventType eventType);
+    void forEachSafe(SafeIntProcedure proc, EventType eventType);
 
     void forEach(IntProcedure proc, EventType eventType) throws ContradictionException;
 
+    /**
+     * Return the number of values removed between the last two calls to {@link #freeze()},
+     * including the ones removed by the propagator which monitors the delta.
+     * <p/>
+     * The removed values are then read with {@link #get(int)}, from 0 to <code>size() - 1</code>,
+     * which is the primitive counterpart of <code>forEach</code>: no procedure is called per value
+     * and the cause of a removal is only looked up on demand, with {@link #getCause(int)}.
+     *
+     * @return number of values in the frozen window
+     */
+    int size();
+
+    /**
+     * Return the idx^th value of the frozen window
+     *
+     * @param idx rank of the value, in [0, size()[
+     * @return idx^th removed value
+     */
+    int get(int idx);
+
+    /**
+     * Return the cause of the removal of the idx^th value of the frozen window
+     *
+     * @param idx rank of the value, in [0, size()[
+     * @return cause of the removal
+     */
+    ICause getCause(int idx);
+
     public static enum Default implements IIntDeltaMonitor {
         NONE() {
             @Override
@@ -58,12 +87,27 @@ public interface IIntDeltaMonitor extends IDeltaMonitor {
             }
 
             @Override
-            public void forEach(SafeIntProcedure proc, EventType eventType) {
+            public void forEachSafe(SafeIntProcedure proc, EventType eventType) {
             }
 
             @Override
             public void forEach(IntProcedure proc, EventType eventType) throws ContradictionException {
             }
+
+            @Override
+            public int size() {
+                return 0;
+            }
+
+            @Override
+            public int get(int idx) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            @Override
+            public ICause getCause(int idx) {
+                throw new IndexOutOfBoundsException();
+            }
         }
     }
 }
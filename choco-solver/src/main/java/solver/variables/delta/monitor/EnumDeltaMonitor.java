@@ -90,7 +90,7 @@ public class EnumDeltaMonitor implements IIntDeltaMonitor {
     }
 
     @Override
-    public void forEach(SafeIntProcedure proc, EventType eventType) {
+    public void forEachSafe(SafeIntProcedure proc, EventType eventType) {
         if (EventType.isRemove(eventType.mask)) {
             for (int i = frozenFirst; i < frozenLast; i++) {
                 if (propagator == Cause.Null || propagator != delta.getCause(i)) {
@@ -115,6 +115,21 @@ public class EnumDeltaMonitor implements IIntDeltaMonitor {
         }
     }
 
+    @Override
+    public int size() {
+        return frozenLast - frozenFirst;
+    }
+
+    @Override
+    public int get(int idx) {
+        return delta.get(frozenFirst + idx);
+    }
+
+    @Override
+    public ICause getCause(int idx) {
+        return delta.getCause(frozenFirst + idx);
+    }
+
     @Override
     public String toString() {
         return String.format("(%d,%d) => (%d,%d) :: %d", first, last, frozenFirst, frozenLast, delta.size());
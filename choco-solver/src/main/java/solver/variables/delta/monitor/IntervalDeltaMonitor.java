@@ -51,6 +51,10 @@ public class IntervalDeltaMonitor implements IIntDeltaMonitor {
     int timestamp = -1;
     final AbstractSearchLoop loop;
 
+    // primitive access: number of values in the frozen window (-1 if not computed yet),
+    // and the last interval read with its offset in the window, for sequential reading
+    int size = -1, cinterval, coffset;
+
     public IntervalDeltaMonitor(IIntervalDelta delta, ICause propagator) {
         this.delta = delta;
         loop = delta.getSearchLoop();
@@ -67,6 +71,7 @@ public class IntervalDeltaMonitor implements IIntDeltaMonitor {
         lazyClear();
         this.frozenFirst = first; // freeze indices
         this.frozenLast = last = delta.size();
+        this.size = -1;
     }
 
     @Override
@@ -90,7 +95,7 @@ public class IntervalDeltaMonitor implements IIntDeltaMonitor {
     }
 
     @Override
-    public void forEach(SafeIntProcedure proc, EventType eventType) {
+    public void forEachSafe(SafeIntProcedure proc, EventType eventType) {
         if (EventType.isRemove(eventType.mask)) {
             for (int i = frozenFirst; i < frozenLast; i++) {
                 if (propagator == Cause.Null || propagator != delta.getCause(i)) {
@@ -123,6 +128,48 @@ public class IntervalDeltaMonitor implements IIntDeltaMonitor {
         }
     }
 
+    @Override
+    public int size() {
+        if (size == -1) {
+            size = 0;
+            for (int i = frozenFirst; i < frozenLast; i++) {
+                size += delta.getUB(i) - delta.getLB(i) + 1;
+            }
+            cinterval = frozenFirst;
+            coffset = 0;
+        }
+        return size;
+    }
+
+    @Override
+    public int get(int idx) {
+        return delta.getLB(locate(idx)) + idx - coffset;
+    }
+
+    @Override
+    public ICause getCause(int idx) {
+        return delta.getCause(locate(idx));
+    }
+
+    /**
+     * Return the index, in the delta, of the interval containing the idx^th value of the frozen window.
+     * Reading the values in increasing order costs amortized constant time.
+     */
+    private int locate(int idx) {
+        size();
+        if (idx < coffset) {
+            cinterval = frozenFirst;
+            coffset = 0;
+        }
+        int w = delta.getUB(cinterval) - delta.getLB(cinterval) + 1;
+        while (idx >= coffset + w) {
+            coffset += w;
+            cinterval++;
+            w = delta.getUB(cinterval) - delta.getLB(cinterval) + 1;
+        }
+        return cinterval;
+    }
+
     @Override
     public String toString() {
         return String.format("(%d,%d) => (%d,%d) :: %d", first, last, frozenFirst, frozenLast, delta.size());
@@ -70,7 +70,7 @@ public class OneValueDeltaMonitor implements IIntDeltaMonitor {
     }
 
     @Override
-    public void forEach(SafeIntProcedure proc, EventType eventType) {
+    public void forEachSafe(SafeIntProcedure proc, EventType eventType) {
         if (EventType.isRemove(eventType.mask)) {
             if (used && propagator != delta.getCause(0))
                 proc.execute(delta.get(0));
@@ -85,4 +85,18 @@ public class OneValueDeltaMonitor implements IIntDeltaMonitor {
         }
     }
 
+    @Override
+    public int size() {
+        return used ? 1 : 0;
+    }
+
+    @Override
+    public int get(int idx) {
+        return delta.get(0);
+    }
+
+    @Override
+    public ICause getCause(int idx) {
+        return delta.getCause(0);
+    }
 }
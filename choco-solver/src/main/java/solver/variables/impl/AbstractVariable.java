@@ -68,6 +68,12 @@ public abstract class AbstractVariable implements Variable {
     private int[] pindices;    // index of the variable in the i^th propagator
     private int pIdx;
 
+    private static final EventType[] EVENTS = EventType.values();
+    private boolean[] unwatched; // set to true when the i^th propagator does not watch this
+    private int[][] subscribers; // for each event type, positions of the propagators reacting on it, computed lazily
+    private int[] nbSubscribers;
+    private int[][] subscriberIdx; // for each event type, index of the i^th propagator in the subscribers, -1 if absent
+
     private IView[] views; // views to inform of domain modification
     private int vIdx; // index of the last view not null in views -- not backtrable
 
@@ -85,6 +91,10 @@ public abstract class AbstractVariable implements Variable {
         monitors = new IVariableMonitor[2];
         propagators = new Propagator[8];
         pindices = new int[8];
+        unwatched = new boolean[8];
+        subscribers = new int[EVENTS.length][];
+        nbSubscribers = new int[EVENTS.length];
+        subscriberIdx = new int[EVENTS.length][];
         ID = solver.nextId();
         solver.associates(this);
     }
@@ -107,8 +117,13 @@ public abstract class AbstractVariable implements Variable {
             System.arraycopy(itmp, 0, pindices, 0, pIdx);
 
         }
+        if (pIdx == unwatched.length) {
+            unwatched = Arrays.copyOf(unwatched, pIdx * 3 / 2 + 1);
+        }
         propagators[pIdx] = propagator;
+        unwatched[pIdx] = false;
         pindices[pIdx++] = idxInProp;
+        clearSubscribers();
         return pIdx - 1;
     }
 
@@ -127,8 +142,76 @@ public abstract class AbstractVariable implements Variable {
         if (i < pIdx) {
             propagators[i] = propagators[pIdx - 1];
             pindices[i] = pindices[--pIdx];
+            unwatched[i] = unwatched[pIdx];
             propagators[pIdx] = null;
             pindices[pIdx] = 0;
+            if (i < pIdx) {
+                propagators[i].setVIndices(pindices[i], i);
+            }
+            clearSubscribers();
+        }
+    }
+
+    @Override
+    public int[] getSubscribers(EventType event) {
+        int e = event.ordinal();
+        if (subscribers[e] == null) {
+            int[] subs = new int[pIdx];
+            int[] idx = new int[pIdx];
+            int n = 0;
+            for (int p = 0; p < pIdx; p++) {
+                if (!unwatched[p] && (event.mask & propagators[p].getPropagationConditionsOf(pindices[p])) != 0) {
+                    idx[p] = n;
+                    subs[n++] = p;
+                } else {
+                    idx[p] = -1;
+                }
+            }
+            subscribers[e] = subs;
+            subscriberIdx[e] = idx;
+            nbSubscribers[e] = n;
+        }
+        return subscribers[e];
+    }
+
+    @Override
+    public int getNbSubscribers(EventType event) {
+        getSubscribers(event);
+        return nbSubscribers[event.ordinal()];
+    }
+
+    @Override
+    public void watch(int pidx, boolean watch) {
+        if (unwatched[pidx] != watch) {
+            return;
+        }
+        unwatched[pidx] = !watch;
+        for (int e = 0; e < EVENTS.length; e++) {
+            if (subscribers[e] != null) {
+                int[] subs = subscribers[e];
+                int[] idx = subscriberIdx[e];
+                if (watch) {
+                    if ((EVENTS[e].mask & propagators[pidx].getPropagationConditionsOf(pindices[pidx])) != 0) {
+                        idx[pidx] = nbSubscribers[e];
+                        subs[nbSubscribers[e]++] = pidx;
+                    }
+                } else if (idx[pidx] > -1) {
+                    int last = subs[--nbSubscribers[e]];
+                    subs[idx[pidx]] = last;
+                    idx[last] = idx[pidx];
+                    idx[pidx] = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget about the subscribers, they are computed again on demand.
+     */
+    private void clearSubscribers() {
+        for (int e = 0; e < EVENTS.length; e++) {
+            subscribers[e] = null;
+            subscriberIdx[e] = null;
         }
     }
 
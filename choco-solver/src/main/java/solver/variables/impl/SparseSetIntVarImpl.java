@@ -0,0 +1,879 @@
+/**
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.variables.impl;
+
+import memory.IEnvironment;
+import memory.IStateInt;
+import solver.Configuration;
+import solver.ICause;
+import solver.Solver;
+import solver.exception.ContradictionException;
+import solver.explanations.Explanation;
+import solver.explanations.VariableState;
+import solver.explanations.antidom.AntiDomBitset;
+import solver.explanations.antidom.AntiDomain;
+import solver.search.loop.AbstractSearchLoop;
+import solver.variables.EventType;
+import solver.variables.IntVar;
+import solver.variables.delta.IEnumDelta;
+import solver.variables.delta.IIntDeltaMonitor;
+import solver.variables.delta.NoDelta;
+import solver.variables.delta.monitor.EnumDeltaMonitor;
+import util.iterators.DisposableRangeIterator;
+import util.iterators.DisposableValueIterator;
+import util.tools.StringUtils;
+
+import java.util.Arrays;
+
+/**
+ * <br/>IntVar implementation based on a reversible sparse set, for enumerated domains with very distant values.
+ * <p/>
+ * The indices of the initial values are stored in a dense array, the current domain being its <code>SIZE</code>
+ * first cells, and the sparse array gives the position of each index in the dense one.
+ * Removing a value swaps it with the last value of the domain and decrements <code>SIZE</code>, which is the only
+ * backtrackable data (with the bounds): restoring a domain is made in constant time.
+ * <br/>
+ * The values removed are the cells beyond <code>SIZE</code>, in reverse order of removal.
+ * So, the delta is a view over the dense array, which does not store any value.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public final class SparseSetIntVarImpl extends AbstractVariable implements IntVar {
+
+    private static final long serialVersionUID = 1L;
+
+    protected boolean reactOnRemoval = false;
+
+    //  values, sorted
+    private final int[] values;
+    // true if values is a range, then the index of a value is obtained without search
+    private final boolean range;
+    // indices of the values, the SIZE first ones are in the domain
+    private final int[] dense;
+    // position of each index in dense
+    private final int[] sparse;
+    // Index of the lower bound of the current domain
+    private final IStateInt LB;
+    // Index of the upper bound of the current domain
+    private final IStateInt UB;
+    // Size of the current domain
+    private final IStateInt SIZE;
+    private final int LENGTH;
+
+    private IEnumDelta delta = NoDelta.singleton;
+
+    private DisposableValueIterator _viterator;
+    private DisposableRangeIterator _riterator;
+
+    //////////////////////////////////////////////////////////////////////////////////////
+
+    public SparseSetIntVarImpl(String name, int[] sortedValues, Solver solver) {
+        super(name, solver);
+        IEnvironment env = solver.getEnvironment();
+        this.LENGTH = sortedValues.length;
+        this.values = sortedValues.clone();
+        this.range = values[LENGTH - 1] - values[0] == LENGTH - 1;
+        this.dense = new int[LENGTH];
+        this.sparse = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            dense[i] = i;
+            sparse[i] = i;
+        }
+        this.LB = env.makeInt(0);
+        this.UB = env.makeInt(LENGTH - 1);
+        this.SIZE = env.makeInt(LENGTH);
+    }
+
+    public SparseSetIntVarImpl(String name, int min, int max, Solver solver) {
+        this(name, rangeOf(min, max), solver);
+    }
+
+    private static int[] rangeOf(int min, int max) {
+        int[] values = new int[max - min + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = min + i;
+        }
+        return values;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Return the index of <code>value</code>, -1 if it does not belong to the initial domain.
+     */
+    private int indexOf(int value) {
+        if (range) {
+            int i = value - values[0];
+            return i >= 0 && i < LENGTH ? i : -1;
+        }
+        int i = Arrays.binarySearch(values, value);
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * Return the index of the smallest initial value greater than or equal to <code>value</code>, LENGTH if none.
+     */
+    private int ceilIndex(int value) {
+        if (range) {
+            return Math.max(0, Math.min(LENGTH, value - values[0]));
+        }
+        int i = Arrays.binarySearch(values, value);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private boolean inDomain(int index) {
+        return sparse[index] < SIZE.get();
+    }
+
+    /**
+     * Remove the value of index <code>index</code>, the domain being of size <code>size</code>.
+     * SIZE is not updated.
+     */
+    private void remove(int index, int size) {
+        int p = sparse[index];
+        int last = dense[size - 1];
+        dense[p] = last;
+        sparse[last] = p;
+        dense[size - 1] = index;
+        sparse[index] = size - 1;
+    }
+
+    /**
+     * Removes <code>value</code>from the domain of <code>this</code>. The instruction comes from <code>propagator</code>.
+     * <ul>
+     * <li>If <code>value</code> is out of the domain, nothing is done and the return value is <code>false</code>,</li>
+     * <li>if removing <code>value</code> leads to a dead-end (domain wipe-out),
+     * a <code>ContradictionException</code> is thrown,</li>
+     * <li>otherwise, if removing <code>value</code> from the domain can be done safely,
+     * the event type is created (the original event can be promoted) and observers are notified
+     * and the return value is <code>true</code></li>
+     * </ul>
+     *
+     * @param value value to remove from the domain (int)
+     * @param cause removal releaser
+     * @return true if the value has been removed, false otherwise
+     * @throws solver.exception.ContradictionException
+     *          if the domain become empty due to this action
+     */
+    @Override
+    public boolean removeValue(int value, ICause cause) throws ContradictionException {
+        assert cause != null;
+        int index = indexOf(value);
+        if (index == -1 || !inDomain(index)) {
+            return false;
+        }
+        int size = SIZE.get();
+        if (size == 1) {
+            if (Configuration.PLUG_EXPLANATION) {
+                solver.getExplainer().removeValue(this, value, cause);
+            }
+            this.contradiction(cause, EventType.REMOVE, MSG_REMOVE);
+        }
+        EventType e = EventType.REMOVE;
+        if (reactOnRemoval) {
+            delta.add(value, cause);
+        }
+        remove(index, size);
+        SIZE.set(size - 1);
+        if (index == LB.get()) {
+            int i = index + 1;
+            while (!inDomain(i)) {
+                i++;
+            }
+            LB.set(i);
+            e = EventType.INCLOW;
+        } else if (index == UB.get()) {
+            int i = index - 1;
+            while (!inDomain(i)) {
+                i--;
+            }
+            UB.set(i);
+            e = EventType.DECUPP;
+        }
+        if (this.isInstantiated()) {
+            e = EventType.INSTANTIATE;
+        }
+        this.notifyPropagators(e, cause);
+        if (Configuration.PLUG_EXPLANATION) {
+            solver.getExplainer().removeValue(this, value, cause);
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeInterval(int from, int to, ICause cause) throws ContradictionException {
+        assert cause != null;
+        if (from <= getLB())
+            return updateLowerBound(to + 1, cause);
+        else if (getUB() <= to)
+            return updateUpperBound(from - 1, cause);
+        else {
+            boolean anyChange = false;
+            for (int v = this.nextValue(from - 1); v <= to; v = nextValue(v)) {
+                anyChange |= removeValue(v, cause);
+            }
+            return anyChange;
+        }
+    }
+
+    /**
+     * Instantiates the domain of <code>this</code> to <code>value</code>. The instruction comes from <code>propagator</code>.
+     * <ul>
+     * <li>If the domain of <code>this</code> is already instantiated to <code>value</code>,
+     * nothing is done and the return value is <code>false</code>,</li>
+     * <li>If the domain of <code>this</code> is already instantiated to another value,
+     * then a <code>ContradictionException</code> is thrown,</li>
+     * <li>Otherwise, the domain of <code>this</code> is restricted to <code>value</code> and the observers are notified
+     * and the return value is <code>true</code>.</li>
+     * </ul>
+     *
+     * @param value instantiation value (int)
+     * @param cause instantiation releaser
+     * @return true if the instantiation is done, false otherwise
+     * @throws solver.exception.ContradictionException
+     *          if the domain become empty due to this action
+     */
+    @Override
+    public boolean instantiateTo(int value, ICause cause) throws ContradictionException {
+        assert cause != null;
+        if (this.isInstantiated()) {
+            int cvalue = this.getValue();
+            if (value != cvalue) {
+                if (Configuration.PLUG_EXPLANATION) {
+                    solver.getExplainer().instantiateTo(this, value, cause, cvalue, cvalue);
+                }
+                this.contradiction(cause, EventType.INSTANTIATE, MSG_INST);
+            }
+            return false;
+        }
+        int index = indexOf(value);
+        if (index == -1 || !inDomain(index)) {
+            if (Configuration.PLUG_EXPLANATION) {
+                solver.getExplainer().instantiateTo(this, value, cause, getLB(), getUB());
+            }
+            this.contradiction(cause, EventType.INSTANTIATE, MSG_UNKNOWN);
+            return false;
+        }
+        int oldLB = 0;
+        int oldUB = 0;
+        if (Configuration.PLUG_EXPLANATION) {
+            oldLB = getLB();
+            oldUB = getUB();
+        }
+        int size = SIZE.get();
+        // the value is put in first position, the other ones are removed
+        int p = sparse[index];
+        int first = dense[0];
+        dense[p] = first;
+        sparse[first] = p;
+        dense[0] = index;
+        sparse[index] = 0;
+        if (reactOnRemoval) {
+            ((SparseSetDelta) delta).removed(1, size, cause);
+        }
+        this.SIZE.set(1);
+        this.LB.set(index);
+        this.UB.set(index);
+        if (Configuration.PLUG_EXPLANATION) {
+            solver.getExplainer().instantiateTo(this, value, cause, oldLB, oldUB);
+        }
+        this.notifyPropagators(EventType.INSTANTIATE, cause);
+        return true;
+    }
+
+    /**
+     * Updates the lower bound of the domain of <code>this</code> to <code>value</code>.
+     * The instruction comes from <code>propagator</code>.
+     * <ul>
+     * <li>If <code>value</code> is smaller than the lower bound of the domain, nothing is done and the return value is <code>false</code>,</li>
+     * <li>if updating the lower bound to <code>value</code> leads to a dead-end (domain wipe-out),
+     * a <code>ContradictionException</code> is thrown,</li>
+     * <li>otherwise, if updating the lower bound to <code>value</code> can be done safely,
+     * the event type is created (the original event can be promoted) and observers are notified
+     * and the return value is <code>true</code></li>
+     * </ul>
+     *
+     * @param value new lower bound (included)
+     * @param cause updating releaser
+     * @return true if the lower bound has been updated, false otherwise
+     * @throws solver.exception.ContradictionException
+     *          if the domain become empty due to this action
+     */
+    @Override
+    public boolean updateLowerBound(int value, ICause cause) throws ContradictionException {
+        assert cause != null;
+        int old = this.getLB();
+        if (old < value) {
+            int oub = this.getUB();
+            if (oub < value) {
+                if (Configuration.PLUG_EXPLANATION) {
+                    solver.getExplainer().updateLowerBound(this, old, oub + 1, cause);
+                }
+                this.contradiction(cause, EventType.INCLOW, MSG_LOW);
+            } else {
+                EventType e = EventType.INCLOW;
+                int lb = LB.get();
+                int index = ceilIndex(value);
+                while (!inDomain(index)) {
+                    index++;
+                }
+                int size = SIZE.get();
+                int nsize = size;
+                if (index - lb < size) {
+                    for (int i = lb; i < index; i++) {
+                        if (sparse[i] < nsize) {
+                            remove(i, nsize--);
+                        }
+                    }
+                } else {
+                    for (int p = size - 1; p >= 0; p--) {
+                        if (dense[p] < index) {
+                            remove(dense[p], nsize--);
+                        }
+                    }
+                }
+                if (reactOnRemoval) {
+                    ((SparseSetDelta) delta).removed(nsize, size, cause);
+                }
+                SIZE.set(nsize);
+                LB.set(index);
+                if (isInstantiated()) {
+                    e = EventType.INSTANTIATE;
+                }
+                this.notifyPropagators(e, cause);
+                if (Configuration.PLUG_EXPLANATION) {
+                    solver.getExplainer().updateLowerBound(this, old, value, cause);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Updates the upper bound of the domain of <code>this</code> to <code>value</code>.
+     * The instruction comes from <code>propagator</code>.
+     * <ul>
+     * <li>If <code>value</code> is greater than the upper bound of the domain, nothing is done and the return value is <code>false</code>,</li>
+     * <li>if updating the upper bound to <code>value</code> leads to a dead-end (domain wipe-out),
+     * a <code>ContradictionException</code> is thrown,</li>
+     * <li>otherwise, if updating the upper bound to <code>value</code> can be done safely,
+     * the event type is created (the original event can be promoted) and observers are notified
+     * and the return value is <code>true</code></li>
+     * </ul>
+     *
+     * @param value new upper bound (included)
+     * @param cause update releaser
+     * @return true if the upper bound has been updated, false otherwise
+     * @throws solver.exception.ContradictionException
+     *          if the domain become empty due to this action
+     */
+    @Override
+    public boolean updateUpperBound(int value, ICause cause) throws ContradictionException {
+        assert cause != null;
+        int old = this.getUB();
+        if (old > value) {
+            int olb = this.getLB();
+            if (olb > value) {
+                if (Configuration.PLUG_EXPLANATION) {
+                    solver.getExplainer().updateUpperBound(this, old, olb - 1, cause);
+                }
+                this.contradiction(cause, EventType.DECUPP, MSG_UPP);
+            } else {
+                EventType e = EventType.DECUPP;
+                int ub = UB.get();
+                int index = ceilIndex(value + 1) - 1;
+                while (!inDomain(index)) {
+                    index--;
+                }
+                int size = SIZE.get();
+                int nsize = size;
+                if (ub - index < size) {
+                    for (int i = ub; i > index; i--) {
+                        if (sparse[i] < nsize) {
+                            remove(i, nsize--);
+                        }
+                    }
+                } else {
+                    for (int p = size - 1; p >= 0; p--) {
+                        if (dense[p] > index) {
+                            remove(dense[p], nsize--);
+                        }
+                    }
+                }
+                if (reactOnRemoval) {
+                    ((SparseSetDelta) delta).removed(nsize, size, cause);
+                }
+                SIZE.set(nsize);
+                UB.set(index);
+                if (isInstantiated()) {
+                    e = EventType.INSTANTIATE;
+                }
+                this.notifyPropagators(e, cause);
+                if (Configuration.PLUG_EXPLANATION) {
+                    solver.getExplainer().updateUpperBound(this, old, value, cause);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void wipeOut(ICause cause) throws ContradictionException {
+        assert cause != null;
+        removeInterval(this.getLB(), this.getUB(), cause);
+    }
+
+    @Override
+    public boolean isInstantiated() {
+        return SIZE.get() == 1;
+    }
+
+    @Override
+    public boolean isInstantiatedTo(int value) {
+        return isInstantiated() && getLB() == value;
+    }
+
+    @Override
+    public boolean instantiatedTo(int value) {
+        return isInstantiatedTo(value);
+    }
+
+    @Override
+    public boolean contains(int aValue) {
+        int index = indexOf(aValue);
+        return index > -1 && inDomain(index);
+    }
+
+    /**
+     * Retrieves the current value of the variable if instantiated, otherwier the lower bound.
+     *
+     * @return the current value (or lower bound if not yet instantiated).
+     */
+    @Override
+    public int getValue() {
+        assert isInstantiated() : name + " not instantiated";
+        return getLB();
+    }
+
+    /**
+     * Retrieves the lower bound of the variable
+     *
+     * @return the lower bound
+     */
+    @Override
+    public int getLB() {
+        return values[LB.get()];
+    }
+
+    /**
+     * Retrieves the upper bound of the variable
+     *
+     * @return the upper bound
+     */
+    @Override
+    public int getUB() {
+        return values[UB.get()];
+    }
+
+    @Override
+    public int getDomainSize() {
+        return SIZE.get();
+    }
+
+    @Override
+    public int nextValue(int aValue) {
+        int lb = getLB();
+        if (aValue < lb) return lb;
+        if (aValue >= getUB()) return Integer.MAX_VALUE;
+        int i = ceilIndex(aValue + 1);
+        while (!inDomain(i)) {
+            i++;
+        }
+        return values[i];
+    }
+
+    @Override
+    public int previousValue(int aValue) {
+        int ub = getUB();
+        if (aValue > ub) return ub;
+        if (aValue <= getLB()) return Integer.MIN_VALUE;
+        int i = ceilIndex(aValue) - 1;
+        while (!inDomain(i)) {
+            i--;
+        }
+        return values[i];
+    }
+
+    @Override
+    public boolean hasEnumeratedDomain() {
+        return true;
+    }
+
+    @Override
+    public IEnumDelta getDelta() {
+        return delta;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(20);
+        s.append(name).append(" = ");
+        if (SIZE.get() == 1) {
+            s.append(this.getLB());
+        } else {
+            s.append('{').append(getLB());
+            int nb = 5;
+            for (int i = nextValue(getLB()); i < Integer.MAX_VALUE && nb > 0; i = nextValue(i)) {
+                s.append(',').append(i);
+                nb--;
+            }
+            if (nb == 0 && SIZE.get() > 6) {
+                s.append("...,").append(this.getUB());
+            }
+            s.append('}');
+        }
+        return s.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////
+    ///// methode liees au fait qu'une variable est observable /////
+    ////////////////////////////////////////////////////////////////
+
+
+    @Override
+    public void createDelta() {
+        if (!reactOnRemoval) {
+            delta = new SparseSetDelta(solver.getSearchLoop());
+            reactOnRemoval = true;
+        }
+    }
+
+    @Override
+    public IIntDeltaMonitor monitorDelta(ICause propagator) {
+        createDelta();
+        return new EnumDeltaMonitor(delta, propagator);
+    }
+
+    @Override
+    public void notifyPropagators(EventType event, ICause cause) throws ContradictionException {
+        assert cause != null;
+        notifyMonitors(event);
+        if ((modificationEvents & event.mask) != 0) {
+            solver.getEngine().onVariableUpdate(this, event, cause);
+        }
+        notifyViews(event, cause);
+    }
+
+    @Override
+    public void notifyMonitors(EventType event) throws ContradictionException {
+        for (int i = mIdx - 1; i >= 0; i--) {
+            monitors[i].onUpdate(this, event);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+    @Override
+    public AntiDomain antiDomain() {
+        return new AntiDomBitset(this);
+    }
+
+    @Override
+    public void explain(VariableState what, Explanation to) {
+        AntiDomain invdom = solver.getExplainer().getRemovedValues(this);
+        DisposableValueIterator it = invdom.getValueIterator();
+        while (it.hasNext()) {
+            int val = it.next();
+            if ((what == VariableState.LB && val < this.getLB())
+                    || (what == VariableState.UB && val > this.getUB())
+                    || (what == VariableState.DOM)) {
+                to.add(solver.getExplainer().explain(this, val));
+            }
+        }
+        it.dispose();
+    }
+
+    @Override
+    public void explain(VariableState what, int val, Explanation to) {
+        to.add(solver.getExplainer().explain(this, val));
+    }
+
+    @Override
+    public void contradiction(ICause cause, EventType event, String message) throws ContradictionException {
+        assert cause != null;
+        solver.getEngine().fails(cause, this, message);
+    }
+
+    @Override
+    public int getTypeAndKind() {
+        return VAR | INT;
+    }
+
+    @Override
+    public IntVar duplicate() {
+        return new SparseSetIntVarImpl(StringUtils.randomName(this.name), this.values.clone(), this.getSolver());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The values removed since the last time stamp are the cells of dense in [SIZE, first[,
+     * the most recent being the first ones.
+     * Only the causes are stored.
+     */
+    private final class SparseSetDelta implements IEnumDelta {
+
+        final AbstractSearchLoop loop;
+        final ICause[] causes = new ICause[LENGTH];
+        int first; // size of the domain at the beginning of the time stamp
+        int timestamp = -1;
+
+        SparseSetDelta(AbstractSearchLoop loop) {
+            this.loop = loop;
+        }
+
+        /**
+         * Record the cause of the removal of the value of the index <code>index</code>, the domain not being updated.
+         */
+        @Override
+        public void add(int value, ICause cause) {
+            lazyClear();
+            causes[SIZE.get() - 1] = cause;
+        }
+
+        /**
+         * Record the cause of the removal of the values in dense cells [from,to[, SIZE being still equal to <code>to</code>.
+         */
+        void removed(int from, int to, ICause cause) {
+            lazyClear();
+            Arrays.fill(causes, from, to, cause);
+        }
+
+        @Override
+        public int get(int idx) {
+            return values[dense[first - 1 - idx]];
+        }
+
+        @Override
+        public ICause getCause(int idx) {
+            return causes[first - 1 - idx];
+        }
+
+        @Override
+        public int size() {
+            return timestamp == loop.timeStamp ? first - SIZE.get() : 0;
+        }
+
+        @Override
+        public void clear() {
+            first = SIZE.get();
+            timestamp = loop.timeStamp;
+        }
+
+        @Override
+        public void lazyClear() {
+            if (timestamp - loop.timeStamp != 0) {
+                clear();
+            }
+        }
+
+        @Override
+        public AbstractSearchLoop getSearchLoop() {
+            return loop;
+        }
+
+        @Override
+        public boolean timeStamped() {
+            return timestamp == loop.timeStamp;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public DisposableValueIterator getValueIterator(boolean bottomUp) {
+        if (_viterator == null || !_viterator.isReusable()) {
+            _viterator = new DisposableValueIterator() {
+
+                int index;
+
+                @Override
+                public void bottomUpInit() {
+                    super.bottomUpInit();
+                    index = LB.get();
+                }
+
+                @Override
+                public void topDownInit() {
+                    super.topDownInit();
+                    index = UB.get();
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return index != -1;
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return index != -1;
+                }
+
+                @Override
+                public int next() {
+                    int old = values[index];
+                    int ub = UB.get();
+                    do {
+                        index++;
+                    } while (index <= ub && !inDomain(index));
+                    if (index > ub) {
+                        index = -1;
+                    }
+                    return old;
+                }
+
+                @Override
+                public int previous() {
+                    int old = values[index];
+                    int lb = LB.get();
+                    do {
+                        index--;
+                    } while (index >= lb && !inDomain(index));
+                    if (index < lb) {
+                        index = -1;
+                    }
+                    return old;
+                }
+            };
+        }
+        if (bottomUp) {
+            _viterator.bottomUpInit();
+        } else {
+            _viterator.topDownInit();
+        }
+        return _viterator;
+    }
+
+    @Override
+    public DisposableRangeIterator getRangeIterator(boolean bottomUp) {
+        if (_riterator == null || !_riterator.isReusable()) {
+            _riterator = new DisposableRangeIterator() {
+
+                int from;
+                int to;
+
+                @Override
+                public void bottomUpInit() {
+                    super.bottomUpInit();
+                    this.from = LB.get();
+                    extendUp();
+                }
+
+                @Override
+                public void topDownInit() {
+                    super.topDownInit();
+                    this.to = UB.get();
+                    extendDown();
+                }
+
+                private void extendUp() {
+                    this.to = from;
+                    while (to < UB.get() && inDomain(to + 1) && values[to] == values[to + 1] - 1) {
+                        to++;
+                    }
+                }
+
+                private void extendDown() {
+                    this.from = to;
+                    while (from > LB.get() && inDomain(from - 1) && values[from - 1] == values[from] - 1) {
+                        from--;
+                    }
+                }
+
+                public boolean hasNext() {
+                    return this.from != -1;
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return this.to != -1;
+                }
+
+                public void next() {
+                    int ub = UB.get();
+                    this.from = to + 1;
+                    while (from <= ub && !inDomain(from)) {
+                        from++;
+                    }
+                    if (from > ub) {
+                        from = -1;
+                    } else {
+                        extendUp();
+                    }
+                }
+
+                @Override
+                public void previous() {
+                    int lb = LB.get();
+                    this.to = from - 1;
+                    while (to >= lb && !inDomain(to)) {
+                        to--;
+                    }
+                    if (to < lb) {
+                        to = -1;
+                    } else {
+                        extendDown();
+                    }
+                }
+
+                @Override
+                public int min() {
+                    return values[from];
+                }
+
+                @Override
+                public int max() {
+                    return values[to];
+                }
+            };
+        }
+        if (bottomUp) {
+            _riterator.bottomUpInit();
+        } else {
+            _riterator.topDownInit();
+        }
+        return _riterator;
+    }
+}
@@ -84,9 +84,9 @@ public abstract class ViewDeltaMonitor implements IIntDeltaMonitor {
 
 
     @Override
-    public void forEach(SafeIntProcedure proc, EventType eventType) {
+    public void forEachSafe(SafeIntProcedure proc, EventType eventType) {
         values.clear();
-        deltamonitor.forEach(filler, eventType);
+        deltamonitor.forEachSafe(filler, eventType);
         filter();
         for (int v = 0; v < values.size(); v++) {
             proc.execute(transform(values.toArray()[v]));
@@ -96,13 +96,28 @@ public abstract class ViewDeltaMonitor implements IIntDeltaMonitor {
     @Override
     public void forEach(IntProcedure proc, EventType eventType) throws ContradictionException {
         values.clear();
-        deltamonitor.forEach(filler, eventType);
+        deltamonitor.forEachSafe(filler, eventType);
         filter();
         for (int v = 0; v < values.size(); v++) {
             proc.execute(transform(values.toArray()[v]));
         }
     }
 
+    @Override
+    public int size() {
+        return deltamonitor.size();
+    }
+
+    @Override
+    public int get(int idx) {
+        return transform(deltamonitor.get(idx));
+    }
+
+    @Override
+    public ICause getCause(int idx) {
+        return deltamonitor.getCause(idx);
+    }
+
     protected void filter() {
         // nothing to do
     }
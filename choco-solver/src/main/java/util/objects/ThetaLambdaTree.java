@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package util.objects;
+
+import java.io.Serializable;
+
+/**
+ * A Theta-Lambda tree, as introduced by P. Vilim for scheduling propagators.
+ * <br/>
+ * Leaves are tasks sorted by earliest starting time (the caller gives the leaf of each task).
+ * A leaf is either empty, in Theta (white task) or in Lambda (grey task).
+ * For a resource of capacity C, the tree maintains in O(log n) per operation:
+ * <br/>- the energy of Theta,
+ * <br/>- the envelope of Theta: max over subsets O of Theta of C * est(O) + e(O),
+ * <br/>- the envelope of Theta with at most one task of Lambda, and the grey task responsible for it.
+ * <br/>
+ * With a capacity of 1 and the durations as energies, the envelope is the earliest completion time of Theta,
+ * as used by disjunctive propagators.
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class ThetaLambdaTree implements Serializable {
+
+    private static final long NINF = Long.MIN_VALUE / 4;
+    private static final byte EMPTY = 0, THETA = 1, LAMBDA = 2;
+
+    // index of the first leaf, leaves are at [offset, 2 * offset)
+    private final int offset;
+    private final long[] e, env, eL, envL;
+    private final int[] respE, respEnv;
+    private final long[] est, energy;
+    private final byte[] state;
+    private long capacity;
+
+    /**
+     * Creates a tree
+     *
+     * @param nbMaxLeaves maximum number of leaves
+     */
+    public ThetaLambdaTree(int nbMaxLeaves) {
+        int o = 1;
+        while (o < nbMaxLeaves) {
+            o <<= 1;
+        }
+        this.offset = o;
+        this.e = new long[2 * o];
+        this.env = new long[2 * o];
+        this.eL = new long[2 * o];
+        this.envL = new long[2 * o];
+        this.respE = new int[2 * o];
+        this.respEnv = new int[2 * o];
+        this.est = new long[o];
+        this.energy = new long[o];
+        this.state = new byte[o];
+    }
+
+    /**
+     * Empties the tree
+     *
+     * @param capacity capacity of the resource
+     */
+    public void init(long capacity) {
+        this.capacity = capacity;
+        for (int v = offset; v < 2 * offset; v++) {
+            state[v - offset] = EMPTY;
+            set(v);
+        }
+        for (int v = offset - 1; v > 0; v--) {
+            pull(v);
+        }
+    }
+
+    /**
+     * Puts a task in Theta
+     *
+     * @param leaf   leaf of the task (rank of its earliest starting time)
+     * @param est    earliest starting time of the task
+     * @param energy energy of the task
+     */
+    public void addToTheta(int leaf, long est, long energy) {
+        this.est[leaf] = est;
+        this.energy[leaf] = energy;
+        state[leaf] = THETA;
+        update(leaf);
+    }
+
+    /**
+     * Puts a task in Lambda
+     *
+     * @param leaf   leaf of the task (rank of its earliest starting time)
+     * @param est    earliest starting time of the task
+     * @param energy energy of the task
+     */
+    public void addToLambda(int leaf, long est, long energy) {
+        this.est[leaf] = est;
+        this.energy[leaf] = energy;
+        state[leaf] = LAMBDA;
+        update(leaf);
+    }
+
+    /**
+     * @param leaf a leaf
+     * @return true iff the task of the leaf is in Theta
+     */
+    public boolean isInTheta(int leaf) {
+        return state[leaf] == THETA;
+    }
+
+    /**
+     * Moves a task of Theta to Lambda
+     *
+     * @param leaf leaf of the task
+     */
+    public void moveToLambda(int leaf) {
+        assert state[leaf] == THETA;
+        state[leaf] = LAMBDA;
+        update(leaf);
+    }
+
+    /**
+     * Removes a task from the tree
+     *
+     * @param leaf leaf of the task
+     */
+    public void remove(int leaf) {
+        state[leaf] = EMPTY;
+        update(leaf);
+    }
+
+    /**
+     * @return the energy of Theta
+     */
+    public long getEnergy() {
+        return e[1];
+    }
+
+    /**
+     * @return the envelope of Theta, a very low value if Theta is empty
+     */
+    public long getEnvelope() {
+        return env[1];
+    }
+
+    /**
+     * @return the envelope of Theta with at most one task of Lambda
+     */
+    public long getLambdaEnvelope() {
+        return envL[1];
+    }
+
+    /**
+     * @return the leaf of the grey task responsible for the Lambda envelope, -1 if no grey task is involved
+     */
+    public int getResponsibleLeaf() {
+        return respEnv[1];
+    }
+
+    /**
+     * Finds the last leaf l of Theta such that C * est(l) + e(tasks of Theta from l) > bound
+     *
+     * @param bound a bound
+     * @return a leaf, -1 if there is none
+     */
+    public int findLastLeafAbove(long bound) {
+        if (env[1] <= bound) {
+            return -1;
+        }
+        int v = 1;
+        long right = 0;
+        while (v < offset) {
+            int r = 2 * v + 1;
+            if (env[r] + right > bound) {
+                v = r;
+            } else {
+                right += e[r];
+                v = 2 * v;
+            }
+        }
+        return v - offset;
+    }
+
+    /**
+     * Computes the envelope of the tasks of Theta up to leaf (included),
+     * plus the energy of the tasks of Theta after it.
+     * That is, max over the leaves l before leaf of C * est(l) + e(tasks of Theta from l).
+     *
+     * @param leaf a leaf in Theta
+     * @return the envelope restricted to starting times up to the one of leaf
+     */
+    public long getEnvelopeUpTo(int leaf) {
+        int v = offset + leaf;
+        long en = env[v];
+        long sum = e[v];
+        while (v > 1) {
+            if ((v & 1) == 1) {
+                en = Math.max(env[v - 1] + sum, en);
+                sum += e[v - 1];
+            }
+            v >>= 1;
+        }
+        return en + e[1] - sum;
+    }
+
+    private void update(int leaf) {
+        int v = offset + leaf;
+        set(v);
+        for (v >>= 1; v > 0; v >>= 1) {
+            pull(v);
+        }
+    }
+
+    private void set(int v) {
+        int leaf = v - offset;
+        switch (state[leaf]) {
+            case THETA:
+                e[v] = eL[v] = energy[leaf];
+                env[v] = envL[v] = capacity * est[leaf] + energy[leaf];
+                respE[v] = respEnv[v] = -1;
+                break;
+            case LAMBDA:
+                e[v] = 0;
+                env[v] = NINF;
+                eL[v] = energy[leaf];
+                envL[v] = capacity * est[leaf] + energy[leaf];
+                respE[v] = respEnv[v] = leaf;
+                break;
+            default:
+                e[v] = eL[v] = 0;
+                env[v] = envL[v] = NINF;
+                respE[v] = respEnv[v] = -1;
+        }
+    }
+
+    private void pull(int v) {
+        int l = 2 * v, r = l + 1;
+        e[v] = e[l] + e[r];
+        env[v] = Math.max(env[l] + e[r], env[r]);
+        // at most one grey task
+        if (eL[l] + e[r] >= e[l] + eL[r]) {
+            eL[v] = eL[l] + e[r];
+            respE[v] = respE[l];
+        } else {
+            eL[v] = e[l] + eL[r];
+            respE[v] = respE[r];
+        }
+        envL[v] = envL[r];
+        respEnv[v] = respEnv[r];
+        if (envL[l] + e[r] > envL[v]) {
+            envL[v] = envL[l] + e[r];
+            respEnv[v] = respEnv[l];
+        }
+        if (env[l] + eL[r] > envL[v]) {
+            envL[v] = env[l] + eL[r];
+            respEnv[v] = respE[r];
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package choco;
+
+import memory.*;
+import memory.trailing.EnvironmentTrailing;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Solver;
+import solver.SolverProperties;
+import solver.constraints.IntConstraintFactory;
+import solver.search.strategy.IntStrategyFactory;
+import solver.variables.IntVar;
+import solver.variables.VariableFactory;
+
+import java.util.Random;
+
+public class EnvironmentTest {
+
+    private static final Environments[] TRAILS = {Environments.TRAIL, Environments.TRAIL_UNSAFE, Environments.TRAIL_SEGMENT};
+
+    private static void deepDive(Environments kind, int depth, long seed) {
+        EnvironmentTrailing env = (EnvironmentTrailing) kind.make();
+        Random rnd = new Random(seed);
+        int n = 8;
+        IStateInt[] ints = new IStateInt[n];
+        IStateLong[] longs = new IStateLong[n];
+        IStateBool[] bools = new IStateBool[n];
+        IStateDouble[] doubles = new IStateDouble[n];
+        for (int i = 0; i < n; i++) {
+            ints[i] = env.makeInt(i);
+            longs[i] = env.makeLong(i);
+            bools[i] = env.makeBool(false);
+            doubles[i] = env.makeFloat(i);
+        }
+        int[][] expected = new int[depth + 1][n];
+        boolean[][] expectedBools = new boolean[depth + 1][n];
+        for (int i = 0; i < n; i++) {
+            expected[0][i] = i;
+        }
+        for (int w = 1; w <= depth; w++) {
+            env.worldPush();
+            System.arraycopy(expected[w - 1], 0, expected[w], 0, n);
+            System.arraycopy(expectedBools[w - 1], 0, expectedBools[w], 0, n);
+            int k = rnd.nextInt(3);
+            for (int j = 0; j < k; j++) {
+                int i = rnd.nextInt(n);
+                int v = rnd.nextInt(1000);
+                ints[i].set(v);
+                longs[i].set(v);
+                bools[i].set(v % 2 == 0);
+                doubles[i].set(v);
+                expected[w][i] = v;
+                expectedBools[w][i] = v % 2 == 0;
+            }
+        }
+        Assert.assertEquals(env.getMaxWorldIndex(), depth);
+        Assert.assertTrue(env.getWorldCapacity() > depth);
+        Assert.assertTrue(env.getTrailSize() > 0);
+        for (int w = depth; w >= 0; w--) {
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals(ints[i].get(), expected[w][i]);
+                Assert.assertEquals(longs[i].get(), expected[w][i]);
+                Assert.assertEquals(doubles[i].get(), (double) expected[w][i]);
+                Assert.assertEquals(bools[i].get(), expectedBools[w][i]);
+            }
+            if (w > 0) {
+                env.worldPop();
+            }
+        }
+        Assert.assertEquals(env.getTrailSize(), 0);
+        Assert.assertEquals(env.getMaxWorldIndex(), depth);
+    }
+
+    @Test(groups = "1s")
+    public void testDeepWorlds() {
+        for (Environments kind : TRAILS) {
+            deepDive(kind, 60000, 0);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testShallowWorlds() {
+        for (Environments kind : TRAILS) {
+            for (int seed = 0; seed < 20; seed++) {
+                deepDive(kind, 50, seed);
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testQueens() {
+        for (Environments kind : TRAILS) {
+            Solver solver = new Solver(kind.make(), "queens", SolverProperties.DEFAULT);
+            int n = 8;
+            IntVar[] vars = VariableFactory.enumeratedArray("Q", n, 1, n, solver);
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    int k = j - i;
+                    solver.post(IntConstraintFactory.arithm(vars[i], "!=", vars[j]));
+                    solver.post(IntConstraintFactory.arithm(vars[i], "!=", vars[j], "+", -k));
+                    solver.post(IntConstraintFactory.arithm(vars[i], "!=", vars[j], "+", k));
+                }
+            }
+            solver.set(IntStrategyFactory.inputOrder_InDomainMin(vars));
+            solver.findAllSolutions();
+            Assert.assertEquals(solver.getMeasures().getSolutionCount(), 92, kind.name());
+        }
+    }
+}
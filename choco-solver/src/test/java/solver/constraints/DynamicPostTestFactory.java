@@ -42,6 +42,8 @@ public class DynamicPostTestFactory {
 
     PropagationEngineFactory[] engines = new PropagationEngineFactory[]{
             PropagationEngineFactory.TWOBUCKETPROPAGATIONENGINE,
+            PropagationEngineFactory.ADAPTIVEPROPAGATIONENGINE,
+            PropagationEngineFactory.PRIMITIVETWOBUCKETPROPAGATIONENGINE,
             PropagationEngineFactory.PROPAGATORDRIVEN_7QD};
 
     @Factory
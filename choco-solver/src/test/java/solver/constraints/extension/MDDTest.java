@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Solver;
+import solver.constraints.IntConstraintFactory;
+import solver.constraints.extension.nary.MultivaluedDecisionDiagram;
+import solver.constraints.nary.automata.FA.FiniteAutomaton;
+import solver.search.strategy.IntStrategyFactory;
+import solver.variables.IntVar;
+import solver.variables.VariableFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the MDD constraint with Compact-Table and Regular.
+ */
+public class MDDTest {
+
+    private static long count(long seed, boolean mdd, boolean feasible, int star, int nbTuples) {
+        Random rnd = new Random(seed);
+        Solver solver = new Solver();
+        IntVar[] vars = TableTest.vars(solver, rnd);
+        IntVar[] scope1 = vars;
+        IntVar[] scope2 = {vars[0], vars[1], vars[3], vars[4], vars[2]};
+        Tuples t1 = TableTest.randomTuples(rnd, feasible, star, nbTuples);
+        Tuples t2 = TableTest.randomTuples(rnd, feasible, star, nbTuples);
+        if (mdd) {
+            solver.post(IntConstraintFactory.mddc(scope1, new MultivaluedDecisionDiagram(scope1, t1)));
+            solver.post(IntConstraintFactory.mddc(scope2, new MultivaluedDecisionDiagram(scope2, t2)));
+        } else {
+            solver.post(IntConstraintFactory.table(scope1, t1));
+            solver.post(IntConstraintFactory.table(scope2, t2));
+        }
+        solver.set(IntStrategyFactory.random(vars, seed));
+        solver.findAllSolutions();
+        return solver.getMeasures().getSolutionCount();
+    }
+
+    @Test(groups = "1s")
+    public void testPositive() {
+        for (long seed = 0; seed < 40; seed++) {
+            Assert.assertEquals(count(seed, true, true, Integer.MIN_VALUE, 4000),
+                    count(seed, false, true, Integer.MIN_VALUE, 4000), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testNegative() {
+        for (long seed = 0; seed < 40; seed++) {
+            Assert.assertEquals(count(seed, true, false, Integer.MIN_VALUE, 1500),
+                    count(seed, false, false, Integer.MIN_VALUE, 1500), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testShort() {
+        for (long seed = 0; seed < 40; seed++) {
+            Assert.assertEquals(count(seed, true, true, -10, 40),
+                    count(seed, false, true, -10, 40), "seed " + seed);
+            Assert.assertEquals(count(seed, true, false, -10, 60),
+                    count(seed, false, false, -10, 60), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testSharing() {
+        // all the tuples of {0,1}^12 with an even number of 1: 2^11 tuples, but 2 nodes per layer
+        Solver solver = new Solver();
+        IntVar[] vars = VariableFactory.enumeratedArray("x", 12, 0, 1, solver);
+        Tuples tuples = new Tuples();
+        for (int k = 0; k < 1 << 12; k++) {
+            if (Integer.bitCount(k) % 2 == 0) {
+                int[] tuple = new int[12];
+                for (int i = 0; i < 12; i++) {
+                    tuple[i] = (k >> i) & 1;
+                }
+                tuples.add(tuple);
+            }
+        }
+        MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(vars, tuples);
+        Assert.assertEquals(mdd.getNbNodes(), 1 + 2 * 11 + 1);
+        solver.post(IntConstraintFactory.mddc(vars, mdd));
+        solver.findAllSolutions();
+        Assert.assertEquals(solver.getMeasures().getSolutionCount(), 1 << 11);
+    }
+
+    @Test(groups = "1s")
+    public void testAutomaton() {
+        int n = 8;
+        for (long seed = 0; seed < 10; seed++) {
+            long[] counts = new long[2];
+            for (int k = 0; k < 2; k++) {
+                Solver solver = new Solver();
+                IntVar[] vars = VariableFactory.enumeratedArray("x", n, 0, 2, solver);
+                FiniteAutomaton auto = new FiniteAutomaton("(0|1|2)*(0|1)(0|1)(0|1)(0|1|2)*");
+                if (k == 0) {
+                    solver.post(IntConstraintFactory.mddc(vars, new MultivaluedDecisionDiagram(vars, auto)));
+                } else {
+                    solver.post(IntConstraintFactory.regular(vars, auto));
+                }
+                solver.post(IntConstraintFactory.arithm(vars[0], "!=", vars[n - 1]));
+                solver.set(IntStrategyFactory.random(vars, seed));
+                solver.findAllSolutions();
+                counts[k] = solver.getMeasures().getSolutionCount();
+            }
+            Assert.assertEquals(counts[0], counts[1], Arrays.toString(counts));
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testEmpty() {
+        Solver solver = new Solver();
+        IntVar[] vars = VariableFactory.enumeratedArray("x", 3, 0, 2, solver);
+        Tuples tuples = new Tuples();
+        tuples.add(0, 3, 1);
+        solver.post(IntConstraintFactory.mddc(vars, new MultivaluedDecisionDiagram(vars, tuples)));
+        Assert.assertFalse(solver.findSolution());
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.extension;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Solver;
+import solver.constraints.IntConstraintFactory;
+import solver.constraints.extension.nary.IterTuplesTable;
+import solver.constraints.extension.nary.TuplesList;
+import solver.exception.SolverException;
+import solver.search.strategy.IntStrategyFactory;
+import solver.variables.IntVar;
+import solver.variables.VariableFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares Compact-Table with GAC3rm on random tables.
+ */
+public class TableTest {
+
+    static final int N = 5, MIN = 0, MAX = 4;
+
+    static IntVar[] vars(Solver solver, Random rnd) {
+        IntVar[] vars = new IntVar[N];
+        for (int i = 0; i < N; i++) {
+            int[] values = new int[MAX - MIN + 1];
+            int k = 0;
+            for (int v = MIN; v <= MAX; v++) {
+                if (k == 0 || rnd.nextInt(4) > 0) {
+                    values[k++] = v;
+                }
+            }
+            vars[i] = VariableFactory.enumerated("x" + i, Arrays.copyOf(values, k), solver);
+        }
+        return vars;
+    }
+
+    private static int[] randomTuple(Random rnd, int star) {
+        int[] t = new int[N];
+        for (int i = 0; i < N; i++) {
+            t[i] = star != Integer.MIN_VALUE && rnd.nextInt(5) == 0 ? star : MIN - 1 + rnd.nextInt(MAX - MIN + 3);
+        }
+        return t;
+    }
+
+    static Tuples randomTuples(Random rnd, boolean feasible, int star, int nb) {
+        Tuples tuples = new Tuples(feasible);
+        if (star != Integer.MIN_VALUE) {
+            tuples.setUniversalValue(star);
+        }
+        for (int t = 0; t < nb; t++) {
+            tuples.add(randomTuple(rnd, star));
+        }
+        return tuples;
+    }
+
+    private static boolean matches(int[] tuple, int[] point, Tuples tuples) {
+        for (int i = 0; i < point.length; i++) {
+            if (tuple[i] != point[i] && !(tuples.hasUniversalValue() && tuple[i] == tuples.getStarValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Allowed tuples of the cartesian product of the domains.
+     */
+    private static List<int[]> allowed(IntVar[] vars, Tuples tuples) {
+        List<int[]> allowed = new ArrayList<>();
+        int[] point = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            point[i] = vars[i].getLB();
+        }
+        int i;
+        do {
+            boolean in = !tuples.isFeasible();
+            for (int t = 0; t < tuples.nbTuples(); t++) {
+                if (matches(tuples.get(t), point, tuples)) {
+                    in = tuples.isFeasible();
+                    break;
+                }
+            }
+            if (in) {
+                allowed.add(point.clone());
+            }
+            for (i = vars.length - 1; i >= 0 && point[i] == vars[i].getUB(); i--) {
+                point[i] = vars[i].getLB();
+            }
+            if (i >= 0) {
+                point[i] = vars[i].nextValue(point[i]);
+            }
+        } while (i >= 0);
+        return allowed;
+    }
+
+    private static void post(Solver solver, IntVar[] vars, Tuples tuples, boolean ct) {
+        if (ct) {
+            solver.post(IntConstraintFactory.table(vars, tuples));
+        } else {
+            List<int[]> allowed = allowed(vars, tuples);
+            int[] offsets = new int[vars.length];
+            int[] sizes = new int[vars.length];
+            for (int i = 0; i < vars.length; i++) {
+                offsets[i] = vars[i].getLB();
+                sizes[i] = vars[i].getUB() - vars[i].getLB() + 1;
+            }
+            solver.post(IntConstraintFactory.table(vars, new IterTuplesTable(allowed, offsets, sizes), "AC32"));
+        }
+    }
+
+    private static long count(long seed, boolean ct, boolean feasible, int star, int nbTuples) {
+        Random rnd = new Random(seed);
+        Solver solver = new Solver();
+        IntVar[] vars = vars(solver, rnd);
+        // two overlapping tables, so that each one is also woken up by the other
+        IntVar[] first = Arrays.copyOfRange(vars, 0, N - 1);
+        IntVar[] second = Arrays.copyOfRange(vars, 1, N);
+        Tuples t1 = randomTuples(rnd, feasible, star, nbTuples);
+        Tuples t2 = randomTuples(rnd, feasible, star, nbTuples);
+        post(solver, vars, t1, ct);
+        post(solver, new IntVar[]{first[0], first[1], second[2], second[3], vars[2]}, t2, ct);
+        solver.set(IntStrategyFactory.random(vars, seed));
+        solver.findAllSolutions();
+        return solver.getMeasures().getSolutionCount();
+    }
+
+    @Test(groups = "1s")
+    public void testPositive() {
+        for (long seed = 0; seed < 40; seed++) {
+            Assert.assertEquals(count(seed, true, true, Integer.MIN_VALUE, 4000),
+                    count(seed, false, true, Integer.MIN_VALUE, 4000), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testNegative() {
+        for (long seed = 0; seed < 40; seed++) {
+            Assert.assertEquals(count(seed, true, false, Integer.MIN_VALUE, 1500),
+                    count(seed, false, false, Integer.MIN_VALUE, 1500), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testShortPositive() {
+        for (long seed = 0; seed < 40; seed++) {
+            Assert.assertEquals(count(seed, true, true, -10, 40),
+                    count(seed, false, true, -10, 40), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testShortNegative() {
+        for (long seed = 0; seed < 40; seed++) {
+            Assert.assertEquals(count(seed, true, false, -10, 60),
+                    count(seed, false, false, -10, 60), "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testLargeRelation() {
+        Solver solver = new Solver();
+        IntVar[] vars = VariableFactory.enumeratedArray("x", 3, 0, 2, solver);
+        List<int[]> tuples = new ArrayList<>();
+        tuples.add(new int[]{0, 1, 2});
+        tuples.add(new int[]{2, 1, 0});
+        tuples.add(new int[]{1, 1, 1});
+        tuples.add(new int[]{1, 3, 1});
+        solver.post(IntConstraintFactory.table(vars, new TuplesList(tuples), "CT"));
+        solver.findAllSolutions();
+        Assert.assertEquals(solver.getMeasures().getSolutionCount(), 3);
+    }
+
+    @Test(groups = "1s", expectedExceptions = SolverException.class)
+    public void testArity() {
+        Tuples tuples = new Tuples();
+        tuples.add(1, 2);
+        tuples.add(1, 2, 3);
+    }
+}
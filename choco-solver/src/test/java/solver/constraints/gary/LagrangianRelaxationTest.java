@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package solver.constraints.gary;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Cause;
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.constraints.Constraint;
+import solver.constraints.Propagator;
+import solver.constraints.gary.degree.PropNodeDegree_AtMost;
+import solver.constraints.gary.trees.PropTreeCostScalar;
+import solver.constraints.gary.trees.lagrangianRelaxation.PropLagr_DCMST;
+import solver.constraints.gary.tsp.undirected.PropCycleEvalObj;
+import solver.constraints.gary.tsp.undirected.lagrangianRelaxation.PropLagr_OneTree;
+import solver.exception.ContradictionException;
+import solver.search.strategy.GraphStrategyFactory;
+import solver.variables.EventType;
+import solver.variables.IntVar;
+import solver.variables.VF;
+import solver.variables.graph.UndirectedGraphVar;
+import util.objects.graphs.UndirectedGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author agent
+ * @since 18/10/26
+ */
+public class LagrangianRelaxationTest {
+
+    private static int[][] costs(int n, long seed) {
+        Random rnd = new Random(seed);
+        int[][] costs = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                costs[i][j] = costs[j][i] = 1 + rnd.nextInt(100);
+            }
+        }
+        return costs;
+    }
+
+    private static UndirectedGraphVar graph(Solver solver, int n) {
+        UndirectedGraphVar g = new UndirectedGraphVar("G", solver, n, true);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                g.getEnvelopGraph().addEdge(i, j);
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Posts a TSP, with its Lagrangian relaxation iff <code>relax</code> is true
+     */
+    private static PropLagr_OneTree tsp(UndirectedGraphVar g, IntVar cost, int[][] costs, boolean relax) {
+        Solver solver = g.getSolver();
+        solver.post(GraphConstraintFactory.hamiltonianCycle(g));
+        if (!relax) {
+            solver.post(new Constraint("cost", new PropCycleEvalObj(g, cost, costs)));
+            return null;
+        }
+        PropLagr_OneTree hk = PropLagr_OneTree.oneTreeBasedRelaxation(g, cost, costs);
+        solver.post(new Constraint("cost", new PropCycleEvalObj(g, cost, costs), hk));
+        return hk;
+    }
+
+    /**
+     * Posts a degree constrained minimum spanning tree, with its Lagrangian relaxation iff <code>relax</code> is true
+     */
+    private static PropLagr_DCMST dcmst(UndirectedGraphVar g, IntVar cost, int[] maxDegree, int[][] costs, boolean relax) {
+        Solver solver = g.getSolver();
+        solver.post(GraphConstraintFactory.spanning_tree(g));
+        solver.post(new Constraint("degree", new PropNodeDegree_AtMost(g, maxDegree)));
+        if (!relax) {
+            solver.post(new Constraint("cost", new PropTreeCostScalar(g, cost, costs)));
+            return null;
+        }
+        PropLagr_DCMST relaxation = new PropLagr_DCMST(g, cost, maxDegree, costs, false);
+        solver.post(new Constraint("cost", new PropTreeCostScalar(g, cost, costs), relaxation));
+        return relaxation;
+    }
+
+    private static int[] maxDegrees(int n, long seed) {
+        Random rnd = new Random(seed);
+        int[] maxDegree = new int[n];
+        for (int i = 0; i < n; i++) {
+            maxDegree[i] = 2 + rnd.nextInt(2);
+        }
+        return maxDegree;
+    }
+
+    private static int minimize(UndirectedGraphVar g, IntVar cost) {
+        Solver solver = g.getSolver();
+        solver.set(GraphStrategyFactory.graphLexico(g));
+        solver.findOptimalSolution(ResolutionPolicy.MINIMIZE, cost);
+        Assert.assertTrue(solver.getMeasures().getSolutionCount() > 0);
+        return solver.getObjectiveManager().getBestSolutionValue().intValue();
+    }
+
+    /**
+     * @return the domains of the graph and of the cost
+     */
+    private static String state(UndirectedGraphVar g, IntVar cost) {
+        StringBuilder st = new StringBuilder(cost.toString());
+        int n = g.getEnvelopGraph().getNbNodes();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (g.getKernelGraph().edgeExists(i, j)) {
+                    st.append(" +").append(i).append('-').append(j);
+                } else if (g.getEnvelopGraph().edgeExists(i, j)) {
+                    st.append(" ?").append(i).append('-').append(j);
+                }
+            }
+        }
+        return st.toString();
+    }
+
+    /**
+     * @return the edges which neither belong to the kernel nor to the support of the relaxation
+     */
+    private static List<int[]> nonSupportEdges(UndirectedGraphVar g, UndirectedGraph support) {
+        List<int[]> edges = new ArrayList<int[]>();
+        int n = g.getEnvelopGraph().getNbNodes();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (g.getEnvelopGraph().edgeExists(i, j) && !g.getKernelGraph().edgeExists(i, j)
+                        && !support.edgeExists(i, j)) {
+                    edges.add(new int[]{i, j});
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Removes each edge in its own node, backtracks, and checks that running the relaxation again at the root
+     * does not prune anything
+     */
+    private static void checkBacktracks(UndirectedGraphVar g, IntVar cost, Propagator relaxation, List<int[]> edges)
+            throws ContradictionException {
+        Solver solver = g.getSolver();
+        String root = state(g, cost);
+        for (int[] e : edges) {
+            solver.getEnvironment().worldPush();
+            try {
+                g.removeArc(e[0], e[1], Cause.Null);
+                solver.propagate();
+            } catch (ContradictionException ex) {
+                solver.getEngine().flush();
+            }
+            solver.getEnvironment().worldPop();
+            Assert.assertEquals(state(g, cost), root);
+            relaxation.propagate(EventType.FULL_PROPAGATION.mask);
+            solver.propagate();
+            Assert.assertEquals(state(g, cost), root, Arrays.toString(e));
+        }
+    }
+
+    @Test(groups = "10s")
+    public void testTSPWarmStart() throws ContradictionException {
+        for (int seed = 0; seed < 5; seed++) {
+            int[][] costs = costs(9, seed);
+            int[] optimum = new int[3];
+            int[] rootBound = new int[2];
+            for (int k = 0; k < 3; k++) {
+                Solver solver = new Solver();
+                UndirectedGraphVar g = graph(solver, 9);
+                IntVar cost = VF.bounded("cost", 0, 1000, solver);
+                PropLagr_OneTree hk = tsp(g, cost, costs, k > 0);
+                if (hk != null) {
+                    hk.warmStart(k == 2);
+                    solver.propagate();
+                    rootBound[k - 1] = cost.getLB();
+                }
+                optimum[k] = minimize(g, cost);
+            }
+            // the relaxation with or without warm start proves the optimum of the plain model
+            Assert.assertEquals(optimum[1], optimum[0]);
+            Assert.assertEquals(optimum[2], optimum[0]);
+            Assert.assertEquals(rootBound[1], rootBound[0]);
+            Assert.assertTrue(rootBound[0] <= optimum[0]);
+        }
+    }
+
+    @Test(groups = "10s")
+    public void testDCMSTWarmStart() throws ContradictionException {
+        for (int seed = 0; seed < 5; seed++) {
+            int[][] costs = costs(8, seed);
+            int[] maxDegree = maxDegrees(8, seed);
+            int[] optimum = new int[3];
+            int[] rootBound = new int[2];
+            for (int k = 0; k < 3; k++) {
+                Solver solver = new Solver();
+                UndirectedGraphVar g = graph(solver, 8);
+                IntVar cost = VF.bounded("cost", 0, 1000, solver);
+                PropLagr_DCMST relaxation = dcmst(g, cost, maxDegree, costs, k > 0);
+                if (relaxation != null) {
+                    relaxation.warmStart(k == 2);
+                    solver.propagate();
+                    rootBound[k - 1] = cost.getLB();
+                }
+                optimum[k] = minimize(g, cost);
+            }
+            Assert.assertEquals(optimum[1], optimum[0]);
+            Assert.assertEquals(optimum[2], optimum[0]);
+            Assert.assertEquals(rootBound[1], rootBound[0]);
+            Assert.assertTrue(rootBound[0] <= optimum[0]);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testTSPSkipAfterBacktrack() throws ContradictionException {
+        for (int seed = 0; seed < 5; seed++) {
+            int[][] costs = costs(12, seed);
+            Solver solver = new Solver();
+            UndirectedGraphVar g = graph(solver, 12);
+            IntVar cost = VF.bounded("cost", 0, 1000, solver);
+            PropLagr_OneTree hk = tsp(g, cost, costs, true);
+            solver.propagate();
+            // a tight upper bound, so that the relaxation prunes edges
+            cost.updateUpperBound(cost.getLB() + 20, Cause.Null);
+            solver.propagate();
+            checkBacktracks(g, cost, hk, nonSupportEdges(g, hk.getSupport()));
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testDCMSTSkipAfterBacktrack() throws ContradictionException {
+        for (int seed = 0; seed < 5; seed++) {
+            int[][] costs = costs(12, seed);
+            Solver solver = new Solver();
+            UndirectedGraphVar g = graph(solver, 12);
+            IntVar cost = VF.bounded("cost", 0, 1000, solver);
+            PropLagr_DCMST relaxation = dcmst(g, cost, maxDegrees(12, seed), costs, true);
+            solver.propagate();
+            cost.updateUpperBound(cost.getLB() + 20, Cause.Null);
+            solver.propagate();
+            checkBacktracks(g, cost, relaxation, nonSupportEdges(g, relaxation.getSupport()));
+        }
+    }
+}
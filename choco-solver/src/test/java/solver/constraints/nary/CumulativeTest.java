@@ -38,6 +38,11 @@ import solver.search.strategy.ISF;
 import solver.variables.IntVar;
 import solver.variables.Task;
 import solver.variables.VF;
+import util.tools.ArrayUtils;
+
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
 
 /**
  * Tests the various filtering algorithms of the cumulative constraint
@@ -116,6 +121,70 @@ public class CumulativeTest {
 			}
 	}
 
+	@Test(groups = "1s")
+	public void testEdgeFinding(){
+		Cumulative.Filter[][] filters = new Cumulative.Filter[][]{
+				{Cumulative.Filter.TIME,Cumulative.Filter.EF},
+				{Cumulative.Filter.HEIGHTS,Cumulative.Filter.SWEEP,Cumulative.Filter.TTEF},
+				{Cumulative.Filter.TIME,Cumulative.Filter.EF,Cumulative.Filter.TTEF,Cumulative.Filter.NRJ}
+		};
+		for(long seed = 0; seed<5; seed++){
+			int ref = makespan(7,4,seed,true,Cumulative.Filter.TIME);
+			for(boolean g : new boolean[]{true,false})
+				for(Cumulative.Filter[] f:filters){
+					assertEquals(makespan(7,4,seed,g,f),ref);
+				}
+		}
+	}
+
+	@Test(groups = "1s")
+	public void testNotFirstNotLast(){
+		for(long seed = 0; seed<20; seed++){
+			long ref = count(5,3,seed,true,Cumulative.Filter.TIME);
+			for(boolean g : new boolean[]{true,false}){
+				assertEquals(count(5,3,seed,g,Cumulative.Filter.TIME,Cumulative.Filter.NFNL),ref);
+				assertEquals(count(5,3,seed,g,Cumulative.Filter.SWEEP,Cumulative.Filter.NFNL),ref);
+			}
+		}
+	}
+
+	private static long count(int n, int capa, long seed, boolean graph, Cumulative.Filter... f){
+		Random rd = new Random(seed);
+		Solver solver = new Solver();
+		IntVar[] s = new IntVar[n];
+		IntVar[] h = new IntVar[n];
+		Task[] t = new Task[n];
+		for(int i=0;i<n;i++){
+			int est = rd.nextInt(n);
+			s[i] = VF.enumerated("s"+i,est,est+rd.nextInt(n*2),solver);
+			t[i] = new Task(s[i],VF.fixed(1+rd.nextInt(4),solver),VF.enumerated("e"+i,0,n*4,solver));
+			h[i] = VF.fixed(1+rd.nextInt(capa),solver);
+		}
+		solver.post(new Cumulative(t,h,VF.fixed(capa,solver),graph,f));
+		solver.set(ISF.inputOrder_InDomainMin(s));
+		solver.findAllSolutions();
+		return solver.getMeasures().getSolutionCount();
+	}
+
+	private static int makespan(int n, int capa, long seed, boolean graph, Cumulative.Filter... f){
+		Random rd = new Random(seed);
+		Solver solver = new Solver();
+		IntVar[] s = VF.enumeratedArray("s",n,0,n*4,solver);
+		IntVar[] e = VF.enumeratedArray("e",n,0,n*4,solver);
+		IntVar[] h = new IntVar[n];
+		IntVar last = VF.bounded("last",0,n*4,solver);
+		Task[] t = new Task[n];
+		for(int i=0;i<n;i++){
+			t[i] = new Task(s[i],VF.fixed(1+rd.nextInt(4),solver),e[i]);
+			h[i] = VF.fixed(1+rd.nextInt(capa),solver);
+			solver.post(ICF.arithm(e[i],"<=",last));
+		}
+		solver.post(new Cumulative(t,h,VF.fixed(capa,solver),graph,f));
+		solver.set(ISF.inputOrder_InDomainMin(ArrayUtils.append(s,new IntVar[]{last})));
+		solver.findOptimalSolution(ResolutionPolicy.MINIMIZE,last);
+		return solver.getMeasures().getBestSolutionValue().intValue();
+	}
+
 	public void test(int n, int capamax, int dmin, int hmax, long seed, int mode){
 		if(VERBOSE)System.out.println(n+" - "+capamax+" - "+dmin+" - "+hmax+" - "+seed+" - "+mode);
 		Cumulative.Filter[][] filters = new Cumulative.Filter[][]{
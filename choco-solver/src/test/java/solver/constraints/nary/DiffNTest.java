@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.nary;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Solver;
+import solver.constraints.ICF;
+import solver.search.loop.monitors.SMF;
+import solver.search.strategy.ISF;
+import solver.variables.IntVar;
+import solver.variables.VF;
+import util.tools.ArrayUtils;
+
+import java.util.Random;
+
+/**
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class DiffNTest {
+
+	private static final String[] ALGOS = {"PAIRWISE", "SWEEP"};
+
+	@Test(groups = "1s")
+	public void testSquares() {
+		for (String algo : ALGOS)
+		for (boolean cumul : new boolean[]{false, true}) {
+			// squares of size 2, 2, 1 and 1 in a 4x4 area
+			int[] sizes = {2, 2, 1, 1};
+			Solver solver = new Solver();
+			int n = sizes.length;
+			IntVar[] x = new IntVar[n];
+			IntVar[] y = new IntVar[n];
+			IntVar[] w = new IntVar[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = VF.enumerated("x" + i, 0, 4 - sizes[i], solver);
+				y[i] = VF.enumerated("y" + i, 0, 4 - sizes[i], solver);
+				w[i] = VF.fixed(sizes[i], solver);
+			}
+			solver.post(ICF.diffn(x, y, w, w, cumul, algo));
+			solver.set(ISF.inputOrder_InDomainMin(ArrayUtils.append(x, y)));
+			solver.findAllSolutions();
+			Assert.assertEquals(solver.getMeasures().getSolutionCount(), 1792);
+		}
+	}
+
+	@Test(groups = "1s")
+	public void testOverlap() {
+		for (String algo : ALGOS) {
+			overlap(algo);
+		}
+	}
+
+	private static void overlap(String algo) {
+		// many boxes, two of them are fixed and overlap
+		Solver solver = new Solver();
+		int n = 50;
+		IntVar[] x = new IntVar[n];
+		IntVar[] y = new IntVar[n];
+		IntVar[] w = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i < 2 ? VF.fixed(100 + i, solver) : VF.bounded("x" + i, 0, 10 * i, solver);
+			y[i] = i < 2 ? VF.fixed(0, solver) : VF.bounded("y" + i, 0, 10, solver);
+			w[i] = VF.fixed(2, solver);
+		}
+		solver.post(ICF.diffn(x, y, w, w, false, algo));
+		Assert.assertFalse(solver.findSolution());
+	}
+
+	private static Solver random(int n, int size, long seed, String algo) {
+		Random rnd = new Random(seed);
+		Solver solver = new Solver();
+		IntVar[] x = new IntVar[n];
+		IntVar[] y = new IntVar[n];
+		IntVar[] w = new IntVar[n];
+		IntVar[] h = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			int a = rnd.nextInt(size), b = rnd.nextInt(size);
+			x[i] = VF.bounded("x" + i, a, a + rnd.nextInt(size / 2), solver);
+			y[i] = VF.bounded("y" + i, b, b + rnd.nextInt(size / 2), solver);
+			w[i] = VF.bounded("w" + i, 1, 1 + rnd.nextInt(3), solver);
+			h[i] = VF.bounded("h" + i, 0, 1 + rnd.nextInt(3), solver);
+		}
+		solver.post(ICF.diffn(x, y, w, h, false, algo));
+		solver.set(ISF.random(ArrayUtils.append(x, y, w, h), seed));
+		SMF.limitNode(solver, 2000);
+		solver.findAllSolutions();
+		return solver;
+	}
+
+	@Test(groups = "1s")
+	public void testSweepLikePairwise() {
+		// both algorithms detect the same pairs of boxes, so they explore the same search tree
+		for (int seed = 0; seed < 20; seed++) {
+			int n = 5 + seed * 5;
+			Solver pairwise = random(n, 2 * n, seed, "PAIRWISE");
+			Solver sweep = random(n, 2 * n, seed, "SWEEP");
+			Assert.assertEquals(sweep.getMeasures().getSolutionCount(), pairwise.getMeasures().getSolutionCount());
+			Assert.assertEquals(sweep.getMeasures().getNodeCount(), pairwise.getMeasures().getNodeCount());
+			Assert.assertEquals(sweep.getMeasures().getFailCount(), pairwise.getMeasures().getFailCount());
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.constraints.nary;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.constraints.ICF;
+import solver.search.strategy.ISF;
+import solver.variables.BoolVar;
+import solver.variables.IntVar;
+import solver.variables.Task;
+import solver.variables.VF;
+import util.tools.ArrayUtils;
+
+import java.util.Random;
+
+/**
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class DisjunctiveTest {
+
+	@Test(groups = "1s")
+	public void testMakespan() {
+		for (long seed = 0; seed < 10; seed++) {
+			int ref = makespan(8, seed, false);
+			Assert.assertEquals(makespan(8, seed, true), ref);
+		}
+	}
+
+	@Test(groups = "1s")
+	public void testOptional() {
+		// 5 tasks of duration 3 in [0,10): at most 3 of them can be performed
+		Solver solver = new Solver();
+		int n = 5;
+		Task[] tasks = new Task[n];
+		BoolVar[] performed = VF.boolArray("p", n, solver);
+		IntVar[] s = VF.enumeratedArray("s", n, 0, 7, solver);
+		for (int i = 0; i < n; i++) {
+			tasks[i] = new Task(s[i], VF.fixed(3, solver), VF.enumerated("e", 3, 10, solver));
+		}
+		solver.post(ICF.disjunctive(tasks, performed));
+		IntVar nb = VF.bounded("nb", 0, n, solver);
+		solver.post(ICF.sum(performed, nb));
+		solver.set(ISF.inputOrder_InDomainMin(ArrayUtils.append(performed, s)));
+		solver.findOptimalSolution(ResolutionPolicy.MAXIMIZE, nb);
+		Assert.assertEquals(solver.getMeasures().getBestSolutionValue().intValue(), 3);
+	}
+
+	@Test(groups = "1s")
+	public void testOverload() {
+		Solver solver = new Solver();
+		Task[] tasks = new Task[3];
+		for (int i = 0; i < 3; i++) {
+			tasks[i] = new Task(VF.enumerated("s", 0, 4, solver), VF.fixed(2, solver), VF.enumerated("e", 2, 5, solver));
+		}
+		solver.post(ICF.disjunctive(tasks));
+		Assert.assertFalse(solver.findSolution());
+	}
+
+	private static int makespan(int n, long seed, boolean disjunctive) {
+		Random rd = new Random(seed);
+		Solver solver = new Solver();
+		IntVar[] s = VF.enumeratedArray("s", n, 0, n * 5, solver);
+		IntVar[] e = VF.enumeratedArray("e", n, 0, n * 5, solver);
+		IntVar last = VF.bounded("last", 0, n * 5, solver);
+		Task[] t = new Task[n];
+		for (int i = 0; i < n; i++) {
+			int r = rd.nextInt(n * 2);
+			t[i] = new Task(s[i], VF.fixed(1 + rd.nextInt(5), solver), e[i]);
+			solver.post(ICF.arithm(s[i], ">=", r));
+			solver.post(ICF.arithm(e[i], "<=", last));
+		}
+		if (disjunctive) {
+			solver.post(ICF.disjunctive(t));
+		} else {
+			IntVar[] h = new IntVar[n];
+			for (int i = 0; i < n; i++) {
+				h[i] = VF.fixed(1, solver);
+			}
+			solver.post(ICF.cumulative(t, h, VF.fixed(1, solver)));
+		}
+		solver.set(ISF.inputOrder_InDomainMin(ArrayUtils.append(s, new IntVar[]{last})));
+		solver.findOptimalSolution(ResolutionPolicy.MINIMIZE, last);
+		return solver.getMeasures().getBestSolutionValue().intValue();
+	}
+}
@@ -30,7 +30,9 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import solver.Solver;
 import solver.constraints.nary.nogood.NogoodStoreFromRestarts;
+import solver.constraints.ICF;
 import solver.search.limits.BacktrackCounter;
+import solver.search.limits.FailCounter;
 import solver.search.limits.ICounterAction;
 import solver.search.loop.monitors.SMF;
 import solver.search.strategy.ISF;
@@ -91,5 +93,23 @@ public class NogoodTest {
         Assert.assertEquals(solver.getMeasures().getBackTrackCount(), 137);
     }
 
-
+    @Test(groups = "1s")
+    public void testLuby() {
+        // 8 pigeons, 7 holes
+        Solver solver = new Solver();
+        IntVar[] vars = VF.enumeratedArray("p", 8, 0, 6, solver);
+        for (int i = 0; i < vars.length; i++) {
+            for (int j = i + 1; j < vars.length; j++) {
+                solver.post(ICF.arithm(vars[i], "!=", vars[j]));
+            }
+        }
+        NogoodStoreFromRestarts ngs = new NogoodStoreFromRestarts(vars);
+        solver.post(ngs);
+        solver.set(ISF.random(vars, 29091981L));
+        SMF.luby(solver, 2, 2, new FailCounter(2), Integer.MAX_VALUE);
+        solver.getSearchLoop().plugSearchMonitor(ngs);
+        Assert.assertFalse(solver.findSolution());
+        Assert.assertTrue(ngs.getNbNogoods() > 0);
+        Assert.assertTrue(solver.getMeasures().getRestartCount() > 0);
+    }
 }
@@ -31,10 +31,15 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import solver.Solver;
 import solver.constraints.SatFactory;
+import solver.constraints.nary.cnf.SatSolver;
 import solver.search.loop.monitors.SMF;
+import solver.search.strategy.ISF;
 import solver.variables.BoolVar;
 import solver.variables.VF;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * <br/>
  *
@@ -150,4 +155,68 @@ public class SatTest {
         Assert.assertEquals(solver.getMeasures().getSolutionCount(), 4);
     }
 
+    @Test(groups = "1s")
+    public void testRandom3SAT() {
+        int n = 14, m = 60;
+        for (long seed = 0; seed < 30; seed++) {
+            Random rnd = new Random(seed);
+            int[][] cls = new int[m][3];
+            for (int c = 0; c < m; c++) {
+                for (int k = 0; k < 3; k++) {
+                    cls[c][k] = (rnd.nextInt(n) + 1) * (rnd.nextBoolean() ? 1 : -1);
+                }
+            }
+            int expected = 0;
+            for (int a = 0; a < 1 << n; a++) {
+                boolean sat = true;
+                for (int c = 0; c < m && sat; c++) {
+                    boolean one = false;
+                    for (int k = 0; k < 3; k++) {
+                        int l = cls[c][k];
+                        one |= ((a >> (Math.abs(l) - 1)) & 1) == (l > 0 ? 1 : 0);
+                    }
+                    sat = one;
+                }
+                if (sat) expected++;
+            }
+            Solver solver = new Solver();
+            BoolVar[] bs = VF.boolArray("b", n, solver);
+            for (int c = 0; c < m; c++) {
+                BoolVar[] pos = new BoolVar[3], neg = new BoolVar[3];
+                int np = 0, nn = 0;
+                for (int k = 0; k < 3; k++) {
+                    int l = cls[c][k];
+                    if (l > 0) pos[np++] = bs[l - 1];
+                    else neg[nn++] = bs[-l - 1];
+                }
+                SatFactory.addClauses(Arrays.copyOf(pos, np), Arrays.copyOf(neg, nn));
+            }
+            solver.set(ISF.random(bs, seed));
+            solver.findAllSolutions();
+            Assert.assertEquals(solver.getMeasures().getSolutionCount(), expected, "seed " + seed);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testPigeonHoles() {
+        // n + 1 pigeons in n holes: unsatisfiable, learnt clauses are reduced along the search
+        int n = 9;
+        Solver solver = new Solver();
+        BoolVar[][] p = new BoolVar[n + 1][];
+        for (int i = 0; i <= n; i++) {
+            p[i] = VF.boolArray("p" + i, n, solver);
+            SatFactory.addClauses(p[i], new BoolVar[0]);
+        }
+        for (int h = 0; h < n; h++) {
+            for (int i = 0; i <= n; i++) {
+                for (int j = i + 1; j <= n; j++) {
+                    SatFactory.addClauses(new BoolVar[0], new BoolVar[]{p[i][h], p[j][h]});
+                }
+            }
+        }
+        Assert.assertFalse(solver.findSolution());
+        SatSolver sat = solver.getMinisat().getSatSolver();
+        Assert.assertTrue(sat.nLearnts() < sat.nConflicts());
+    }
+
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.explanations;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Cause;
+import solver.Configuration;
+import solver.Solver;
+import solver.constraints.Constraint;
+import solver.constraints.IntConstraintFactory;
+import solver.constraints.nary.nogood.PropNogoodStore;
+import solver.exception.ContradictionException;
+import solver.explanations.strategies.LazyClauseGeneration;
+import solver.search.limits.BacktrackCounter;
+import solver.search.limits.ICounterAction;
+import solver.search.loop.monitors.SMF;
+import solver.search.strategy.IntStrategyFactory;
+import solver.variables.EventType;
+import solver.variables.IntVar;
+import solver.variables.VariableFactory;
+import util.ESat;
+
+import java.util.Random;
+
+/**
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class LazyClauseGenerationTest {
+
+    private static IntVar[] random(Solver solver, long seed, int strategy) {
+        Random r = new Random(seed);
+        int n = 6 + r.nextInt(4);
+        IntVar[] x = VariableFactory.enumeratedArray("x", n, 0, n - 1, solver);
+        String[] ops = {"!=", "<", ">"};
+        for (int i = 0; i < n * 2; i++) {
+            int a = r.nextInt(n), b = r.nextInt(n);
+            if (a != b) {
+                if (r.nextBoolean()) {
+                    solver.post(IntConstraintFactory.arithm(x[a], ops[r.nextInt(3)], x[b]));
+                } else {
+                    solver.post(IntConstraintFactory.arithm(x[a], "+", x[b], ops[r.nextInt(3)], r.nextInt(n)));
+                }
+            }
+        }
+        solver.set(strategy == 0 ? IntStrategyFactory.inputOrder_InDomainMin(x) : IntStrategyFactory.firstFail_InDomainMiddle(x));
+        return x;
+    }
+
+    @Test(groups = "10s")
+    public void testAllSolutions() {
+        if (Configuration.PLUG_EXPLANATION) {
+            for (long seed = 0; seed < 20; seed++) {
+                for (int s = 0; s < 2; s++) {
+                    Solver ref = new Solver();
+                    random(ref, seed, s);
+                    ref.findAllSolutions();
+
+                    Solver lcg = new Solver();
+                    lcg.set(new FlattenedRecorderExplanationEngine(lcg));
+                    new LazyClauseGeneration(lcg.getExplainer(), 5);
+                    random(lcg, seed, s);
+                    lcg.findAllSolutions();
+
+                    Assert.assertEquals(lcg.getMeasures().getSolutionCount(), ref.getMeasures().getSolutionCount(), "seed " + seed);
+                }
+            }
+        }
+    }
+
+    private static Solver pigeons(long seed, ExplanationFactory ef) {
+        final Solver solver = new Solver();
+        ef.plugin(solver, true);
+        IntVar[] vars = new IntVar[13];
+        IntVar[] p = VariableFactory.enumeratedArray("p", 7, 0, 5, solver);
+        for (int i = 0; i < p.length; i++) {
+            for (int j = i + 1; j < p.length; j++) {
+                solver.post(IntConstraintFactory.arithm(p[i], "!=", p[j]));
+            }
+        }
+        IntVar[] y = VariableFactory.enumeratedArray("y", 6, 0, 3, solver);
+        System.arraycopy(p, 0, vars, 0, 7);
+        System.arraycopy(y, 0, vars, 7, 6);
+        solver.set(IntStrategyFactory.random(vars, seed));
+        final BacktrackCounter bc = new BacktrackCounter(30);
+        bc.setAction(new ICounterAction() {
+            @Override
+            public void onLimitReached() {
+                solver.getSearchLoop().restart();
+                bc.reset();
+            }
+        });
+        solver.getSearchLoop().plugSearchMonitor(bc);
+        SMF.limitNode(solver, 100000);
+        solver.findSolution();
+        return solver;
+    }
+
+    @Test(groups = "10s")
+    public void testRestarts() {
+        if (Configuration.PLUG_EXPLANATION) {
+            for (long seed = 0; seed < 3; seed++) {
+                Solver cbj = pigeons(seed, ExplanationFactory.CBJ);
+                Assert.assertEquals(cbj.isFeasible(), ESat.UNDEFINED);
+                Solver lcg = pigeons(seed, ExplanationFactory.LCG);
+                Assert.assertEquals(lcg.isFeasible(), ESat.FALSE);
+                Assert.assertTrue(lcg.getMeasures().getNodeCount() < 100000);
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testAssertingNogood() throws ContradictionException {
+        Solver solver = new Solver();
+        IntVar[] x = VariableFactory.enumeratedArray("x", 3, 0, 3, solver);
+        PropNogoodStore store = new PropNogoodStore(x, true);
+        solver.post(new Constraint("LearntNogoods", store));
+        solver.propagate();
+        solver.getEnvironment().worldPush();
+        x[0].instantiateTo(1, Cause.Null);
+        solver.propagate();
+        solver.getEnvironment().worldPush();
+        x[1].instantiateTo(2, Cause.Null);
+        solver.propagate();
+        // learnt from a failure: x1 = 2 and x0 = 1 are not compatible, then the search jumps back
+        store.addLearntNogood(new IntVar[]{x[1], x[0]}, new int[]{PropNogoodStore.EQ, PropNogoodStore.EQ}, new int[]{2, 1}, 2);
+        solver.getEnvironment().worldPop();
+        Assert.assertTrue(x[1].contains(2));
+        store.forcePropagate(EventType.CUSTOM_PROPAGATION);
+        solver.propagate();
+        Assert.assertFalse(x[1].contains(2));
+        // the nogood is still watched
+        solver.getEnvironment().worldPop();
+        Assert.assertTrue(x[1].contains(2));
+        x[1].instantiateTo(2, Cause.Null);
+        solver.propagate();
+        Assert.assertFalse(x[0].contains(1));
+    }
+}
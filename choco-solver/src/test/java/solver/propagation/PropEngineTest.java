@@ -26,9 +26,15 @@
  */
 package solver.propagation;
 
+import org.testng.Assert;
 import org.testng.annotations.Test;
+import solver.Configuration;
 import solver.Solver;
+import solver.constraints.Constraint;
 import solver.constraints.IntConstraintFactory;
+import solver.constraints.Propagator;
+import solver.search.loop.monitors.LogPropagationProfile;
+import solver.search.strategy.IntStrategyFactory;
 import solver.variables.IntVar;
 import solver.variables.VariableFactory;
 
@@ -52,4 +58,88 @@ public class PropEngineTest {
 
 
     }
+
+    private static Solver queens(int n, PropagationEngineFactory engine) {
+        Solver solver = new Solver();
+        IntVar[] vars = VariableFactory.enumeratedArray("Q", n, 1, n, solver);
+        IntVar[] diag1 = new IntVar[n];
+        IntVar[] diag2 = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            diag1[i] = VariableFactory.offset(vars[i], i);
+            diag2[i] = VariableFactory.offset(vars[i], -i);
+        }
+        solver.post(IntConstraintFactory.alldifferent(vars, "AC"));
+        solver.post(IntConstraintFactory.alldifferent(diag1, "BC"));
+        solver.post(IntConstraintFactory.alldifferent(diag2, "BC"));
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                solver.post(IntConstraintFactory.arithm(vars[i], "!=", vars[j]));
+            }
+        }
+        solver.set(IntStrategyFactory.inputOrder_InDomainMin(vars));
+        solver.set(engine.make(solver));
+        solver.findAllSolutions();
+        return solver;
+    }
+
+    @Test(groups = "1s")
+    public void testAdaptive() {
+        Solver ref = queens(8, PropagationEngineFactory.TWOBUCKETPROPAGATIONENGINE);
+        Solver adp = queens(8, PropagationEngineFactory.ADAPTIVEPROPAGATIONENGINE);
+        Assert.assertEquals(adp.getMeasures().getSolutionCount(), ref.getMeasures().getSolutionCount());
+        Assert.assertEquals(adp.getMeasures().getSolutionCount(), 92);
+        Assert.assertEquals(adp.getMeasures().getNodeCount(), ref.getMeasures().getNodeCount());
+    }
+
+    @Test(groups = "1s")
+    public void testPrimitive() {
+        Solver ref = queens(8, PropagationEngineFactory.TWOBUCKETPROPAGATIONENGINE);
+        Solver prm = queens(8, PropagationEngineFactory.PRIMITIVETWOBUCKETPROPAGATIONENGINE);
+        Assert.assertEquals(prm.getMeasures().getSolutionCount(), 92);
+        Assert.assertEquals(prm.getMeasures().getNodeCount(), ref.getMeasures().getNodeCount());
+        Assert.assertEquals(prm.getMeasures().getFailCount(), ref.getMeasures().getFailCount());
+    }
+
+    @Test(groups = "1s")
+    public void testProfile() {
+        // enabled by the user.properties of the tests
+        Assert.assertTrue(Configuration.PROFILE_PROPAGATION);
+        PropagationEngineFactory[] engines = {PropagationEngineFactory.TWOBUCKETPROPAGATIONENGINE,
+                PropagationEngineFactory.ADAPTIVEPROPAGATIONENGINE,
+                PropagationEngineFactory.PRIMITIVETWOBUCKETPROPAGATIONENGINE};
+        for (PropagationEngineFactory engine : engines) {
+            Solver solver = queens(8, engine);
+            long fails = 0, reductions = 0, time = 0;
+            for (Constraint c : solver.getCstrs()) {
+                for (Propagator p : c.getPropagators()) {
+                    long calls = p.fineERcalls + p.coarseERcalls;
+                    // each propagator is run, at least by the initial propagation
+                    Assert.assertTrue(calls > 0, p.toString());
+                    Assert.assertTrue(p.nbFails <= calls, p.toString());
+                    Assert.assertTrue(p.propagationTime > 0, p.toString());
+                    fails += p.nbFails;
+                    reductions += p.nbReductions;
+                    time += p.propagationTime;
+                }
+            }
+            // each failure is thrown by a propagator
+            Assert.assertEquals(fails, solver.getMeasures().getFailCount(), engine.name());
+            Assert.assertTrue(reductions > 0, engine.name());
+            Assert.assertTrue(LogPropagationProfile.report(solver, 5).contains(String.format("%.3f", time / 1e6)));
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testPrimitiveEarlyConstraint() {
+        Solver solver = new Solver();
+        IntVar x = VariableFactory.bounded("X", 1, 3, solver);
+        IntVar y = VariableFactory.bounded("Y", 1, 3, solver);
+        // created before the initial model: its propagator id is lower than the other ones
+        Constraint early = IntConstraintFactory.arithm(x, "<", y);
+        solver.post(IntConstraintFactory.arithm(x, ">=", 2));
+        solver.set(PropagationEngineFactory.PRIMITIVETWOBUCKETPROPAGATIONENGINE.make(solver));
+        solver.post(early);
+        solver.findAllSolutions();
+        Assert.assertEquals(solver.getMeasures().getSolutionCount(), 1);
+    }
 }
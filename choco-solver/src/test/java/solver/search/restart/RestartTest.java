@@ -28,11 +28,18 @@ package solver.search.restart;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import solver.Cause;
+import solver.ResolutionPolicy;
 import solver.Solver;
 import solver.constraints.Constraint;
 import solver.constraints.IntConstraintFactory;
+import solver.exception.ContradictionException;
+import solver.search.limits.FailCounter;
 import solver.search.limits.NodeCounter;
 import solver.search.loop.monitors.SearchMonitorFactory;
+import solver.search.strategy.IntStrategyFactory;
+import solver.search.strategy.selectors.values.InDomainLast;
+import solver.search.strategy.selectors.values.InDomainMax;
 import solver.variables.IntVar;
 import solver.variables.VariableFactory;
 
@@ -87,6 +94,41 @@ public class RestartTest {
     }
 
 
+    @Test(groups = "1s")
+    public void testSolutionGuidedLuby() {
+        for (int k = 0; k < 2; k++) {
+            Solver solver = new Solver();
+            IntVar[] vars = VariableFactory.enumeratedArray("x", 6, 0, 8, solver);
+            IntVar sum = VariableFactory.bounded("s", 0, 48, solver);
+            solver.post(IntConstraintFactory.alldifferent(vars, "BC"));
+            solver.post(IntConstraintFactory.sum(vars, sum));
+            if (k == 0) {
+                solver.set(IntStrategyFactory.firstFail_InDomainLast(vars));
+            } else {
+                solver.set(IntStrategyFactory.lastConflict(solver, IntStrategyFactory.domOverWDeg_InDomainLast(vars, 0)));
+            }
+            SearchMonitorFactory.luby(solver, 2, 2, new FailCounter(2), 100);
+            solver.findOptimalSolution(ResolutionPolicy.MAXIMIZE, sum);
+            Assert.assertEquals(solver.getObjectiveManager().getBestSolutionValue().intValue(), 33);
+            Assert.assertTrue(solver.getMeasures().getRestartCount() > 0);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testPhaseSaving() throws ContradictionException {
+        Solver solver = new Solver();
+        IntVar x = VariableFactory.enumerated("x", 0, 5, solver);
+        InDomainLast selector = new InDomainLast(new IntVar[]{x}, new InDomainMax());
+        solver.getEnvironment().worldPush();
+        x.updateUpperBound(3, Cause.Null);
+        Assert.assertEquals(selector.selectValue(x), 3);
+        // the value is kept once the assignment is undone by backtracking
+        solver.getEnvironment().worldPop();
+        Assert.assertEquals(selector.selectValue(x), 3);
+        x.removeValue(3, Cause.Null);
+        Assert.assertEquals(selector.selectValue(x), 5);
+    }
+
     public final static int[] LUBY_2 = {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 16};
 
     public final static int[] LUBY_3 = {1, 1, 1, 3, 1, 1, 1, 3, 1, 1, 1, 3, 9,
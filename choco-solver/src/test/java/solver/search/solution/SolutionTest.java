@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.search.solution;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Solver;
+import solver.constraints.IntConstraintFactory;
+import solver.search.strategy.IntStrategyFactory;
+import solver.variables.IntVar;
+import solver.variables.VariableFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class SolutionTest {
+
+    private static IntVar[] model(Solver solver, int n) {
+        IntVar[] vars = VariableFactory.enumeratedArray("x", n, 0, n, solver);
+        solver.post(IntConstraintFactory.alldifferent(vars, "AC"));
+        solver.set(IntStrategyFactory.inputOrder_InDomainMin(vars));
+        return vars;
+    }
+
+    @Test(groups = "1s")
+    public void testAllSolutions() {
+        Solver solver = new Solver();
+        IntVar[] vars = model(solver, 5);
+        AllSolutionsRecorder recorder = new AllSolutionsRecorder(solver);
+        solver.getSearchLoop().plugSearchMonitor(recorder);
+        solver.findAllSolutions();
+        Assert.assertEquals(recorder.getAllSolutions().size(), 720);
+        int nbDeltas = 0;
+        int[] previous = null;
+        for (Solution solution : recorder.getAllSolutions()) {
+            int[] values = new int[vars.length];
+            for (int i = 0; i < vars.length; i++) {
+                values[i] = solution.getIntVal(vars[i]);
+                for (int j = 0; j < i; j++) {
+                    Assert.assertTrue(values[i] != values[j]);
+                }
+            }
+            Assert.assertFalse(Arrays.equals(values, previous));
+            previous = values;
+            if (solution.base != null) {
+                nbDeltas++;
+            }
+        }
+        Assert.assertTrue(nbDeltas > 0);
+    }
+
+    @Test(groups = "1s")
+    public void testSink() throws IOException {
+        Solver solver = new Solver();
+        IntVar[] vars = model(solver, 4);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final int[] counts = new int[2];
+        solver.getSearchLoop().plugSearchMonitor(new SolutionSinkRecorder(solver, new ISolutionSink() {
+            @Override
+            public void accept(Solution solution) {
+                try {
+                    solution.writeTo(out);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                counts[0]++;
+            }
+
+            @Override
+            public void close() {
+                counts[1]++;
+            }
+        }));
+        solver.findAllSolutions();
+        Assert.assertEquals(counts[0], 120);
+        Assert.assertEquals(counts[1], 1);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Solution solution = new Solution();
+        for (int k = 0; k < counts[0]; k++) {
+            solution.readFrom(in, solver);
+            int sum = 0;
+            for (int i = 0; i < vars.length; i++) {
+                sum += 1 << solution.getIntVal(vars[i]);
+            }
+            Assert.assertEquals(Integer.bitCount(sum), vars.length);
+        }
+        Assert.assertEquals(in.available(), 0);
+    }
+
+    @Test(groups = "1s")
+    public void testFileSink() throws IOException {
+        for (boolean compress : new boolean[]{false, true}) {
+            Solver solver = new Solver();
+            IntVar[] vars = model(solver, 5);
+            File file = File.createTempFile("solutions", ".bin");
+            file.deleteOnExit();
+            FileSolutionSink sink = new FileSolutionSink(file, compress, 4);
+            solver.getSearchLoop().plugSearchMonitor(new SolutionSinkRecorder(solver, sink));
+            solver.findAllSolutions();
+            Assert.assertEquals(sink.getNbSolutions(), 720);
+
+            SolutionFileReader reader = new SolutionFileReader(file, solver);
+            Solution solution = new Solution();
+            int nb = 0;
+            while (reader.next(solution)) {
+                int sum = 0;
+                for (int i = 0; i < vars.length; i++) {
+                    sum |= 1 << solution.getIntVal(vars[i]);
+                }
+                Assert.assertEquals(Integer.bitCount(sum), vars.length);
+                nb++;
+            }
+            reader.close();
+            Assert.assertEquals(nb, 720);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.thread;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.constraints.ICF;
+import solver.search.loop.monitors.SMF;
+import solver.search.strategy.ISF;
+import solver.variables.IntVar;
+import solver.variables.VF;
+
+/**
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class ParallelLNSTest {
+
+    private static IntVar[] golomb(Solver solver, int m) {
+        IntVar[] ticks = VF.enumeratedArray("a", m, 0, m * m, solver);
+        IntVar[] diffs = VF.enumeratedArray("d", (m * m - m) / 2, 0, m * m, solver);
+        solver.post(ICF.arithm(ticks[0], "=", 0));
+        for (int i = 0; i < m - 1; i++) {
+            solver.post(ICF.arithm(ticks[i + 1], ">", ticks[i]));
+        }
+        for (int k = 0, i = 0; i < m - 1; i++) {
+            for (int j = i + 1; j < m; j++, k++) {
+                solver.post(ICF.sum(new IntVar[]{diffs[k], ticks[i]}, ticks[j]));
+            }
+        }
+        solver.post(ICF.alldifferent(diffs, "BC"));
+        return ticks;
+    }
+
+    @Test(groups = "10s")
+    public void testGolomb() {
+        final int m = 8;
+        final IntVar[][] ticks = new IntVar[1][];
+        ParallelPortfolio portfolio = new ParallelPortfolio(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver("golomb_" + worker);
+                IntVar[] vars = golomb(solver, m);
+                if (worker == 0) {
+                    ticks[0] = vars;
+                }
+                if (worker == 0) {
+                    solver.set(ISF.inputOrder_InDomainMin(vars));
+                } else {
+                    solver.set(ISF.random(vars, worker));
+                }
+                SMF.limitFail(solver, 20000);
+                return solver;
+            }
+        }, 3);
+        ParallelLNS lns = new ParallelLNS(portfolio, ticks[0], 0, 30);
+        lns.findOptimalSolution(ResolutionPolicy.MINIMIZE, ticks[0][m - 1]);
+        Solver best = portfolio.getBestWorker();
+        Assert.assertNotNull(best);
+        SharedIncumbent.Entry incumbent = lns.getIncumbent();
+        Assert.assertNotNull(incumbent);
+        int value = best.getObjectiveManager().getBestSolutionValue().intValue();
+        Assert.assertEquals((int) incumbent.objective, value);
+        Assert.assertEquals(incumbent.values[m - 1], value);
+        Assert.assertTrue(value >= 34);
+        int trials = 0;
+        for (int k = ParallelLNS.RANDOM; k <= ParallelLNS.RPG; k++) {
+            Assert.assertTrue(lns.getNbSuccesses(k) <= lns.getNbTrials(k));
+            trials += lns.getNbTrials(k);
+        }
+        Assert.assertTrue(trials > 0);
+        Assert.assertEquals(lns.getNbTrials(ParallelLNS.ABS), 0);
+    }
+
+    @Test(groups = "1s")
+    public void testIncumbentVersion() {
+        SharedIncumbent incumbent = new SharedIncumbent(ResolutionPolicy.MINIMIZE);
+        Assert.assertEquals(incumbent.offer(10, new int[]{1}), 1);
+        Assert.assertEquals(incumbent.offer(12, new int[]{2}), -1);
+        Assert.assertEquals(incumbent.offer(8, new int[]{3}), 2);
+        // the version returned is the one of the offered solution, even if a better one is published right after
+        int mine = incumbent.offer(7, new int[]{4});
+        incumbent.offer(5, new int[]{5});
+        Assert.assertEquals(mine, 3);
+        Assert.assertEquals(incumbent.get().version, 4);
+        Assert.assertEquals(incumbent.get().values[0], 5);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.thread;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.constraints.ICF;
+import solver.search.loop.monitors.IMonitorClose;
+import solver.search.loop.monitors.IMonitorInitialize;
+import solver.search.loop.monitors.IMonitorSolution;
+import solver.search.strategy.ISF;
+import solver.variables.IntVar;
+import solver.variables.VF;
+import util.ESat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <br/>
+ */
+public class ParallelPortfolioTest {
+
+    private static IntVar[] golomb(Solver solver, int m) {
+        IntVar[] ticks = VF.enumeratedArray("a", m, 0, m * m, solver);
+        IntVar[] diffs = VF.enumeratedArray("d", (m * m - m) / 2, 0, m * m, solver);
+        solver.post(ICF.arithm(ticks[0], "=", 0));
+        for (int i = 0; i < m - 1; i++) {
+            solver.post(ICF.arithm(ticks[i + 1], ">", ticks[i]));
+        }
+        for (int k = 0, i = 0; i < m - 1; i++) {
+            for (int j = i + 1; j < m; j++, k++) {
+                solver.post(ICF.sum(new IntVar[]{diffs[k], ticks[i]}, ticks[j]));
+            }
+        }
+        solver.post(ICF.alldifferent(diffs, "BC"));
+        return ticks;
+    }
+
+    private static IntVar[] queens(Solver solver, int n) {
+        IntVar[] vars = VF.enumeratedArray("Q", n, 1, n, solver);
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int k = j - i;
+                solver.post(ICF.arithm(vars[i], "!=", vars[j]));
+                solver.post(ICF.arithm(vars[i], "!=", vars[j], "+", -k));
+                solver.post(ICF.arithm(vars[i], "!=", vars[j], "+", k));
+            }
+        }
+        return vars;
+    }
+
+    @Test(groups = "10s")
+    public void testOptimizeWithBuilder() {
+        final int m = 8;
+        final IntVar[] objective = new IntVar[1];
+        ParallelPortfolio portfolio = new ParallelPortfolio(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver("golomb_" + worker);
+                IntVar[] ticks = golomb(solver, m);
+                if (worker == 0) {
+                    objective[0] = ticks[m - 1];
+                }
+                switch (worker) {
+                    case 0:
+                        solver.set(ISF.inputOrder_InDomainMin(ticks));
+                        break;
+                    case 1:
+                        solver.set(ISF.firstFail_InDomainMin(ticks));
+                        break;
+                    default:
+                        solver.set(ISF.random(ticks, worker));
+                }
+                return solver;
+            }
+        }, 4);
+        portfolio.findOptimalSolution(ResolutionPolicy.MINIMIZE, objective[0]);
+        Assert.assertFalse(portfolio.hasReachedLimit());
+        Assert.assertEquals(portfolio.isFeasible(), ESat.TRUE);
+        Solver best = portfolio.getBestWorker();
+        Assert.assertNotNull(best);
+        Assert.assertEquals(best.getObjectiveManager().getBestSolutionValue().intValue(), 34);
+    }
+
+    @Test(groups = "10s")
+    public void testOptimizeWithClones() {
+        Solver model = new Solver();
+        IntVar[] ticks = golomb(model, 7);
+        model.set(ISF.inputOrder_InDomainMin(ticks));
+        ParallelPortfolio portfolio = new ParallelPortfolio(model, 3);
+        portfolio.findOptimalSolution(ResolutionPolicy.MINIMIZE, ticks[6]);
+        Assert.assertFalse(portfolio.hasReachedLimit());
+        Assert.assertEquals(portfolio.getBestWorker().getObjectiveManager().getBestSolutionValue().intValue(), 25);
+    }
+
+    @Test(groups = "1s")
+    public void testSatisfaction() {
+        ParallelPortfolio portfolio = new ParallelPortfolio(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver();
+                IntVar[] vars = queens(solver, 16);
+                solver.set(ISF.random(vars, worker));
+                return solver;
+            }
+        }, 3);
+        Assert.assertTrue(portfolio.findSolution());
+        Assert.assertFalse(portfolio.hasReachedLimit());
+        Assert.assertEquals(portfolio.getBestWorker().isSatisfied(), ESat.TRUE);
+    }
+
+    @Test(groups = "1s")
+    public void testUnsatisfiable() {
+        ParallelPortfolio portfolio = new ParallelPortfolio(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver();
+                queens(solver, 3);
+                return solver;
+            }
+        }, 2);
+        Assert.assertFalse(portfolio.findSolution());
+        Assert.assertEquals(portfolio.isFeasible(), ESat.FALSE);
+    }
+
+    @Test(groups = "1s")
+    public void testBestWorkerAfterImport() {
+        // worker 0 finds 20, then waits until worker 1 has found and proved the optimum, 5, and imports it as a cut
+        final CountDownLatch found = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final IntVar[] objective = new IntVar[2];
+        ParallelPortfolio portfolio = new ParallelPortfolio(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver();
+                IntVar x = VF.enumerated("x", 0, 20, solver);
+                solver.post(ICF.arithm(x, ">=", 5));
+                objective[worker] = x;
+                if (worker == 0) {
+                    solver.set(ISF.inputOrder_InDomainMax(x));
+                    solver.plugMonitor(new IMonitorSolution() {
+                        @Override
+                        public void onSolution() {
+                            found.countDown();
+                            await(closed);
+                        }
+                    });
+                } else {
+                    solver.set(ISF.inputOrder_InDomainMin(x));
+                    solver.plugMonitor(new IMonitorInitialize() {
+                        @Override
+                        public void beforeInitialize() {
+                            await(found);
+                        }
+
+                        @Override
+                        public void afterInitialize() {
+                        }
+                    });
+                    solver.plugMonitor(new IMonitorClose() {
+                        @Override
+                        public void beforeClose() {
+                        }
+
+                        @Override
+                        public void afterClose() {
+                            closed.countDown();
+                        }
+                    });
+                }
+                return solver;
+            }
+        }, 2);
+        portfolio.findOptimalSolution(ResolutionPolicy.MINIMIZE, objective[0]);
+        Solver first = portfolio.getWorker(0);
+        Assert.assertEquals(first.getObjectiveManager().getBestSolutionValue().intValue(), 5);
+        Solver best = portfolio.getBestWorker();
+        Assert.assertSame(best, portfolio.getWorker(1));
+        Assert.assertEquals(objective[1].getValue(), 5);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 1999-2012, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.thread;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.ResolutionPolicy;
+import solver.Solver;
+import solver.constraints.ICF;
+import solver.search.limits.FailCounter;
+import solver.search.loop.monitors.IMonitorSolution;
+import solver.search.loop.monitors.SearchMonitorFactory;
+import solver.search.strategy.ISF;
+import solver.search.strategy.selectors.values.InDomainMax;
+import solver.search.strategy.selectors.variables.InputOrder;
+import solver.search.strategy.strategy.Once;
+import solver.variables.IntVar;
+import solver.variables.VF;
+import util.ESat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <br/>
+ */
+public class WorkStealingSearchTest {
+
+    private static IntVar[] queens(Solver solver, int n) {
+        IntVar[] vars = VF.enumeratedArray("Q", n, 1, n, solver);
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int k = j - i;
+                solver.post(ICF.arithm(vars[i], "!=", vars[j]));
+                solver.post(ICF.arithm(vars[i], "!=", vars[j], "+", -k));
+                solver.post(ICF.arithm(vars[i], "!=", vars[j], "+", k));
+            }
+        }
+        return vars;
+    }
+
+    private static IntVar[] golomb(Solver solver, int m) {
+        IntVar[] ticks = VF.enumeratedArray("a", m, 0, m * m, solver);
+        IntVar[] diffs = VF.enumeratedArray("d", (m * m - m) / 2, 0, m * m, solver);
+        solver.post(ICF.arithm(ticks[0], "=", 0));
+        for (int i = 0; i < m - 1; i++) {
+            solver.post(ICF.arithm(ticks[i + 1], ">", ticks[i]));
+        }
+        for (int k = 0, i = 0; i < m - 1; i++) {
+            for (int j = i + 1; j < m; j++, k++) {
+                solver.post(ICF.sum(new IntVar[]{diffs[k], ticks[i]}, ticks[j]));
+            }
+        }
+        solver.post(ICF.alldifferent(diffs, "BC"));
+        return ticks;
+    }
+
+    @Test(groups = "1s")
+    public void testAllSolutions() {
+        for (int w = 1; w < 5; w++) {
+            WorkStealingSearch search = new WorkStealingSearch(new IModelBuilder() {
+                @Override
+                public Solver build(int worker) {
+                    Solver solver = new Solver();
+                    solver.set(ISF.inputOrder_InDomainMin(queens(solver, 10)));
+                    return solver;
+                }
+            }, w);
+            Assert.assertEquals(search.findAllSolutions(), 724);
+            Assert.assertFalse(search.hasReachedLimit());
+            Assert.assertEquals(search.isFeasible(), ESat.TRUE);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testAllSolutionsWithClones() {
+        Solver model = new Solver();
+        IntVar[] vars = queens(model, 9);
+        model.set(ISF.firstFail_InDomainMin(vars));
+        WorkStealingSearch search = new WorkStealingSearch(model, 4);
+        Assert.assertEquals(search.findAllSolutions(), 352);
+    }
+
+    private static IntVar[] onceThenQueens(Solver solver, int n) {
+        IntVar[] vars = queens(solver, n);
+        solver.set(ISF.sequencer(
+                new Once(new InputOrder<IntVar>(new IntVar[]{vars[0], vars[1]}), new InDomainMax()),
+                ISF.inputOrder_InDomainMin(vars)));
+        return vars;
+    }
+
+    @Test(groups = "1s")
+    public void testOnceDecisions() {
+        Solver ref = new Solver();
+        onceThenQueens(ref, 10);
+        long nbSolutions = ref.findAllSolutions();
+        Assert.assertTrue(nbSolutions > 0);
+        for (int w = 2; w < 5; w++) {
+            WorkStealingSearch search = new WorkStealingSearch(new IModelBuilder() {
+                @Override
+                public Solver build(int worker) {
+                    Solver solver = new Solver();
+                    onceThenQueens(solver, 10);
+                    return solver;
+                }
+            }, w);
+            // one-shot decisions have no right branch: none should be explored by another worker
+            Assert.assertEquals(search.findAllSolutions(), nbSolutions);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testRestarts() {
+        for (int w = 2; w < 5; w++) {
+            final IntVar[][] queens = new IntVar[w][];
+            WorkStealingSearch search = new WorkStealingSearch(new IModelBuilder() {
+                @Override
+                public Solver build(int worker) {
+                    Solver solver = new Solver();
+                    queens[worker] = queens(solver, 10);
+                    solver.set(ISF.inputOrder_InDomainMin(queens[worker]));
+                    return solver;
+                }
+            }, w);
+            final Set<String> solutions = Collections.synchronizedSet(new HashSet<String>());
+            for (int i = 0; i < w; i++) {
+                final IntVar[] vars = queens[i];
+                // each worker restarts once, at its first failure
+                SearchMonitorFactory.geometrical(search.getWorker(i), 1, 2, new FailCounter(1), 1);
+                search.getWorker(i).plugMonitor(new IMonitorSolution() {
+                    @Override
+                    public void onSolution() {
+                        int[] values = new int[vars.length];
+                        for (int j = 0; j < vars.length; j++) {
+                            values[j] = vars[j].getValue();
+                        }
+                        solutions.add(Arrays.toString(values));
+                    }
+                });
+            }
+            // no solution is found before the first failure, so a restart within the current sub-problem
+            // finds nothing twice, whereas going back to the root node would explore again the other sub-problems
+            Assert.assertEquals(search.findAllSolutions(), 724);
+            Assert.assertEquals(solutions.size(), 724);
+        }
+    }
+
+    @Test(groups = "10s")
+    public void testOptimizationWithRestarts() {
+        final IntVar[] objective = new IntVar[4];
+        WorkStealingSearch search = new WorkStealingSearch(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver();
+                IntVar[] ticks = golomb(solver, 8);
+                solver.set(ISF.inputOrder_InDomainMin(ticks));
+                objective[worker] = ticks[7];
+                return solver;
+            }
+        }, 4);
+        for (int i = 0; i < 4; i++) {
+            SearchMonitorFactory.luby(search.getWorker(i), 2, 2, new FailCounter(2), 100);
+        }
+        search.findOptimalSolution(ResolutionPolicy.MINIMIZE, objective[0]);
+        Assert.assertFalse(search.hasReachedLimit());
+        Assert.assertEquals(search.getBestWorker().getObjectiveManager().getBestSolutionValue().intValue(), 34);
+    }
+
+    @Test(groups = "10s")
+    public void testOptimization() {
+        final IntVar[] objective = new IntVar[4];
+        WorkStealingSearch search = new WorkStealingSearch(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver();
+                IntVar[] ticks = golomb(solver, 8);
+                solver.set(ISF.inputOrder_InDomainMin(ticks));
+                objective[worker] = ticks[7];
+                return solver;
+            }
+        }, 4);
+        search.findOptimalSolution(ResolutionPolicy.MINIMIZE, objective[0]);
+        Assert.assertFalse(search.hasReachedLimit());
+        Solver best = search.getBestWorker();
+        Assert.assertEquals(best.getObjectiveManager().getBestSolutionValue().intValue(), 34);
+        // the solution restored in the best worker is an optimal one
+        for (int i = 0; i < 4; i++) {
+            if (search.getWorker(i) == best) {
+                Assert.assertEquals(objective[i].getValue(), 34);
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testFirstSolution() {
+        WorkStealingSearch search = new WorkStealingSearch(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver();
+                solver.set(ISF.inputOrder_InDomainMin(queens(solver, 20)));
+                return solver;
+            }
+        }, 3);
+        Assert.assertTrue(search.findSolution());
+        Assert.assertEquals(search.getBestWorker().isSatisfied(), ESat.TRUE);
+    }
+
+    @Test(groups = "1s")
+    public void testUnsatisfiable() {
+        WorkStealingSearch search = new WorkStealingSearch(new IModelBuilder() {
+            @Override
+            public Solver build(int worker) {
+                Solver solver = new Solver();
+                solver.set(ISF.inputOrder_InDomainMin(queens(solver, 3)));
+                return solver;
+            }
+        }, 3);
+        Assert.assertFalse(search.findSolution());
+        Assert.assertEquals(search.isFeasible(), ESat.FALSE);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ *  Copyright (c) 1999-2011, Ecole des Mines de Nantes
+ *  All rights reserved.
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *      * Neither the name of the Ecole des Mines de Nantes nor the
+ *        names of its contributors may be used to endorse or promote products
+ *        derived from this software without specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ *  EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ *  DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.variables;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import solver.Solver;
+import solver.constraints.Constraint;
+import solver.constraints.Propagator;
+import solver.constraints.PropagatorPriority;
+import solver.exception.ContradictionException;
+import util.ESat;
+
+/**
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class SubscriptionTest {
+
+    private static class PropInst extends Propagator<IntVar> {
+
+        PropInst(IntVar... vars) {
+            super(vars, PropagatorPriority.BINARY, true);
+        }
+
+        @Override
+        protected int getPropagationConditions(int vIdx) {
+            return EventType.INSTANTIATE.mask;
+        }
+
+        void watch(int vIdx, boolean watched) {
+            setWatched(vIdx, watched);
+        }
+
+        @Override
+        public void propagate(int evtmask) throws ContradictionException {
+        }
+
+        @Override
+        public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        }
+
+        @Override
+        public ESat isEntailed() {
+            return ESat.TRUE;
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testSubscribers() {
+        Solver solver = new Solver();
+        IntVar x = VF.enumerated("x", 0, 5, solver);
+        IntVar y = VF.enumerated("y", 0, 5, solver);
+        PropInst p1 = new PropInst(x, y);
+        PropInst p2 = new PropInst(y, x);
+        solver.post(new Constraint("c", p1, p2));
+
+        Assert.assertEquals(x.getNbSubscribers(EventType.REMOVE), 0);
+        Assert.assertEquals(x.getNbSubscribers(EventType.INSTANTIATE), 2);
+
+        p1.watch(0, false);
+        Assert.assertEquals(x.getNbSubscribers(EventType.INSTANTIATE), 1);
+        Assert.assertEquals(x.getPropagator(x.getSubscribers(EventType.INSTANTIATE)[0]), p2);
+        Assert.assertEquals(y.getNbSubscribers(EventType.INSTANTIATE), 2);
+        p1.watch(0, false);
+        Assert.assertEquals(x.getNbSubscribers(EventType.INSTANTIATE), 1);
+        p1.watch(0, true);
+        Assert.assertEquals(x.getNbSubscribers(EventType.INSTANTIATE), 2);
+    }
+
+    @Test(groups = "1s")
+    public void testUnlink() {
+        Solver solver = new Solver();
+        IntVar x = VF.enumerated("x", 0, 5, solver);
+        IntVar y = VF.enumerated("y", 0, 5, solver);
+        PropInst p1 = new PropInst(x, y);
+        PropInst p2 = new PropInst(x, y);
+        Constraint c1 = new Constraint("c1", p1);
+        solver.post(c1);
+        solver.post(new Constraint("c2", p2));
+        p2.watch(0, false);
+        Assert.assertEquals(x.getNbSubscribers(EventType.INSTANTIATE), 1);
+        solver.unpost(c1);
+        // p2 has been moved in the list of propagators of x
+        Assert.assertEquals(x.getNbProps(), 1);
+        Assert.assertEquals(x.getNbSubscribers(EventType.INSTANTIATE), 0);
+        p2.watch(0, true);
+        Assert.assertEquals(x.getNbSubscribers(EventType.INSTANTIATE), 1);
+        Assert.assertEquals(x.getPropagator(x.getSubscribers(EventType.INSTANTIATE)[0]), p2);
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ *  Copyright (c) 1999-2011, Ecole des Mines de Nantes
+ *  All rights reserved.
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *      * Neither the name of the Ecole des Mines de Nantes nor the
+ *        names of its contributors may be used to endorse or promote products
+ *        derived from this software without specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ *  EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ *  DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ *  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package solver.variables.fast;
+
+import junit.framework.Assert;
+import memory.IEnvironment;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import solver.Cause;
+import solver.Solver;
+import solver.constraints.IntConstraintFactory;
+import solver.variables.IntVar;
+import solver.variables.Variable;
+import solver.variables.VariableFactory;
+import solver.variables.impl.SparseSetIntVarImpl;
+import util.iterators.DisposableRangeIterator;
+import util.iterators.DisposableValueIterator;
+import util.tools.ArrayUtils;
+
+/**
+ * <br/>
+ *
+ * @author agent
+ * @since 18/10/26
+ */
+public class SparseSetIntVarImplTest {
+
+    SparseSetIntVarImpl var;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        var = new SparseSetIntVarImpl("test", new int[]{-5, 0, 3, 4, 5}, new Solver());
+    }
+
+    @Test
+    public void testRemoveValue() throws Exception {
+        Assert.assertFalse(var.removeValue(7, Cause.Null));
+        Assert.assertTrue(var.removeValue(0, Cause.Null));
+        Assert.assertFalse(var.contains(0));
+    }
+
+    @Test
+    public void testRemoveInterval() throws Exception {
+        Assert.assertFalse(var.removeInterval(7, 8, Cause.Null));
+        Assert.assertTrue(var.removeInterval(0, 3, Cause.Null));
+        Assert.assertFalse(var.contains(0));
+        Assert.assertFalse(var.contains(3));
+    }
+
+    @Test
+    public void testUpdateLowerBound() throws Exception {
+        Assert.assertFalse(var.updateLowerBound(-6, Cause.Null));
+        Assert.assertTrue(var.updateLowerBound(0, Cause.Null));
+        Assert.assertTrue(var.contains(0));
+        Assert.assertFalse(var.contains(-5));
+
+    }
+
+    @Test
+    public void testUpdateUpperBound() throws Exception {
+        Assert.assertFalse(var.updateUpperBound(6, Cause.Null));
+        Assert.assertTrue(var.updateUpperBound(0, Cause.Null));
+        Assert.assertTrue(var.contains(0));
+        Assert.assertFalse(var.contains(5));
+    }
+
+
+    @Test
+    public void testGetLB() throws Exception {
+        Assert.assertEquals(-5, var.getLB());
+    }
+
+    @Test
+    public void testGetUB() throws Exception {
+        Assert.assertEquals(5, var.getUB());
+    }
+
+    @Test
+    public void testGetDomainSize() throws Exception {
+        Assert.assertEquals(5, var.getDomainSize());
+    }
+
+    @Test
+    public void testNextValue() throws Exception {
+        Assert.assertEquals(-5, var.nextValue(-6));
+        Assert.assertEquals(0, var.nextValue(-5));
+        Assert.assertEquals(Integer.MAX_VALUE, var.nextValue(5));
+    }
+
+    @Test
+    public void testPreviousValue() throws Exception {
+        Assert.assertEquals(5, var.previousValue(6));
+        Assert.assertEquals(0, var.previousValue(3));
+        Assert.assertEquals(Integer.MIN_VALUE, var.previousValue(-5));
+    }
+
+    @Test
+    public void testHasEnumeratedDomain() throws Exception {
+        Assert.assertTrue(var.hasEnumeratedDomain());
+    }
+
+    @Test
+    public void testGetTypeAndKind() throws Exception {
+        Assert.assertTrue((Variable.INT & var.getTypeAndKind()) != 0);
+        Assert.assertTrue((Variable.VAR & var.getTypeAndKind()) != 0);
+    }
+
+    @Test
+    public void testGetValueIterator() throws Exception {
+        DisposableValueIterator vit = var.getValueIterator(true);
+        Assert.assertTrue(vit.hasNext());
+        Assert.assertEquals(-5, vit.next());
+        Assert.assertTrue(vit.hasNext());
+        Assert.assertEquals(0, vit.next());
+        Assert.assertTrue(vit.hasNext());
+        Assert.assertEquals(3, vit.next());
+        Assert.assertTrue(vit.hasNext());
+        Assert.assertEquals(4, vit.next());
+        Assert.assertTrue(vit.hasNext());
+        Assert.assertEquals(5, vit.next());
+        Assert.assertFalse(vit.hasNext());
+        vit.dispose();
+
+        vit = var.getValueIterator(false);
+        Assert.assertTrue(vit.hasPrevious());
+        Assert.assertEquals(5, vit.previous());
+        Assert.assertTrue(vit.hasPrevious());
+        Assert.assertEquals(4, vit.previous());
+        Assert.assertTrue(vit.hasPrevious());
+        Assert.assertEquals(3, vit.previous());
+        Assert.assertTrue(vit.hasPrevious());
+        Assert.assertEquals(0, vit.previous());
+        Assert.assertTrue(vit.hasPrevious());
+        Assert.assertEquals(-5, vit.previous());
+        Assert.assertFalse(vit.hasPrevious());
+        vit.dispose();
+    }
+
+    @Test
+    public void testGetRangeIterator() throws Exception {
+        DisposableRangeIterator rit = var.getRangeIterator(true);
+        Assert.assertTrue(rit.hasNext());
+        Assert.assertEquals(-5, rit.min());
+        Assert.assertEquals(-5, rit.max());
+        rit.next();
+        Assert.assertTrue(rit.hasNext());
+        Assert.assertEquals(0, rit.min());
+        Assert.assertEquals(0, rit.max());
+        rit.next();
+        Assert.assertTrue(rit.hasNext());
+        Assert.assertEquals(3, rit.min());
+        Assert.assertEquals(5, rit.max());
+        rit.next();
+        Assert.assertFalse(rit.hasNext());
+
+        rit = var.getRangeIterator(false);
+        Assert.assertTrue(rit.hasPrevious());
+        Assert.assertEquals(3, rit.min());
+        Assert.assertEquals(5, rit.max());
+        rit.previous();
+        Assert.assertTrue(rit.hasPrevious());
+        Assert.assertEquals(0, rit.min());
+        Assert.assertEquals(0, rit.max());
+        rit.previous();
+        Assert.assertTrue(rit.hasPrevious());
+        Assert.assertEquals(-5, rit.min());
+        Assert.assertEquals(-5, rit.max());
+        rit.previous();
+        Assert.assertFalse(rit.hasPrevious());
+
+    }
+
+    @Test
+    public void testInstantiateTo() throws Exception {
+        Assert.assertTrue(var.instantiateTo(3, Cause.Null));
+        Assert.assertTrue(var.isInstantiatedTo(3));
+        Assert.assertEquals(3, var.getLB());
+        Assert.assertEquals(3, var.getUB());
+        Assert.assertEquals(1, var.getDomainSize());
+        Assert.assertFalse(var.contains(4));
+    }
+
+    @Test
+    public void testBacktrack() throws Exception {
+        IEnvironment env = var.getSolver().getEnvironment();
+        env.worldPush();
+        var.removeValue(3, Cause.Null);
+        var.updateLowerBound(0, Cause.Null);
+        env.worldPush();
+        var.instantiateTo(5, Cause.Null);
+        Assert.assertTrue(var.isInstantiatedTo(5));
+        env.worldPop();
+        Assert.assertEquals(3, var.getDomainSize());
+        Assert.assertEquals(0, var.getLB());
+        Assert.assertEquals(5, var.getUB());
+        Assert.assertFalse(var.contains(3));
+        env.worldPop();
+        Assert.assertEquals(5, var.getDomainSize());
+        Assert.assertEquals(-5, var.getLB());
+        Assert.assertTrue(var.contains(3));
+    }
+
+    @Test
+    public void testQueens() {
+        for (int k = 0; k < 2; k++) {
+            int n = 8;
+            Solver solver = new Solver();
+            IntVar[] q = k == 0 ?
+                    VariableFactory.sparseArray("q", n, ArrayUtils.zeroToN(n), solver) :
+                    VariableFactory.enumeratedArray("q", n, 0, n - 1, solver);
+            IntVar[] d1 = new IntVar[n];
+            IntVar[] d2 = new IntVar[n];
+            for (int i = 0; i < n; i++) {
+                d1[i] = VariableFactory.offset(q[i], i);
+                d2[i] = VariableFactory.offset(q[i], -i);
+            }
+            solver.post(IntConstraintFactory.alldifferent(q, "AC"));
+            solver.post(IntConstraintFactory.alldifferent(d1, "BC"));
+            solver.post(IntConstraintFactory.alldifferent(d2, "BC"));
+            solver.findAllSolutions();
+            Assert.assertEquals(92, solver.getMeasures().getSolutionCount());
+        }
+    }
+}